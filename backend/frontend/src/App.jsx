@@ -1,4 +1,4 @@
-import { useMemo, useState } from 'react'
+import { useEffect, useMemo, useState } from 'react'
 
 const roleOptions = [
   { label: 'Super Admin', value: 1 },
@@ -46,6 +46,7 @@ export default function App() {
   const [lastSentPhone, setLastSentPhone] = useState('')
   const [lastSeenTimestamp, setLastSeenTimestamp] = useState(0)
   const [status, setStatus] = useState('Ready.')
+  const [gatewayId, setGatewayId] = useState('')
   const [gatewayBaseUrl, setGatewayBaseUrl] = useState('')
   const [gatewayToken, setGatewayToken] = useState('')
   const [replies, setReplies] = useState([])
@@ -67,11 +68,28 @@ export default function App() {
     motionEnabled: '1', motionStaticTime: '05m', motionDurationTime: '03s', motionCall: true,
     overSpeedEnabled: '1', overSpeedLimit: '100km/h', geoFenceEnabled: '1', geoFenceMode: '0', geoFenceRadius: '100m',
     wifiEnabled: '1', speakerVolume: '90', prefixName: 'Emma',
-    continuousLocateInterval: '10s', continuousLocateDuration: '600s', timeZone: '+08:00', checkStatus: true
+    continuousLocateInterval: '10s', continuousLocateDuration: '600s', timeZone: '+08:00', checkStatus: true, force: false
   })
 
   const commandPreview = useMemo(() => buildEv12Preview(configForm), [configForm])
 
+  useEffect(() => {
+    const targetPhone = lastSentPhone.trim()
+    if (!targetPhone || typeof EventSource === 'undefined') return undefined
+    const params = new URLSearchParams({ phone: targetPhone })
+    if (gatewayId.trim()) params.set('gatewayId', gatewayId.trim())
+    if (gatewayBaseUrl.trim()) params.set('gatewayBaseUrl', gatewayBaseUrl.trim())
+    const source = new EventSource(`/api/inbound-messages/stream?${params.toString()}`)
+    source.addEventListener('reply', (event) => {
+      const data = JSON.parse(event.data)
+      const reply = { id: data.id, from: data.from, message: data.text, date: Date.parse(data.receivedAt) }
+      setReplies((current) => current.some((item) => item.id === reply.id) ? current : [...current, reply])
+      setLastSeenTimestamp((current) => Math.max(current, reply.date + 1))
+      setStatus(`New reply from ${reply.from}.`)
+    })
+    return () => source.close()
+  }, [lastSentPhone, gatewayId, gatewayBaseUrl])
+
   const formattedReplies = useMemo(() => replies.length ? replies.map(formatReply).join('\n') : 'No replies loaded yet.', [replies])
 
   const register = async () => {
@@ -95,6 +113,7 @@ export default function App() {
   }
 
   const commonHeaders = () => ({
+    ...(gatewayId.trim() ? { 'X-Gateway-Id': gatewayId.trim() } : {}),
     ...(gatewayBaseUrl.trim() ? { 'X-Gateway-Base-Url': gatewayBaseUrl.trim() } : {}),
     ...(gatewayToken.trim() ? { Authorization: gatewayToken.trim() } : {})
   })
@@ -107,7 +126,7 @@ export default function App() {
       const response = await fetch('/api/messages/send', { method: 'POST', headers: { 'Content-Type': 'application/json', ...commonHeaders() }, body: JSON.stringify({ to, message: body }) })
       const payload = await response.json().catch(() => ({}))
       if (!response.ok) { setStatus(`Send failed: ${payload.error || response.statusText}`); return }
-      setLastSentPhone(to); setLastSeenTimestamp((current) => current || Date.now()); setStatus(`Message sent to ${to}. You can now fetch replies.`)
+      setLastSentPhone(to); setLastSeenTimestamp((current) => current || Date.now()); setStatus(`Message #${payload.messageId} queued for ${to}. Replies will appear below as they arrive.`)
     } catch (error) { setStatus(`Send failed: ${error.message}`) } finally { setLoading(false) }
   }
 
@@ -134,7 +153,7 @@ export default function App() {
       const data = await response.json().catch(() => ({}))
       if (!response.ok) throw new Error(data.error || 'Config send failed')
       setConfigResult(data)
-      setConfigStatus(`Sent ${data.messages?.length || 0} SMS chunk(s) to ${data.deviceNumber}.`)
+      setConfigStatus(`Queued ${data.messages?.length || 0} SMS chunk(s) for ${data.deviceNumber}; ${data.unchangedCommands || 0} unchanged setting(s) skipped.`)
     } catch (error) { setConfigStatus(`Config send failed: ${error.message}`) } finally { setLoading(false) }
   }
 
@@ -184,8 +203,9 @@ export default function App() {
 
       <section className="card">
         <h2>Gateway Overrides</h2>
+        <input placeholder="Registered Gateway ID (optional)" value={gatewayId} onChange={(e) => setGatewayId(e.target.value)} />
         <input placeholder="Gateway Base URL (optional)" value={gatewayBaseUrl} onChange={(e) => setGatewayBaseUrl(e.target.value)} />
-        <input placeholder="Gateway Token (optional)" value={gatewayToken} onChange={(e) => setGatewayToken(e.target.value)} />
+        <input placeholder="Gateway Token (reads only; register the gateway to send)" value={gatewayToken} onChange={(e) => setGatewayToken(e.target.value)} />
       </section>
 
       <section className="card">
@@ -210,7 +230,8 @@ export default function App() {
             <label className="checkbox-row"><input type="checkbox" checked={configForm.fallDownCall} onChange={(e) => setConfigForm((p) => ({ ...p, fallDownCall: e.target.checked }))} /> Fall detection call</label>
             <label className="checkbox-row"><input type="checkbox" checked={configForm.motionCall} onChange={(e) => setConfigForm((p) => ({ ...p, motionCall: e.target.checked }))} /> Motion alarm call</label>
             <label className="checkbox-row"><input type="checkbox" checked={configForm.checkStatus} onChange={(e) => setConfigForm((p) => ({ ...p, checkStatus: e.target.checked }))} /> Status</label>
-            <p className="hint">Preview uses comma separator and backend splits every 150 chars.</p>
+            <label className="checkbox-row"><input type="checkbox" checked={configForm.force} onChange={(e) => setConfigForm((p) => ({ ...p, force: e.target.checked }))} /> Resend unchanged settings</label>
+            <p className="hint">Preview uses comma separator. The backend packs whole commands into each SMS (160 GSM-7 characters, or 70 when a command needs Unicode) and never splits a command.</p>
             <pre className="replies">{commandPreview || 'No commands yet.'}</pre>
             <div className="status">{configStatus}</div>
             {configResult ? <pre className="replies">{JSON.stringify(configResult, null, 2)}</pre> : null}
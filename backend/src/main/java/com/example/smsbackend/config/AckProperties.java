@@ -0,0 +1,28 @@
+package com.example.smsbackend.config;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "ack")
+public record AckProperties(
+    Boolean enabled,
+    Duration window,
+    Duration clockSkew,
+    List<String> failureKeywords
+) {
+    public AckProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (window == null || window.isNegative() || window.isZero()) {
+            window = Duration.ofMinutes(10);
+        }
+        if (clockSkew == null || clockSkew.isNegative()) {
+            clockSkew = Duration.ofSeconds(30);
+        }
+        if (failureKeywords == null) {
+            failureKeywords = List.of("error", "fail", "invalid", "incorrect", "wrong");
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.smsbackend.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "coalescing")
+public record CoalescingProperties(
+    Boolean enabled,
+    Duration ttl,
+    Integer maxEntries
+) {
+    public CoalescingProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (ttl == null || ttl.isNegative()) {
+            ttl = Duration.ofSeconds(1);
+        }
+        if (maxEntries == null || maxEntries < 1) {
+            maxEntries = 1024;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.smsbackend.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "gateway.bulkhead")
+public record GatewayBulkheadProperties(
+    Boolean enabled,
+    Integer maxConcurrentCalls,
+    Integer maxQueue,
+    Duration maxWait,
+    Duration retryAfter
+) {
+    public GatewayBulkheadProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (maxConcurrentCalls == null || maxConcurrentCalls < 1) {
+            maxConcurrentCalls = 8;
+        }
+        if (maxQueue == null || maxQueue < 0) {
+            maxQueue = 16;
+        }
+        if (maxWait == null || maxWait.isNegative()) {
+            maxWait = Duration.ofSeconds(1);
+        }
+        if (retryAfter == null || retryAfter.isNegative() || retryAfter.isZero()) {
+            retryAfter = Duration.ofSeconds(5);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.smsbackend.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "gateway.circuit-breaker")
+public record GatewayCircuitBreakerProperties(
+    Boolean enabled,
+    Integer windowSize,
+    Integer minimumCalls,
+    Double failureRateThreshold,
+    Duration slowCallDuration,
+    Double slowCallRateThreshold,
+    Duration openDuration,
+    Integer halfOpenCalls
+) {
+    public GatewayCircuitBreakerProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (windowSize == null || windowSize < 1) {
+            windowSize = 20;
+        }
+        if (minimumCalls == null || minimumCalls < 1) {
+            minimumCalls = 5;
+        }
+        if (minimumCalls > windowSize) {
+            minimumCalls = windowSize;
+        }
+        if (failureRateThreshold == null || failureRateThreshold <= 0 || failureRateThreshold > 100) {
+            failureRateThreshold = 50.0;
+        }
+        if (slowCallDuration == null || slowCallDuration.isNegative() || slowCallDuration.isZero()) {
+            slowCallDuration = Duration.ofSeconds(4);
+        }
+        if (slowCallRateThreshold == null || slowCallRateThreshold <= 0 || slowCallRateThreshold > 100) {
+            slowCallRateThreshold = 80.0;
+        }
+        if (openDuration == null || openDuration.isNegative() || openDuration.isZero()) {
+            openDuration = Duration.ofSeconds(30);
+        }
+        if (halfOpenCalls == null || halfOpenCalls < 1) {
+            halfOpenCalls = 2;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.smsbackend.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "gateway.health")
+public record GatewayHealthProperties(
+    Boolean enabled,
+    Duration interval,
+    Duration staleAfter,
+    Integer probeThreads,
+    Duration watchTtl,
+    Integer maxWatched
+) {
+    public GatewayHealthProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (interval == null || interval.isNegative() || interval.isZero()) {
+            interval = Duration.ofSeconds(10);
+        }
+        if (staleAfter == null || staleAfter.compareTo(interval) < 0) {
+            staleAfter = interval.multipliedBy(3);
+        }
+        if (probeThreads == null || probeThreads < 1) {
+            probeThreads = 4;
+        }
+        if (watchTtl == null || watchTtl.isNegative() || watchTtl.isZero()) {
+            watchTtl = Duration.ofMinutes(10);
+        }
+        if (maxWatched == null || maxWatched < 1) {
+            maxWatched = 64;
+        }
+    }
+}
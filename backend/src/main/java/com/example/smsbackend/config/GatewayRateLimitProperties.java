@@ -0,0 +1,26 @@
+package com.example.smsbackend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public record GatewayRateLimitProperties(
+    Boolean enabled,
+    Double permitsPerSecond,
+    Integer burst,
+    Boolean perSlot
+) {
+    public GatewayRateLimitProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (permitsPerSecond == null || permitsPerSecond <= 0) {
+            permitsPerSecond = 1.0;
+        }
+        if (burst == null || burst < 1) {
+            burst = 5;
+        }
+        if (perSlot == null) {
+            perSlot = false;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.smsbackend.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "gateway.retry")
+public record GatewayRetryProperties(
+    Boolean enabled,
+    Integer maxAttempts,
+    Duration initialBackoff,
+    Duration maxBackoff,
+    Double budgetRatio,
+    Integer budgetBurst
+) {
+    public GatewayRetryProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (maxAttempts == null || maxAttempts < 1) {
+            maxAttempts = 3;
+        }
+        if (initialBackoff == null || initialBackoff.isNegative() || initialBackoff.isZero()) {
+            initialBackoff = Duration.ofMillis(200);
+        }
+        if (maxBackoff == null || maxBackoff.compareTo(initialBackoff) < 0) {
+            maxBackoff = Duration.ofSeconds(2);
+        }
+        if (budgetRatio == null || budgetRatio < 0) {
+            budgetRatio = 0.2;
+        }
+        if (budgetBurst == null || budgetBurst < 0) {
+            budgetBurst = 10;
+        }
+    }
+}
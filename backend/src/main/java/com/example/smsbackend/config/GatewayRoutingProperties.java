@@ -0,0 +1,56 @@
+package com.example.smsbackend.config;
+
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "gateway.routing")
+public record GatewayRoutingProperties(
+    String strategy,
+    Boolean stickyRecipients,
+    Integer stickyCapacity,
+    List<Phone> phones
+) {
+    public static final String LEAST_OUTSTANDING = "least-outstanding";
+    public static final String WEIGHTED_ROUND_ROBIN = "weighted-round-robin";
+
+    public GatewayRoutingProperties {
+        if (strategy == null || strategy.isBlank()) {
+            strategy = LEAST_OUTSTANDING;
+        }
+        if (!LEAST_OUTSTANDING.equals(strategy) && !WEIGHTED_ROUND_ROBIN.equals(strategy)) {
+            throw new IllegalArgumentException("Unknown gateway routing strategy: " + strategy);
+        }
+        if (stickyRecipients == null) {
+            stickyRecipients = true;
+        }
+        if (stickyCapacity == null || stickyCapacity < 1) {
+            stickyCapacity = 10_000;
+        }
+        if (phones == null) {
+            phones = List.of();
+        }
+    }
+
+    public record Phone(
+        String id,
+        String baseUrl,
+        String token,
+        List<Integer> slots,
+        Integer weight
+    ) {
+        public Phone {
+            if (baseUrl == null || baseUrl.isBlank()) {
+                throw new IllegalArgumentException("gateway.routing.phones[].base-url is required");
+            }
+            if (id == null || id.isBlank()) {
+                id = baseUrl.trim();
+            }
+            if (slots == null) {
+                slots = List.of();
+            }
+            if (weight == null || weight < 1) {
+                weight = 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.smsbackend.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "gateway.adaptive-timeouts")
+public record GatewayTimeoutProperties(
+    Boolean enabled,
+    Double percentile,
+    Double factor,
+    Duration window,
+    Integer minSamples,
+    Duration minConnectTimeout,
+    Duration maxConnectTimeout,
+    Duration minReadTimeout,
+    Duration maxReadTimeout
+) {
+    public GatewayTimeoutProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (percentile == null || percentile <= 0 || percentile > 1) {
+            percentile = 0.99;
+        }
+        if (factor == null || factor < 1) {
+            factor = 3.0;
+        }
+        if (window == null || window.isNegative() || window.isZero()) {
+            window = Duration.ofMinutes(5);
+        }
+        if (minSamples == null || minSamples < 1) {
+            minSamples = 20;
+        }
+        if (minConnectTimeout == null || minConnectTimeout.isNegative() || minConnectTimeout.isZero()) {
+            minConnectTimeout = Duration.ofMillis(250);
+        }
+        if (maxConnectTimeout == null || maxConnectTimeout.compareTo(minConnectTimeout) < 0) {
+            maxConnectTimeout = Duration.ofSeconds(10);
+        }
+        if (minReadTimeout == null || minReadTimeout.isNegative() || minReadTimeout.isZero()) {
+            minReadTimeout = Duration.ofSeconds(1);
+        }
+        if (maxReadTimeout == null || maxReadTimeout.compareTo(minReadTimeout) < 0) {
+            maxReadTimeout = Duration.ofSeconds(30);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.smsbackend.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "gateway.transport")
+public record GatewayTransportProperties(
+    String type,
+    Integer maxConnectionsPerGateway,
+    Integer maxPools,
+    Duration keepAlive,
+    Duration idleEviction,
+    Duration connectTimeout,
+    Duration readTimeout,
+    Duration connectionRequestTimeout
+) {
+    public GatewayTransportProperties {
+        if (type == null || type.isBlank()) {
+            type = "pooled";
+        }
+        if (maxConnectionsPerGateway == null || maxConnectionsPerGateway < 1) {
+            maxConnectionsPerGateway = 8;
+        }
+        if (maxPools == null || maxPools < 1) {
+            maxPools = 32;
+        }
+        if (keepAlive == null || keepAlive.isNegative() || keepAlive.isZero()) {
+            keepAlive = Duration.ofSeconds(30);
+        }
+        if (idleEviction == null || idleEviction.isNegative() || idleEviction.isZero()) {
+            idleEviction = Duration.ofSeconds(30);
+        }
+        if (connectTimeout == null || connectTimeout.isNegative() || connectTimeout.isZero()) {
+            connectTimeout = Duration.ofSeconds(5);
+        }
+        if (readTimeout == null || readTimeout.isNegative() || readTimeout.isZero()) {
+            readTimeout = Duration.ofSeconds(10);
+        }
+        if (connectionRequestTimeout == null || connectionRequestTimeout.isNegative() || connectionRequestTimeout.isZero()) {
+            connectionRequestTimeout = Duration.ofSeconds(5);
+        }
+    }
+}
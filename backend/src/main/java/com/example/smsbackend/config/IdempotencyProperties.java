@@ -0,0 +1,28 @@
+package com.example.smsbackend.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "idempotency")
+public record IdempotencyProperties(
+    Boolean enabled,
+    Duration ttl,
+    Integer cacheSize,
+    Integer maxKeyLength
+) {
+    public IdempotencyProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            ttl = Duration.ofHours(24);
+        }
+        if (cacheSize == null || cacheSize < 1) {
+            cacheSize = 10000;
+        }
+        if (maxKeyLength == null || maxKeyLength < 1) {
+            maxKeyLength = 255;
+        }
+        maxKeyLength = Math.min(maxKeyLength, 255);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.smsbackend.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "inbound")
+public record InboundProperties(
+    Boolean enabled,
+    Duration pollInterval,
+    Integer pageSize,
+    Integer maxPageSize,
+    Integer pollerThreads,
+    Duration watchTtl,
+    Duration syncTimeout,
+    Stream stream
+) {
+    /**
+     * The phone clamps {@code GET /messages?limit=} to this, so no page can be larger.
+     */
+    public static final int GATEWAY_MAX_LIMIT = 1000;
+
+    public InboundProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (pollInterval == null || pollInterval.isNegative() || pollInterval.isZero()) {
+            pollInterval = Duration.ofSeconds(5);
+        }
+        if (pageSize == null || pageSize < 1) {
+            pageSize = 500;
+        }
+        pageSize = Math.min(pageSize, GATEWAY_MAX_LIMIT);
+        if (maxPageSize == null) {
+            maxPageSize = GATEWAY_MAX_LIMIT;
+        }
+        maxPageSize = Math.min(Math.max(maxPageSize, pageSize), GATEWAY_MAX_LIMIT);
+        if (pollerThreads == null || pollerThreads < 1) {
+            pollerThreads = 2;
+        }
+        if (watchTtl == null || watchTtl.isNegative() || watchTtl.isZero()) {
+            watchTtl = Duration.ofMinutes(10);
+        }
+        if (syncTimeout == null || syncTimeout.isNegative() || syncTimeout.isZero()) {
+            syncTimeout = Duration.ofSeconds(5);
+        }
+        if (stream == null) {
+            stream = new Stream(null, null, null, null, null);
+        }
+    }
+
+    public record Stream(
+        Integer bufferSize,
+        Integer replayLimit,
+        Duration heartbeat,
+        Duration timeout,
+        Integer senderThreads
+    ) {
+        public Stream {
+            if (bufferSize == null || bufferSize < 1) {
+                bufferSize = 256;
+            }
+            if (replayLimit == null || replayLimit < 0) {
+                replayLimit = 500;
+            }
+            if (heartbeat == null || heartbeat.isNegative() || heartbeat.isZero()) {
+                heartbeat = Duration.ofSeconds(15);
+            }
+            if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+                timeout = Duration.ofMinutes(30);
+            }
+            if (senderThreads == null || senderThreads < 1) {
+                senderThreads = 4;
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.smsbackend.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "outbox")
+public record OutboxProperties(
+    Boolean enabled,
+    Duration pollInterval,
+    Integer batchSize,
+    Integer dispatcherThreads,
+    Integer maxAttempts,
+    Duration retryBackoff,
+    Duration maxRetryBackoff,
+    Duration claimTimeout,
+    Batch batch,
+    Backpressure backpressure
+) {
+    public OutboxProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (pollInterval == null || pollInterval.isNegative() || pollInterval.isZero()) {
+            pollInterval = Duration.ofSeconds(1);
+        }
+        if (batchSize == null || batchSize < 1) {
+            batchSize = 20;
+        }
+        if (dispatcherThreads == null || dispatcherThreads < 1) {
+            dispatcherThreads = 4;
+        }
+        if (maxAttempts == null || maxAttempts < 1) {
+            maxAttempts = 5;
+        }
+        if (retryBackoff == null || retryBackoff.isNegative() || retryBackoff.isZero()) {
+            retryBackoff = Duration.ofSeconds(15);
+        }
+        if (maxRetryBackoff == null || maxRetryBackoff.compareTo(retryBackoff) < 0) {
+            maxRetryBackoff = Duration.ofMinutes(10);
+        }
+        if (claimTimeout == null || claimTimeout.isNegative() || claimTimeout.isZero()) {
+            claimTimeout = Duration.ofMinutes(2);
+        }
+        if (batch == null) {
+            batch = new Batch(null, null, null, null);
+        }
+        if (backpressure == null) {
+            backpressure = new Backpressure(null, null, null, null);
+        }
+    }
+
+    public record Batch(
+        Integer maxItems,
+        Integer chunkSize,
+        Integer concurrency,
+        Duration timeout
+    ) {
+        public Batch {
+            if (maxItems == null || maxItems < 1) {
+                maxItems = 10000;
+            }
+            if (chunkSize == null || chunkSize < 1) {
+                chunkSize = 200;
+            }
+            if (concurrency == null || concurrency < 1) {
+                concurrency = 8;
+            }
+            if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+                timeout = Duration.ofMinutes(30);
+            }
+        }
+    }
+
+    public record Backpressure(
+        Boolean enabled,
+        Integer maxQueue,
+        Integer maxQueuePerGateway,
+        Duration maxRetryAfter
+    ) {
+        public Backpressure {
+            if (enabled == null) {
+                enabled = true;
+            }
+            if (maxQueue == null || maxQueue < 1) {
+                maxQueue = 10000;
+            }
+            if (maxQueuePerGateway == null || maxQueuePerGateway < 1) {
+                maxQueuePerGateway = 1000;
+            }
+            if (maxRetryAfter == null || maxRetryAfter.isNegative() || maxRetryAfter.isZero()) {
+                maxRetryAfter = Duration.ofMinutes(5);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.smsbackend.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "rollout")
+public record RolloutProperties(
+    Boolean enabled,
+    Duration tickInterval,
+    Integer devicesPerMinute,
+    Integer maxDevicesPerMinute,
+    Integer reconcileBatch
+) {
+    public RolloutProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (tickInterval == null || tickInterval.isNegative() || tickInterval.isZero()) {
+            tickInterval = Duration.ofSeconds(1);
+        }
+        if (maxDevicesPerMinute == null || maxDevicesPerMinute < 1) {
+            maxDevicesPerMinute = 600;
+        }
+        if (devicesPerMinute == null || devicesPerMinute < 1) {
+            devicesPerMinute = 60;
+        }
+        devicesPerMinute = Math.min(devicesPerMinute, maxDevicesPerMinute);
+        if (reconcileBatch == null || reconcileBatch < 1) {
+            reconcileBatch = 200;
+        }
+    }
+}
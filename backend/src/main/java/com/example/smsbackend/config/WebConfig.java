@@ -0,0 +1,23 @@
+package com.example.smsbackend.config;
+
+import com.example.smsbackend.controller.GatewayRequestOptionsArgumentResolver;
+import com.example.smsbackend.service.GatewayRegistry;
+import java.util.List;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final GatewayRegistry gatewayRegistry;
+
+    public WebConfig(GatewayRegistry gatewayRegistry) {
+        this.gatewayRegistry = gatewayRegistry;
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new GatewayRequestOptionsArgumentResolver(gatewayRegistry));
+    }
+}
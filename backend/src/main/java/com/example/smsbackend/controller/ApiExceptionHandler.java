@@ -1,7 +1,12 @@
 package com.example.smsbackend.controller;
 
+import com.example.smsbackend.service.GatewayBulkheadFullException;
+import com.example.smsbackend.service.GatewayCircuitOpenException;
 import com.example.smsbackend.service.GatewayClientException;
+import com.example.smsbackend.service.GatewayNoAnswerException;
+import com.example.smsbackend.service.SendQueueFullException;
 import java.util.Map;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -26,6 +31,46 @@ public class ApiExceptionHandler {
         ));
     }
 
+    @ExceptionHandler(GatewayCircuitOpenException.class)
+    public ResponseEntity<Map<String, Object>> handleCircuitOpen(GatewayCircuitOpenException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+            .body(Map.of(
+                "success", false,
+                "error", e.getMessage()
+            ));
+    }
+
+    @ExceptionHandler(GatewayBulkheadFullException.class)
+    public ResponseEntity<Map<String, Object>> handleBulkheadFull(GatewayBulkheadFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+            .body(Map.of(
+                "success", false,
+                "error", e.getMessage()
+            ));
+    }
+
+    @ExceptionHandler(GatewayNoAnswerException.class)
+    public ResponseEntity<Map<String, Object>> handleNoAnswer(GatewayNoAnswerException e) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(Map.of(
+            "success", false,
+            "error", e.getMessage()
+        ));
+    }
+
+    @ExceptionHandler(SendQueueFullException.class)
+    public ResponseEntity<Map<String, Object>> handleQueueFull(SendQueueFullException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+            .body(Map.of(
+                "success", false,
+                "error", e.getMessage(),
+                "queuePosition", e.getQueuePosition(),
+                "queueDepth", e.getQueueDepth()
+            ));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidation(MethodArgumentNotValidException e) {
         return ResponseEntity.badRequest().body(Map.of(
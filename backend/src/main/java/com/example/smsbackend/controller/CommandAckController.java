@@ -0,0 +1,40 @@
+package com.example.smsbackend.controller;
+
+import com.example.smsbackend.dto.CommandAckResponse;
+import com.example.smsbackend.dto.CommandAckStats;
+import com.example.smsbackend.service.CommandAckService;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api")
+public class CommandAckController {
+
+    private final CommandAckService commandAckService;
+
+    public CommandAckController(CommandAckService commandAckService) {
+        this.commandAckService = commandAckService;
+    }
+
+    @GetMapping("/command-acks")
+    public ResponseEntity<List<CommandAckResponse>> listCommandAcks(
+        @RequestParam(required = false) Long deviceId,
+        @RequestParam(required = false) String status,
+        @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(commandAckService.search(deviceId, status, limit));
+    }
+
+    @GetMapping("/command-acks/stats")
+    public ResponseEntity<CommandAckStats> commandAckStats(@RequestParam(defaultValue = "PT1H") Duration window) {
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window must be positive.");
+        }
+        return ResponseEntity.ok(commandAckService.stats(window));
+    }
+}
@@ -5,17 +5,25 @@ import com.example.smsbackend.dto.GatewayRequestOptions;
 import com.example.smsbackend.dto.InboundMessageResponse;
 import com.example.smsbackend.dto.SendConfigRequest;
 import com.example.smsbackend.dto.SendConfigResponse;
-import com.example.smsbackend.dto.SendMessageRequest;
 import com.example.smsbackend.dto.SentMessageResponse;
 import com.example.smsbackend.entity.Device;
+import com.example.smsbackend.entity.OutboundMessage;
 import com.example.smsbackend.service.DeviceCommandService;
-import com.example.smsbackend.service.GatewayClientService;
+import com.example.smsbackend.service.DeviceConfigTracker;
+import com.example.smsbackend.service.Ev12Command;
+import com.example.smsbackend.service.IdempotencyService;
+import com.example.smsbackend.service.InboundMessageService;
+import com.example.smsbackend.service.InboundPoller;
+import com.example.smsbackend.service.InboundStreamService;
+import com.example.smsbackend.service.SendAdmission;
 import com.example.smsbackend.service.UserDeviceService;
 import jakarta.validation.Valid;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.List;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -24,6 +32,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api")
@@ -33,39 +42,46 @@ public class DeviceConfigController {
 
     private final UserDeviceService userDeviceService;
     private final DeviceCommandService deviceCommandService;
-    private final GatewayClientService gatewayClientService;
+    private final InboundPoller inboundPoller;
+    private final InboundMessageService inboundMessageService;
+    private final InboundStreamService inboundStreamService;
+    private final IdempotencyService idempotencyService;
+    private final SendAdmission sendAdmission;
+    private final DeviceConfigTracker deviceConfigTracker;
 
     public DeviceConfigController(
         UserDeviceService userDeviceService,
         DeviceCommandService deviceCommandService,
-        GatewayClientService gatewayClientService
+        InboundPoller inboundPoller,
+        InboundMessageService inboundMessageService,
+        InboundStreamService inboundStreamService,
+        IdempotencyService idempotencyService,
+        SendAdmission sendAdmission,
+        DeviceConfigTracker deviceConfigTracker
     ) {
         this.userDeviceService = userDeviceService;
         this.deviceCommandService = deviceCommandService;
-        this.gatewayClientService = gatewayClientService;
+        this.inboundPoller = inboundPoller;
+        this.inboundMessageService = inboundMessageService;
+        this.inboundStreamService = inboundStreamService;
+        this.idempotencyService = idempotencyService;
+        this.sendAdmission = sendAdmission;
+        this.deviceConfigTracker = deviceConfigTracker;
     }
 
     @PostMapping("/send-config")
     public ResponseEntity<SendConfigResponse> sendConfig(
         @Valid @RequestBody SendConfigRequest request,
-        @RequestHeader(value = "X-Gateway-Base-Url", required = false) String gatewayBaseUrl,
-        @RequestHeader(value = "Authorization", required = false) String gatewayToken,
-        @RequestHeader(value = "X-Gateway-Token", required = false) String legacyGatewayToken
+        @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+        GatewayRequestOptions options
     ) {
-        Device device = userDeviceService.getDevice(request.deviceId());
-        List<String> commands = deviceCommandService.buildCommands(request);
-        String commandPreview = deviceCommandService.buildPreview(commands);
-        List<String> smsBodies = deviceCommandService.splitForSms(commandPreview);
-
-        String resolvedToken = gatewayToken != null && !gatewayToken.isBlank() ? gatewayToken : legacyGatewayToken;
-        GatewayRequestOptions options = new GatewayRequestOptions(gatewayBaseUrl, resolvedToken);
-
-        for (String body : smsBodies) {
-            gatewayClientService.sendMessage(new SendMessageRequest(device.getPhoneNumber(), body, null), options);
-        }
-
-        List<SentMessageResponse> messages = smsBodies.stream().map(SentMessageResponse::new).toList();
-        return ResponseEntity.ok(new SendConfigResponse(true, device.getId(), device.getPhoneNumber(), commandPreview, messages));
+        return idempotencyService.execute(
+            IdempotencyService.SCOPE_CONFIG,
+            idempotencyKey,
+            Arrays.asList(request, options.baseUrl()),
+            SendConfigResponse.class,
+            () -> queueConfig(request, options)
+        );
     }
 
     @GetMapping("/inbound-messages")
@@ -73,15 +89,12 @@ public class DeviceConfigController {
         @RequestParam(required = false) Long since,
         @RequestParam(required = false) String phone,
         @RequestParam(required = false) Integer limit,
-        @RequestHeader(value = "X-Gateway-Base-Url", required = false) String gatewayBaseUrl,
-        @RequestHeader(value = "Authorization", required = false) String gatewayToken,
-        @RequestHeader(value = "X-Gateway-Token", required = false) String legacyGatewayToken
+        GatewayRequestOptions options
     ) {
         Long normalizedSince = normalizeSince(since);
-        String resolvedToken = gatewayToken != null && !gatewayToken.isBlank() ? gatewayToken : legacyGatewayToken;
-        GatewayRequestOptions options = new GatewayRequestOptions(gatewayBaseUrl, resolvedToken);
 
-        List<GatewayReplyMessage> replies = gatewayClientService.fetchMessages(phone, normalizedSince, limit, options);
+        List<String> gateways = inboundPoller.sync(options);
+        List<GatewayReplyMessage> replies = inboundMessageService.search(gateways, phone, normalizedSince, limit);
 
         List<InboundMessageResponse> response = replies.stream().map(item -> new InboundMessageResponse(
             item.id(),
@@ -93,6 +106,66 @@ public class DeviceConfigController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Server-sent {@code reply} events for replies as the poller stores them. Browsers'
+     * {@code EventSource} cannot set headers, so the gateway may also be given as
+     * {@code gatewayId} or {@code gatewayBaseUrl}; reconnects resume after {@code Last-Event-ID}.
+     */
+    @GetMapping(value = "/inbound-messages/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamInboundMessages(
+        @RequestParam(required = false) String phone,
+        @RequestParam(required = false) Long deviceId,
+        @RequestParam(required = false) String lastEventId,
+        @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+        GatewayRequestOptions options
+    ) {
+        String senderFilter = deviceId != null ? userDeviceService.getDevice(deviceId).getPhoneNumber() : phone;
+
+        List<String> gateways = inboundPoller.gateways(options);
+        return inboundStreamService.subscribe(
+            gateways,
+            senderFilter,
+            parseEventId(lastEventIdHeader != null ? lastEventIdHeader : lastEventId)
+        );
+    }
+
+    private ResponseEntity<SendConfigResponse> queueConfig(SendConfigRequest request, GatewayRequestOptions options) {
+        Device device = userDeviceService.getDevice(request.deviceId());
+        List<Ev12Command> built = deviceCommandService.buildKeyedCommands(request);
+        List<Ev12Command> commands = Boolean.TRUE.equals(request.force())
+            ? built
+            : deviceConfigTracker.changed(device.getId(), built);
+        List<String> texts = commands.stream().map(Ev12Command::text).toList();
+        String commandPreview = deviceCommandService.buildPreview(texts);
+        List<String> smsBodies = deviceCommandService.splitForSms(texts);
+
+        sendAdmission.admit(options, smsBodies.size());
+        List<OutboundMessage> queued = deviceConfigTracker.enqueue(device, commands, smsBodies, options);
+
+        List<SentMessageResponse> messages = queued.stream()
+            .map(message -> new SentMessageResponse(message.getId(), message.getBody()))
+            .toList();
+        return ResponseEntity.accepted().body(new SendConfigResponse(
+            true,
+            device.getId(),
+            device.getPhoneNumber(),
+            commandPreview,
+            built.size() - commands.size(),
+            messages
+        ));
+    }
+
+    private Long parseEventId(String eventId) {
+        if (eventId == null || eventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(eventId.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Last-Event-ID must be a reply event id.");
+        }
+    }
+
     private Long normalizeSince(Long since) {
         if (since == null) {
             return null;
@@ -0,0 +1,61 @@
+package com.example.smsbackend.controller;
+
+import com.example.smsbackend.dto.AssignGatewayRequest;
+import com.example.smsbackend.dto.DeviceResponse;
+import com.example.smsbackend.dto.GatewayRequest;
+import com.example.smsbackend.dto.GatewayResponse;
+import com.example.smsbackend.service.GatewayService;
+import jakarta.validation.Valid;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api")
+public class GatewayController {
+
+    private final GatewayService gatewayService;
+
+    public GatewayController(GatewayService gatewayService) {
+        this.gatewayService = gatewayService;
+    }
+
+    @GetMapping("/gateways")
+    public ResponseEntity<List<GatewayResponse>> listGateways() {
+        return ResponseEntity.ok(gatewayService.listGateways());
+    }
+
+    @PostMapping("/gateways")
+    public ResponseEntity<GatewayResponse> createGateway(@Valid @RequestBody GatewayRequest request) {
+        return ResponseEntity.ok(gatewayService.createGateway(request));
+    }
+
+    @PutMapping("/gateways/{gatewayId}")
+    public ResponseEntity<GatewayResponse> updateGateway(
+        @PathVariable Long gatewayId,
+        @Valid @RequestBody GatewayRequest request
+    ) {
+        return ResponseEntity.ok(gatewayService.updateGateway(gatewayId, request));
+    }
+
+    @DeleteMapping("/gateways/{gatewayId}")
+    public ResponseEntity<Void> deleteGateway(@PathVariable Long gatewayId) {
+        gatewayService.deleteGateway(gatewayId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PutMapping("/devices/{deviceId}/gateway")
+    public ResponseEntity<DeviceResponse> assignGateway(
+        @PathVariable Long deviceId,
+        @RequestBody AssignGatewayRequest request
+    ) {
+        return ResponseEntity.ok(gatewayService.assignGateway(deviceId, request.gatewayId()));
+    }
+}
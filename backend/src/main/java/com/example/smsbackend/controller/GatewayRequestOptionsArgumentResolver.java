@@ -0,0 +1,61 @@
+package com.example.smsbackend.controller;
+
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import com.example.smsbackend.service.GatewayRegistry;
+import org.springframework.core.MethodParameter;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves the gateway a request targets. {@code X-Gateway-Id} names a registered gateway; the
+ * older {@code X-Gateway-Base-Url} with {@code Authorization} or {@code X-Gateway-Token} still
+ * targets an unregistered one. Both may also come as the {@code gatewayId} or
+ * {@code gatewayBaseUrl} query parameters, for clients such as {@code EventSource} that cannot set
+ * headers.
+ */
+public class GatewayRequestOptionsArgumentResolver implements HandlerMethodArgumentResolver {
+
+    public static final String GATEWAY_ID_HEADER = "X-Gateway-Id";
+
+    private final GatewayRegistry registry;
+
+    public GatewayRequestOptionsArgumentResolver(GatewayRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return GatewayRequestOptions.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public GatewayRequestOptions resolveArgument(
+        MethodParameter parameter,
+        ModelAndViewContainer mavContainer,
+        NativeWebRequest webRequest,
+        WebDataBinderFactory binderFactory
+    ) {
+        String gatewayId = firstText(webRequest.getHeader(GATEWAY_ID_HEADER), webRequest.getParameter("gatewayId"));
+        if (gatewayId != null) {
+            try {
+                return registry.require(Long.valueOf(gatewayId.trim())).options();
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(GATEWAY_ID_HEADER + " must be a number.");
+            }
+        }
+
+        String baseUrl = firstText(webRequest.getHeader("X-Gateway-Base-Url"), webRequest.getParameter("gatewayBaseUrl"));
+        String token = firstText(webRequest.getHeader("Authorization"), webRequest.getHeader("X-Gateway-Token"));
+        return new GatewayRequestOptions(baseUrl, token);
+    }
+
+    private static String firstText(String first, String second) {
+        if (StringUtils.hasText(first)) {
+            return first;
+        }
+        return StringUtils.hasText(second) ? second : null;
+    }
+}
@@ -1,22 +1,49 @@
 package com.example.smsbackend.controller;
 
 import com.example.smsbackend.config.GatewayProperties;
+import com.example.smsbackend.dto.GatewayCircuitStats;
+import com.example.smsbackend.dto.GatewayHealthStats;
 import com.example.smsbackend.dto.GatewayReplyMessage;
 import com.example.smsbackend.dto.GatewayRequestOptions;
+import com.example.smsbackend.dto.OutboundMessageResponse;
 import com.example.smsbackend.dto.SendMessageRequest;
 import com.example.smsbackend.dto.SendMessageResponse;
+import com.example.smsbackend.service.BatchSendService;
+import com.example.smsbackend.service.GatewayBulkhead;
+import com.example.smsbackend.service.GatewayCircuitBreaker;
 import com.example.smsbackend.service.GatewayClientService;
+import com.example.smsbackend.service.GatewayHealthProber;
+import com.example.smsbackend.service.GatewayRateLimiter;
+import com.example.smsbackend.service.GatewayRetryPolicy;
+import com.example.smsbackend.service.GatewayRouter;
+import com.example.smsbackend.service.GatewayTimeouts;
+import com.example.smsbackend.service.GatewayTransport;
+import com.example.smsbackend.service.IdempotencyService;
+import com.example.smsbackend.service.InboundMessageService;
+import com.example.smsbackend.service.InboundPoller;
+import com.example.smsbackend.service.InboundStreamService;
+import com.example.smsbackend.service.OutboxService;
+import com.example.smsbackend.service.SendAdmission;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 @RestController
 @RequestMapping("/api/messages")
@@ -24,51 +51,167 @@ public class MessageController {
 
     private final GatewayClientService gatewayClientService;
     private final GatewayProperties gatewayProperties;
+    private final GatewayTransport gatewayTransport;
+    private final GatewayTimeouts gatewayTimeouts;
+    private final OutboxService outboxService;
+    private final GatewayRateLimiter gatewayRateLimiter;
+    private final GatewayCircuitBreaker gatewayCircuitBreaker;
+    private final GatewayRetryPolicy gatewayRetryPolicy;
+    private final GatewayBulkhead gatewayBulkhead;
+    private final GatewayRouter gatewayRouter;
+    private final InboundPoller inboundPoller;
+    private final InboundMessageService inboundMessageService;
+    private final InboundStreamService inboundStreamService;
+    private final GatewayHealthProber gatewayHealthProber;
+    private final BatchSendService batchSendService;
+    private final IdempotencyService idempotencyService;
+    private final SendAdmission sendAdmission;
 
-    public MessageController(GatewayClientService gatewayClientService, GatewayProperties gatewayProperties) {
+    public MessageController(
+        GatewayClientService gatewayClientService,
+        GatewayProperties gatewayProperties,
+        GatewayTransport gatewayTransport,
+        GatewayTimeouts gatewayTimeouts,
+        OutboxService outboxService,
+        GatewayRateLimiter gatewayRateLimiter,
+        GatewayCircuitBreaker gatewayCircuitBreaker,
+        GatewayRetryPolicy gatewayRetryPolicy,
+        GatewayBulkhead gatewayBulkhead,
+        GatewayRouter gatewayRouter,
+        InboundPoller inboundPoller,
+        InboundMessageService inboundMessageService,
+        InboundStreamService inboundStreamService,
+        GatewayHealthProber gatewayHealthProber,
+        BatchSendService batchSendService,
+        IdempotencyService idempotencyService,
+        SendAdmission sendAdmission
+    ) {
         this.gatewayClientService = gatewayClientService;
         this.gatewayProperties = gatewayProperties;
+        this.gatewayTransport = gatewayTransport;
+        this.gatewayTimeouts = gatewayTimeouts;
+        this.outboxService = outboxService;
+        this.gatewayRateLimiter = gatewayRateLimiter;
+        this.gatewayCircuitBreaker = gatewayCircuitBreaker;
+        this.gatewayRetryPolicy = gatewayRetryPolicy;
+        this.gatewayBulkhead = gatewayBulkhead;
+        this.gatewayRouter = gatewayRouter;
+        this.inboundPoller = inboundPoller;
+        this.inboundMessageService = inboundMessageService;
+        this.inboundStreamService = inboundStreamService;
+        this.gatewayHealthProber = gatewayHealthProber;
+        this.batchSendService = batchSendService;
+        this.idempotencyService = idempotencyService;
+        this.sendAdmission = sendAdmission;
     }
 
     @PostMapping("/send")
     public ResponseEntity<SendMessageResponse> send(
         @Valid @RequestBody SendMessageRequest request,
-        @RequestHeader(value = "X-Gateway-Base-Url", required = false) String gatewayBaseUrl,
-        @RequestHeader(value = "Authorization", required = false) String gatewayToken,
-        @RequestHeader(value = "X-Gateway-Token", required = false) String legacyGatewayToken
+        @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+        GatewayRequestOptions options
     ) {
-        String resolvedToken = gatewayToken != null && !gatewayToken.isBlank() ? gatewayToken : legacyGatewayToken;
-        gatewayClientService.sendMessage(request, new GatewayRequestOptions(gatewayBaseUrl, resolvedToken));
-        return ResponseEntity.ok(new SendMessageResponse(true, "Message sent"));
+        return idempotencyService.execute(
+            IdempotencyService.SCOPE_MESSAGE,
+            idempotencyKey,
+            Arrays.asList(request, options.baseUrl()),
+            SendMessageResponse.class,
+            () -> {
+                sendAdmission.admit(options, 1);
+                Long messageId = outboxService.enqueue(
+                    request,
+                    options,
+                    OutboxService.SOURCE_MESSAGE,
+                    null
+                ).getId();
+                return ResponseEntity.accepted().body(new SendMessageResponse(true, "Message queued", messageId));
+            }
+        );
+    }
+
+    /**
+     * Accepts a JSON array or NDJSON of {@link SendMessageRequest} and streams one NDJSON result per
+     * item as it is delivered. Invalid items are reported without stopping the rest.
+     */
+    @PostMapping(
+        value = "/send-batch",
+        consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+        produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    public ResponseEntity<ResponseBodyEmitter> sendBatch(
+        InputStream body,
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        GatewayRequestOptions options
+    ) throws IOException {
+        List<BatchSendService.Item> items = batchSendService.read(body, MediaType.APPLICATION_NDJSON.includes(contentType));
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(batchSendService.stream(items, options));
+    }
+
+    @GetMapping("/outbox/{id}")
+    public ResponseEntity<OutboundMessageResponse> outboxMessage(@PathVariable Long id) {
+        return ResponseEntity.ok(outboxService.getMessage(id));
     }
 
-    @GetMapping("/replies")
-    public ResponseEntity<List<GatewayReplyMessage>> replies(
+    /**
+     * Writes the stored page's pre-rendered JSON straight to the response; the body is exactly
+     * what a list of {@link GatewayReplyMessage} would serialize to.
+     */
+    @GetMapping(value = "/replies", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> replies(
         @RequestParam(required = false) String phone,
         @RequestParam(required = false) Long since,
         @RequestParam(required = false) Integer limit,
-        @RequestHeader(value = "X-Gateway-Base-Url", required = false) String gatewayBaseUrl,
-        @RequestHeader(value = "Authorization", required = false) String gatewayToken,
-        @RequestHeader(value = "X-Gateway-Token", required = false) String legacyGatewayToken
+        GatewayRequestOptions options
     ) {
-        String resolvedToken = gatewayToken != null && !gatewayToken.isBlank() ? gatewayToken : legacyGatewayToken;
-        return ResponseEntity.ok(gatewayClientService.fetchMessages(
-            phone,
-            since,
-            limit,
-            new GatewayRequestOptions(gatewayBaseUrl, resolvedToken)
-        ));
+        List<String> gateways = inboundPoller.sync(options);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(inboundMessageService.searchJson(gateways, phone, since, limit));
     }
 
+    /**
+     * Answers from the background prober's cache and the circuit breaker; never calls a phone.
+     * Healthy while at least one of the gateways in scope is up with a closed circuit.
+     */
     @GetMapping("/health")
-    public ResponseEntity<Map<String, Object>> health(
-        @RequestHeader(value = "X-Gateway-Base-Url", required = false) String gatewayBaseUrl,
-        @RequestHeader(value = "Authorization", required = false) String gatewayToken,
-        @RequestHeader(value = "X-Gateway-Token", required = false) String legacyGatewayToken
-    ) {
-        String resolvedToken = gatewayToken != null && !gatewayToken.isBlank() ? gatewayToken : legacyGatewayToken;
-        gatewayClientService.fetchMessages(null, null, 1, new GatewayRequestOptions(gatewayBaseUrl, resolvedToken));
-        return ResponseEntity.ok(Map.of("success", true, "message", "Gateway reachable"));
+    public ResponseEntity<Map<String, Object>> health(GatewayRequestOptions options) {
+        List<GatewayHealthStats> gateways = gatewayHealthProber.health(options);
+        List<GatewayCircuitStats> circuits = gateways.stream()
+            .map(gateway -> gatewayCircuitBreaker.stats(gateway.gateway()))
+            .toList();
+
+        boolean available = false;
+        boolean allOpen = !circuits.isEmpty();
+        boolean allUnknown = !gateways.isEmpty();
+        for (int i = 0; i < gateways.size(); i++) {
+            boolean open = GatewayCircuitBreaker.State.OPEN.name().equals(circuits.get(i).state());
+            String status = gateways.get(i).status();
+            available |= !open && (!gatewayHealthProber.isEnabled() || GatewayHealthProber.Status.UP.name().equals(status));
+            allOpen &= open;
+            allUnknown &= GatewayHealthProber.Status.UNKNOWN.name().equals(status);
+        }
+
+        String message;
+        if (available) {
+            message = "Gateway reachable";
+        } else if (gateways.isEmpty()) {
+            message = "No gateway configured";
+        } else if (allOpen) {
+            message = "Gateway circuit open";
+        } else if (allUnknown) {
+            message = "Gateway not probed yet";
+        } else {
+            message = "Gateway unreachable";
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", available);
+        body.put("message", message);
+        body.put("gateways", gateways);
+        body.put("circuits", circuits);
+        return ResponseEntity.status(available ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(body);
     }
 
     @GetMapping("/debug/config")
@@ -95,6 +238,66 @@ public class MessageController {
         ));
     }
 
+    @GetMapping("/debug/transport")
+    public ResponseEntity<Map<String, Object>> debugTransport() {
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "type", gatewayTransport.type(),
+            "pools", gatewayTransport.poolStats(),
+            "timeouts", gatewayTimeouts.stats()
+        ));
+    }
+
+    @GetMapping("/debug/rate-limits")
+    public ResponseEntity<Map<String, Object>> debugRateLimits() {
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "buckets", gatewayRateLimiter.stats()
+        ));
+    }
+
+    @GetMapping("/debug/retries")
+    public ResponseEntity<Map<String, Object>> debugRetries() {
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "gateways", gatewayRetryPolicy.stats()
+        ));
+    }
+
+    @GetMapping("/debug/bulkheads")
+    public ResponseEntity<Map<String, Object>> debugBulkheads() {
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "gateways", gatewayBulkhead.stats()
+        ));
+    }
+
+    @GetMapping("/debug/routing")
+    public ResponseEntity<Map<String, Object>> debugRouting() {
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "strategy", gatewayRouter.strategy(),
+            "lanes", gatewayRouter.stats()
+        ));
+    }
+
+    @GetMapping("/debug/inbound")
+    public ResponseEntity<Map<String, Object>> debugInbound() {
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "gateways", inboundPoller.stats(),
+            "stream", inboundStreamService.stats()
+        ));
+    }
+
+    @GetMapping("/debug/coalescing")
+    public ResponseEntity<Map<String, Object>> debugCoalescing() {
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "caches", List.of(gatewayClientService.fetchCoalescingStats(), inboundMessageService.readCoalescingStats())
+        ));
+    }
+
     private String maskToken(String token) {
         if (token == null || token.isBlank()) {
             return "(empty)";
@@ -0,0 +1,65 @@
+package com.example.smsbackend.controller;
+
+import com.example.smsbackend.dto.CreateRolloutRequest;
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import com.example.smsbackend.dto.RolloutDeviceResponse;
+import com.example.smsbackend.dto.RolloutResponse;
+import com.example.smsbackend.service.ConfigRolloutService;
+import jakarta.validation.Valid;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api")
+public class RolloutController {
+
+    private final ConfigRolloutService rolloutService;
+
+    public RolloutController(ConfigRolloutService rolloutService) {
+        this.rolloutService = rolloutService;
+    }
+
+    @PostMapping("/rollouts")
+    public ResponseEntity<RolloutResponse> createRollout(
+        @Valid @RequestBody CreateRolloutRequest request,
+        GatewayRequestOptions options
+    ) {
+        return ResponseEntity.accepted().body(rolloutService.create(request, options));
+    }
+
+    @GetMapping("/rollouts")
+    public ResponseEntity<List<RolloutResponse>> listRollouts() {
+        return ResponseEntity.ok(rolloutService.listRollouts());
+    }
+
+    @GetMapping("/rollouts/{rolloutId}")
+    public ResponseEntity<RolloutResponse> getRollout(@PathVariable Long rolloutId) {
+        return ResponseEntity.ok(rolloutService.getRollout(rolloutId));
+    }
+
+    @GetMapping("/rollouts/{rolloutId}/devices")
+    public ResponseEntity<List<RolloutDeviceResponse>> listDevices(@PathVariable Long rolloutId) {
+        return ResponseEntity.ok(rolloutService.listDevices(rolloutId));
+    }
+
+    @PostMapping("/rollouts/{rolloutId}/pause")
+    public ResponseEntity<RolloutResponse> pause(@PathVariable Long rolloutId) {
+        return ResponseEntity.ok(rolloutService.pause(rolloutId));
+    }
+
+    @PostMapping("/rollouts/{rolloutId}/resume")
+    public ResponseEntity<RolloutResponse> resume(@PathVariable Long rolloutId) {
+        return ResponseEntity.ok(rolloutService.resume(rolloutId));
+    }
+
+    @PostMapping("/rollouts/{rolloutId}/cancel")
+    public ResponseEntity<RolloutResponse> cancel(@PathVariable Long rolloutId) {
+        return ResponseEntity.ok(rolloutService.cancel(rolloutId));
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.smsbackend.dto;
+
+public record AssignGatewayRequest(
+    Long gatewayId
+) {
+}
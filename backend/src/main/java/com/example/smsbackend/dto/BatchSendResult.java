@@ -0,0 +1,11 @@
+package com.example.smsbackend.dto;
+
+public record BatchSendResult(
+    int index,
+    boolean success,
+    Long messageId,
+    String status,
+    String sentVia,
+    String error
+) {
+}
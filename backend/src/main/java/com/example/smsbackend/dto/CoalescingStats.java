@@ -0,0 +1,12 @@
+package com.example.smsbackend.dto;
+
+public record CoalescingStats(
+    String name,
+    long requests,
+    long hits,
+    long coalesced,
+    long loads,
+    long failures,
+    int entries
+) {
+}
@@ -0,0 +1,17 @@
+package com.example.smsbackend.dto;
+
+import java.time.Instant;
+
+public record CommandAckResponse(
+    Long id,
+    Long deviceId,
+    Long messageId,
+    String command,
+    String status,
+    Instant sentAt,
+    Instant resolvedAt,
+    Long ackLatencyMs,
+    Long replyId,
+    String detail
+) {
+}
@@ -0,0 +1,14 @@
+package com.example.smsbackend.dto;
+
+import java.time.Instant;
+
+public record CommandAckStats(
+    Instant since,
+    long pending,
+    long acked,
+    long failed,
+    long timedOut,
+    Double meanAckLatencyMs,
+    Long maxAckLatencyMs
+) {
+}
@@ -0,0 +1,19 @@
+package com.example.smsbackend.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Give exactly one of {@code locationId}, {@code managerId} or {@code deviceIds}. The
+ * {@code deviceId} inside {@code config} is ignored.
+ */
+public record CreateRolloutRequest(
+    @Size(max = 120) String name,
+    Long locationId,
+    Long managerId,
+    List<Long> deviceIds,
+    Integer devicesPerMinute,
+    @NotNull SendConfigRequest config
+) {
+}
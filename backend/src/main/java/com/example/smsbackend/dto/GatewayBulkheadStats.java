@@ -0,0 +1,13 @@
+package com.example.smsbackend.dto;
+
+public record GatewayBulkheadStats(
+    String gateway,
+    int maxConcurrentCalls,
+    int maxQueue,
+    int active,
+    int queued,
+    long accepted,
+    long rejected,
+    double maxWaitMs
+) {
+}
@@ -0,0 +1,17 @@
+package com.example.smsbackend.dto;
+
+import java.time.Instant;
+
+public record GatewayCircuitStats(
+    String gateway,
+    String state,
+    int bufferedCalls,
+    double failureRate,
+    double slowCallRate,
+    long rejectedCalls,
+    Instant lastStateChange,
+    Instant lastSuccessAt,
+    Instant lastFailureAt,
+    String lastError
+) {
+}
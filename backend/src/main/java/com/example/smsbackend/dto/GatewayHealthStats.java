@@ -0,0 +1,16 @@
+package com.example.smsbackend.dto;
+
+import java.time.Instant;
+
+public record GatewayHealthStats(
+    String gateway,
+    String status,
+    Double latencyMs,
+    Instant lastCheckedAt,
+    Instant lastSuccessAt,
+    Long ageMs,
+    boolean stale,
+    int consecutiveFailures,
+    String lastError
+) {
+}
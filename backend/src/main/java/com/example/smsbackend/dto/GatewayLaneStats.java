@@ -0,0 +1,12 @@
+package com.example.smsbackend.dto;
+
+public record GatewayLaneStats(
+    String phoneId,
+    String baseUrl,
+    Integer slot,
+    int weight,
+    int outstanding,
+    long routed,
+    boolean available
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.smsbackend.dto;
+
+public record GatewayPoolStats(
+    String gateway,
+    int leased,
+    int available,
+    int pending,
+    int max
+) {
+}
@@ -0,0 +1,13 @@
+package com.example.smsbackend.dto;
+
+public record GatewayRateLimitStats(
+    String key,
+    double permitsPerSecond,
+    int burst,
+    double availablePermits,
+    long granted,
+    long deferred,
+    double averageDeferMs,
+    double maxDeferMs
+) {
+}
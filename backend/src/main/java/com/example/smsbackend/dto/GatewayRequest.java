@@ -0,0 +1,14 @@
+package com.example.smsbackend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import java.util.List;
+
+public record GatewayRequest(
+    @NotBlank String name,
+    @NotBlank String baseUrl,
+    String token,
+    List<Integer> slots,
+    Long locationId,
+    Boolean enabled
+) {
+}
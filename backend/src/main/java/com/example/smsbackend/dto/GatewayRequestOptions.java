@@ -1,7 +1,16 @@
 package com.example.smsbackend.dto;
 
+/**
+ * Which gateway to use and how to authenticate. {@code gatewayId} names a registered gateway;
+ * otherwise {@code baseUrl}/{@code token} are an ad-hoc override, and all-null means the default
+ * routing.
+ */
 public record GatewayRequestOptions(
     String baseUrl,
-    String token
+    String token,
+    Long gatewayId
 ) {
+    public GatewayRequestOptions(String baseUrl, String token) {
+        this(baseUrl, token, null);
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.smsbackend.dto;
+
+import java.util.List;
+
+public record GatewayResponse(
+    Long id,
+    String name,
+    String baseUrl,
+    String tokenPreview,
+    List<Integer> slots,
+    Long locationId,
+    boolean enabled,
+    long deviceCount
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.smsbackend.dto;
+
+public record GatewayRetryStats(
+    String gateway,
+    double availableRetries,
+    long calls,
+    long retries,
+    long budgetExhausted
+) {
+}
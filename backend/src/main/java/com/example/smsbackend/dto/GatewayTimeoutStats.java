@@ -0,0 +1,12 @@
+package com.example.smsbackend.dto;
+
+public record GatewayTimeoutStats(
+    String gateway,
+    long samples,
+    boolean adaptive,
+    Double p50Ms,
+    Double percentileMs,
+    long connectTimeoutMs,
+    long readTimeoutMs
+) {
+}
@@ -0,0 +1,15 @@
+package com.example.smsbackend.dto;
+
+import java.time.Instant;
+
+public record InboundGatewayStats(
+    String gateway,
+    boolean configured,
+    Long sinceMillis,
+    Instant lastPolledAt,
+    Instant lastSuccessAt,
+    int lastFetched,
+    long totalStored,
+    String lastError
+) {
+}
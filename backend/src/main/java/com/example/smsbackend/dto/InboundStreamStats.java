@@ -0,0 +1,9 @@
+package com.example.smsbackend.dto;
+
+public record InboundStreamStats(
+    int subscribers,
+    long delivered,
+    long dropped,
+    int bufferSize
+) {
+}
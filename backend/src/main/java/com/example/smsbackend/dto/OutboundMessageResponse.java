@@ -0,0 +1,16 @@
+package com.example.smsbackend.dto;
+
+import java.time.Instant;
+
+public record OutboundMessageResponse(
+    Long id,
+    String to,
+    String status,
+    int attempts,
+    String lastError,
+    String sentVia,
+    Instant createdAt,
+    Instant lastAttemptAt,
+    Instant sentAt
+) {
+}
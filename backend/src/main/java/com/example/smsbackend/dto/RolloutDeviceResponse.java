@@ -0,0 +1,15 @@
+package com.example.smsbackend.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record RolloutDeviceResponse(
+    Long deviceId,
+    String phoneNumber,
+    String status,
+    int commands,
+    List<Long> messageIds,
+    String lastError,
+    Instant updatedAt
+) {
+}
@@ -0,0 +1,22 @@
+package com.example.smsbackend.dto;
+
+import java.time.Instant;
+
+public record RolloutResponse(
+    Long id,
+    String name,
+    String status,
+    String target,
+    boolean force,
+    int devicesPerMinute,
+    Instant createdAt,
+    Instant completedAt,
+    long devices,
+    long pending,
+    long queued,
+    long sent,
+    long unchanged,
+    long failed,
+    long cancelled
+) {
+}
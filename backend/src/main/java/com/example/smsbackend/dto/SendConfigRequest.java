@@ -61,6 +61,7 @@ public record SendConfigRequest(
     String heartRateInterval,
     Boolean stepDetectionEnabled,
     String stepDetectionInterval,
-    Boolean checkStatus
+    Boolean checkStatus,
+    Boolean force
 ) {
 }
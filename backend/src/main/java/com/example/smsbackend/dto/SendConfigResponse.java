@@ -7,6 +7,7 @@ public record SendConfigResponse(
     Long deviceId,
     String deviceNumber,
     String commandPreview,
+    int unchangedCommands,
     List<SentMessageResponse> messages
 ) {
 }
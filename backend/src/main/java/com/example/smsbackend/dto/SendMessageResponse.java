@@ -2,6 +2,7 @@ package com.example.smsbackend.dto;
 
 public record SendMessageResponse(
     boolean success,
-    String info
+    String info,
+    Long messageId
 ) {
 }
@@ -1,6 +1,7 @@
 package com.example.smsbackend.dto;
 
 public record SentMessageResponse(
+    Long messageId,
     String body
 ) {
 }
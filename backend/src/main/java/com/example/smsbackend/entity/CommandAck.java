@@ -0,0 +1,172 @@
+package com.example.smsbackend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * One EV12 command sent to a device and what became of it. Commands packed into the same SMS share
+ * {@code outboundMessageId} and are answered by one reply. {@code sentAt} is set when the gateway
+ * accepts the SMS, which starts the ack window; {@code phoneKey} is {@code PhoneNumbers.key} of the
+ * device number. {@code commandKey} is the setting the command writes, or null for a one-shot
+ * command.
+ */
+@Entity
+@Table(
+    name = "command_acks",
+    indexes = {
+        @Index(name = "idx_command_ack_phone_status", columnList = "phoneKey,status"),
+        @Index(name = "idx_command_ack_message", columnList = "outboundMessageId"),
+        @Index(name = "idx_command_ack_device", columnList = "deviceId")
+    }
+)
+public class CommandAck {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long outboundMessageId;
+
+    @Column(nullable = false)
+    private Long deviceId;
+
+    @Column(nullable = false, length = 16)
+    private String phoneKey;
+
+    @Column(nullable = false, length = 255)
+    private String command;
+
+    @Column(length = 64)
+    private String commandKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CommandAckStatus status;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column
+    private Instant sentAt;
+
+    @Column
+    private Instant resolvedAt;
+
+    @Column
+    private Long ackLatencyMs;
+
+    @Column
+    private Long replyMessageId;
+
+    @Column(length = 500)
+    private String detail;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getOutboundMessageId() {
+        return outboundMessageId;
+    }
+
+    public void setOutboundMessageId(Long outboundMessageId) {
+        this.outboundMessageId = outboundMessageId;
+    }
+
+    public Long getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(Long deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public String getPhoneKey() {
+        return phoneKey;
+    }
+
+    public void setPhoneKey(String phoneKey) {
+        this.phoneKey = phoneKey;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public void setCommand(String command) {
+        this.command = command;
+    }
+
+    public String getCommandKey() {
+        return commandKey;
+    }
+
+    public void setCommandKey(String commandKey) {
+        this.commandKey = commandKey;
+    }
+
+    public CommandAckStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(CommandAckStatus status) {
+        this.status = status;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(Instant sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    public Instant getResolvedAt() {
+        return resolvedAt;
+    }
+
+    public void setResolvedAt(Instant resolvedAt) {
+        this.resolvedAt = resolvedAt;
+    }
+
+    public Long getAckLatencyMs() {
+        return ackLatencyMs;
+    }
+
+    public void setAckLatencyMs(Long ackLatencyMs) {
+        this.ackLatencyMs = ackLatencyMs;
+    }
+
+    public Long getReplyMessageId() {
+        return replyMessageId;
+    }
+
+    public void setReplyMessageId(Long replyMessageId) {
+        this.replyMessageId = replyMessageId;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public void setDetail(String detail) {
+        this.detail = detail;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.smsbackend.entity;
+
+public enum CommandAckStatus {
+    PENDING,
+    ACKED,
+    FAILED,
+    TIMED_OUT
+}
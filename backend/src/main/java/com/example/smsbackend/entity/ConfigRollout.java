@@ -0,0 +1,150 @@
+package com.example.smsbackend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * One EV12 config template pushed to a set of devices, a few at a time. {@code template} is the
+ * {@code SendConfigRequest} as JSON; its {@code deviceId} is ignored.
+ */
+@Entity
+@Table(name = "config_rollouts")
+public class ConfigRollout {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 120)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ConfigRolloutStatus status;
+
+    @Column(nullable = false, length = 255)
+    private String target;
+
+    @Column(nullable = false, length = 8000)
+    private String template;
+
+    @Column(nullable = false)
+    private boolean force;
+
+    @Column(nullable = false)
+    private int devicesPerMinute;
+
+    @Column
+    private Long gatewayId;
+
+    @Column(length = 255)
+    private String gatewayBaseUrl;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant nextDispatchAt;
+
+    @Column
+    private Instant completedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public ConfigRolloutStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ConfigRolloutStatus status) {
+        this.status = status;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public void setTarget(String target) {
+        this.target = target;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public void setTemplate(String template) {
+        this.template = template;
+    }
+
+    public boolean isForce() {
+        return force;
+    }
+
+    public void setForce(boolean force) {
+        this.force = force;
+    }
+
+    public int getDevicesPerMinute() {
+        return devicesPerMinute;
+    }
+
+    public void setDevicesPerMinute(int devicesPerMinute) {
+        this.devicesPerMinute = devicesPerMinute;
+    }
+
+    public Long getGatewayId() {
+        return gatewayId;
+    }
+
+    public void setGatewayId(Long gatewayId) {
+        this.gatewayId = gatewayId;
+    }
+
+    public String getGatewayBaseUrl() {
+        return gatewayBaseUrl;
+    }
+
+    public void setGatewayBaseUrl(String gatewayBaseUrl) {
+        this.gatewayBaseUrl = gatewayBaseUrl;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getNextDispatchAt() {
+        return nextDispatchAt;
+    }
+
+    public void setNextDispatchAt(Instant nextDispatchAt) {
+        this.nextDispatchAt = nextDispatchAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+}
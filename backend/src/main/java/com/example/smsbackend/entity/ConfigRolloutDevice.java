@@ -0,0 +1,121 @@
+package com.example.smsbackend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * Progress of one device in a rollout. {@code messageIds} lists the outbox messages queued for it,
+ * comma-separated, so its status can follow them to {@code SENT} or {@code FAILED}.
+ */
+@Entity
+@Table(
+    name = "config_rollout_devices",
+    indexes = @Index(name = "idx_rollout_device_status", columnList = "rolloutId,status")
+)
+public class ConfigRolloutDevice {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long rolloutId;
+
+    @Column(nullable = false)
+    private Long deviceId;
+
+    @Column(nullable = false, length = 32)
+    private String phoneNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RolloutDeviceStatus status;
+
+    @Column(nullable = false)
+    private int commands;
+
+    @Column(length = 500)
+    private String messageIds;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getRolloutId() {
+        return rolloutId;
+    }
+
+    public void setRolloutId(Long rolloutId) {
+        this.rolloutId = rolloutId;
+    }
+
+    public Long getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(Long deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public void setPhoneNumber(String phoneNumber) {
+        this.phoneNumber = phoneNumber;
+    }
+
+    public RolloutDeviceStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(RolloutDeviceStatus status) {
+        this.status = status;
+    }
+
+    public int getCommands() {
+        return commands;
+    }
+
+    public void setCommands(int commands) {
+        this.commands = commands;
+    }
+
+    public String getMessageIds() {
+        return messageIds;
+    }
+
+    public void setMessageIds(String messageIds) {
+        this.messageIds = messageIds;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
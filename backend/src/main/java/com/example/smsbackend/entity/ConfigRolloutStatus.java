@@ -0,0 +1,8 @@
+package com.example.smsbackend.entity;
+
+public enum ConfigRolloutStatus {
+    RUNNING,
+    PAUSED,
+    COMPLETED,
+    CANCELLED
+}
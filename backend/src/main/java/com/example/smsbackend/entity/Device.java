@@ -28,6 +28,10 @@ public class Device {
     @JoinColumn(name = "user_id", nullable = false)
     private AppUser user;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "gateway_id")
+    private Gateway gateway;
+
     public Long getId() {
         return id;
     }
@@ -55,4 +59,12 @@ public class Device {
     public void setUser(AppUser user) {
         this.user = user;
     }
+
+    public Gateway getGateway() {
+        return gateway;
+    }
+
+    public void setGateway(Gateway gateway) {
+        this.gateway = gateway;
+    }
 }
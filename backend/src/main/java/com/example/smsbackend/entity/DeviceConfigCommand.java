@@ -0,0 +1,75 @@
+package com.example.smsbackend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.Instant;
+
+/**
+ * The last EV12 command a gateway accepted for one setting of a device. Values still waiting in
+ * the outbox are {@link DeviceConfigPending} rows, copied into {@code command} when their message
+ * is sent.
+ */
+@Entity
+@Table(
+    name = "device_config_commands",
+    uniqueConstraints = @UniqueConstraint(name = "uk_device_config_key", columnNames = {"deviceId", "commandKey"})
+)
+public class DeviceConfigCommand {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long deviceId;
+
+    @Column(nullable = false, length = 64)
+    private String commandKey;
+
+    @Column(length = 255)
+    private String command;
+
+    @Column
+    private Instant appliedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(Long deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public String getCommandKey() {
+        return commandKey;
+    }
+
+    public void setCommandKey(String commandKey) {
+        this.commandKey = commandKey;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public void setCommand(String command) {
+        this.command = command;
+    }
+
+    public Instant getAppliedAt() {
+        return appliedAt;
+    }
+
+    public void setAppliedAt(Instant appliedAt) {
+        this.appliedAt = appliedAt;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.smsbackend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * One setting value queued for a device in outbound message {@code messageId}. Every push keeps
+ * its own row until its SMS is sent or given up on, so the SMS the gateway takes last decides
+ * {@link DeviceConfigCommand#getCommand()}, even when an older push is sent after a newer one.
+ */
+@Entity
+@Table(
+    name = "device_config_pending",
+    indexes = @Index(name = "idx_device_config_pending_message_id", columnList = "messageId")
+)
+public class DeviceConfigPending {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long deviceId;
+
+    @Column(nullable = false, length = 64)
+    private String commandKey;
+
+    @Column(nullable = false, length = 255)
+    private String command;
+
+    @Column(nullable = false)
+    private Long messageId;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(Long deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public String getCommandKey() {
+        return commandKey;
+    }
+
+    public void setCommandKey(String commandKey) {
+        this.commandKey = commandKey;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public void setCommand(String command) {
+        this.command = command;
+    }
+
+    public Long getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(Long messageId) {
+        this.messageId = messageId;
+    }
+}
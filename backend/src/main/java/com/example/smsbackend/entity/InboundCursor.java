@@ -0,0 +1,94 @@
+package com.example.smsbackend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * High-water mark of the inbound poller for one gateway: the newest reply date already stored,
+ * sent back to the phone as {@code since} on the next poll.
+ */
+@Entity
+@Table(name = "inbound_cursors")
+public class InboundCursor {
+
+    @Id
+    @Column(length = 255)
+    private String gateway;
+
+    @Column
+    private Long sinceMillis;
+
+    @Column
+    private Instant lastPolledAt;
+
+    @Column
+    private Instant lastSuccessAt;
+
+    @Column(nullable = false)
+    private int lastFetched;
+
+    @Column(nullable = false)
+    private long totalStored;
+
+    @Column(length = 500)
+    private String lastError;
+
+    public String getGateway() {
+        return gateway;
+    }
+
+    public void setGateway(String gateway) {
+        this.gateway = gateway;
+    }
+
+    public Long getSinceMillis() {
+        return sinceMillis;
+    }
+
+    public void setSinceMillis(Long sinceMillis) {
+        this.sinceMillis = sinceMillis;
+    }
+
+    public Instant getLastPolledAt() {
+        return lastPolledAt;
+    }
+
+    public void setLastPolledAt(Instant lastPolledAt) {
+        this.lastPolledAt = lastPolledAt;
+    }
+
+    public Instant getLastSuccessAt() {
+        return lastSuccessAt;
+    }
+
+    public void setLastSuccessAt(Instant lastSuccessAt) {
+        this.lastSuccessAt = lastSuccessAt;
+    }
+
+    public int getLastFetched() {
+        return lastFetched;
+    }
+
+    public void setLastFetched(int lastFetched) {
+        this.lastFetched = lastFetched;
+    }
+
+    public long getTotalStored() {
+        return totalStored;
+    }
+
+    public void setTotalStored(long totalStored) {
+        this.totalStored = totalStored;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
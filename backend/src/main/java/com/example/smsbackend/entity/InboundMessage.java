@@ -0,0 +1,108 @@
+package com.example.smsbackend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.Instant;
+
+@Entity
+@Table(
+    name = "inbound_messages",
+    uniqueConstraints = @UniqueConstraint(name = "uk_inbound_gateway_message", columnNames = {"gateway", "gatewayMessageId"}),
+    indexes = {
+        @Index(name = "idx_inbound_gateway_received", columnList = "gateway,receivedAt"),
+        @Index(name = "idx_inbound_from_digits", columnList = "fromDigits")
+    }
+)
+public class InboundMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 255)
+    private String gateway;
+
+    @Column(nullable = false)
+    private long gatewayMessageId;
+
+    @Column(length = 64)
+    private String fromNumber;
+
+    @Column(nullable = false, length = 32)
+    private String fromDigits;
+
+    @Column(length = 4000)
+    private String body;
+
+    @Column(nullable = false)
+    private Instant receivedAt;
+
+    @Column(nullable = false)
+    private Instant storedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getGateway() {
+        return gateway;
+    }
+
+    public void setGateway(String gateway) {
+        this.gateway = gateway;
+    }
+
+    public long getGatewayMessageId() {
+        return gatewayMessageId;
+    }
+
+    public void setGatewayMessageId(long gatewayMessageId) {
+        this.gatewayMessageId = gatewayMessageId;
+    }
+
+    public String getFromNumber() {
+        return fromNumber;
+    }
+
+    public void setFromNumber(String fromNumber) {
+        this.fromNumber = fromNumber;
+    }
+
+    public String getFromDigits() {
+        return fromDigits;
+    }
+
+    public void setFromDigits(String fromDigits) {
+        this.fromDigits = fromDigits;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public Instant getReceivedAt() {
+        return receivedAt;
+    }
+
+    public void setReceivedAt(Instant receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+
+    public Instant getStoredAt() {
+        return storedAt;
+    }
+
+    public void setStoredAt(Instant storedAt) {
+        this.storedAt = storedAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.smsbackend.entity;
+
+public enum OutboundMessageStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
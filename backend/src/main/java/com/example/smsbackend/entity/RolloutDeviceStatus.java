@@ -0,0 +1,10 @@
+package com.example.smsbackend.entity;
+
+public enum RolloutDeviceStatus {
+    PENDING,
+    QUEUED,
+    SENT,
+    UNCHANGED,
+    FAILED,
+    CANCELLED
+}
@@ -0,0 +1,71 @@
+package com.example.smsbackend.repository;
+
+import com.example.smsbackend.entity.CommandAck;
+import com.example.smsbackend.entity.CommandAckStatus;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CommandAckRepository extends JpaRepository<CommandAck, Long> {
+    @Query("""
+        select c from CommandAck c
+        where c.phoneKey in :phoneKeys
+          and c.status = com.example.smsbackend.entity.CommandAckStatus.PENDING
+          and c.sentAt is not null
+        order by c.sentAt asc, c.outboundMessageId asc, c.id asc
+        """)
+    List<CommandAck> findAwaitingReply(@Param("phoneKeys") Collection<String> phoneKeys);
+
+    @Query("""
+        select c from CommandAck c
+        where (:deviceId is null or c.deviceId = :deviceId)
+          and (:status is null or c.status = :status)
+        order by c.id desc
+        """)
+    List<CommandAck> search(
+        @Param("deviceId") Long deviceId,
+        @Param("status") CommandAckStatus status,
+        Pageable pageable
+    );
+
+    @Query("""
+        select c.status, count(c), avg(c.ackLatencyMs), max(c.ackLatencyMs) from CommandAck c
+        where c.createdAt >= :since
+        group by c.status
+        """)
+    List<Object[]> summarize(@Param("since") Instant since);
+
+    @Modifying
+    @Query("""
+        update CommandAck c set c.sentAt = :sentAt
+        where c.outboundMessageId = :messageId
+          and c.status = com.example.smsbackend.entity.CommandAckStatus.PENDING
+        """)
+    int markSent(@Param("messageId") Long messageId, @Param("sentAt") Instant sentAt);
+
+    @Modifying
+    @Query("""
+        update CommandAck c
+        set c.status = com.example.smsbackend.entity.CommandAckStatus.FAILED,
+            c.resolvedAt = :now,
+            c.detail = :detail
+        where c.outboundMessageId = :messageId
+          and c.status = com.example.smsbackend.entity.CommandAckStatus.PENDING
+        """)
+    int markUndelivered(@Param("messageId") Long messageId, @Param("now") Instant now, @Param("detail") String detail);
+
+    @Modifying
+    @Query("""
+        update CommandAck c
+        set c.status = com.example.smsbackend.entity.CommandAckStatus.TIMED_OUT,
+            c.resolvedAt = :now
+        where c.status = com.example.smsbackend.entity.CommandAckStatus.PENDING
+          and c.sentAt < :cutoff
+        """)
+    int expire(@Param("cutoff") Instant cutoff, @Param("now") Instant now);
+}
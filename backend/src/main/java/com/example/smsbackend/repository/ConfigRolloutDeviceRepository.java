@@ -0,0 +1,67 @@
+package com.example.smsbackend.repository;
+
+import com.example.smsbackend.entity.ConfigRolloutDevice;
+import com.example.smsbackend.entity.RolloutDeviceStatus;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ConfigRolloutDeviceRepository extends JpaRepository<ConfigRolloutDevice, Long> {
+    List<ConfigRolloutDevice> findByRolloutIdOrderByIdAsc(Long rolloutId);
+
+    List<ConfigRolloutDevice> findByRolloutIdAndStatusOrderByIdAsc(Long rolloutId, RolloutDeviceStatus status, Pageable pageable);
+
+    boolean existsByRolloutIdAndStatusIn(Long rolloutId, Collection<RolloutDeviceStatus> statuses);
+
+    @Query("""
+        select d.rolloutId, d.status, count(d) from ConfigRolloutDevice d
+        where d.rolloutId in :rolloutIds
+        group by d.rolloutId, d.status
+        """)
+    List<Object[]> countByStatus(@Param("rolloutIds") Collection<Long> rolloutIds);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+        update ConfigRolloutDevice d
+        set d.status = com.example.smsbackend.entity.RolloutDeviceStatus.CANCELLED, d.updatedAt = :now
+        where d.rolloutId = :rolloutId
+          and d.status = com.example.smsbackend.entity.RolloutDeviceStatus.PENDING
+        """)
+    int cancelPending(@Param("rolloutId") Long rolloutId, @Param("now") Instant now);
+
+    /**
+     * Moves a device from {@code PENDING} to {@code QUEUED} while its rollout is still running;
+     * returns 0 when a cancel got there first.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+        update ConfigRolloutDevice d
+        set d.status = com.example.smsbackend.entity.RolloutDeviceStatus.QUEUED, d.updatedAt = :now
+        where d.id = :id
+          and d.status = com.example.smsbackend.entity.RolloutDeviceStatus.PENDING
+          and exists (
+              select r.id from ConfigRollout r
+              where r.id = d.rolloutId and r.status = com.example.smsbackend.entity.ConfigRolloutStatus.RUNNING
+          )
+        """)
+    int claimPending(@Param("id") Long id, @Param("now") Instant now);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+        update ConfigRolloutDevice d
+        set d.status = :status, d.lastError = :lastError, d.updatedAt = :now
+        where d.id = :id
+          and d.status = com.example.smsbackend.entity.RolloutDeviceStatus.PENDING
+        """)
+    int settlePending(
+        @Param("id") Long id,
+        @Param("status") RolloutDeviceStatus status,
+        @Param("lastError") String lastError,
+        @Param("now") Instant now
+    );
+}
@@ -0,0 +1,42 @@
+package com.example.smsbackend.repository;
+
+import com.example.smsbackend.entity.ConfigRollout;
+import com.example.smsbackend.entity.ConfigRolloutStatus;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ConfigRolloutRepository extends JpaRepository<ConfigRollout, Long> {
+    List<ConfigRollout> findAllByOrderByIdDesc();
+
+    @Query("select r.id from ConfigRollout r where r.status = :status order by r.id")
+    List<Long> findIdsByStatus(@Param("status") ConfigRolloutStatus status);
+
+    @Query("select r.status from ConfigRollout r where r.id = :id")
+    Optional<ConfigRolloutStatus> findStatus(@Param("id") Long id);
+
+    /**
+     * Moves a rollout from {@code from} to {@code to}; returns 0 when it was no longer in
+     * {@code from}, so a pause or cancel racing the runner is never overwritten.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+        update ConfigRollout r
+        set r.status = :to, r.completedAt = :completedAt
+        where r.id = :id and r.status = :from
+        """)
+    int transition(
+        @Param("id") Long id,
+        @Param("from") ConfigRolloutStatus from,
+        @Param("to") ConfigRolloutStatus to,
+        @Param("completedAt") Instant completedAt
+    );
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update ConfigRollout r set r.nextDispatchAt = :nextDispatchAt where r.id = :id")
+    int reschedule(@Param("id") Long id, @Param("nextDispatchAt") Instant nextDispatchAt);
+}
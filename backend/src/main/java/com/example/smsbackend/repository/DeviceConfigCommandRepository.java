@@ -0,0 +1,76 @@
+package com.example.smsbackend.repository;
+
+import com.example.smsbackend.entity.DeviceConfigCommand;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface DeviceConfigCommandRepository extends JpaRepository<DeviceConfigCommand, Long> {
+    List<DeviceConfigCommand> findByDeviceId(Long deviceId);
+
+    /**
+     * Makes the values queued in message {@code messageId} the applied ones. Its
+     * {@link com.example.smsbackend.entity.DeviceConfigPending} rows are left for the caller to delete.
+     */
+    @Modifying
+    @Query("""
+        update DeviceConfigCommand c
+        set c.command = (
+                select p.command from DeviceConfigPending p
+                where p.messageId = :messageId and p.deviceId = c.deviceId and p.commandKey = c.commandKey
+            ),
+            c.appliedAt = :appliedAt
+        where exists (
+            select p.id from DeviceConfigPending p
+            where p.messageId = :messageId and p.deviceId = c.deviceId and p.commandKey = c.commandKey
+        )
+        """)
+    int applyPending(@Param("messageId") Long messageId, @Param("appliedAt") Instant appliedAt);
+
+    @Modifying
+    @Query("""
+        update DeviceConfigCommand c
+        set c.command = null
+        where exists (
+            select p.id from DeviceConfigPending p
+            where p.messageId = :messageId and p.deviceId = c.deviceId and p.commandKey = c.commandKey
+        )
+        """)
+    int forgetPending(@Param("messageId") Long messageId);
+
+    /**
+     * Clears the applied command of every setting carried by message {@code messageId}, after the
+     * device rejected it.
+     */
+    @Modifying
+    @Query("""
+        update DeviceConfigCommand c
+        set c.command = null
+        where exists (
+            select a.id from CommandAck a
+            where a.outboundMessageId = :messageId and a.deviceId = c.deviceId and a.commandKey = c.commandKey
+        )
+        """)
+    int forgetRejected(@Param("messageId") Long messageId);
+
+    /**
+     * Clears the applied command of every setting still waiting for a reply to an SMS sent before
+     * {@code cutoff}; run before those acks are timed out.
+     */
+    @Modifying
+    @Query("""
+        update DeviceConfigCommand c
+        set c.command = null
+        where exists (
+            select a.id from CommandAck a
+            where a.status = com.example.smsbackend.entity.CommandAckStatus.PENDING
+              and a.sentAt < :cutoff
+              and a.deviceId = c.deviceId
+              and a.commandKey = c.commandKey
+        )
+        """)
+    int forgetUnanswered(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,13 @@
+package com.example.smsbackend.repository;
+
+import com.example.smsbackend.entity.DeviceConfigPending;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface DeviceConfigPendingRepository extends JpaRepository<DeviceConfigPending, Long> {
+    @Modifying
+    @Query("delete from DeviceConfigPending p where p.messageId = :messageId")
+    int deleteByMessageId(@Param("messageId") Long messageId);
+}
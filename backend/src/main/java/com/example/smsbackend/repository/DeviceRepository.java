@@ -3,6 +3,7 @@ package com.example.smsbackend.repository;
 import com.example.smsbackend.entity.Device;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface DeviceRepository extends JpaRepository<Device, Long> {
     List<Device> findByUserIdOrderByNameAsc(Long userId);
@@ -10,4 +11,11 @@ public interface DeviceRepository extends JpaRepository<Device, Long> {
     long countByUserLocationId(Long locationId);
 
     List<Device> findByUserLocationId(Long locationId);
+
+    List<Device> findByUserManagerId(Long managerId);
+
+    long countByGatewayId(Long gatewayId);
+
+    @Query("select d.phoneNumber, d.gateway.id from Device d where d.gateway is not null")
+    List<Object[]> findGatewayAssignments();
 }
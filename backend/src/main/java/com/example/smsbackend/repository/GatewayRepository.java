@@ -0,0 +1,14 @@
+package com.example.smsbackend.repository;
+
+import com.example.smsbackend.entity.Gateway;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+public interface GatewayRepository extends JpaRepository<Gateway, Long> {
+    Optional<Gateway> findByNameIgnoreCase(String name);
+
+    @Query("select g from Gateway g left join fetch g.location order by g.name")
+    List<Gateway> findAllWithLocation();
+}
@@ -0,0 +1,7 @@
+package com.example.smsbackend.repository;
+
+import com.example.smsbackend.entity.InboundCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface InboundCursorRepository extends JpaRepository<InboundCursor, String> {
+}
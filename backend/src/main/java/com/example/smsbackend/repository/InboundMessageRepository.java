@@ -0,0 +1,62 @@
+package com.example.smsbackend.repository;
+
+import com.example.smsbackend.entity.InboundMessage;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface InboundMessageRepository extends JpaRepository<InboundMessage, Long> {
+
+    @Query("""
+        select m.gatewayMessageId from InboundMessage m
+        where m.gateway = :gateway
+          and m.gatewayMessageId in :ids
+        """)
+    List<Long> findStoredIds(@Param("gateway") String gateway, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Mirrors the phone's own sender filter: exact digit match, or a suffix match of at least 7
+     * digits so "+63 997..." and "0997..." find each other; text queries match alphanumeric senders.
+     */
+    @Query("""
+        select m from InboundMessage m
+        where m.gateway in :gateways
+          and m.receivedAt >= :since
+          and (:digits = ''
+            or m.fromDigits = :digits
+            or (length(:digits) >= 7 and length(m.fromDigits) >= 7
+              and (m.fromDigits like concat('%', :digits) or :digits like concat('%', m.fromDigits))))
+          and (:text = '' or lower(m.fromNumber) like concat('%', :text, '%'))
+        order by m.receivedAt desc, m.id desc
+        """)
+    List<InboundMessage> search(
+        @Param("gateways") Collection<String> gateways,
+        @Param("since") Instant since,
+        @Param("digits") String digits,
+        @Param("text") String text,
+        Pageable pageable
+    );
+
+    @Query("""
+        select m from InboundMessage m
+        where m.gateway in :gateways
+          and m.id > :afterId
+          and (:digits = ''
+            or m.fromDigits = :digits
+            or (length(:digits) >= 7 and length(m.fromDigits) >= 7
+              and (m.fromDigits like concat('%', :digits) or :digits like concat('%', m.fromDigits))))
+          and (:text = '' or lower(m.fromNumber) like concat('%', :text, '%'))
+        order by m.id asc
+        """)
+    List<InboundMessage> findAfter(
+        @Param("gateways") Collection<String> gateways,
+        @Param("afterId") long afterId,
+        @Param("digits") String digits,
+        @Param("text") String text,
+        Pageable pageable
+    );
+}
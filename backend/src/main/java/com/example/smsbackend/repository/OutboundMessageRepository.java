@@ -0,0 +1,118 @@
+package com.example.smsbackend.repository;
+
+import com.example.smsbackend.entity.OutboundMessage;
+import com.example.smsbackend.entity.OutboundMessageStatus;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface OutboundMessageRepository extends JpaRepository<OutboundMessage, Long> {
+
+    @Query("""
+        select m.id from OutboundMessage m
+        where m.status = com.example.smsbackend.entity.OutboundMessageStatus.PENDING
+          and m.nextAttemptAt <= :now
+          and not exists (
+            select 1 from OutboundMessage earlier
+            where earlier.toNumber = m.toNumber
+              and earlier.id < m.id
+              and earlier.status in (
+                com.example.smsbackend.entity.OutboundMessageStatus.PENDING,
+                com.example.smsbackend.entity.OutboundMessageStatus.SENDING
+              )
+          )
+        order by m.id asc
+        """)
+    List<Long> findDispatchableIds(@Param("now") Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("""
+        update OutboundMessage m
+        set m.status = com.example.smsbackend.entity.OutboundMessageStatus.SENDING,
+            m.claimToken = :claimToken,
+            m.claimedAt = :now
+        where m.id in :ids
+          and m.status = com.example.smsbackend.entity.OutboundMessageStatus.PENDING
+        """)
+    int claim(@Param("ids") List<Long> ids, @Param("claimToken") String claimToken, @Param("now") Instant now);
+
+    @Query("""
+        select distinct m.toNumber from OutboundMessage m
+        where m.toNumber in :numbers
+          and m.status in (
+            com.example.smsbackend.entity.OutboundMessageStatus.PENDING,
+            com.example.smsbackend.entity.OutboundMessageStatus.SENDING
+          )
+        """)
+    List<String> findBusyRecipients(@Param("numbers") Collection<String> numbers);
+
+    List<OutboundMessage> findByClaimTokenOrderByIdAsc(String claimToken);
+
+    @Modifying
+    @Query("""
+        update OutboundMessage m
+        set m.status = com.example.smsbackend.entity.OutboundMessageStatus.PENDING,
+            m.claimToken = null
+        where m.status = com.example.smsbackend.entity.OutboundMessageStatus.SENDING
+          and m.claimedAt < :cutoff
+        """)
+    int releaseStaleClaims(@Param("cutoff") Instant cutoff);
+
+    /**
+     * Restarts the claim timeout of a row still held under {@code claimToken}; matches nothing once
+     * the claim was released as stale.
+     */
+    @Modifying
+    @Query("""
+        update OutboundMessage m
+        set m.claimedAt = :now
+        where m.id = :id
+          and m.claimToken = :claimToken
+          and m.status = com.example.smsbackend.entity.OutboundMessageStatus.SENDING
+        """)
+    int renewClaim(@Param("id") Long id, @Param("claimToken") String claimToken, @Param("now") Instant now);
+
+    /**
+     * Records the outcome of a delivery attempt, but only while the row is still held under
+     * {@code claimToken}; a claim released as stale and taken by another dispatcher matches nothing.
+     */
+    @Modifying
+    @Query("""
+        update OutboundMessage m
+        set m.status = :status,
+            m.attempts = :attempts,
+            m.lastAttemptAt = :lastAttemptAt,
+            m.nextAttemptAt = :nextAttemptAt,
+            m.sentAt = :sentAt,
+            m.sentVia = :sentVia,
+            m.lastError = :lastError,
+            m.claimToken = null
+        where m.id = :id
+          and m.claimToken = :claimToken
+        """)
+    int finishClaim(
+        @Param("id") Long id,
+        @Param("claimToken") String claimToken,
+        @Param("status") OutboundMessageStatus status,
+        @Param("attempts") int attempts,
+        @Param("lastAttemptAt") Instant lastAttemptAt,
+        @Param("nextAttemptAt") Instant nextAttemptAt,
+        @Param("sentAt") Instant sentAt,
+        @Param("sentVia") String sentVia,
+        @Param("lastError") String lastError
+    );
+
+    long countByStatus(OutboundMessageStatus status);
+
+    @Query("""
+        select m.gatewayId, m.gatewayBaseUrl, count(m) from OutboundMessage m
+        where m.status = com.example.smsbackend.entity.OutboundMessageStatus.PENDING
+        group by m.gatewayId, m.gatewayBaseUrl
+        """)
+    List<Object[]> countPendingByGateway();
+}
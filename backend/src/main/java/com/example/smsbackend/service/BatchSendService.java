@@ -0,0 +1,276 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.OutboxProperties;
+import com.example.smsbackend.dto.BatchSendResult;
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import com.example.smsbackend.dto.SendMessageRequest;
+import com.example.smsbackend.entity.OutboundMessage;
+import com.example.smsbackend.entity.OutboundMessageStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * Sends a batch of messages in one request. Items are written to the outbox in chunks, already
+ * claimed, and delivered straight away on a pool of {@code outbox.batch.concurrency} threads
+ * shared by all batches, so they keep the outbox's retries and status lookups. Messages to the
+ * same recipient go out one after another in batch order. Each claim is renewed right before its
+ * send; one that waited in the pool past {@code outbox.claim-timeout} was released to the
+ * dispatcher and is left to it.
+ */
+@Service
+public class BatchSendService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchSendService.class);
+
+    static final String STATUS_REJECTED = "REJECTED";
+
+    public record Item(int index, SendMessageRequest request, String error) {
+    }
+
+    private final OutboxService outboxService;
+    private final GatewayClientService gatewayClientService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final OutboxProperties.Batch properties;
+    private final ExecutorService executor;
+
+    public BatchSendService(
+        OutboxService outboxService,
+        GatewayClientService gatewayClientService,
+        ObjectMapper objectMapper,
+        Validator validator,
+        OutboxProperties outboxProperties
+    ) {
+        this.outboxService = outboxService;
+        this.gatewayClientService = gatewayClientService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.properties = outboxProperties.batch();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(properties.concurrency(), runnable -> {
+            Thread thread = new Thread(runnable, "batch-send-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reads a JSON array or, with {@code ndjson}, one request per line. A malformed NDJSON line
+     * only rejects that item; a malformed array rejects the whole batch.
+     */
+    public List<Item> read(InputStream body, boolean ndjson) throws IOException {
+        List<Item> items = new ArrayList<>();
+        if (ndjson) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                checkSize(items.size());
+                try {
+                    items.add(validate(items.size(), objectMapper.readValue(line, SendMessageRequest.class)));
+                } catch (JsonProcessingException e) {
+                    items.add(new Item(items.size(), null, "Malformed JSON: " + e.getOriginalMessage()));
+                }
+            }
+        } else {
+            try (MappingIterator<SendMessageRequest> values = objectMapper.readerFor(SendMessageRequest.class).readValues(body)) {
+                while (values.hasNextValue()) {
+                    checkSize(items.size());
+                    items.add(validate(items.size(), values.nextValue()));
+                }
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed batch at item " + items.size() + ": " + e.getOriginalMessage(), e);
+            }
+        }
+
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("Batch is empty.");
+        }
+        return items;
+    }
+
+    /**
+     * Streams one NDJSON {@link BatchSendResult} per item as it completes, in completion order.
+     */
+    public ResponseBodyEmitter stream(List<Item> items, GatewayRequestOptions options) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(properties.timeout().toMillis());
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(error -> open.set(false));
+
+        send(items, options, result -> {
+            if (!open.get()) {
+                return;
+            }
+            try {
+                emitter.send(objectMapper.writeValueAsString(result) + "\n", MediaType.TEXT_PLAIN);
+            } catch (IOException | IllegalStateException e) {
+                open.set(false);
+            }
+        }).whenComplete((ignored, error) -> emitter.complete());
+        return emitter;
+    }
+
+    /**
+     * Queues and delivers {@code items}, reporting each result to {@code results} from whichever
+     * thread finished it. The returned future completes once every item has been reported.
+     */
+    public CompletableFuture<Void> send(List<Item> items, GatewayRequestOptions options, Consumer<BatchSendResult> results) {
+        List<Item> accepted = new ArrayList<>(items.size());
+        for (Item item : items) {
+            if (item.error() != null) {
+                results.accept(new BatchSendResult(item.index(), false, null, STATUS_REJECTED, null, item.error()));
+            } else {
+                accepted.add(item);
+            }
+        }
+
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>();
+        for (int from = 0; from < accepted.size(); from += properties.chunkSize()) {
+            List<Item> chunk = accepted.subList(from, Math.min(from + properties.chunkSize(), accepted.size()));
+            String claimToken = UUID.randomUUID().toString();
+            List<OutboundMessage> messages;
+            try {
+                messages = outboxService.enqueueClaimed(
+                    chunk.stream().map(Item::request).toList(),
+                    options,
+                    OutboxService.SOURCE_MESSAGE,
+                    claimToken
+                );
+            } catch (RuntimeException e) {
+                log.warn("Could not queue batch items {}-{}: {}",
+                    chunk.get(0).index(), chunk.get(chunk.size() - 1).index(), e.getMessage());
+                chunk.forEach(item -> results.accept(new BatchSendResult(
+                    item.index(), false, null, STATUS_REJECTED, null, "Could not queue message: " + e.getMessage()
+                )));
+                continue;
+            }
+
+            Map<String, List<Delivery>> byRecipient = new LinkedHashMap<>();
+            for (int i = 0; i < messages.size(); i++) {
+                Delivery delivery = new Delivery(chunk.get(i).index(), messages.get(i));
+                if (claimToken.equals(delivery.message.getClaimToken())) {
+                    byRecipient.computeIfAbsent(delivery.message.getToNumber(), ignored -> new ArrayList<>()).add(delivery);
+                } else {
+                    results.accept(toResult(delivery));
+                }
+            }
+            byRecipient.values().forEach(group ->
+                deliveries.add(CompletableFuture.runAsync(() -> deliverInOrder(group, results), executor))
+            );
+        }
+        return CompletableFuture.allOf(deliveries.toArray(CompletableFuture[]::new));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * Once one message to a recipient is not sent, the rest go back to the dispatcher, which
+     * holds them until the earlier one is resolved.
+     */
+    private void deliverInOrder(List<Delivery> group, Consumer<BatchSendResult> results) {
+        boolean blocked = false;
+        for (Delivery delivery : group) {
+            try {
+                if (blocked) {
+                    outboxService.release(delivery.message);
+                } else {
+                    deliver(delivery.message);
+                    blocked = delivery.message.getStatus() != OutboundMessageStatus.SENT;
+                }
+                results.accept(toResult(delivery));
+            } catch (RuntimeException e) {
+                blocked = true;
+                log.warn("Batch message {} could not be updated: {}", delivery.message.getId(), e.getMessage());
+                results.accept(new BatchSendResult(
+                    delivery.index, false, delivery.message.getId(), delivery.message.getStatus().name(), null, e.getMessage()
+                ));
+            }
+        }
+    }
+
+    private void deliver(OutboundMessage message) {
+        if (!outboxService.renewClaim(message)) {
+            log.warn("Batch message {} waited past outbox.claim-timeout; leaving it to the dispatcher", message.getId());
+            return;
+        }
+        try {
+            GatewayRoute route = gatewayClientService.sendMessage(
+                new SendMessageRequest(message.getToNumber(), message.getBody(), message.getSlot()),
+                OutboxService.gatewayOptions(message)
+            );
+            outboxService.markSent(message, route);
+        } catch (RuntimeException e) {
+            log.warn("Batch message {} to {} failed: {}", message.getId(), message.getToNumber(), e.getMessage());
+            outboxService.markFailed(message, e);
+        }
+    }
+
+    private Item validate(int index, SendMessageRequest request) {
+        if (request == null) {
+            return new Item(index, null, "Item must be an object.");
+        }
+        List<ConstraintViolation<SendMessageRequest>> violations = List.copyOf(validator.validate(request));
+        if (violations.isEmpty()) {
+            return new Item(index, request, null);
+        }
+        return new Item(index, null, violations.stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining(", ")));
+    }
+
+    private void checkSize(int size) {
+        if (size >= properties.maxItems()) {
+            throw new IllegalArgumentException("Batch exceeds " + properties.maxItems() + " items.");
+        }
+    }
+
+    private static BatchSendResult toResult(Delivery delivery) {
+        OutboundMessage message = delivery.message;
+        OutboundMessageStatus status = message.getStatus();
+        return new BatchSendResult(
+            delivery.index,
+            status != OutboundMessageStatus.FAILED,
+            message.getId(),
+            status.name(),
+            message.getSentVia(),
+            message.getLastError()
+        );
+    }
+
+    private record Delivery(int index, OutboundMessage message) {
+    }
+}
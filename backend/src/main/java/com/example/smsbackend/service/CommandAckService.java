@@ -0,0 +1,309 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.AckProperties;
+import com.example.smsbackend.dto.CommandAckResponse;
+import com.example.smsbackend.dto.CommandAckStats;
+import com.example.smsbackend.entity.CommandAck;
+import com.example.smsbackend.entity.CommandAckStatus;
+import com.example.smsbackend.entity.Device;
+import com.example.smsbackend.entity.InboundMessage;
+import com.example.smsbackend.entity.OutboundMessage;
+import com.example.smsbackend.repository.CommandAckRepository;
+import com.example.smsbackend.repository.DeviceConfigCommandRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Correlates EV12 config commands with the device's replies. Each command is recorded when its SMS
+ * is queued and starts waiting when the gateway accepts it; the first reply from the device's
+ * number within {@code ack.window} answers the oldest waiting SMS, acking every command in it, or
+ * failing them when the reply contains one of {@code ack.failure-keywords}. Replies are matched
+ * per poll batch through the {@code (phoneKey, status)} index, one query for all senders in it.
+ * A setting whose command was rejected or never answered is no longer taken as applied, so the
+ * next delta push or rollout sends it again.
+ */
+@Service
+public class CommandAckService {
+
+    private static final Logger log = LoggerFactory.getLogger(CommandAckService.class);
+
+    public static final String LATENCY = "device.command.ack.latency";
+    public static final String OUTCOMES = "device.command.acks";
+
+    private static final int MAX_LIMIT = 500;
+    private static final int MAX_DETAIL_LENGTH = 500;
+
+    private final CommandAckRepository repository;
+    private final DeviceConfigCommandRepository configCommands;
+    private final AckProperties properties;
+    private final MeterRegistry registry;
+    private final Clock clock;
+
+    @Autowired
+    public CommandAckService(
+        CommandAckRepository repository,
+        DeviceConfigCommandRepository configCommands,
+        AckProperties properties,
+        MeterRegistry registry
+    ) {
+        this(repository, configCommands, properties, registry, Clock.systemUTC());
+    }
+
+    CommandAckService(
+        CommandAckRepository repository,
+        DeviceConfigCommandRepository configCommands,
+        AckProperties properties,
+        MeterRegistry registry,
+        Clock clock
+    ) {
+        this.repository = repository;
+        this.configCommands = configCommands;
+        this.properties = properties;
+        this.registry = registry;
+        this.clock = clock;
+    }
+
+    /**
+     * Records {@code commands}, all carried by {@code message}, as pending for {@code device}.
+     * Joins the caller's transaction, so the rows commit with the SMS.
+     */
+    @Transactional
+    public void track(Device device, OutboundMessage message, List<Ev12Command> commands) {
+        if (!properties.enabled() || commands.isEmpty()) {
+            return;
+        }
+        Instant now = clock.instant();
+        String phoneKey = PhoneNumbers.key(device.getPhoneNumber());
+        List<CommandAck> acks = new ArrayList<>(commands.size());
+        for (Ev12Command command : commands) {
+            CommandAck ack = new CommandAck();
+            ack.setOutboundMessageId(message.getId());
+            ack.setDeviceId(device.getId());
+            ack.setPhoneKey(phoneKey);
+            ack.setCommand(command.text());
+            ack.setCommandKey(command.key());
+            ack.setStatus(CommandAckStatus.PENDING);
+            ack.setCreatedAt(now);
+            acks.add(ack);
+        }
+        repository.saveAll(acks);
+    }
+
+    /**
+     * Matches newly stored replies to the commands waiting on their senders.
+     */
+    @Transactional
+    public void correlate(List<InboundMessage> replies) {
+        if (!properties.enabled() || replies.isEmpty()) {
+            return;
+        }
+        Map<String, List<InboundMessage>> bySender = new LinkedHashMap<>();
+        replies.stream()
+            .sorted(Comparator.comparing(InboundMessage::getReceivedAt).thenComparing(InboundMessage::getId))
+            .forEach(reply -> {
+                String key = PhoneNumbers.key(reply.getFromNumber());
+                if (!key.isEmpty()) {
+                    bySender.computeIfAbsent(key, ignored -> new ArrayList<>()).add(reply);
+                }
+            });
+        if (bySender.isEmpty()) {
+            return;
+        }
+
+        // Waiting commands per sender, grouped by SMS, oldest SMS first.
+        Map<String, Map<Long, List<CommandAck>>> waiting = new LinkedHashMap<>();
+        for (CommandAck ack : repository.findAwaitingReply(bySender.keySet())) {
+            waiting.computeIfAbsent(ack.getPhoneKey(), ignored -> new LinkedHashMap<>())
+                .computeIfAbsent(ack.getOutboundMessageId(), ignored -> new ArrayList<>())
+                .add(ack);
+        }
+        if (waiting.isEmpty()) {
+            return;
+        }
+
+        Instant now = clock.instant();
+        List<CommandAck> resolved = new ArrayList<>();
+        bySender.forEach((key, senderReplies) -> {
+            Map<Long, List<CommandAck>> batches = waiting.get(key);
+            if (batches == null) {
+                return;
+            }
+            for (InboundMessage reply : senderReplies) {
+                List<CommandAck> batch = claim(batches, reply.getReceivedAt());
+                if (batch != null) {
+                    resolve(batch, reply, now);
+                    resolved.addAll(batch);
+                }
+            }
+        });
+        if (!resolved.isEmpty()) {
+            repository.saveAll(resolved);
+        }
+    }
+
+    /**
+     * Times out commands whose SMS went out more than {@code ack.window} ago without a reply.
+     */
+    @Scheduled(fixedDelayString = "${ack.sweep-interval:PT30S}")
+    @Transactional
+    public void expire() {
+        if (!properties.enabled()) {
+            return;
+        }
+        Instant now = clock.instant();
+        Instant cutoff = now.minus(properties.window());
+        configCommands.forgetUnanswered(cutoff);
+        int expired = repository.expire(cutoff, now);
+        if (expired > 0) {
+            log.debug("Timed out {} EV12 commands without a device reply", expired);
+            outcome("timed_out").increment(expired);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<CommandAckResponse> search(Long deviceId, String status, Integer limit) {
+        int pageSize = limit == null || limit < 1 ? 100 : Math.min(limit, MAX_LIMIT);
+        return repository.search(deviceId, parseStatus(status), PageRequest.of(0, pageSize)).stream()
+            .map(CommandAckService::toResponse)
+            .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public CommandAckStats stats(Duration window) {
+        Instant since = clock.instant().minus(window);
+        Map<CommandAckStatus, Long> counts = new LinkedHashMap<>();
+        Double meanLatency = null;
+        Long maxLatency = null;
+        for (Object[] row : repository.summarize(since)) {
+            CommandAckStatus status = (CommandAckStatus) row[0];
+            counts.put(status, ((Number) row[1]).longValue());
+            if (status == CommandAckStatus.ACKED) {
+                meanLatency = row[2] != null ? ((Number) row[2]).doubleValue() : null;
+                maxLatency = row[3] != null ? ((Number) row[3]).longValue() : null;
+            }
+        }
+        return new CommandAckStats(
+            since,
+            counts.getOrDefault(CommandAckStatus.PENDING, 0L),
+            counts.getOrDefault(CommandAckStatus.ACKED, 0L),
+            counts.getOrDefault(CommandAckStatus.FAILED, 0L),
+            counts.getOrDefault(CommandAckStatus.TIMED_OUT, 0L),
+            meanLatency,
+            maxLatency
+        );
+    }
+
+    /**
+     * Takes the oldest batch that a reply received at {@code receivedAt} can answer. Batches whose
+     * window closed before it are left for {@link #expire}.
+     */
+    private List<CommandAck> claim(Map<Long, List<CommandAck>> batches, Instant receivedAt) {
+        Iterator<List<CommandAck>> iterator = batches.values().iterator();
+        while (iterator.hasNext()) {
+            List<CommandAck> batch = iterator.next();
+            Instant sentAt = batch.get(0).getSentAt();
+            if (receivedAt.isBefore(sentAt.minus(properties.clockSkew()))) {
+                // Every later batch went out later still.
+                return null;
+            }
+            if (!receivedAt.isAfter(sentAt.plus(properties.window()))) {
+                iterator.remove();
+                return batch;
+            }
+        }
+        return null;
+    }
+
+    private void resolve(List<CommandAck> batch, InboundMessage reply, Instant now) {
+        boolean failed = isFailure(reply.getBody());
+        CommandAckStatus status = failed ? CommandAckStatus.FAILED : CommandAckStatus.ACKED;
+        long latencyMs = Math.max(0, Duration.between(batch.get(0).getSentAt(), reply.getReceivedAt()).toMillis());
+        for (CommandAck ack : batch) {
+            ack.setStatus(status);
+            ack.setResolvedAt(now);
+            ack.setAckLatencyMs(latencyMs);
+            ack.setReplyMessageId(reply.getId());
+            ack.setDetail(truncate(reply.getBody()));
+        }
+        if (failed) {
+            configCommands.forgetRejected(batch.get(0).getOutboundMessageId());
+        }
+
+        String outcome = failed ? "failed" : "acked";
+        // One sample per SMS: the device answers the SMS, not each command in it.
+        Timer.builder(LATENCY)
+            .description("Time from a gateway accepting an EV12 config SMS to the device's reply")
+            .tags(Tags.of("outcome", outcome))
+            .register(registry)
+            .record(Duration.ofMillis(latencyMs));
+        outcome(outcome).increment(batch.size());
+    }
+
+    private boolean isFailure(String body) {
+        if (body == null) {
+            return false;
+        }
+        String lower = body.toLowerCase(Locale.ROOT);
+        return properties.failureKeywords().stream()
+            .anyMatch(keyword -> !keyword.isBlank() && lower.contains(keyword.toLowerCase(Locale.ROOT)));
+    }
+
+    private Counter outcome(String outcome) {
+        return Counter.builder(OUTCOMES)
+            .description("EV12 commands resolved by a device reply, or timed out waiting for one")
+            .tags(Tags.of("outcome", outcome))
+            .register(registry);
+    }
+
+    private static CommandAckStatus parseStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        try {
+            return CommandAckStatus.valueOf(status.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("status must be one of pending, acked, failed or timed_out.");
+        }
+    }
+
+    private static CommandAckResponse toResponse(CommandAck ack) {
+        return new CommandAckResponse(
+            ack.getId(),
+            ack.getDeviceId(),
+            ack.getOutboundMessageId(),
+            ack.getCommand(),
+            ack.getStatus().name(),
+            ack.getSentAt(),
+            ack.getResolvedAt(),
+            ack.getAckLatencyMs(),
+            ack.getReplyMessageId(),
+            ack.getDetail()
+        );
+    }
+
+    private static String truncate(String value) {
+        if (value == null || value.length() <= MAX_DETAIL_LENGTH) {
+            return value;
+        }
+        return value.substring(0, MAX_DETAIL_LENGTH);
+    }
+}
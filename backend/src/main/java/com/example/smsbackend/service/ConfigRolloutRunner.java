@@ -0,0 +1,34 @@
+package com.example.smsbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Steps every running config rollout once per {@code rollout.tick-interval}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "rollout", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConfigRolloutRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigRolloutRunner.class);
+
+    private final ConfigRolloutService rolloutService;
+
+    public ConfigRolloutRunner(ConfigRolloutService rolloutService) {
+        this.rolloutService = rolloutService;
+    }
+
+    @Scheduled(fixedDelayString = "${rollout.tick-interval:PT1S}")
+    public void tick() {
+        for (Long rolloutId : rolloutService.runningRollouts()) {
+            try {
+                rolloutService.step(rolloutId);
+            } catch (RuntimeException e) {
+                log.warn("Config rollout {} step failed: {}", rolloutId, e.getMessage());
+            }
+        }
+    }
+}
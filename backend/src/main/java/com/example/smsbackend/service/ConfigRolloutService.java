@@ -0,0 +1,519 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.RolloutProperties;
+import com.example.smsbackend.dto.CreateRolloutRequest;
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import com.example.smsbackend.dto.RolloutDeviceResponse;
+import com.example.smsbackend.dto.RolloutResponse;
+import com.example.smsbackend.dto.SendConfigRequest;
+import com.example.smsbackend.entity.ConfigRollout;
+import com.example.smsbackend.entity.ConfigRolloutDevice;
+import com.example.smsbackend.entity.ConfigRolloutStatus;
+import com.example.smsbackend.entity.Device;
+import com.example.smsbackend.entity.OutboundMessage;
+import com.example.smsbackend.entity.OutboundMessageStatus;
+import com.example.smsbackend.entity.RolloutDeviceStatus;
+import com.example.smsbackend.repository.ConfigRolloutDeviceRepository;
+import com.example.smsbackend.repository.ConfigRolloutRepository;
+import com.example.smsbackend.repository.DeviceRepository;
+import com.example.smsbackend.repository.OutboundMessageRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Pushes one config template to every device in a location, under a manager, or in a list. The
+ * runner calls {@link #step} for each running rollout; a step hands at most the devices that are
+ * due at the rollout's {@code devicesPerMinute} to the outbox, with the same delta rules as
+ * {@code /send-config}, and moves queued devices to {@code SENT} or {@code FAILED} as their
+ * messages are delivered. When the outbox is over its backpressure limit the rollout waits for
+ * the {@code Retry-After} instead of failing devices.
+ */
+@Service
+public class ConfigRolloutService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigRolloutService.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final List<RolloutDeviceStatus> OPEN = List.of(RolloutDeviceStatus.PENDING, RolloutDeviceStatus.QUEUED);
+
+    private final ConfigRolloutRepository rollouts;
+    private final ConfigRolloutDeviceRepository rolloutDevices;
+    private final DeviceRepository deviceRepository;
+    private final OutboundMessageRepository outboundMessages;
+    private final DeviceCommandService commandService;
+    private final DeviceConfigTracker configTracker;
+    private final SendAdmission sendAdmission;
+    private final GatewayRegistry gatewayRegistry;
+    private final RolloutProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactions;
+    private final Clock clock;
+
+    @Autowired
+    public ConfigRolloutService(
+        ConfigRolloutRepository rollouts,
+        ConfigRolloutDeviceRepository rolloutDevices,
+        DeviceRepository deviceRepository,
+        OutboundMessageRepository outboundMessages,
+        DeviceCommandService commandService,
+        DeviceConfigTracker configTracker,
+        SendAdmission sendAdmission,
+        GatewayRegistry gatewayRegistry,
+        RolloutProperties properties,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager
+    ) {
+        this(
+            rollouts,
+            rolloutDevices,
+            deviceRepository,
+            outboundMessages,
+            commandService,
+            configTracker,
+            sendAdmission,
+            gatewayRegistry,
+            properties,
+            objectMapper,
+            transactionManager,
+            Clock.systemUTC()
+        );
+    }
+
+    ConfigRolloutService(
+        ConfigRolloutRepository rollouts,
+        ConfigRolloutDeviceRepository rolloutDevices,
+        DeviceRepository deviceRepository,
+        OutboundMessageRepository outboundMessages,
+        DeviceCommandService commandService,
+        DeviceConfigTracker configTracker,
+        SendAdmission sendAdmission,
+        GatewayRegistry gatewayRegistry,
+        RolloutProperties properties,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager,
+        Clock clock
+    ) {
+        this.rollouts = rollouts;
+        this.rolloutDevices = rolloutDevices;
+        this.deviceRepository = deviceRepository;
+        this.outboundMessages = outboundMessages;
+        this.commandService = commandService;
+        this.configTracker = configTracker;
+        this.sendAdmission = sendAdmission;
+        this.gatewayRegistry = gatewayRegistry;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+
+    @Transactional
+    public RolloutResponse create(CreateRolloutRequest request, GatewayRequestOptions options) {
+        Target target = target(request);
+
+        // A command too long for one SMS would fail every device the same way; refuse it up front.
+        SendConfigRequest config = request.config();
+        commandService.splitForSms(commandService.buildCommands(config));
+
+        Instant now = clock.instant();
+        ConfigRollout rollout = new ConfigRollout();
+        rollout.setName(StringUtils.hasText(request.name()) ? request.name().trim() : "Config rollout to " + target.description());
+        rollout.setStatus(ConfigRolloutStatus.RUNNING);
+        rollout.setTarget(target.description());
+        rollout.setTemplate(toJson(config));
+        rollout.setForce(Boolean.TRUE.equals(config.force()));
+        rollout.setDevicesPerMinute(devicesPerMinute(request.devicesPerMinute()));
+        GatewayRequestOptions stored = gatewayRegistry.forStorage(options);
+        rollout.setGatewayId(stored.gatewayId());
+        rollout.setGatewayBaseUrl(stored.baseUrl());
+        rollout.setCreatedAt(now);
+        rollout.setNextDispatchAt(now);
+        ConfigRollout saved = rollouts.save(rollout);
+
+        List<ConfigRolloutDevice> rows = new ArrayList<>(target.devices().size());
+        for (Device device : target.devices()) {
+            ConfigRolloutDevice row = new ConfigRolloutDevice();
+            row.setRolloutId(saved.getId());
+            row.setDeviceId(device.getId());
+            row.setPhoneNumber(device.getPhoneNumber());
+            row.setStatus(RolloutDeviceStatus.PENDING);
+            row.setUpdatedAt(now);
+            rows.add(row);
+        }
+        rolloutDevices.saveAll(rows);
+
+        Map<RolloutDeviceStatus, Long> counts = new EnumMap<>(RolloutDeviceStatus.class);
+        counts.put(RolloutDeviceStatus.PENDING, (long) rows.size());
+        return toResponse(saved, counts);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RolloutResponse> listRollouts() {
+        List<ConfigRollout> all = rollouts.findAllByOrderByIdDesc();
+        Map<Long, Map<RolloutDeviceStatus, Long>> counts = counts(all.stream().map(ConfigRollout::getId).toList());
+        return all.stream()
+            .map(rollout -> toResponse(rollout, counts.getOrDefault(rollout.getId(), Map.of())))
+            .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public RolloutResponse getRollout(Long rolloutId) {
+        ConfigRollout rollout = find(rolloutId);
+        return toResponse(rollout, counts(List.of(rolloutId)).getOrDefault(rolloutId, Map.of()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<RolloutDeviceResponse> listDevices(Long rolloutId) {
+        find(rolloutId);
+        return rolloutDevices.findByRolloutIdOrderByIdAsc(rolloutId).stream()
+            .map(ConfigRolloutService::toResponse)
+            .toList();
+    }
+
+    @Transactional
+    public RolloutResponse pause(Long rolloutId) {
+        find(rolloutId);
+        if (rollouts.transition(rolloutId, ConfigRolloutStatus.RUNNING, ConfigRolloutStatus.PAUSED, null) == 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Only a running rollout can be paused.");
+        }
+        return refreshed(rolloutId);
+    }
+
+    @Transactional
+    public RolloutResponse resume(Long rolloutId) {
+        find(rolloutId);
+        if (rollouts.transition(rolloutId, ConfigRolloutStatus.PAUSED, ConfigRolloutStatus.RUNNING, null) == 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Only a paused rollout can be resumed.");
+        }
+        rollouts.reschedule(rolloutId, clock.instant());
+        return refreshed(rolloutId);
+    }
+
+    /**
+     * Stops a rollout for good. Devices not yet handed to the outbox are marked
+     * {@code CANCELLED}; SMS already queued still go out.
+     */
+    @Transactional
+    public RolloutResponse cancel(Long rolloutId) {
+        find(rolloutId);
+        Instant now = clock.instant();
+        if (rollouts.transition(rolloutId, ConfigRolloutStatus.RUNNING, ConfigRolloutStatus.CANCELLED, now) == 0
+            && rollouts.transition(rolloutId, ConfigRolloutStatus.PAUSED, ConfigRolloutStatus.CANCELLED, now) == 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Rollout has already finished.");
+        }
+        rolloutDevices.cancelPending(rolloutId, now);
+        return refreshed(rolloutId);
+    }
+
+    public List<Long> runningRollouts() {
+        return rollouts.findIdsByStatus(ConfigRolloutStatus.RUNNING);
+    }
+
+    /**
+     * Advances one running rollout: settles devices whose SMS were delivered or failed, then
+     * queues the devices that are due. The template is compiled once per step and shared by
+     * every device in it.
+     */
+    public void step(Long rolloutId) {
+        ConfigRollout rollout = rollouts.findById(rolloutId).orElse(null);
+        if (rollout == null || rollout.getStatus() != ConfigRolloutStatus.RUNNING) {
+            return;
+        }
+        Instant now = clock.instant();
+        reconcile(rolloutId, now);
+
+        Instant next = rollout.getNextDispatchAt();
+        if (next.isAfter(now)) {
+            return;
+        }
+        // After a restart or a long tick, carry on at the rate instead of catching up in a burst.
+        if (next.isBefore(now.minus(properties.tickInterval()))) {
+            next = now;
+        }
+        Duration interval = Duration.ofMinutes(1).dividedBy(rollout.getDevicesPerMinute());
+        int due = (int) Math.min(Integer.MAX_VALUE, 1 + Duration.between(next, now).dividedBy(interval));
+
+        List<ConfigRolloutDevice> batch = rolloutDevices.findByRolloutIdAndStatusOrderByIdAsc(
+            rolloutId,
+            RolloutDeviceStatus.PENDING,
+            PageRequest.of(0, due)
+        );
+        if (batch.isEmpty()) {
+            if (!rolloutDevices.existsByRolloutIdAndStatusIn(rolloutId, OPEN)) {
+                transactions.executeWithoutResult(status ->
+                    rollouts.transition(rolloutId, ConfigRolloutStatus.RUNNING, ConfigRolloutStatus.COMPLETED, now)
+                );
+            }
+            return;
+        }
+
+        List<Ev12Command> commands = commandService.buildKeyedCommands(fromJson(rollout.getTemplate()));
+        GatewayRequestOptions options = new GatewayRequestOptions(rollout.getGatewayBaseUrl(), null, rollout.getGatewayId());
+        for (ConfigRolloutDevice row : batch) {
+            // A pause or cancel during the step stops it before the next device.
+            if (rollouts.findStatus(rolloutId).orElse(null) != ConfigRolloutStatus.RUNNING) {
+                break;
+            }
+            try {
+                // Only devices that were sent something use up the rate.
+                if (dispatch(rollout, row, commands, options, now)) {
+                    next = next.plus(interval);
+                }
+            } catch (SendQueueFullException e) {
+                log.debug("Rollout {} waiting {} for the outbox: {}", rolloutId, e.getRetryAfter(), e.getMessage());
+                next = now.plus(e.getRetryAfter());
+                break;
+            }
+        }
+        Instant nextDispatchAt = next;
+        transactions.executeWithoutResult(status -> rollouts.reschedule(rolloutId, nextDispatchAt));
+    }
+
+    /**
+     * Returns true when SMS were queued for the device.
+     */
+    private boolean dispatch(
+        ConfigRollout rollout,
+        ConfigRolloutDevice row,
+        List<Ev12Command> built,
+        GatewayRequestOptions options,
+        Instant now
+    ) {
+        Device device = deviceRepository.findById(row.getDeviceId()).orElse(null);
+        if (device == null) {
+            settle(row, RolloutDeviceStatus.FAILED, "Device not found.", now);
+            return false;
+        }
+        try {
+            List<Ev12Command> commands = rollout.isForce() ? built : configTracker.changed(device.getId(), built);
+            if (commands.isEmpty()) {
+                settle(row, RolloutDeviceStatus.UNCHANGED, null, now);
+                return false;
+            }
+            List<String> smsBodies = commandService.splitForSms(commands.stream().map(Ev12Command::text).toList());
+            sendAdmission.admit(options, smsBodies.size());
+
+            // The row flips to QUEUED in the same transaction as the SMS, so a crash cannot queue a
+            // device twice, and only while it is still PENDING in a running rollout, so a cancel
+            // that got there first wins.
+            return Boolean.TRUE.equals(transactions.execute(status -> {
+                if (rolloutDevices.claimPending(row.getId(), now) == 0) {
+                    log.debug("Rollout {} skipped device {}: no longer pending", rollout.getId(), device.getId());
+                    return false;
+                }
+                List<OutboundMessage> queued = configTracker.enqueue(device, commands, smsBodies, options);
+                row.setPhoneNumber(device.getPhoneNumber());
+                row.setCommands(commands.size());
+                row.setMessageIds(queued.stream().map(message -> message.getId().toString()).collect(Collectors.joining(",")));
+                row.setStatus(RolloutDeviceStatus.QUEUED);
+                row.setUpdatedAt(now);
+                rolloutDevices.save(row);
+                return true;
+            }));
+        } catch (SendQueueFullException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            log.warn("Rollout {} could not queue device {}: {}", rollout.getId(), device.getId(), e.getMessage());
+            settle(row, RolloutDeviceStatus.FAILED, e.getMessage(), now);
+            return false;
+        }
+    }
+
+    private void reconcile(Long rolloutId, Instant now) {
+        List<ConfigRolloutDevice> queued = rolloutDevices.findByRolloutIdAndStatusOrderByIdAsc(
+            rolloutId,
+            RolloutDeviceStatus.QUEUED,
+            PageRequest.of(0, properties.reconcileBatch())
+        );
+        if (queued.isEmpty()) {
+            return;
+        }
+
+        Set<Long> ids = new LinkedHashSet<>();
+        queued.forEach(row -> ids.addAll(messageIds(row)));
+        Map<Long, OutboundMessage> messages = outboundMessages.findAllById(ids).stream()
+            .collect(Collectors.toMap(OutboundMessage::getId, Function.identity()));
+
+        List<ConfigRolloutDevice> settled = new ArrayList<>();
+        for (ConfigRolloutDevice row : queued) {
+            List<OutboundMessage> sent = messageIds(row).stream().map(messages::get).toList();
+            OutboundMessage failed = sent.stream()
+                .filter(message -> message != null && message.getStatus() == OutboundMessageStatus.FAILED)
+                .findFirst()
+                .orElse(null);
+            if (failed != null) {
+                row.setStatus(RolloutDeviceStatus.FAILED);
+                row.setLastError(truncate(failed.getLastError()));
+            } else if (sent.stream().allMatch(message -> message != null && message.getStatus() == OutboundMessageStatus.SENT)) {
+                row.setStatus(RolloutDeviceStatus.SENT);
+            } else {
+                continue;
+            }
+            row.setUpdatedAt(now);
+            settled.add(row);
+        }
+        if (!settled.isEmpty()) {
+            rolloutDevices.saveAll(settled);
+        }
+    }
+
+    /**
+     * Settles a device the runner did not queue, unless a cancel settled it first.
+     */
+    private void settle(ConfigRolloutDevice row, RolloutDeviceStatus status, String error, Instant now) {
+        String lastError = truncate(error);
+        Integer settled = transactions.execute(tx -> rolloutDevices.settlePending(row.getId(), status, lastError, now));
+        if (settled != null && settled > 0) {
+            row.setStatus(status);
+            row.setLastError(lastError);
+            row.setUpdatedAt(now);
+        }
+    }
+
+    private Target target(CreateRolloutRequest request) {
+        boolean byList = request.deviceIds() != null && !request.deviceIds().isEmpty();
+        int given = (request.locationId() != null ? 1 : 0) + (request.managerId() != null ? 1 : 0) + (byList ? 1 : 0);
+        if (given != 1) {
+            throw new IllegalArgumentException("Give exactly one of locationId, managerId or deviceIds.");
+        }
+
+        Target target;
+        if (request.locationId() != null) {
+            target = new Target("location " + request.locationId(), deviceRepository.findByUserLocationId(request.locationId()));
+        } else if (request.managerId() != null) {
+            target = new Target("manager " + request.managerId(), deviceRepository.findByUserManagerId(request.managerId()));
+        } else {
+            Set<Long> ids = new LinkedHashSet<>(request.deviceIds());
+            List<Device> devices = deviceRepository.findAllById(ids);
+            if (devices.size() < ids.size()) {
+                Set<Long> missing = new LinkedHashSet<>(ids);
+                devices.forEach(device -> missing.remove(device.getId()));
+                throw new IllegalArgumentException("Device not found: " + missing);
+            }
+            target = new Target(ids.size() == 1 ? "1 device" : ids.size() + " devices", devices);
+        }
+        if (target.devices().isEmpty()) {
+            throw new IllegalArgumentException("No devices match the rollout target.");
+        }
+        return target;
+    }
+
+    private int devicesPerMinute(Integer requested) {
+        if (requested == null) {
+            return properties.devicesPerMinute();
+        }
+        if (requested < 1 || requested > properties.maxDevicesPerMinute()) {
+            throw new IllegalArgumentException("devicesPerMinute must be between 1 and " + properties.maxDevicesPerMinute() + ".");
+        }
+        return requested;
+    }
+
+    private ConfigRollout find(Long rolloutId) {
+        return rollouts.findById(rolloutId).orElseThrow(() -> new IllegalArgumentException("Rollout not found."));
+    }
+
+    private RolloutResponse refreshed(Long rolloutId) {
+        return toResponse(find(rolloutId), counts(List.of(rolloutId)).getOrDefault(rolloutId, Map.of()));
+    }
+
+    private Map<Long, Map<RolloutDeviceStatus, Long>> counts(List<Long> rolloutIds) {
+        Map<Long, Map<RolloutDeviceStatus, Long>> counts = new HashMap<>();
+        if (rolloutIds.isEmpty()) {
+            return counts;
+        }
+        for (Object[] row : rolloutDevices.countByStatus(rolloutIds)) {
+            counts.computeIfAbsent((Long) row[0], ignored -> new EnumMap<>(RolloutDeviceStatus.class))
+                .put((RolloutDeviceStatus) row[1], ((Number) row[2]).longValue());
+        }
+        return counts;
+    }
+
+    private String toJson(SendConfigRequest config) {
+        try {
+            return objectMapper.writeValueAsString(config);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to store rollout template", e);
+        }
+    }
+
+    private SendConfigRequest fromJson(String template) {
+        try {
+            return objectMapper.readValue(template, SendConfigRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored rollout template could not be read", e);
+        }
+    }
+
+    private static List<Long> messageIds(ConfigRolloutDevice row) {
+        if (!StringUtils.hasText(row.getMessageIds())) {
+            return List.of();
+        }
+        return Arrays.stream(row.getMessageIds().split(",")).map(Long::valueOf).toList();
+    }
+
+    private static RolloutResponse toResponse(ConfigRollout rollout, Map<RolloutDeviceStatus, Long> counts) {
+        return new RolloutResponse(
+            rollout.getId(),
+            rollout.getName(),
+            rollout.getStatus().name(),
+            rollout.getTarget(),
+            rollout.isForce(),
+            rollout.getDevicesPerMinute(),
+            rollout.getCreatedAt(),
+            rollout.getCompletedAt(),
+            counts.values().stream().mapToLong(Long::longValue).sum(),
+            counts.getOrDefault(RolloutDeviceStatus.PENDING, 0L),
+            counts.getOrDefault(RolloutDeviceStatus.QUEUED, 0L),
+            counts.getOrDefault(RolloutDeviceStatus.SENT, 0L),
+            counts.getOrDefault(RolloutDeviceStatus.UNCHANGED, 0L),
+            counts.getOrDefault(RolloutDeviceStatus.FAILED, 0L),
+            counts.getOrDefault(RolloutDeviceStatus.CANCELLED, 0L)
+        );
+    }
+
+    private static RolloutDeviceResponse toResponse(ConfigRolloutDevice row) {
+        return new RolloutDeviceResponse(
+            row.getDeviceId(),
+            row.getPhoneNumber(),
+            row.getStatus().name(),
+            row.getCommands(),
+            messageIds(row),
+            row.getLastError(),
+            row.getUpdatedAt()
+        );
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private record Target(String description, List<Device> devices) {
+    }
+}
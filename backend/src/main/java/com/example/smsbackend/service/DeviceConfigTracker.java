@@ -0,0 +1,130 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import com.example.smsbackend.dto.SendMessageRequest;
+import com.example.smsbackend.entity.Device;
+import com.example.smsbackend.entity.DeviceConfigCommand;
+import com.example.smsbackend.entity.DeviceConfigPending;
+import com.example.smsbackend.entity.OutboundMessage;
+import com.example.smsbackend.repository.DeviceConfigCommandRepository;
+import com.example.smsbackend.repository.DeviceConfigPendingRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Remembers, per device and setting, the last EV12 command a gateway accepted, so
+ * {@code /send-config} can send only the settings that changed. A queued command is held as
+ * pending against the SMS that carries it, and becomes the applied one when
+ * {@link OutboxService#markSent} records that SMS as sent; one that never gets sent is simply
+ * sent again next time. Each push has its own pending rows, so a newer push never hides what an
+ * older SMS still in the outbox will set.
+ */
+@Service
+public class DeviceConfigTracker {
+
+    private final DeviceConfigCommandRepository repository;
+    private final DeviceConfigPendingRepository pendingRepository;
+    private final OutboxService outboxService;
+    private final CommandAckService commandAcks;
+
+    public DeviceConfigTracker(
+        DeviceConfigCommandRepository repository,
+        DeviceConfigPendingRepository pendingRepository,
+        OutboxService outboxService,
+        CommandAckService commandAcks
+    ) {
+        this.repository = repository;
+        this.pendingRepository = pendingRepository;
+        this.outboxService = outboxService;
+        this.commandAcks = commandAcks;
+    }
+
+    /**
+     * The commands in {@code commands} that differ from what the device last applied. One-shot
+     * commands are always kept.
+     */
+    @Transactional(readOnly = true)
+    public List<Ev12Command> changed(Long deviceId, List<Ev12Command> commands) {
+        Map<String, String> applied = new HashMap<>();
+        for (DeviceConfigCommand row : repository.findByDeviceId(deviceId)) {
+            if (row.getCommand() != null) {
+                applied.put(row.getCommandKey(), row.getCommand());
+            }
+        }
+        return commands.stream()
+            .filter(command -> !command.isSetting() || !command.text().equals(applied.get(command.key())))
+            .toList();
+    }
+
+    /**
+     * Queues {@code smsBodies}, which must be {@code commands} packed whole and in order, and marks
+     * the settings each one carries as pending on it, and every command as awaiting a reply. All of
+     * it happens in one transaction, so the dispatcher cannot send an SMS before its commands are
+     * recorded.
+     */
+    @Transactional
+    public List<OutboundMessage> enqueue(
+        Device device,
+        List<Ev12Command> commands,
+        List<String> smsBodies,
+        GatewayRequestOptions options
+    ) {
+        if (smsBodies.isEmpty()) {
+            return List.of();
+        }
+        List<SendMessageRequest> requests = smsBodies.stream()
+            .map(body -> new SendMessageRequest(device.getPhoneNumber(), body, null))
+            .toList();
+        List<OutboundMessage> queued = outboxService.enqueueAll(requests, options, OutboxService.SOURCE_CONFIG, device.getId());
+
+        Map<String, DeviceConfigCommand> rows = new HashMap<>();
+        for (DeviceConfigCommand row : repository.findByDeviceId(device.getId())) {
+            rows.put(row.getCommandKey(), row);
+        }
+
+        List<DeviceConfigCommand> newRows = new ArrayList<>();
+        List<DeviceConfigPending> pending = new ArrayList<>();
+        int next = 0;
+        for (OutboundMessage message : queued) {
+            // Each body is its commands joined by the separator, so their lengths add up to it.
+            int first = next;
+            int length = -DeviceCommandService.COMMAND_SEPARATOR.length();
+            while (next < commands.size() && length < message.getBody().length()) {
+                Ev12Command command = commands.get(next++);
+                length += DeviceCommandService.COMMAND_SEPARATOR.length() + command.text().length();
+                if (command.isSetting()) {
+                    rows.computeIfAbsent(command.key(), key -> {
+                        DeviceConfigCommand row = newRow(device.getId(), key);
+                        newRows.add(row);
+                        return row;
+                    });
+                    pending.add(pending(device.getId(), command, message.getId()));
+                }
+            }
+            commandAcks.track(device, message, commands.subList(first, next));
+        }
+        repository.saveAll(newRows);
+        pendingRepository.saveAll(pending);
+        return queued;
+    }
+
+    private static DeviceConfigCommand newRow(Long deviceId, String key) {
+        DeviceConfigCommand row = new DeviceConfigCommand();
+        row.setDeviceId(deviceId);
+        row.setCommandKey(key);
+        return row;
+    }
+
+    private static DeviceConfigPending pending(Long deviceId, Ev12Command command, Long messageId) {
+        DeviceConfigPending pending = new DeviceConfigPending();
+        pending.setDeviceId(deviceId);
+        pending.setCommandKey(command.key());
+        pending.setCommand(command.text());
+        pending.setMessageId(messageId);
+        return pending;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.smsbackend.service;
+
+/**
+ * One EV12 SMS command. {@code key} names the device setting it writes (for example
+ * {@code timeZone} or {@code contact:2}), or is null for a one-shot command that is always sent.
+ */
+public record Ev12Command(String key, String text) {
+
+    public boolean isSetting() {
+        return key != null;
+    }
+}
@@ -0,0 +1,380 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.dto.SendConfigRequest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.springframework.util.StringUtils;
+
+/**
+ * The EV12 SMS command set as a table. Each entry names a command prefix and the request fields
+ * that follow it; a command is emitted only when all of its required fields are set. Entries that
+ * write a device setting carry a key, so a new command can be compared with the last one applied
+ * for the same setting; one-shot queries and actions have none. The table is
+ * compiled once into an array of emitters, which {@link #compile} runs in order against a single
+ * {@link StringBuilder}, appending field values straight into it.
+ */
+final class Ev12CommandTable {
+
+    @FunctionalInterface
+    interface Emitter {
+
+        /**
+         * Appends the command to {@code out}, or returns false without touching it when the
+         * request does not set this command.
+         */
+        boolean emit(SendConfigRequest request, StringBuilder out);
+    }
+
+    private static final Entry[] ENTRIES = {
+        setting(
+            request -> "contact:" + (request.contactSlot() != null ? request.contactSlot() : 1),
+            command("A")
+                .integer(SendConfigRequest::contactSlot, 1)
+                .flag(SendConfigRequest::contactSmsEnabled, true)
+                .flag(SendConfigRequest::contactCallEnabled, true)
+                .text(SendConfigRequest::contactNumber)
+                .optionalText(SendConfigRequest::contactName)
+                .compile()
+        ),
+        setting("password", command("P").text(SendConfigRequest::smsPassword).compile()),
+        setting("smsWhitelist", command("sms").flag(SendConfigRequest::smsWhitelistEnabled).compile()),
+        action(when(SendConfigRequest::requestLocation, "loc")),
+        action(when(SendConfigRequest::requestGpsLocation, "loc,gps")),
+        action(when(SendConfigRequest::requestLbsLocation, "LBS1")),
+        setting(
+            "sos",
+            command("SOS").integer(SendConfigRequest::sosMode).integer(SendConfigRequest::sosActionTime).compile()
+        ),
+        setting(
+            "sosCall",
+            command("soscall").text(SendConfigRequest::sosCallRingTime).text(SendConfigRequest::sosCallTalkTime).compile()
+        ),
+        setting("wifi", command("Wifi").flag(SendConfigRequest::wifiEnabled).compile()),
+        setting("bluetooth", command("BLE").flag(SendConfigRequest::bluetoothEnabled).compile()),
+        setting("micVolume", command("Micvolume").integer(SendConfigRequest::micVolume).compile()),
+        setting("speakerVolume", command("Speakervolume").integer(SendConfigRequest::speakerVolume).compile()),
+        setting("vibration", command("Vibrate").flag(SendConfigRequest::vibrationEnabled).compile()),
+        setting("beep", command("Beep").flag(SendConfigRequest::beepEnabled).compile()),
+        setting(
+            "prefix",
+            command("prefix").flag(SendConfigRequest::prefixEnabled).text(SendConfigRequest::prefixName).compile()
+        ),
+        action(when(SendConfigRequest::checkBattery, "battery")),
+        setting(
+            "fallDown",
+            command("fl")
+                .flag(SendConfigRequest::fallDownEnabled)
+                .integer(SendConfigRequest::fallDownSensitivity)
+                .flag(SendConfigRequest::fallDownCall)
+                .compile()
+        ),
+        setting(
+            "noMotion",
+            command("nmo")
+                .flag(SendConfigRequest::noMotionEnabled)
+                .text(SendConfigRequest::noMotionTime)
+                .flag(SendConfigRequest::noMotionCall)
+                .compile()
+        ),
+        setting(
+            "motion",
+            command("mo")
+                .flag(SendConfigRequest::motionEnabled)
+                .text(SendConfigRequest::motionStaticTime)
+                .text(SendConfigRequest::motionDurationTime)
+                .flag(SendConfigRequest::motionCall)
+                .compile()
+        ),
+        setting(
+            "overSpeed",
+            command("Speed").flag(SendConfigRequest::overSpeedEnabled).text(SendConfigRequest::overSpeedLimit).compile()
+        ),
+        setting(
+            "geoFence",
+            command("Geo1,")
+                .flag(SendConfigRequest::geoFenceEnabled)
+                .integer(SendConfigRequest::geoFenceMode)
+                .text(SendConfigRequest::geoFenceRadius)
+                .compile()
+        ),
+        setting("apn", command("S").flag(SendConfigRequest::apnEnabled).text(SendConfigRequest::apn).compile()),
+        setting(
+            "server",
+            command("IP")
+                .flag(SendConfigRequest::serverEnabled)
+                .text(SendConfigRequest::serverHost)
+                .integer(SendConfigRequest::serverPort)
+                .compile()
+        ),
+        setting("gprs", command("S").flag(SendConfigRequest::gprsEnabled, '2').compile()),
+        setting("workingMode", Ev12CommandTable::workingMode),
+        action(
+            command("CL")
+                .text(SendConfigRequest::continuousLocateInterval)
+                .text(SendConfigRequest::continuousLocateDuration)
+                .compile()
+        ),
+        setting("timeZone", command("tz").text(SendConfigRequest::timeZone).compile()),
+        action(when(SendConfigRequest::turnOffDevice, "off")),
+        action(when(SendConfigRequest::findMyDevice, "findme")),
+        setting(
+            "heartRate",
+            command("hrs").flag(SendConfigRequest::heartRateEnabled).text(SendConfigRequest::heartRateInterval).compile()
+        ),
+        setting(
+            "stepDetection",
+            command("detpedo")
+                .flag(SendConfigRequest::stepDetectionEnabled)
+                .text(SendConfigRequest::stepDetectionInterval)
+                .compile()
+        ),
+        action(when(SendConfigRequest::checkStatus, "status"))
+    };
+
+    private Ev12CommandTable() {
+    }
+
+    static List<String> compile(SendConfigRequest request) {
+        List<String> commands = new ArrayList<>(ENTRIES.length);
+        StringBuilder out = new StringBuilder(64);
+        for (Entry entry : ENTRIES) {
+            out.setLength(0);
+            if (entry.emitter().emit(request, out)) {
+                commands.add(out.toString());
+            }
+        }
+        return commands;
+    }
+
+    /**
+     * Like {@link #compile}, with each command tagged by the device setting it writes.
+     */
+    static List<Ev12Command> compileKeyed(SendConfigRequest request) {
+        List<Ev12Command> commands = new ArrayList<>(ENTRIES.length);
+        StringBuilder out = new StringBuilder(64);
+        for (Entry entry : ENTRIES) {
+            out.setLength(0);
+            if (entry.emitter().emit(request, out)) {
+                String key = entry.key() != null ? entry.key().apply(request) : null;
+                commands.add(new Ev12Command(key, out.toString()));
+            }
+        }
+        return commands;
+    }
+
+    /**
+     * {@code mode1} takes no interval, {@code mode2}/{@code mode6} take two and
+     * {@code mode3}-{@code mode5} one; anything else, or a missing interval, sends nothing.
+     */
+    private static boolean workingMode(SendConfigRequest request, StringBuilder out) {
+        if (!StringUtils.hasText(request.workingMode())) {
+            return false;
+        }
+        String mode = request.workingMode().trim();
+        if ("mode1".equals(mode)) {
+            out.append(mode);
+            return true;
+        }
+        boolean twoIntervals = "mode2".equals(mode) || "mode6".equals(mode);
+        boolean oneInterval = "mode3".equals(mode) || "mode4".equals(mode) || "mode5".equals(mode);
+        if (!(twoIntervals || oneInterval) || !StringUtils.hasText(request.workingModeInterval())) {
+            return false;
+        }
+        if (twoIntervals && !StringUtils.hasText(request.workingModeNoMotionInterval())) {
+            return false;
+        }
+        out.append(mode).append(',');
+        appendTrimmed(out, request.workingModeInterval());
+        if (twoIntervals) {
+            appendTrimmed(out.append(','), request.workingModeNoMotionInterval());
+        }
+        return true;
+    }
+
+    private static Entry setting(String key, Emitter emitter) {
+        return setting(request -> key, emitter);
+    }
+
+    private static Entry setting(Function<SendConfigRequest, String> key, Emitter emitter) {
+        return new Entry(key, emitter);
+    }
+
+    private static Entry action(Emitter emitter) {
+        return new Entry(null, emitter);
+    }
+
+    private static Emitter when(Function<SendConfigRequest, Boolean> field, String command) {
+        return (request, out) -> {
+            if (!Boolean.TRUE.equals(field.apply(request))) {
+                return false;
+            }
+            out.append(command);
+            return true;
+        };
+    }
+
+    private static CommandSpec command(String prefix) {
+        return new CommandSpec(prefix);
+    }
+
+    /**
+     * Appends {@code value} as {@link String#trim} would return it, without creating the trimmed
+     * copy.
+     */
+    static void appendTrimmed(StringBuilder out, String value) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        out.append(value, start, end);
+    }
+
+    /**
+     * An emitter and the setting it writes; {@code key} is null for one-shot commands such as
+     * {@code loc} or {@code status}.
+     */
+    private record Entry(Function<SendConfigRequest, String> key, Emitter emitter) {
+    }
+
+    private interface Field {
+
+        boolean isSet(SendConfigRequest request);
+
+        void append(SendConfigRequest request, StringBuilder out);
+    }
+
+    /**
+     * A command prefix followed by comma-separated fields.
+     */
+    private static final class CommandSpec {
+
+        private final String prefix;
+        private final List<Field> fields = new ArrayList<>();
+        private final List<Boolean> required = new ArrayList<>();
+
+        private CommandSpec(String prefix) {
+            this.prefix = prefix;
+        }
+
+        CommandSpec flag(Function<SendConfigRequest, Boolean> accessor) {
+            return flag(accessor, '1');
+        }
+
+        /**
+         * A boolean sent as {@code on} or {@code 0}; required.
+         */
+        CommandSpec flag(Function<SendConfigRequest, Boolean> accessor, char on) {
+            return add(true, accessor, value -> true, (value, out) -> out.append(value ? on : '0'));
+        }
+
+        /**
+         * A boolean sent as 1 or 0, with {@code missing} used when it is not set.
+         */
+        CommandSpec flag(Function<SendConfigRequest, Boolean> accessor, boolean missing) {
+            return add(false, accessor, value -> true, (value, out) -> out.append((value != null ? value : missing) ? '1' : '0'));
+        }
+
+        CommandSpec integer(Function<SendConfigRequest, Integer> accessor) {
+            return add(true, accessor, value -> true, (value, out) -> out.append(value.intValue()));
+        }
+
+        CommandSpec integer(Function<SendConfigRequest, Integer> accessor, int missing) {
+            return add(false, accessor, value -> true, (value, out) -> out.append(value != null ? value : missing));
+        }
+
+        /**
+         * Non-blank text, trimmed; required.
+         */
+        CommandSpec text(Function<SendConfigRequest, String> accessor) {
+            return add(true, accessor, StringUtils::hasText, (value, out) -> appendTrimmed(out, value));
+        }
+
+        /**
+         * Trailing text sent only when it is non-blank.
+         */
+        CommandSpec optionalText(Function<SendConfigRequest, String> accessor) {
+            Field field = new Field() {
+                @Override
+                public boolean isSet(SendConfigRequest request) {
+                    return true;
+                }
+
+                @Override
+                public void append(SendConfigRequest request, StringBuilder out) {
+                    String value = accessor.apply(request);
+                    if (StringUtils.hasText(value)) {
+                        appendTrimmed(out.append(','), value);
+                    }
+                }
+            };
+            fields.add(field);
+            required.add(false);
+            return this;
+        }
+
+        Emitter compile() {
+            Field[] compiled = fields.toArray(new Field[0]);
+            Field[] guards = new Field[compiled.length];
+            int guardCount = 0;
+            for (int i = 0; i < compiled.length; i++) {
+                if (required.get(i)) {
+                    guards[guardCount++] = compiled[i];
+                }
+            }
+            Field[] checks = Arrays.copyOf(guards, guardCount);
+            String commandPrefix = prefix;
+
+            return (request, out) -> {
+                for (Field check : checks) {
+                    if (!check.isSet(request)) {
+                        return false;
+                    }
+                }
+                out.append(commandPrefix);
+                for (Field field : compiled) {
+                    field.append(request, out);
+                }
+                return true;
+            };
+        }
+
+        private <T> CommandSpec add(
+            boolean isRequired,
+            Function<SendConfigRequest, T> accessor,
+            Predicate<T> present,
+            Encoder<T> encoder
+        ) {
+            boolean first = fields.isEmpty();
+            fields.add(new Field() {
+                @Override
+                public boolean isSet(SendConfigRequest request) {
+                    T value = accessor.apply(request);
+                    return value != null && present.test(value);
+                }
+
+                @Override
+                public void append(SendConfigRequest request, StringBuilder out) {
+                    if (!first) {
+                        out.append(',');
+                    }
+                    encoder.encode(accessor.apply(request), out);
+                }
+            });
+            required.add(isRequired);
+            return this;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Encoder<T> {
+
+        void encode(T value, StringBuilder out);
+    }
+}
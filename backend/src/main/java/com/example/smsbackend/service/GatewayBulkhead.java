@@ -0,0 +1,128 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.GatewayBulkheadProperties;
+import com.example.smsbackend.dto.GatewayBulkheadStats;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caps the calls in flight to each gateway, so a hung phone can only tie up
+ * {@code max-concurrent-calls} request threads plus {@code max-queue} waiting for a slot. Calls
+ * beyond that, or that wait longer than {@code max-wait}, fail fast with {@code 503}.
+ */
+@Component
+public class GatewayBulkhead {
+
+    private final GatewayBulkheadProperties properties;
+    private final GatewayMetrics metrics;
+    private final GatewayStateMap<Compartment> compartments = new GatewayStateMap<>(System::nanoTime, Compartment::isBusy);
+
+    public GatewayBulkhead(GatewayBulkheadProperties properties, GatewayMetrics metrics) {
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+
+    public <T> T execute(String baseUrl, String operation, Supplier<T> call) {
+        if (!properties.enabled()) {
+            return call.get();
+        }
+
+        String gateway = GatewayOrigins.of(baseUrl);
+        Compartment compartment = compartments.computeIfAbsent(gateway, ignored -> new Compartment(properties));
+        if (!compartment.enter(properties.maxQueue(), properties.maxWait().toNanos())) {
+            metrics.recordBulkheadRejection(gateway, operation);
+            throw new GatewayBulkheadFullException(gateway, properties.retryAfter());
+        }
+        try {
+            return call.get();
+        } finally {
+            compartment.leave();
+        }
+    }
+
+    public List<GatewayBulkheadStats> stats() {
+        return compartments.snapshot().entrySet().stream()
+            .map(entry -> entry.getValue().snapshot(entry.getKey()))
+            .toList();
+    }
+
+    static final class Compartment {
+
+        private final int maxConcurrentCalls;
+        private final int maxQueue;
+        private final Semaphore permits;
+        private final AtomicInteger queued = new AtomicInteger();
+
+        private long accepted;
+        private long rejected;
+        private long maxWaitNanos;
+
+        Compartment(GatewayBulkheadProperties properties) {
+            this.maxConcurrentCalls = properties.maxConcurrentCalls();
+            this.maxQueue = properties.maxQueue();
+            this.permits = new Semaphore(maxConcurrentCalls, true);
+        }
+
+        /**
+         * Takes a slot, waiting behind earlier callers for up to {@code waitLimitNanos} when all are
+         * busy. Returns false when the queue is already full or the wait runs out.
+         */
+        boolean enter(int queueLimit, long waitLimitNanos) {
+            long start = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(0, TimeUnit.NANOSECONDS);
+                if (!acquired && waitLimitNanos > 0) {
+                    if (queued.incrementAndGet() > queueLimit) {
+                        queued.decrementAndGet();
+                    } else {
+                        try {
+                            acquired = permits.tryAcquire(waitLimitNanos, TimeUnit.NANOSECONDS);
+                        } finally {
+                            queued.decrementAndGet();
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a gateway call slot", e);
+            }
+            record(acquired, System.nanoTime() - start);
+            return acquired;
+        }
+
+        void leave() {
+            permits.release();
+        }
+
+        boolean isBusy() {
+            return permits.availablePermits() < maxConcurrentCalls || queued.get() > 0;
+        }
+
+        synchronized GatewayBulkheadStats snapshot(String gateway) {
+            return new GatewayBulkheadStats(
+                gateway,
+                maxConcurrentCalls,
+                maxQueue,
+                maxConcurrentCalls - permits.availablePermits(),
+                queued.get(),
+                accepted,
+                rejected,
+                maxWaitNanos / 1_000_000.0
+            );
+        }
+
+        private synchronized void record(boolean acquired, long waitNanos) {
+            if (acquired) {
+                accepted++;
+                maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+            } else {
+                rejected++;
+            }
+        }
+    }
+}
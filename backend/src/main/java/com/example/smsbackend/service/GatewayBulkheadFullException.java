@@ -0,0 +1,21 @@
+package com.example.smsbackend.service;
+
+import java.time.Duration;
+
+public class GatewayBulkheadFullException extends GatewayClientException {
+
+    private final Duration retryAfter;
+
+    public GatewayBulkheadFullException(String gateway, Duration retryAfter) {
+        super(
+            503,
+            "Gateway " + gateway + " is busy (too many calls in flight); retry in "
+                + Math.max(1, retryAfter.toSeconds()) + "s"
+        );
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.GatewayCircuitBreakerProperties;
+import com.example.smsbackend.dto.GatewayCircuitStats;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Per-gateway circuit breaker over a count-based rolling window of call outcomes. Connection
+ * failures and 5xx responses count as failures, calls slower than {@code slow-call-duration} as
+ * slow; 4xx responses prove the phone is reachable and count as successes. Errors raised by the
+ * caller's own response handling are not held against the gateway.
+ */
+@Component
+public class GatewayCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final GatewayCircuitBreakerProperties properties;
+    private final Clock clock;
+    private final GatewayStateMap<Circuit> circuits;
+
+    @Autowired
+    public GatewayCircuitBreaker(GatewayCircuitBreakerProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    GatewayCircuitBreaker(GatewayCircuitBreakerProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.circuits = new GatewayStateMap<>(System::nanoTime, circuit -> circuit.remainingOpen(clock.instant()) != null);
+    }
+
+    /**
+     * Fails fast while the gateway's circuit is open, without taking a half-open trial slot.
+     */
+    public void checkPermitted(String baseUrl) {
+        if (!properties.enabled()) {
+            return;
+        }
+        String gateway = GatewayOrigins.of(baseUrl);
+        Circuit circuit = circuits.get(gateway);
+        if (circuit == null) {
+            return;
+        }
+        Duration retryAfter = circuit.remainingOpen(clock.instant());
+        if (retryAfter != null) {
+            throw new GatewayCircuitOpenException(gateway, retryAfter);
+        }
+    }
+
+    public boolean isCallPermitted(String baseUrl) {
+        if (!properties.enabled()) {
+            return true;
+        }
+        Circuit circuit = circuits.get(GatewayOrigins.of(baseUrl));
+        return circuit == null || circuit.remainingOpen(clock.instant()) == null;
+    }
+
+    public <T> T execute(String baseUrl, Supplier<T> call) {
+        if (!properties.enabled()) {
+            return call.get();
+        }
+
+        String gateway = GatewayOrigins.of(baseUrl);
+        Circuit circuit = circuit(gateway);
+        Duration retryAfter = circuit.tryAcquire(clock.instant());
+        if (retryAfter != null) {
+            throw new GatewayCircuitOpenException(gateway, retryAfter);
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            circuit.onResult(false, System.nanoTime() - start, clock.instant(), null);
+            return result;
+        } catch (RuntimeException e) {
+            circuit.onResult(isFailure(e), System.nanoTime() - start, clock.instant(), e.getMessage());
+            throw e;
+        }
+    }
+
+    public GatewayCircuitStats stats(String baseUrl) {
+        String gateway = GatewayOrigins.of(baseUrl);
+        return circuit(gateway).snapshot(gateway, clock.instant());
+    }
+
+    public List<GatewayCircuitStats> stats() {
+        Instant now = clock.instant();
+        return circuits.snapshot().entrySet().stream()
+            .map(entry -> entry.getValue().snapshot(entry.getKey(), now))
+            .toList();
+    }
+
+    Circuit circuit(String gateway) {
+        return circuits.computeIfAbsent(gateway, ignored -> new Circuit(properties, clock.instant()));
+    }
+
+    private static boolean isFailure(RuntimeException e) {
+        if (e instanceof HttpStatusCodeException statusError) {
+            return statusError.getStatusCode().is5xxServerError();
+        }
+        if (e instanceof GatewayClientException gatewayError) {
+            return gatewayError.getStatusCode() >= 500;
+        }
+        return e instanceof ResourceAccessException;
+    }
+
+    static final class Circuit {
+
+        private final GatewayCircuitBreakerProperties properties;
+        private final boolean[] failures;
+        private final boolean[] slowCalls;
+        private int next;
+        private int buffered;
+        private int failureCount;
+        private int slowCount;
+
+        private State state = State.CLOSED;
+        private Instant lastStateChange;
+        private Instant openUntil;
+        private int halfOpenInFlight;
+        private int halfOpenSucceeded;
+
+        private long rejected;
+        private Instant lastSuccessAt;
+        private Instant lastFailureAt;
+        private String lastError;
+
+        Circuit(GatewayCircuitBreakerProperties properties, Instant now) {
+            this.properties = properties;
+            this.failures = new boolean[properties.windowSize()];
+            this.slowCalls = new boolean[properties.windowSize()];
+            this.lastStateChange = now;
+        }
+
+        synchronized Duration remainingOpen(Instant now) {
+            if (state == State.OPEN && now.isBefore(openUntil)) {
+                return Duration.between(now, openUntil);
+            }
+            return null;
+        }
+
+        /**
+         * Returns {@code null} when the call may proceed, otherwise how long until it is worth retrying.
+         */
+        synchronized Duration tryAcquire(Instant now) {
+            if (state == State.OPEN) {
+                if (now.isBefore(openUntil)) {
+                    rejected++;
+                    return Duration.between(now, openUntil);
+                }
+                transition(State.HALF_OPEN, now);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenInFlight + halfOpenSucceeded >= properties.halfOpenCalls()) {
+                    rejected++;
+                    return Duration.ofSeconds(1);
+                }
+                halfOpenInFlight++;
+            }
+            return null;
+        }
+
+        synchronized void onResult(boolean failure, long durationNanos, Instant now, String error) {
+            boolean slow = durationNanos >= properties.slowCallDuration().toNanos();
+            if (failure) {
+                lastFailureAt = now;
+                lastError = error;
+            } else {
+                lastSuccessAt = now;
+            }
+
+            if (state == State.HALF_OPEN) {
+                halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+                if (failure || slow) {
+                    open(now);
+                } else if (++halfOpenSucceeded >= properties.halfOpenCalls()) {
+                    transition(State.CLOSED, now);
+                }
+                return;
+            }
+            if (state == State.OPEN) {
+                return;
+            }
+
+            record(failure, slow);
+            if (buffered >= properties.minimumCalls()
+                && (failureRate() >= properties.failureRateThreshold()
+                || slowCallRate() >= properties.slowCallRateThreshold())) {
+                open(now);
+            }
+        }
+
+        synchronized GatewayCircuitStats snapshot(String gateway, Instant now) {
+            State reported = state == State.OPEN && !now.isBefore(openUntil) ? State.HALF_OPEN : state;
+            return new GatewayCircuitStats(
+                gateway,
+                reported.name(),
+                buffered,
+                failureRate(),
+                slowCallRate(),
+                rejected,
+                lastStateChange,
+                lastSuccessAt,
+                lastFailureAt,
+                lastError
+            );
+        }
+
+        synchronized State state() {
+            return state;
+        }
+
+        private void record(boolean failure, boolean slow) {
+            if (buffered == failures.length) {
+                if (failures[next]) {
+                    failureCount--;
+                }
+                if (slowCalls[next]) {
+                    slowCount--;
+                }
+            } else {
+                buffered++;
+            }
+
+            failures[next] = failure;
+            slowCalls[next] = slow;
+            if (failure) {
+                failureCount++;
+            }
+            if (slow) {
+                slowCount++;
+            }
+            next = (next + 1) % failures.length;
+        }
+
+        private double failureRate() {
+            return buffered == 0 ? 0 : failureCount * 100.0 / buffered;
+        }
+
+        private double slowCallRate() {
+            return buffered == 0 ? 0 : slowCount * 100.0 / buffered;
+        }
+
+        private void open(Instant now) {
+            transition(State.OPEN, now);
+            openUntil = now.plus(properties.openDuration());
+        }
+
+        private void transition(State target, Instant now) {
+            state = target;
+            lastStateChange = now;
+            halfOpenInFlight = 0;
+            halfOpenSucceeded = 0;
+            if (target == State.CLOSED) {
+                buffered = 0;
+                next = 0;
+                failureCount = 0;
+                slowCount = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.smsbackend.service;
+
+import java.time.Duration;
+
+public class GatewayCircuitOpenException extends GatewayClientException {
+
+    private final Duration retryAfter;
+
+    public GatewayCircuitOpenException(String gateway, Duration retryAfter) {
+        super(
+            503,
+            "Gateway " + gateway + " is unavailable (circuit open after repeated failures); retry in "
+                + Math.max(1, retryAfter.toSeconds()) + "s"
+        );
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -1,91 +1,151 @@
 package com.example.smsbackend.service;
 
+import com.example.smsbackend.config.CoalescingProperties;
 import com.example.smsbackend.config.GatewayProperties;
+import com.example.smsbackend.dto.CoalescingStats;
 import com.example.smsbackend.dto.GatewayReplyMessage;
 import com.example.smsbackend.dto.GatewayRequestOptions;
 import com.example.smsbackend.dto.SendMessageRequest;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.time.Duration;
-import java.util.Collections;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.ResourceAccessException;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 @Service
 public class GatewayClientService {
 
-    private static final int CONNECT_TIMEOUT_MS = (int) Duration.ofSeconds(5).toMillis();
-    private static final int READ_TIMEOUT_MS = (int) Duration.ofSeconds(10).toMillis();
+    private static final long PROBE_SINCE_AHEAD_MILLIS = 24L * 60 * 60 * 1000;
 
     private final GatewayProperties properties;
-    private final RestTemplate restTemplate;
+    private final GatewayTransport transport;
+    private final GatewayRateLimiter rateLimiter;
+    private final GatewayCircuitBreaker circuitBreaker;
+    private final GatewayRouter router;
     private final ObjectMapper objectMapper;
+    private final GatewayMetrics metrics;
+    private final GatewayRetryPolicy retryPolicy;
+    private final GatewayBulkhead bulkhead;
+    private final GatewayTimeouts timeouts;
+    private final SingleFlightCache<FetchKey, List<GatewayReplyMessage>> fetchCache;
 
-    public GatewayClientService(GatewayProperties properties, ObjectMapper objectMapper) {
+    public GatewayClientService(
+        GatewayProperties properties,
+        GatewayTransport transport,
+        GatewayRateLimiter rateLimiter,
+        GatewayCircuitBreaker circuitBreaker,
+        GatewayRouter router,
+        ObjectMapper objectMapper,
+        CoalescingProperties coalescingProperties,
+        GatewayMetrics metrics,
+        GatewayRetryPolicy retryPolicy,
+        GatewayBulkhead bulkhead,
+        GatewayTimeouts timeouts
+    ) {
         this.properties = properties;
+        this.transport = transport;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.router = router;
         this.objectMapper = objectMapper;
-
-        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
-        requestFactory.setConnectTimeout(CONNECT_TIMEOUT_MS);
-        requestFactory.setReadTimeout(READ_TIMEOUT_MS);
-        this.restTemplate = new RestTemplate(requestFactory);
+        this.metrics = metrics;
+        this.retryPolicy = retryPolicy;
+        this.bulkhead = bulkhead;
+        this.timeouts = timeouts;
+        this.fetchCache = new SingleFlightCache<>("gateway-fetch", coalescingProperties);
     }
 
-    public void sendMessage(SendMessageRequest request, GatewayRequestOptions options) {
-        String baseUrl = resolveBaseUrl(options);
+    public GatewayRoute sendMessage(SendMessageRequest request, GatewayRequestOptions options) {
+        GatewayRoute route = router.route(request.to(), request.slot(), options);
+        String gateway = GatewayOrigins.of(route.baseUrl());
+        try {
+            String baseUrl = route.baseUrl();
 
-        HttpHeaders headers = authHeaders(options);
-        headers.setContentType(MediaType.APPLICATION_JSON);
+            HttpHeaders headers = authHeaders(route.options());
+            headers.setContentType(MediaType.APPLICATION_JSON);
 
-        Map<String, Object> payload = new LinkedHashMap<>();
-        payload.put("to", request.to());
-        payload.put("message", request.message());
-        if (request.slot() != null) {
-            payload.put("slot", request.slot());
-        }
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("to", request.to());
+            payload.put("message", request.message());
+            if (route.slot() != null) {
+                payload.put("slot", route.slot());
+            }
 
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(payload, headers);
-        ResponseEntity<String> response;
-        try {
-            response = restTemplate.exchange(baseUrl, HttpMethod.POST, entity, String.class);
-        } catch (HttpStatusCodeException e) {
-            throw new GatewayClientException(
-                e.getStatusCode().value(),
-                "Gateway send failed: HTTP " + e.getStatusCode().value() + bodySuffix(e.getResponseBodyAsString()),
-                e
-            );
-        } catch (ResourceAccessException e) {
-            throw new IllegalStateException(
-                "Cannot reach Android gateway at " + baseUrl +
-                    ". Verify phone IP/port and that service is enabled.",
-                e
-            );
-        }
+            String body = toJson(payload);
+            HttpEntity<String> entity = new HttpEntity<>(body, headers);
+            circuitBreaker.checkPermitted(baseUrl);
+            rateLimiter.acquire(baseUrl, route.slot());
+            exchange(baseUrl, baseUrl, HttpMethod.POST, entity, "send");
 
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            throw new GatewayClientException(
-                response.getStatusCode().value(),
-                "Gateway send failed: HTTP " + response.getStatusCode().value() +
-                    bodySuffix(response.getBody())
-            );
+            metrics.recordMessages(gateway, "send", GatewayMetrics.OUTCOME_SUCCESS, 1);
+            metrics.recordBytes(gateway, GatewayMetrics.DIRECTION_SENT, body.getBytes(StandardCharsets.UTF_8).length);
+            metrics.recordSegments(gateway, request.message());
+            return route;
+        } catch (RuntimeException e) {
+            metrics.recordMessages(gateway, "send", GatewayMetrics.OUTCOME_FAILURE, 1);
+            throw e;
+        } finally {
+            router.release(route);
         }
     }
 
+    /**
+     * Identical concurrent fetches against the same gateway share one request, and repeats within
+     * {@code coalescing.ttl} reuse its result.
+     */
     public List<GatewayReplyMessage> fetchMessages(String phone, Long since, Integer limit, GatewayRequestOptions options) {
         String baseUrl = resolveBaseUrl(options);
+        FetchKey key = new FetchKey(
+            GatewayOrigins.of(baseUrl),
+            authHeaders(options).getFirst(HttpHeaders.AUTHORIZATION),
+            phone,
+            since,
+            limit
+        );
+        return fetchCache.get(key, () -> {
+            List<GatewayReplyMessage> messages = new ArrayList<>();
+            streamMessages(phone, since, limit, options, messages::add);
+            return List.copyOf(messages);
+        });
+    }
+
+    public CoalescingStats fetchCoalescingStats() {
+        return fetchCache.stats();
+    }
+
+    /**
+     * Parses the phone's reply array incrementally and hands each message to {@code consumer}
+     * while the response is still being read. Returns the number of messages delivered.
+     */
+    public int streamMessages(
+        String phone,
+        Long since,
+        Integer limit,
+        GatewayRequestOptions options,
+        Consumer<GatewayReplyMessage> consumer
+    ) {
+        String baseUrl = resolveBaseUrl(options);
 
         String url = UriComponentsBuilder.fromHttpUrl(baseUrl)
             .path("/messages")
@@ -95,42 +155,157 @@ public class GatewayClientService {
             .build(true)
             .toUriString();
 
-        HttpEntity<Void> entity = new HttpEntity<>(authHeaders(options));
+        HttpHeaders headers = authHeaders(options);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+
+        String gateway = GatewayOrigins.of(baseUrl);
+        // Once a reply has reached the consumer, a retry would hand it over twice.
+        AtomicBoolean started = new AtomicBoolean();
+        Consumer<GatewayReplyMessage> tracking = message -> {
+            started.set(true);
+            consumer.accept(message);
+        };
+        Integer count = call(baseUrl, "fetch", () -> !started.get(), () -> transport.restTemplate(baseUrl).execute(
+            url,
+            HttpMethod.GET,
+            request -> request.getHeaders().putAll(headers),
+            response -> {
+                CountingInputStream body = new CountingInputStream(response.getBody());
+                try {
+                    return GatewayReplyReader.read(body, objectMapper.getFactory(), tracking);
+                } finally {
+                    metrics.recordBytes(gateway, GatewayMetrics.DIRECTION_RECEIVED, body.count);
+                }
+            }
+        ));
+        int delivered = count != null ? count : 0;
+        metrics.recordMessages(gateway, "fetch", GatewayMetrics.OUTCOME_SUCCESS, delivered);
+        return delivered;
+    }
+
+    /**
+     * Cheapest authenticated round trip the phone supports: {@code GET /messages} with a
+     * {@code since} in the future, so the inbox query matches nothing. Bypasses the circuit
+     * breaker so an open circuit does not hide a recovered phone.
+     */
+    public void probe(GatewayRequestOptions options) {
+        String baseUrl = resolveBaseUrl(options);
+        String url = UriComponentsBuilder.fromHttpUrl(baseUrl)
+            .path("/messages")
+            .queryParam("since", System.currentTimeMillis() + PROBE_SINCE_AHEAD_MILLIS)
+            .queryParam("limit", 1)
+            .build(true)
+            .toUriString();
+
+        HttpHeaders headers = authHeaders(options);
+        mapErrors(baseUrl, "probe", () -> timed(baseUrl, "probe", () -> transport.restTemplate(baseUrl).execute(
+            url,
+            HttpMethod.GET,
+            request -> request.getHeaders().putAll(headers),
+            response -> {
+                response.getBody().transferTo(OutputStream.nullOutputStream());
+                return null;
+            }
+        )));
+    }
+
+    private ResponseEntity<String> exchange(
+        String baseUrl,
+        String url,
+        HttpMethod method,
+        HttpEntity<?> entity,
+        String operation
+    ) {
+        ResponseEntity<String> response = call(
+            baseUrl,
+            operation,
+            () -> HttpMethod.GET.equals(method),
+            () -> transport.restTemplate(baseUrl).exchange(url, method, entity, String.class)
+        );
+
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new GatewayClientException(
+                response.getStatusCode().value(),
+                "Gateway " + operation + " failed: HTTP " + response.getStatusCode().value() +
+                    bodySuffix(response.getBody())
+            );
+        }
+        return response;
+    }
+
+    /**
+     * The whole call, retries and backoff included, holds one bulkhead slot. Each attempt goes
+     * through the circuit breaker and is timed on its own; the retry policy decides whether a
+     * failed attempt is repeated.
+     */
+    private <T> T call(String baseUrl, String operation, BooleanSupplier idempotent, Supplier<T> request) {
+        return mapErrors(baseUrl, operation, () -> bulkhead.execute(baseUrl, operation, () -> retryPolicy.execute(
+            baseUrl,
+            operation,
+            idempotent,
+            () -> timed(baseUrl, operation, () -> circuitBreaker.execute(baseUrl, request))
+        )));
+    }
+
+    /**
+     * Records one round trip into {@code gateway.requests}. {@code execute} only hands non-error
+     * responses to its extractor, so a result without a status counts as 200. Answers and read
+     * timeouts also feed the gateway's adaptive timeouts.
+     */
+    private <T> T timed(String baseUrl, String operation, Supplier<T> request) {
+        String gateway = GatewayOrigins.of(baseUrl);
+        long start = System.nanoTime();
+        try {
+            T result = request.get();
+            long elapsed = System.nanoTime() - start;
+            int status = result instanceof ResponseEntity<?> response
+                ? response.getStatusCode().value()
+                : HttpStatus.OK.value();
+            metrics.recordRequest(gateway, operation, status, elapsed);
+            timeouts.record(gateway, elapsed);
+            return result;
+        } catch (RuntimeException e) {
+            long elapsed = System.nanoTime() - start;
+            metrics.recordRequest(gateway, operation, e, elapsed);
+            if (e instanceof HttpStatusCodeException || isReadTimeout(e)) {
+                timeouts.record(gateway, elapsed);
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isReadTimeout(RuntimeException error) {
+        return error instanceof ResourceAccessException
+            && error.getCause() instanceof SocketTimeoutException
+            && !GatewayRetryPolicy.neverSent(error);
+    }
 
-        ResponseEntity<String> response;
+    private <T> T mapErrors(String baseUrl, String operation, Supplier<T> request) {
         try {
-            response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
+            return request.get();
         } catch (HttpStatusCodeException e) {
             throw new GatewayClientException(
                 e.getStatusCode().value(),
-                "Gateway fetch failed: HTTP " + e.getStatusCode().value() + bodySuffix(e.getResponseBodyAsString()),
+                "Gateway " + operation + " failed: HTTP " + e.getStatusCode().value() + bodySuffix(e.getResponseBodyAsString()),
                 e
             );
         } catch (ResourceAccessException e) {
+            if (!GatewayRetryPolicy.neverSent(e)) {
+                throw new GatewayNoAnswerException(GatewayOrigins.of(baseUrl), operation, e);
+            }
             throw new IllegalStateException(
                 "Cannot reach Android gateway at " + baseUrl +
                     ". Verify phone IP/port and that service is enabled.",
                 e
             );
         }
+    }
 
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            throw new GatewayClientException(
-                response.getStatusCode().value(),
-                "Gateway fetch failed: HTTP " + response.getStatusCode().value() +
-                    bodySuffix(response.getBody())
-            );
-        }
-
-        if (response.getBody() == null || response.getBody().isBlank()) {
-            return Collections.emptyList();
-        }
-
+    private String toJson(Map<String, Object> payload) {
         try {
-            return objectMapper.readValue(response.getBody(), new TypeReference<>() {
-            });
+            return objectMapper.writeValueAsString(payload);
         } catch (Exception e) {
-            throw new IllegalStateException("Failed to parse gateway response", e);
+            throw new IllegalStateException("Failed to serialize gateway request", e);
         }
     }
 
@@ -147,7 +322,7 @@ public class GatewayClientService {
         return headers;
     }
 
-    private String resolveBaseUrl(GatewayRequestOptions options) {
+    public String resolveBaseUrl(GatewayRequestOptions options) {
         if (options != null && StringUtils.hasText(options.baseUrl())) {
             return options.baseUrl().trim();
         }
@@ -175,4 +350,34 @@ public class GatewayClientService {
         }
         return java.util.Optional.of(value);
     }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+
+    private record FetchKey(String gateway, String authorization, String phone, Long since, Integer limit) {
+    }
 }
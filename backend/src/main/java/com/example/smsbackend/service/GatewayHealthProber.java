@@ -0,0 +1,255 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.GatewayHealthProperties;
+import com.example.smsbackend.dto.GatewayHealthStats;
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Probes every known gateway on {@code gateway.health.interval} and keeps the latest result in
+ * memory, so health checks never wait on a phone. A gateway named by a health request's
+ * {@code X-Gateway-Base-Url} is probed while it keeps being asked about, up to
+ * {@code gateway.health.max-watched} of them; past that the one asked about least recently is
+ * dropped, since anyone can name a URL on an unauthenticated health check.
+ */
+@Component
+public class GatewayHealthProber implements DisposableBean {
+
+    public enum Status {
+        UNKNOWN,
+        UP,
+        DOWN
+    }
+
+    private final GatewayHealthProperties properties;
+    private final GatewayClientService gatewayClientService;
+    private final Clock clock;
+    private final GatewayRouter router;
+    private final Map<String, Watch> watched = new ConcurrentHashMap<>();
+    private final Map<String, Probe> probes = new ConcurrentHashMap<>();
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor;
+
+    @Autowired
+    public GatewayHealthProber(
+        GatewayHealthProperties properties,
+        GatewayClientService gatewayClientService,
+        GatewayRouter router
+    ) {
+        this(properties, gatewayClientService, router, Clock.systemUTC());
+    }
+
+    GatewayHealthProber(
+        GatewayHealthProperties properties,
+        GatewayClientService gatewayClientService,
+        GatewayRouter router,
+        Clock clock
+    ) {
+        this.properties = properties;
+        this.gatewayClientService = gatewayClientService;
+        this.clock = clock;
+        this.router = router;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(properties.probeThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "gateway-health-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${gateway.health.interval:PT10S}", initialDelay = 0)
+    public void probeAll() {
+        if (!properties.enabled()) {
+            return;
+        }
+        Instant expiry = clock.instant().minus(properties.watchTtl());
+        watched.values().removeIf(watch -> watch.lastRequestedAt.isBefore(expiry));
+        Map<String, GatewayRequestOptions> targets = targets();
+        probes.keySet().removeIf(gateway -> !targets.containsKey(gateway));
+
+        targets.forEach(this::submit);
+    }
+
+    /**
+     * Cached health for the gateways a request with these options would use: the requested
+     * gateway, or every configured one. Never calls a phone; an unseen gateway is queued for
+     * probing and reported as {@code UNKNOWN} until the probe completes.
+     */
+    public List<GatewayHealthStats> health(GatewayRequestOptions options) {
+        Map<String, GatewayRequestOptions> configured = router.configuredGateways();
+        Map<String, GatewayRequestOptions> targets = new LinkedHashMap<>();
+        if (options != null && StringUtils.hasText(options.baseUrl())) {
+            String baseUrl = options.baseUrl().trim();
+            String gateway = GatewayOrigins.of(baseUrl);
+            GatewayRequestOptions requested = configured.getOrDefault(gateway, new GatewayRequestOptions(baseUrl, options.token()));
+            if (!configured.containsKey(gateway)) {
+                watch(gateway, requested);
+            }
+            targets.put(gateway, requested);
+        } else {
+            targets.putAll(configured);
+        }
+
+        Instant now = clock.instant();
+        return targets.entrySet().stream()
+            .map(target -> {
+                Probe probe = probes.get(target.getKey());
+                if (probe == null && properties.enabled()) {
+                    submit(target.getKey(), target.getValue());
+                }
+                return probe != null ? probe.snapshot(target.getKey(), now) : unknown(target.getKey());
+            })
+            .toList();
+    }
+
+    public List<GatewayHealthStats> stats() {
+        Instant now = clock.instant();
+        return targets().keySet().stream()
+            .map(gateway -> {
+                Probe probe = probes.get(gateway);
+                return probe != null ? probe.snapshot(gateway, now) : unknown(gateway);
+            })
+            .toList();
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    void probe(String gateway, GatewayRequestOptions options) {
+        Probe probe = probes.computeIfAbsent(gateway, ignored -> new Probe(properties.staleAfter()));
+        long start = System.nanoTime();
+        try {
+            gatewayClientService.probe(options);
+            probe.onSuccess(System.nanoTime() - start, clock.instant());
+        } catch (RuntimeException e) {
+            probe.onFailure(System.nanoTime() - start, clock.instant(), e.getMessage());
+        }
+    }
+
+    private Map<String, GatewayRequestOptions> targets() {
+        Map<String, GatewayRequestOptions> targets = new LinkedHashMap<>(router.configuredGateways());
+        watched.forEach((gateway, watch) -> targets.putIfAbsent(gateway, watch.options));
+        return targets;
+    }
+
+    private void watch(String gateway, GatewayRequestOptions options) {
+        if (watched.put(gateway, new Watch(options, clock.instant())) == null && watched.size() > properties.maxWatched()) {
+            evictWatches(gateway);
+        }
+    }
+
+    private synchronized void evictWatches(String added) {
+        int excess = watched.size() - properties.maxWatched();
+        if (excess <= 0) {
+            return;
+        }
+        watched.entrySet().stream()
+            .filter(entry -> !entry.getKey().equals(added))
+            .sorted(Comparator.comparing(entry -> entry.getValue().lastRequestedAt()))
+            .limit(excess)
+            .map(Map.Entry::getKey)
+            .toList()
+            .forEach(gateway -> {
+                watched.remove(gateway);
+                probes.remove(gateway);
+            });
+    }
+
+    /**
+     * Runs one probe per gateway at a time; a phone that hangs until its timeout only delays itself.
+     */
+    private void submit(String gateway, GatewayRequestOptions options) {
+        if (!inFlight.add(gateway)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    probe(gateway, options);
+                } finally {
+                    inFlight.remove(gateway);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(gateway);
+        }
+    }
+
+    private GatewayHealthStats unknown(String gateway) {
+        return new GatewayHealthStats(gateway, Status.UNKNOWN.name(), null, null, null, null, true, 0, null);
+    }
+
+    private record Watch(GatewayRequestOptions options, Instant lastRequestedAt) {
+    }
+
+    static final class Probe {
+
+        private final Duration staleAfter;
+        private Status status = Status.UNKNOWN;
+        private double latencyMs;
+        private Instant lastCheckedAt;
+        private Instant lastSuccessAt;
+        private int consecutiveFailures;
+        private String lastError;
+
+        Probe(Duration staleAfter) {
+            this.staleAfter = staleAfter;
+        }
+
+        synchronized void onSuccess(long durationNanos, Instant now) {
+            status = Status.UP;
+            latencyMs = durationNanos / 1_000_000.0;
+            lastCheckedAt = now;
+            lastSuccessAt = now;
+            consecutiveFailures = 0;
+            lastError = null;
+        }
+
+        synchronized void onFailure(long durationNanos, Instant now, String error) {
+            status = Status.DOWN;
+            latencyMs = durationNanos / 1_000_000.0;
+            lastCheckedAt = now;
+            consecutiveFailures++;
+            lastError = error;
+        }
+
+        synchronized GatewayHealthStats snapshot(String gateway, Instant now) {
+            Long ageMs = lastCheckedAt != null ? Duration.between(lastCheckedAt, now).toMillis() : null;
+            return new GatewayHealthStats(
+                gateway,
+                status.name(),
+                lastCheckedAt != null ? latencyMs : null,
+                lastCheckedAt,
+                lastSuccessAt,
+                ageMs,
+                ageMs == null || ageMs > staleAfter.toMillis(),
+                consecutiveFailures,
+                lastError
+            );
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.smsbackend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.net.SocketTimeoutException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Micrometer meters for traffic to the Android gateways. Every meter is tagged with the gateway
+ * origin, so latency percentiles and failure counts can be read per phone. Origins that are neither
+ * configured nor registered share the {@code adhoc} tag, since each caller-supplied
+ * {@code X-Gateway-Base-Url} would otherwise add meters that are never removed.
+ */
+@Component
+public class GatewayMetrics {
+
+    public static final String REQUESTS = "gateway.requests";
+    public static final String MESSAGES = "gateway.messages";
+    public static final String BYTES = "gateway.bytes";
+    public static final String SEGMENTS = "gateway.segments";
+    public static final String RETRIES = "gateway.retries";
+    public static final String ATTEMPTS = "gateway.request.attempts";
+    public static final String BULKHEAD_REJECTIONS = "gateway.bulkhead.rejections";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_FAILURE = "failure";
+    public static final String DIRECTION_SENT = "sent";
+    public static final String DIRECTION_RECEIVED = "received";
+
+    static final String NO_STATUS = "none";
+    static final String ADHOC_GATEWAY = "adhoc";
+
+    private final MeterRegistry registry;
+    private final Predicate<String> configured;
+
+    @Autowired
+    public GatewayMetrics(MeterRegistry registry, GatewayRouter router) {
+        this(registry, router::isConfigured);
+    }
+
+    GatewayMetrics(MeterRegistry registry, Predicate<String> configured) {
+        this.registry = registry;
+        this.configured = configured;
+    }
+
+    public void recordRequest(String gateway, String operation, int status, long durationNanos) {
+        recordRequest(gateway, operation, outcome(status), Integer.toString(status), durationNanos);
+    }
+
+    /**
+     * Records a call that ended without an HTTP response, classified by the exception thrown.
+     */
+    public void recordRequest(String gateway, String operation, RuntimeException error, long durationNanos) {
+        if (error instanceof HttpStatusCodeException statusError) {
+            recordRequest(gateway, operation, statusError.getStatusCode().value(), durationNanos);
+            return;
+        }
+        if (error instanceof GatewayClientException gatewayError && !(error instanceof GatewayCircuitOpenException)) {
+            recordRequest(gateway, operation, gatewayError.getStatusCode(), durationNanos);
+            return;
+        }
+        recordRequest(gateway, operation, outcome(error), NO_STATUS, durationNanos);
+    }
+
+    public void recordMessages(String gateway, String operation, String outcome, int count) {
+        if (count > 0) {
+            Counter.builder(MESSAGES)
+                .description("SMS messages sent through or fetched from a gateway")
+                .tags(Tags.of("gateway", tag(gateway), "operation", operation, "outcome", outcome))
+                .register(registry)
+                .increment(count);
+        }
+    }
+
+    public void recordBytes(String gateway, String direction, long bytes) {
+        if (bytes > 0) {
+            Counter.builder(BYTES)
+                .description("HTTP body bytes exchanged with a gateway")
+                .baseUnit("bytes")
+                .tags(Tags.of("gateway", tag(gateway), "direction", direction))
+                .register(registry)
+                .increment(bytes);
+        }
+    }
+
+    public void recordSegments(String gateway, String message) {
+        Counter.builder(SEGMENTS)
+            .description("SMS segments handed to a gateway for delivery")
+            .tags(Tags.of("gateway", tag(gateway), "encoding", SmsSegments.encoding(message).name().toLowerCase(Locale.ROOT)))
+            .register(registry)
+            .increment(SmsSegments.count(message));
+    }
+
+    public void recordRetry(String gateway, String operation, String outcome) {
+        Counter.builder(RETRIES)
+            .description("Gateway call retries, and retries refused by the retry budget")
+            .tags(Tags.of("gateway", tag(gateway), "operation", operation, "outcome", outcome))
+            .register(registry)
+            .increment();
+    }
+
+    public void recordAttempts(String gateway, String operation, int attempts) {
+        DistributionSummary.builder(ATTEMPTS)
+            .description("Attempts made per gateway call, including the first")
+            .tags(Tags.of("gateway", tag(gateway), "operation", operation))
+            .register(registry)
+            .record(attempts);
+    }
+
+    public void recordBulkheadRejection(String gateway, String operation) {
+        Counter.builder(BULKHEAD_REJECTIONS)
+            .description("Gateway calls refused because the gateway's bulkhead was full")
+            .tags(Tags.of("gateway", tag(gateway), "operation", operation))
+            .register(registry)
+            .increment();
+    }
+
+    private void recordRequest(String gateway, String operation, String outcome, String status, long durationNanos) {
+        Timer.builder(REQUESTS)
+            .description("Round trips to a gateway, one per attempt, including circuit-breaker rejections")
+            .tags(Tags.of("gateway", tag(gateway), "operation", operation, "outcome", outcome, "status", status))
+            .register(registry)
+            .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private String tag(String gateway) {
+        return configured.test(gateway) ? gateway : ADHOC_GATEWAY;
+    }
+
+    static String outcome(int status) {
+        if (status >= 200 && status < 300) {
+            return OUTCOME_SUCCESS;
+        }
+        if (status >= 500) {
+            return "server_error";
+        }
+        if (status >= 400) {
+            return "client_error";
+        }
+        return "unexpected_status";
+    }
+
+    static String outcome(RuntimeException error) {
+        if (error instanceof GatewayCircuitOpenException) {
+            return "circuit_open";
+        }
+        if (error instanceof ResourceAccessException) {
+            return error.getCause() instanceof SocketTimeoutException ? "timeout" : "unreachable";
+        }
+        return "error";
+    }
+}
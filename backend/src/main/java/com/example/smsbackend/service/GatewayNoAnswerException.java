@@ -0,0 +1,24 @@
+package com.example.smsbackend.service;
+
+/**
+ * A gateway call failed after the request may already have reached the phone, typically a read
+ * timeout. For a send the SMS may or may not have gone out, so it must not be repeated blindly.
+ */
+public class GatewayNoAnswerException extends RuntimeException {
+
+    private final String gateway;
+
+    public GatewayNoAnswerException(String gateway, String operation, Throwable cause) {
+        super(
+            "Android gateway at " + gateway + " did not answer the " + operation + " request"
+                + ("send".equals(operation) ? "; the SMS may already have been sent" : "")
+                + (cause != null && cause.getMessage() != null ? " (" + cause.getMessage() + ")" : ""),
+            cause
+        );
+        this.gateway = gateway;
+    }
+
+    public String getGateway() {
+        return gateway;
+    }
+}
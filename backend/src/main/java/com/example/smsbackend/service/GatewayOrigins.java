@@ -0,0 +1,26 @@
+package com.example.smsbackend.service;
+
+import java.net.URI;
+import java.util.Locale;
+
+final class GatewayOrigins {
+
+    private GatewayOrigins() {
+    }
+
+    static String of(String baseUrl) {
+        URI uri;
+        try {
+            uri = URI.create(baseUrl.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid gateway base URL: " + baseUrl, e);
+        }
+        if (uri.getScheme() == null || uri.getHost() == null) {
+            throw new IllegalArgumentException("Invalid gateway base URL: " + baseUrl);
+        }
+
+        String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        int port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(scheme) ? 443 : 80);
+        return scheme + "://" + uri.getHost().toLowerCase(Locale.ROOT) + ":" + port;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.smsbackend.service;
+
+import java.time.Duration;
+
+/**
+ * This backend's own send rate limit has no permit free for a gateway yet; nothing was sent.
+ * Not a {@link GatewayClientException}, since the phone never answered.
+ */
+public class GatewayRateLimitedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public GatewayRateLimitedException(String bucket, Duration retryAfter) {
+        super("Send rate limit for " + bucket + " reached; next permit in " + Math.max(1, retryAfter.toMillis()) + "ms");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.GatewayRateLimitProperties;
+import com.example.smsbackend.dto.GatewayRateLimitStats;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token bucket per gateway (optionally per SIM slot) in front of {@code POST /} on the phone, so a
+ * burst is smoothed to the sustained rate instead of being dropped by Android or the carrier.
+ * Callers never wait here: without a free permit the send is refused with a retry time, and the
+ * outbox defers the row until then, so a throttled phone does not hold a sender thread that other
+ * gateways need. Refused callers are handed successive permit slots rather than all being told
+ * the same instant, so a deferred backlog comes back at the sustained rate instead of at once.
+ */
+@Component
+public class GatewayRateLimiter {
+
+    private final GatewayRateLimitProperties properties;
+    private final LongSupplier nanoClock;
+    private final GatewayStateMap<TokenBucket> buckets;
+
+    @Autowired
+    public GatewayRateLimiter(GatewayRateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    GatewayRateLimiter(GatewayRateLimitProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.buckets = new GatewayStateMap<>(nanoClock, bucket -> false);
+    }
+
+    /**
+     * Takes a send permit, or throws {@link GatewayRateLimitedException} with how long until this
+     * caller's turn.
+     */
+    public void acquire(String baseUrl, Integer slot) {
+        if (!properties.enabled()) {
+            return;
+        }
+
+        String key = bucketKey(baseUrl, slot);
+        TokenBucket bucket = buckets.computeIfAbsent(key, ignored -> new TokenBucket(
+            properties.permitsPerSecond(),
+            properties.burst(),
+            nanoClock.getAsLong()
+        ));
+
+        long waitNanos = bucket.tryTake(nanoClock.getAsLong());
+        if (waitNanos > 0) {
+            throw new GatewayRateLimitedException(key, Duration.ofNanos(waitNanos));
+        }
+    }
+
+    public List<GatewayRateLimitStats> stats() {
+        long now = nanoClock.getAsLong();
+        return buckets.snapshot().entrySet().stream()
+            .map(entry -> entry.getValue().snapshot(entry.getKey(), now))
+            .toList();
+    }
+
+    private String bucketKey(String baseUrl, Integer slot) {
+        String origin = GatewayOrigins.of(baseUrl);
+        if (properties.perSlot() && slot != null) {
+            return origin + "#slot" + slot;
+        }
+        return origin;
+    }
+
+    static final class TokenBucket {
+
+        private final double permitsPerNano;
+        private final double capacity;
+        private final long intervalNanos;
+        private double tokens;
+        private long lastRefillNanos;
+        private long nextDeferredNanos;
+
+        private long granted;
+        private long deferred;
+        private long totalDeferNanos;
+        private long maxDeferNanos;
+
+        TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+            this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = burst;
+            this.intervalNanos = Math.max(1, (long) Math.ceil(1 / permitsPerNano));
+            this.tokens = burst;
+            this.lastRefillNanos = nowNanos;
+            this.nextDeferredNanos = nowNanos;
+        }
+
+        /**
+         * Takes one permit and returns 0, or takes nothing and returns how long until this caller
+         * should come back. Each refused caller is given the slot after the previous one, one
+         * permit interval apart, starting when the next permit frees up.
+         */
+        synchronized long tryTake(long nowNanos) {
+            refill(nowNanos);
+            if (tokens >= 1) {
+                tokens -= 1;
+                granted++;
+                return 0;
+            }
+
+            long freeAt = nowNanos + Math.max(1, (long) Math.ceil((1 - tokens) / permitsPerNano));
+            long slot = Math.max(freeAt, nextDeferredNanos);
+            nextDeferredNanos = slot + intervalNanos;
+            long waitNanos = slot - nowNanos;
+            deferred++;
+            totalDeferNanos += waitNanos;
+            maxDeferNanos = Math.max(maxDeferNanos, waitNanos);
+            return waitNanos;
+        }
+
+        synchronized GatewayRateLimitStats snapshot(String key, long nowNanos) {
+            refill(nowNanos);
+            return new GatewayRateLimitStats(
+                key,
+                permitsPerNano * TimeUnit.SECONDS.toNanos(1),
+                (int) capacity,
+                tokens,
+                granted,
+                deferred,
+                deferred == 0 ? 0 : totalDeferNanos / 1_000_000.0 / deferred,
+                maxDeferNanos / 1_000_000.0
+            );
+        }
+
+        private void refill(long nowNanos) {
+            long elapsed = nowNanos - lastRefillNanos;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * permitsPerNano);
+                lastRefillNanos = nowNanos;
+            }
+        }
+    }
+}
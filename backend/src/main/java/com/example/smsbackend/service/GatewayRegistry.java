@@ -0,0 +1,193 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import com.example.smsbackend.entity.Gateway;
+import com.example.smsbackend.repository.DeviceRepository;
+import com.example.smsbackend.repository.GatewayRepository;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * In-memory view of the {@code gateways} table and of which gateway each device is assigned to,
+ * so resolving a gateway for a request or a recipient is a map lookup. Writes through
+ * {@link GatewayService} invalidate it after commit; it is also reloaded every minute to pick up
+ * changes made by other instances.
+ */
+@Component
+public class GatewayRegistry {
+
+    private final GatewayRepository gatewayRepository;
+    private final DeviceRepository deviceRepository;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public GatewayRegistry(GatewayRepository gatewayRepository, DeviceRepository deviceRepository) {
+        this.gatewayRepository = gatewayRepository;
+        this.deviceRepository = deviceRepository;
+    }
+
+    public Optional<RegisteredGateway> find(Long gatewayId) {
+        return Optional.ofNullable(snapshot().byId().get(gatewayId));
+    }
+
+    /**
+     * The gateway to send through when a request names {@code gatewayId}.
+     */
+    public RegisteredGateway require(Long gatewayId) {
+        RegisteredGateway gateway = find(gatewayId)
+            .orElseThrow(() -> new IllegalArgumentException("Gateway " + gatewayId + " not found."));
+        if (!gateway.enabled()) {
+            throw new IllegalArgumentException("Gateway " + gateway.name() + " is disabled.");
+        }
+        return gateway;
+    }
+
+    /**
+     * The enabled gateway assigned to the device with this phone number, if any.
+     */
+    public Optional<RegisteredGateway> forRecipient(String phoneNumber) {
+        String key = PhoneNumbers.normalize(phoneNumber);
+        return key.isEmpty() ? Optional.empty() : Optional.ofNullable(snapshot().byRecipient().get(key));
+    }
+
+    public List<RegisteredGateway> enabledGateways() {
+        return snapshot().byId().values().stream().filter(RegisteredGateway::enabled).toList();
+    }
+
+    public boolean isRegistered(String origin) {
+        return snapshot().origins().contains(origin);
+    }
+
+    /**
+     * What to store with a queued message or rollout so it can be routed later: a registered
+     * gateway's id, including when {@code options} names a registered gateway by its address, or
+     * else the ad-hoc address alone. Tokens are resolved from the registry at send time and never
+     * stored, so an ad-hoc gateway that needs its own token has to be registered to queue through.
+     */
+    public GatewayRequestOptions forStorage(GatewayRequestOptions options) {
+        if (options == null) {
+            return new GatewayRequestOptions(null, null);
+        }
+        if (options.gatewayId() != null) {
+            return new GatewayRequestOptions(null, null, options.gatewayId());
+        }
+        String baseUrl = StringUtils.hasText(options.baseUrl()) ? options.baseUrl().trim() : null;
+        if (baseUrl != null) {
+            RegisteredGateway registered = snapshot().enabledByOrigin().get(GatewayOrigins.of(baseUrl));
+            if (registered != null) {
+                return new GatewayRequestOptions(null, null, registered.id());
+            }
+        }
+        if (StringUtils.hasText(options.token())) {
+            throw new IllegalArgumentException(
+                "Gateway tokens are not stored with queued messages. Register the gateway under /api/gateways "
+                    + "and send X-Gateway-Id instead of a token."
+            );
+        }
+        return new GatewayRequestOptions(baseUrl, null);
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    @Scheduled(fixedDelayString = "PT1M")
+    public void refresh() {
+        invalidate();
+        snapshot();
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null) {
+                long loadedGeneration = generation.get();
+                current = load();
+                // An invalidation during the load may mean it read stale rows; serve them once.
+                if (generation.get() == loadedGeneration) {
+                    snapshot = current;
+                }
+            }
+            return current;
+        }
+    }
+
+    private Snapshot load() {
+        Map<Long, RegisteredGateway> byId = new LinkedHashMap<>();
+        for (Gateway gateway : gatewayRepository.findAllWithLocation()) {
+            byId.put(gateway.getId(), toRegistered(gateway));
+        }
+
+        Map<String, RegisteredGateway> byRecipient = new HashMap<>();
+        for (Object[] row : deviceRepository.findGatewayAssignments()) {
+            RegisteredGateway gateway = byId.get((Long) row[1]);
+            String key = PhoneNumbers.normalize((String) row[0]);
+            if (gateway != null && gateway.enabled() && !key.isEmpty()) {
+                byRecipient.put(key, gateway);
+            }
+        }
+
+        Set<String> origins = byId.values().stream()
+            .map(gateway -> GatewayOrigins.of(gateway.baseUrl()))
+            .collect(Collectors.toUnmodifiableSet());
+        Map<String, RegisteredGateway> enabledByOrigin = new HashMap<>();
+        for (RegisteredGateway gateway : byId.values()) {
+            if (gateway.enabled()) {
+                enabledByOrigin.putIfAbsent(GatewayOrigins.of(gateway.baseUrl()), gateway);
+            }
+        }
+        return new Snapshot(
+            Collections.unmodifiableMap(byId),
+            Map.copyOf(byRecipient),
+            origins,
+            Map.copyOf(enabledByOrigin)
+        );
+    }
+
+    static RegisteredGateway toRegistered(Gateway gateway) {
+        return new RegisteredGateway(
+            gateway.getId(),
+            gateway.getName(),
+            gateway.getBaseUrl(),
+            gateway.getToken(),
+            parseSlots(gateway.getSlots()),
+            gateway.getLocation() != null ? gateway.getLocation().getId() : null,
+            gateway.isEnabled()
+        );
+    }
+
+    static List<Integer> parseSlots(String slots) {
+        if (!StringUtils.hasText(slots)) {
+            return List.of();
+        }
+        return Arrays.stream(slots.split(","))
+            .map(String::trim)
+            .filter(value -> !value.isEmpty())
+            .map(Integer::valueOf)
+            .toList();
+    }
+
+    private record Snapshot(
+        Map<Long, RegisteredGateway> byId,
+        Map<String, RegisteredGateway> byRecipient,
+        Set<String> origins,
+        Map<String, RegisteredGateway> enabledByOrigin
+    ) {
+    }
+}
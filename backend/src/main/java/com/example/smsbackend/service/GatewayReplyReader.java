@@ -0,0 +1,64 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.dto.GatewayReplyMessage;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Token-level reader for the phone's {@code GET /messages} array. Each reply is handed to the
+ * consumer as soon as its object closes, so neither the body nor the full list is held in memory.
+ */
+public final class GatewayReplyReader {
+
+    private GatewayReplyReader() {
+    }
+
+    public static int read(InputStream body, JsonFactory factory, Consumer<GatewayReplyMessage> consumer) throws IOException {
+        try (JsonParser parser = factory.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return 0;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new IllegalStateException("Failed to parse gateway response: expected a JSON array");
+            }
+
+            int count = 0;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalStateException("Failed to parse gateway response: expected a message object");
+                }
+                consumer.accept(readMessage(parser));
+                count++;
+            }
+            return count;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to parse gateway response", e);
+        }
+    }
+
+    private static GatewayReplyMessage readMessage(JsonParser parser) throws IOException {
+        long id = 0;
+        String from = null;
+        String message = null;
+        long date = 0;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> id = value == JsonToken.VALUE_NULL ? 0 : parser.getValueAsLong();
+                case "from" -> from = value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                case "message" -> message = value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                case "date" -> date = value == JsonToken.VALUE_NULL ? 0 : parser.getValueAsLong();
+                default -> parser.skipChildren();
+            }
+        }
+        return new GatewayReplyMessage(id, from, message, date);
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.GatewayRetryProperties;
+import com.example.smsbackend.dto.GatewayRetryStats;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.PortUnreachableException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Retries gateway calls with exponential backoff and full jitter. Each gateway has a retry
+ * budget: every call adds {@code budget-ratio} of a retry to it (up to {@code budget-burst}), and
+ * each retry spends one, so a dead phone cannot multiply its traffic. Idempotent calls retry any
+ * connection failure and 5xx/408/429; sends only retry when the request cannot have left this
+ * host, since the phone may already have handed a half-answered one to the modem.
+ */
+@Component
+public class GatewayRetryPolicy {
+
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+
+    private final GatewayRetryProperties properties;
+    private final GatewayMetrics metrics;
+    private final Sleeper sleeper;
+    private final DoubleSupplier random;
+    private final GatewayStateMap<Budget> budgets = new GatewayStateMap<>(System::nanoTime, budget -> false);
+
+    @Autowired
+    public GatewayRetryPolicy(GatewayRetryProperties properties, GatewayMetrics metrics) {
+        this(properties, metrics, Thread::sleep, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    GatewayRetryPolicy(GatewayRetryProperties properties, GatewayMetrics metrics, Sleeper sleeper, DoubleSupplier random) {
+        this.properties = properties;
+        this.metrics = metrics;
+        this.sleeper = sleeper;
+        this.random = random;
+    }
+
+    /**
+     * {@code idempotent} is asked after each failure, so a call that already handed part of a
+     * streamed response to its caller can stop being repeatable.
+     */
+    public <T> T execute(String baseUrl, String operation, BooleanSupplier idempotent, Supplier<T> attempt) {
+        if (!properties.enabled()) {
+            return attempt.get();
+        }
+
+        String gateway = GatewayOrigins.of(baseUrl);
+        Budget budget = budgets.computeIfAbsent(gateway, ignored -> new Budget(properties));
+        budget.deposit();
+
+        int attempts = 0;
+        try {
+            while (true) {
+                attempts++;
+                try {
+                    return attempt.get();
+                } catch (RuntimeException e) {
+                    if (attempts >= properties.maxAttempts() || !isRetryable(e, idempotent.getAsBoolean())) {
+                        throw e;
+                    }
+                    if (!budget.tryWithdraw()) {
+                        metrics.recordRetry(gateway, operation, "budget_exhausted");
+                        throw e;
+                    }
+                    metrics.recordRetry(gateway, operation, "retried");
+                    backOff(attempts, e);
+                }
+            }
+        } finally {
+            metrics.recordAttempts(gateway, operation, attempts);
+        }
+    }
+
+    public List<GatewayRetryStats> stats() {
+        return budgets.snapshot().entrySet().stream()
+            .map(entry -> entry.getValue().snapshot(entry.getKey()))
+            .toList();
+    }
+
+    static boolean isRetryable(RuntimeException error, boolean idempotent) {
+        if (error instanceof GatewayCircuitOpenException) {
+            return false;
+        }
+        if (neverSent(error)) {
+            return true;
+        }
+        if (!idempotent) {
+            return false;
+        }
+        if (error instanceof HttpStatusCodeException statusError) {
+            int status = statusError.getStatusCode().value();
+            return status >= 500 || status == 408 || status == 429;
+        }
+        return error instanceof ResourceAccessException;
+    }
+
+    /**
+     * True when the request failed while leasing or opening the connection, before any byte of it
+     * was written.
+     */
+    static boolean neverSent(Throwable error) {
+        if (!(error instanceof ResourceAccessException)) {
+            return false;
+        }
+        for (Throwable cause = error.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException
+                || cause instanceof NoRouteToHostException
+                || cause instanceof PortUnreachableException
+                || cause instanceof UnknownHostException
+                || cause instanceof ConnectTimeoutException
+                || cause instanceof ConnectionRequestTimeoutException) {
+                return true;
+            }
+            if (cause instanceof SocketTimeoutException && cause.getMessage() != null
+                && cause.getMessage().toLowerCase(Locale.ROOT).contains("connect timed out")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void backOff(int attempts, RuntimeException error) {
+        long ceiling = Math.min(
+            properties.maxBackoff().toMillis(),
+            properties.initialBackoff().toMillis() << Math.min(attempts - 1, 20)
+        );
+        try {
+            sleeper.sleep((long) (random.getAsDouble() * ceiling));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw error;
+        }
+    }
+
+    static final class Budget {
+
+        private final double ratio;
+        private final double capacity;
+        private double tokens;
+        private long calls;
+        private long retries;
+        private long exhausted;
+
+        Budget(GatewayRetryProperties properties) {
+            this.ratio = properties.budgetRatio();
+            this.capacity = Math.max(1, properties.budgetBurst());
+            this.tokens = capacity;
+        }
+
+        synchronized void deposit() {
+            calls++;
+            tokens = Math.min(capacity, tokens + ratio);
+        }
+
+        synchronized boolean tryWithdraw() {
+            if (tokens < 1) {
+                exhausted++;
+                return false;
+            }
+            tokens -= 1;
+            retries++;
+            return true;
+        }
+
+        synchronized GatewayRetryStats snapshot(String gateway) {
+            return new GatewayRetryStats(gateway, tokens, calls, retries, exhausted);
+        }
+    }
+}
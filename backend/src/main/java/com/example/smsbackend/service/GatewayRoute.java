@@ -0,0 +1,19 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.dto.GatewayRequestOptions;
+
+public record GatewayRoute(
+    String phoneId,
+    String baseUrl,
+    String token,
+    Integer slot
+) {
+    public GatewayRequestOptions options() {
+        return new GatewayRequestOptions(baseUrl, token);
+    }
+
+    public String describe() {
+        String target = phoneId != null ? phoneId : baseUrl;
+        return slot != null ? target + "#slot" + slot : target;
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.GatewayProperties;
+import com.example.smsbackend.config.GatewayRoutingProperties;
+import com.example.smsbackend.dto.GatewayLaneStats;
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Picks the phone and SIM slot for an outgoing SMS. A registered gateway named by the request, or
+ * assigned to the recipient's device, wins; otherwise the SMS goes to a lane of
+ * {@code gateway.routing.phones}. Each (phone, slot) pair is a lane; lanes with an open circuit
+ * are skipped. A recipient keeps its lane while it stays healthy so device replies come back on a
+ * predictable SIM.
+ */
+@Component
+public class GatewayRouter {
+
+    private final GatewayProperties gatewayProperties;
+    private final GatewayRoutingProperties routingProperties;
+    private final GatewayCircuitBreaker circuitBreaker;
+    private final GatewayRegistry registry;
+    private final List<Lane> lanes;
+    private final Map<String, Lane> lanesByKey = new LinkedHashMap<>();
+    private final Map<String, String> stickyLanes;
+    private final Set<String> configuredOrigins;
+
+    public GatewayRouter(
+        GatewayProperties gatewayProperties,
+        GatewayRoutingProperties routingProperties,
+        GatewayCircuitBreaker circuitBreaker,
+        GatewayRegistry registry
+    ) {
+        this.gatewayProperties = gatewayProperties;
+        this.routingProperties = routingProperties;
+        this.circuitBreaker = circuitBreaker;
+        this.registry = registry;
+
+        List<Lane> configured = new ArrayList<>();
+        for (GatewayRoutingProperties.Phone phone : routingProperties.phones()) {
+            if (phone.slots().isEmpty()) {
+                configured.add(new Lane(phone, null));
+            } else {
+                phone.slots().forEach(slot -> configured.add(new Lane(phone, slot)));
+            }
+        }
+        this.lanes = List.copyOf(configured);
+        this.lanes.forEach(lane -> lanesByKey.put(lane.key(), lane));
+
+        Set<String> origins = new HashSet<>();
+        if (routingProperties.phones().isEmpty()) {
+            if (StringUtils.hasText(gatewayProperties.baseUrl())) {
+                origins.add(GatewayOrigins.of(gatewayProperties.baseUrl().trim()));
+            }
+        } else {
+            routingProperties.phones().forEach(phone -> origins.add(GatewayOrigins.of(phone.baseUrl().trim())));
+        }
+        this.configuredOrigins = Set.copyOf(origins);
+
+        int stickyCapacity = routingProperties.stickyCapacity();
+        this.stickyLanes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > stickyCapacity;
+            }
+        };
+    }
+
+    public GatewayRoute route(String recipient, Integer requestedSlot, GatewayRequestOptions options) {
+        if (options != null && options.gatewayId() != null) {
+            return registered(registry.require(options.gatewayId()), requestedSlot);
+        }
+        String requestToken = options != null && StringUtils.hasText(options.token()) ? options.token() : null;
+        if (options != null && StringUtils.hasText(options.baseUrl())) {
+            return new GatewayRoute(null, options.baseUrl().trim(), requestToken, requestedSlot);
+        }
+        Optional<RegisteredGateway> assigned = registry.forRecipient(recipient);
+        if (assigned.isPresent()) {
+            return registered(assigned.get(), requestedSlot);
+        }
+        if (lanes.isEmpty()) {
+            return new GatewayRoute(null, gatewayProperties.baseUrl(), requestToken, requestedSlot);
+        }
+
+        List<Lane> candidates = lanes.stream()
+            .filter(lane -> requestedSlot == null || lane.slot == null || lane.slot.equals(requestedSlot))
+            .toList();
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("No configured gateway phone has SIM slot " + requestedSlot);
+        }
+
+        List<Lane> healthy = candidates.stream()
+            .filter(lane -> circuitBreaker.isCallPermitted(lane.phone.baseUrl()))
+            .toList();
+        if (!healthy.isEmpty()) {
+            candidates = healthy;
+        }
+
+        Lane lane = select(PhoneNumbers.normalize(recipient), candidates);
+        lane.outstanding.incrementAndGet();
+        lane.routed.incrementAndGet();
+
+        String token = StringUtils.hasText(lane.phone.token()) ? lane.phone.token() : requestToken;
+        Integer slot = lane.slot != null ? lane.slot : requestedSlot;
+        return new GatewayRoute(lane.phone.id(), lane.phone.baseUrl().trim(), token, slot);
+    }
+
+    public void release(GatewayRoute route) {
+        if (route.phoneId() == null) {
+            return;
+        }
+        Lane lane = lanesByKey.get(laneKey(route.phoneId(), route.slot()));
+        if (lane == null) {
+            lane = lanesByKey.get(laneKey(route.phoneId(), null));
+        }
+        if (lane != null) {
+            lane.outstanding.updateAndGet(value -> Math.max(0, value - 1));
+        }
+    }
+
+    public List<String> phoneBaseUrls() {
+        return routingProperties.phones().stream()
+            .map(phone -> phone.baseUrl().trim())
+            .distinct()
+            .toList();
+    }
+
+    /**
+     * Whether {@code origin} is one of {@link #configuredGateways()}, including disabled registered
+     * gateways, as opposed to an ad-hoc {@code X-Gateway-Base-Url} override.
+     */
+    public boolean isConfigured(String origin) {
+        return configuredOrigins.contains(origin) || registry.isRegistered(origin);
+    }
+
+    /**
+     * Gateways this backend sends through without a request override, keyed by origin: every
+     * routing phone, or the single {@code gateway.base-url} when no phones are configured, plus
+     * every enabled registered gateway.
+     */
+    public Map<String, GatewayRequestOptions> configuredGateways() {
+        Map<String, GatewayRequestOptions> gateways = new LinkedHashMap<>();
+        if (routingProperties.phones().isEmpty()) {
+            if (StringUtils.hasText(gatewayProperties.baseUrl())) {
+                String baseUrl = gatewayProperties.baseUrl().trim();
+                gateways.put(GatewayOrigins.of(baseUrl), new GatewayRequestOptions(baseUrl, null));
+            }
+        } else {
+            for (GatewayRoutingProperties.Phone phone : routingProperties.phones()) {
+                String baseUrl = phone.baseUrl().trim();
+                gateways.putIfAbsent(GatewayOrigins.of(baseUrl), new GatewayRequestOptions(baseUrl, phone.token()));
+            }
+        }
+        for (RegisteredGateway gateway : registry.enabledGateways()) {
+            gateways.putIfAbsent(GatewayOrigins.of(gateway.baseUrl()), gateway.options());
+        }
+        return gateways;
+    }
+
+    public List<GatewayLaneStats> stats() {
+        return lanes.stream()
+            .map(lane -> new GatewayLaneStats(
+                lane.phone.id(),
+                lane.phone.baseUrl(),
+                lane.slot,
+                lane.phone.weight(),
+                lane.outstanding.get(),
+                lane.routed.get(),
+                circuitBreaker.isCallPermitted(lane.phone.baseUrl())
+            ))
+            .toList();
+    }
+
+    public String strategy() {
+        return routingProperties.strategy();
+    }
+
+    private static GatewayRoute registered(RegisteredGateway gateway, Integer requestedSlot) {
+        Integer slot = requestedSlot;
+        if (!gateway.slots().isEmpty()) {
+            if (requestedSlot != null && !gateway.slots().contains(requestedSlot)) {
+                throw new IllegalArgumentException("Gateway " + gateway.name() + " has no SIM slot " + requestedSlot);
+            }
+            if (requestedSlot == null && gateway.slots().size() == 1) {
+                slot = gateway.slots().get(0);
+            }
+        }
+        return new GatewayRoute(null, gateway.baseUrl().trim(), gateway.token(), slot);
+    }
+
+    private synchronized Lane select(String recipientKey, List<Lane> candidates) {
+        boolean sticky = routingProperties.stickyRecipients() && !recipientKey.isEmpty();
+        if (sticky) {
+            String laneKey = stickyLanes.get(recipientKey);
+            for (Lane candidate : candidates) {
+                if (candidate.key().equals(laneKey)) {
+                    return candidate;
+                }
+            }
+        }
+
+        Lane selected = GatewayRoutingProperties.WEIGHTED_ROUND_ROBIN.equals(routingProperties.strategy())
+            ? weightedRoundRobin(candidates)
+            : leastOutstanding(candidates);
+        if (sticky) {
+            stickyLanes.put(recipientKey, selected.key());
+        }
+        return selected;
+    }
+
+    private Lane leastOutstanding(List<Lane> candidates) {
+        Lane best = null;
+        double bestLoad = Double.MAX_VALUE;
+        for (Lane candidate : candidates) {
+            double load = (double) candidate.outstanding.get() / candidate.phone.weight();
+            if (best == null
+                || load < bestLoad
+                || (load == bestLoad && candidate.routed.get() * best.phone.weight() < best.routed.get() * candidate.phone.weight())) {
+                best = candidate;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Smooth weighted round-robin: spreads a phone's turns out instead of sending its whole weight in a row.
+     */
+    private Lane weightedRoundRobin(List<Lane> candidates) {
+        int totalWeight = 0;
+        Lane best = null;
+        for (Lane candidate : candidates) {
+            candidate.currentWeight += candidate.phone.weight();
+            totalWeight += candidate.phone.weight();
+            if (best == null || candidate.currentWeight > best.currentWeight) {
+                best = candidate;
+            }
+        }
+        best.currentWeight -= totalWeight;
+        return best;
+    }
+
+    private static String laneKey(String phoneId, Integer slot) {
+        return slot != null ? phoneId + "#" + slot : phoneId;
+    }
+
+    private static final class Lane {
+
+        private final GatewayRoutingProperties.Phone phone;
+        private final Integer slot;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicLong routed = new AtomicLong();
+        private int currentWeight;
+
+        private Lane(GatewayRoutingProperties.Phone phone, Integer slot) {
+            this.phone = phone;
+            this.slot = slot;
+        }
+
+        private String key() {
+            return laneKey(phone.id(), slot);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.dto.DeviceResponse;
+import com.example.smsbackend.dto.GatewayRequest;
+import com.example.smsbackend.dto.GatewayResponse;
+import com.example.smsbackend.entity.Device;
+import com.example.smsbackend.entity.Gateway;
+import com.example.smsbackend.entity.Location;
+import com.example.smsbackend.repository.DeviceRepository;
+import com.example.smsbackend.repository.GatewayRepository;
+import com.example.smsbackend.repository.LocationRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+@Service
+public class GatewayService {
+
+    private final GatewayRepository gatewayRepository;
+    private final DeviceRepository deviceRepository;
+    private final LocationRepository locationRepository;
+    private final GatewayRegistry registry;
+
+    public GatewayService(
+        GatewayRepository gatewayRepository,
+        DeviceRepository deviceRepository,
+        LocationRepository locationRepository,
+        GatewayRegistry registry
+    ) {
+        this.gatewayRepository = gatewayRepository;
+        this.deviceRepository = deviceRepository;
+        this.locationRepository = locationRepository;
+        this.registry = registry;
+    }
+
+    @Transactional(readOnly = true)
+    public List<GatewayResponse> listGateways() {
+        return gatewayRepository.findAllWithLocation().stream()
+            .map(this::toResponse)
+            .toList();
+    }
+
+    @Transactional
+    public GatewayResponse createGateway(GatewayRequest request) {
+        gatewayRepository.findByNameIgnoreCase(request.name().trim()).ifPresent(existing -> {
+            throw new IllegalArgumentException("Gateway already exists.");
+        });
+
+        Gateway gateway = new Gateway();
+        gateway.setCreatedAt(Instant.now());
+        apply(gateway, request);
+        Gateway saved = gatewayRepository.save(gateway);
+        invalidateAfterCommit();
+        return toResponse(saved);
+    }
+
+    @Transactional
+    public GatewayResponse updateGateway(Long gatewayId, GatewayRequest request) {
+        Gateway gateway = getGateway(gatewayId);
+        gatewayRepository.findByNameIgnoreCase(request.name().trim())
+            .filter(existing -> !existing.getId().equals(gatewayId))
+            .ifPresent(existing -> {
+                throw new IllegalArgumentException("Gateway already exists.");
+            });
+
+        apply(gateway, request);
+        invalidateAfterCommit();
+        return toResponse(gateway);
+    }
+
+    @Transactional
+    public void deleteGateway(Long gatewayId) {
+        Gateway gateway = getGateway(gatewayId);
+        long devices = deviceRepository.countByGatewayId(gatewayId);
+        if (devices > 0) {
+            throw new IllegalArgumentException("Gateway still has " + devices + " assigned devices.");
+        }
+        gatewayRepository.delete(gateway);
+        invalidateAfterCommit();
+    }
+
+    /**
+     * Points a device at a registered gateway, or back to default routing when
+     * {@code gatewayId} is null. Queued messages to the device follow the new assignment.
+     */
+    @Transactional
+    public DeviceResponse assignGateway(Long deviceId, Long gatewayId) {
+        Device device = deviceRepository.findById(deviceId)
+            .orElseThrow(() -> new IllegalArgumentException("Device not found."));
+        device.setGateway(gatewayId != null ? getGateway(gatewayId) : null);
+        invalidateAfterCommit();
+        return UserDeviceService.toDeviceResponse(device);
+    }
+
+    private void apply(Gateway gateway, GatewayRequest request) {
+        String baseUrl = request.baseUrl().trim();
+        GatewayOrigins.of(baseUrl);
+
+        gateway.setName(request.name().trim());
+        gateway.setBaseUrl(baseUrl);
+        if (request.token() != null) {
+            gateway.setToken(StringUtils.hasText(request.token()) ? request.token().trim() : null);
+        }
+        if (request.slots() != null) {
+            gateway.setSlots(request.slots().stream()
+                .distinct()
+                .sorted()
+                .map(String::valueOf)
+                .collect(Collectors.joining(",")));
+        }
+        if (request.enabled() != null) {
+            gateway.setEnabled(request.enabled());
+        }
+        gateway.setLocation(request.locationId() != null ? getLocation(request.locationId()) : null);
+    }
+
+    private Gateway getGateway(Long gatewayId) {
+        return gatewayRepository.findById(gatewayId)
+            .orElseThrow(() -> new IllegalArgumentException("Gateway not found."));
+    }
+
+    private Location getLocation(Long locationId) {
+        return locationRepository.findById(locationId)
+            .orElseThrow(() -> new IllegalArgumentException("Location not found."));
+    }
+
+    private void invalidateAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                registry.invalidate();
+            }
+        });
+    }
+
+    private GatewayResponse toResponse(Gateway gateway) {
+        return new GatewayResponse(
+            gateway.getId(),
+            gateway.getName(),
+            gateway.getBaseUrl(),
+            maskToken(gateway.getToken()),
+            GatewayRegistry.parseSlots(gateway.getSlots()),
+            gateway.getLocation() != null ? gateway.getLocation().getId() : null,
+            gateway.isEnabled(),
+            gateway.getId() != null ? deviceRepository.countByGatewayId(gateway.getId()) : 0
+        );
+    }
+
+    private static String maskToken(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        int keep = Math.min(4, token.length());
+        return "****" + token.substring(token.length() - keep);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.smsbackend.service;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Per-origin state of the gateway call path (rate-limit buckets, circuits, retry budgets, latency
+ * windows, bulkheads). Origins include every caller-supplied {@code X-Gateway-Base-Url}, so once
+ * there are more than {@code maxEntries}, entries no caller has used for {@code idle} are dropped,
+ * least recently used first, unless {@code pinned} says they still hold state that matters. A
+ * dropped origin starts over with fresh state on its next call.
+ */
+final class GatewayStateMap<V> {
+
+    static final int MAX_ENTRIES = 256;
+    static final Duration IDLE = Duration.ofMinutes(10);
+
+    private final int maxEntries;
+    private final long idleNanos;
+    private final LongSupplier nanoClock;
+    private final Predicate<V> pinned;
+    private final Map<String, Slot<V>> entries = new ConcurrentHashMap<>();
+
+    GatewayStateMap(LongSupplier nanoClock, Predicate<V> pinned) {
+        this(MAX_ENTRIES, IDLE, nanoClock, pinned);
+    }
+
+    GatewayStateMap(int maxEntries, Duration idle, LongSupplier nanoClock, Predicate<V> pinned) {
+        this.maxEntries = maxEntries;
+        this.idleNanos = idle.toNanos();
+        this.nanoClock = nanoClock;
+        this.pinned = pinned;
+    }
+
+    V get(String origin) {
+        Slot<V> slot = entries.get(origin);
+        if (slot == null) {
+            return null;
+        }
+        slot.lastUsedNanos = nanoClock.getAsLong();
+        return slot.value;
+    }
+
+    V computeIfAbsent(String origin, Function<String, V> factory) {
+        long now = nanoClock.getAsLong();
+        Slot<V> slot = entries.get(origin);
+        if (slot == null) {
+            slot = entries.computeIfAbsent(origin, key -> new Slot<>(factory.apply(key), now));
+            if (entries.size() > maxEntries) {
+                evictIdle(now);
+            }
+        }
+        slot.lastUsedNanos = now;
+        return slot.value;
+    }
+
+    Map<String, V> snapshot() {
+        Map<String, V> snapshot = new LinkedHashMap<>();
+        entries.forEach((origin, slot) -> snapshot.put(origin, slot.value));
+        return snapshot;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private synchronized void evictIdle(long now) {
+        int excess = entries.size() - maxEntries;
+        if (excess <= 0) {
+            return;
+        }
+        entries.entrySet().stream()
+            .filter(entry -> now - entry.getValue().lastUsedNanos >= idleNanos && !pinned.test(entry.getValue().value))
+            .sorted(Comparator.comparingLong(entry -> entry.getValue().lastUsedNanos))
+            .limit(excess)
+            .toList()
+            .forEach(entry -> entries.remove(entry.getKey(), entry.getValue()));
+    }
+
+    private static final class Slot<V> {
+
+        private final V value;
+        private volatile long lastUsedNanos;
+
+        private Slot(V value, long lastUsedNanos) {
+            this.value = value;
+            this.lastUsedNanos = lastUsedNanos;
+        }
+    }
+}
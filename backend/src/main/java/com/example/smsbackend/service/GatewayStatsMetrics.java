@@ -0,0 +1,247 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.dto.CoalescingStats;
+import com.example.smsbackend.dto.GatewayBulkheadStats;
+import com.example.smsbackend.dto.GatewayCircuitStats;
+import com.example.smsbackend.dto.GatewayHealthStats;
+import com.example.smsbackend.dto.GatewayPoolStats;
+import com.example.smsbackend.dto.GatewayRateLimitStats;
+import com.example.smsbackend.dto.GatewayTimeoutStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the stats the debug endpoints already expose as gauges, so pools, rate limits,
+ * bulkheads, circuits and probes can be graphed next to {@link GatewayMetrics}. Values are read at scrape
+ * time; the set of gateways is refreshed periodically as pools and circuits appear.
+ */
+@Component
+public class GatewayStatsMetrics {
+
+    private final GatewayTransport transport;
+    private final GatewayTimeouts timeouts;
+    private final GatewayRateLimiter rateLimiter;
+    private final GatewayBulkhead bulkhead;
+    private final GatewayCircuitBreaker circuitBreaker;
+    private final GatewayHealthProber healthProber;
+
+    private final MultiGauge poolConnections;
+    private final MultiGauge poolMax;
+    private final MultiGauge timeoutValues;
+    private final MultiGauge rateLimitAvailable;
+    private final MultiGauge rateLimitRequests;
+    private final MultiGauge bulkheadCalls;
+    private final MultiGauge bulkheadMax;
+    private final MultiGauge circuitState;
+    private final MultiGauge circuitFailureRate;
+    private final MultiGauge healthStatus;
+    private final MultiGauge healthLatency;
+
+    public GatewayStatsMetrics(
+        MeterRegistry registry,
+        GatewayTransport transport,
+        GatewayTimeouts timeouts,
+        GatewayRateLimiter rateLimiter,
+        GatewayBulkhead bulkhead,
+        GatewayCircuitBreaker circuitBreaker,
+        GatewayHealthProber healthProber,
+        GatewayClientService gatewayClientService,
+        InboundMessageService inboundMessageService,
+        InboundStreamService inboundStreamService,
+        OutboxService outboxService
+    ) {
+        this.transport = transport;
+        this.timeouts = timeouts;
+        this.rateLimiter = rateLimiter;
+        this.bulkhead = bulkhead;
+        this.circuitBreaker = circuitBreaker;
+        this.healthProber = healthProber;
+
+        this.poolConnections = multiGauge(registry, "gateway.pool.connections", "Pooled connections per gateway by state");
+        this.poolMax = multiGauge(registry, "gateway.pool.max", "Connection limit per gateway pool");
+        this.timeoutValues = MultiGauge.builder("gateway.timeout")
+            .description("Current connect and read timeout per gateway")
+            .baseUnit("seconds")
+            .register(registry);
+        this.rateLimitAvailable = multiGauge(registry, "gateway.rate_limit.available", "Permits currently available in a bucket");
+        this.rateLimitRequests = multiGauge(registry, "gateway.rate_limit.requests", "Permit requests per bucket by result");
+        this.bulkheadCalls = multiGauge(registry, "gateway.bulkhead.calls", "Calls holding or waiting for a bulkhead slot");
+        this.bulkheadMax = multiGauge(registry, "gateway.bulkhead.max", "Bulkhead slots and queue places per gateway");
+        this.circuitState = multiGauge(registry, "gateway.circuit.state", "1 for the circuit's current state");
+        this.circuitFailureRate = multiGauge(registry, "gateway.circuit.failure_rate", "Failure percentage in the circuit window");
+        this.healthStatus = multiGauge(registry, "gateway.health.status", "1 for the gateway's last probed status");
+        this.healthLatency = MultiGauge.builder("gateway.health.latency")
+            .description("Latency of the last successful probe")
+            .baseUnit("seconds")
+            .register(registry);
+
+        Gauge.builder("outbox.pending", outboxService, OutboxService::pendingCount)
+            .description("Outbound messages waiting to be dispatched")
+            .register(registry);
+        Gauge.builder("inbound.stream.subscribers", inboundStreamService, service -> service.stats().subscribers())
+            .description("Open reply streams")
+            .register(registry);
+        FunctionCounter.builder("inbound.stream.delivered", inboundStreamService, service -> service.stats().delivered())
+            .description("Replies pushed to stream subscribers")
+            .register(registry);
+        FunctionCounter.builder("inbound.stream.dropped", inboundStreamService, service -> service.stats().dropped())
+            .description("Stream subscribers dropped for falling behind")
+            .register(registry);
+
+        registerCoalescing(registry, "gateway-fetch", gatewayClientService, GatewayClientService::fetchCoalescingStats);
+        registerCoalescing(registry, "inbound-read", inboundMessageService, InboundMessageService::readCoalescingStats);
+
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "PT15S")
+    public void refresh() {
+        List<MultiGauge.Row<?>> connections = new ArrayList<>();
+        List<MultiGauge.Row<?>> max = new ArrayList<>();
+        for (GatewayPoolStats pool : transport.poolStats()) {
+            String gateway = pool.gateway();
+            connections.add(row(Tags.of("gateway", gateway, "state", "leased"), () -> pool(gateway, GatewayPoolStats::leased)));
+            connections.add(row(Tags.of("gateway", gateway, "state", "available"), () -> pool(gateway, GatewayPoolStats::available)));
+            connections.add(row(Tags.of("gateway", gateway, "state", "pending"), () -> pool(gateway, GatewayPoolStats::pending)));
+            max.add(row(Tags.of("gateway", gateway), () -> pool(gateway, GatewayPoolStats::max)));
+        }
+        poolConnections.register(connections, true);
+        poolMax.register(max, true);
+
+        List<MultiGauge.Row<?>> timeoutRows = new ArrayList<>();
+        for (GatewayTimeoutStats entry : timeouts.stats()) {
+            String gateway = entry.gateway();
+            timeoutRows.add(row(Tags.of("gateway", gateway, "type", "connect"), () -> timeout(gateway, GatewayTimeoutStats::connectTimeoutMs)));
+            timeoutRows.add(row(Tags.of("gateway", gateway, "type", "read"), () -> timeout(gateway, GatewayTimeoutStats::readTimeoutMs)));
+        }
+        timeoutValues.register(timeoutRows, true);
+
+        List<MultiGauge.Row<?>> available = new ArrayList<>();
+        List<MultiGauge.Row<?>> requests = new ArrayList<>();
+        for (GatewayRateLimitStats bucket : rateLimiter.stats()) {
+            String key = bucket.key();
+            available.add(row(Tags.of("bucket", key), () -> rateLimit(key, GatewayRateLimitStats::availablePermits)));
+            requests.add(row(Tags.of("bucket", key, "result", "granted"), () -> rateLimit(key, GatewayRateLimitStats::granted)));
+            requests.add(row(Tags.of("bucket", key, "result", "deferred"), () -> rateLimit(key, GatewayRateLimitStats::deferred)));
+        }
+        rateLimitAvailable.register(available, true);
+        rateLimitRequests.register(requests, true);
+
+        List<MultiGauge.Row<?>> calls = new ArrayList<>();
+        List<MultiGauge.Row<?>> limits = new ArrayList<>();
+        for (GatewayBulkheadStats compartment : bulkhead.stats()) {
+            String gateway = compartment.gateway();
+            calls.add(row(Tags.of("gateway", gateway, "state", "active"), () -> bulkhead(gateway, GatewayBulkheadStats::active)));
+            calls.add(row(Tags.of("gateway", gateway, "state", "queued"), () -> bulkhead(gateway, GatewayBulkheadStats::queued)));
+            limits.add(row(Tags.of("gateway", gateway, "state", "active"), () -> bulkhead(gateway, GatewayBulkheadStats::maxConcurrentCalls)));
+            limits.add(row(Tags.of("gateway", gateway, "state", "queued"), () -> bulkhead(gateway, GatewayBulkheadStats::maxQueue)));
+        }
+        bulkheadCalls.register(calls, true);
+        bulkheadMax.register(limits, true);
+
+        List<MultiGauge.Row<?>> states = new ArrayList<>();
+        List<MultiGauge.Row<?>> failureRates = new ArrayList<>();
+        for (GatewayCircuitStats circuit : circuitBreaker.stats()) {
+            String gateway = circuit.gateway();
+            for (GatewayCircuitBreaker.State state : GatewayCircuitBreaker.State.values()) {
+                states.add(row(
+                    Tags.of("gateway", gateway, "state", state.name()),
+                    () -> circuit(gateway, stats -> state.name().equals(stats.state()) ? 1 : 0)
+                ));
+            }
+            failureRates.add(row(Tags.of("gateway", gateway), () -> circuit(gateway, GatewayCircuitStats::failureRate)));
+        }
+        circuitState.register(states, true);
+        circuitFailureRate.register(failureRates, true);
+
+        List<MultiGauge.Row<?>> statuses = new ArrayList<>();
+        List<MultiGauge.Row<?>> latencies = new ArrayList<>();
+        for (GatewayHealthStats health : healthProber.stats()) {
+            String gateway = health.gateway();
+            for (GatewayHealthProber.Status status : GatewayHealthProber.Status.values()) {
+                statuses.add(row(
+                    Tags.of("gateway", gateway, "status", status.name()),
+                    () -> health(gateway, stats -> status.name().equals(stats.status()) ? 1 : 0)
+                ));
+            }
+            latencies.add(row(
+                Tags.of("gateway", gateway),
+                () -> health(gateway, stats -> stats.latencyMs() != null ? stats.latencyMs() / 1000.0 : Double.NaN)
+            ));
+        }
+        healthStatus.register(statuses, true);
+        healthLatency.register(latencies, true);
+    }
+
+    private double pool(String gateway, ToDoubleFunction<GatewayPoolStats> value) {
+        return find(transport.poolStats(), GatewayPoolStats::gateway, gateway, value);
+    }
+
+    private double timeout(String gateway, ToDoubleFunction<GatewayTimeoutStats> millis) {
+        return find(timeouts.stats(), GatewayTimeoutStats::gateway, gateway, millis) / 1000.0;
+    }
+
+    private double rateLimit(String key, ToDoubleFunction<GatewayRateLimitStats> value) {
+        return find(rateLimiter.stats(), GatewayRateLimitStats::key, key, value);
+    }
+
+    private double bulkhead(String gateway, ToDoubleFunction<GatewayBulkheadStats> value) {
+        return find(bulkhead.stats(), GatewayBulkheadStats::gateway, gateway, value);
+    }
+
+    private double circuit(String gateway, ToDoubleFunction<GatewayCircuitStats> value) {
+        return find(circuitBreaker.stats(), GatewayCircuitStats::gateway, gateway, value);
+    }
+
+    private double health(String gateway, ToDoubleFunction<GatewayHealthStats> value) {
+        return find(healthProber.stats(), GatewayHealthStats::gateway, gateway, value);
+    }
+
+    private static <T> double find(List<T> stats, Function<T, String> key, String wanted, ToDoubleFunction<T> value) {
+        for (T entry : stats) {
+            if (wanted.equals(key.apply(entry))) {
+                return value.applyAsDouble(entry);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static <T> void registerCoalescing(
+        MeterRegistry registry,
+        String cache,
+        T source,
+        Function<T, CoalescingStats> stats
+    ) {
+        Tags tags = Tags.of("cache", cache);
+        FunctionCounter.builder("coalescing.requests", source, value -> stats.apply(value).requests())
+            .tags(tags).register(registry);
+        FunctionCounter.builder("coalescing.hits", source, value -> stats.apply(value).hits())
+            .tags(tags).register(registry);
+        FunctionCounter.builder("coalescing.coalesced", source, value -> stats.apply(value).coalesced())
+            .tags(tags).register(registry);
+        FunctionCounter.builder("coalescing.loads", source, value -> stats.apply(value).loads())
+            .tags(tags).register(registry);
+        FunctionCounter.builder("coalescing.failures", source, value -> stats.apply(value).failures())
+            .tags(tags).register(registry);
+        Gauge.builder("coalescing.entries", source, value -> stats.apply(value).entries())
+            .tags(tags).register(registry);
+    }
+
+    private static MultiGauge multiGauge(MeterRegistry registry, String name, String description) {
+        return MultiGauge.builder(name).description(description).register(registry);
+    }
+
+    private static MultiGauge.Row<Supplier<Number>> row(Tags tags, Supplier<Number> value) {
+        return MultiGauge.Row.of(tags, value);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.GatewayTimeoutProperties;
+import com.example.smsbackend.config.GatewayTransportProperties;
+import com.example.smsbackend.dto.GatewayTimeoutStats;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Derives each gateway's connect and read timeouts from its own recent latency: the
+ * {@code percentile} of round trips over the last {@code window}, times {@code factor}, clamped to
+ * the configured bounds. A LAN phone answering in 50ms then fails fast while a phone on a mobile
+ * hotspot gets seconds. Until a gateway has {@code min-samples} round trips the static
+ * {@code gateway.transport} timeouts apply.
+ */
+@Component
+public class GatewayTimeouts {
+
+    private final GatewayTimeoutProperties properties;
+    private final GatewayTransportProperties transportProperties;
+    private final LongSupplier nanoClock;
+    private final GatewayStateMap<LatencyWindow> windows;
+
+    @Autowired
+    public GatewayTimeouts(GatewayTimeoutProperties properties, GatewayTransportProperties transportProperties) {
+        this(properties, transportProperties, System::nanoTime);
+    }
+
+    GatewayTimeouts(GatewayTimeoutProperties properties, GatewayTransportProperties transportProperties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.transportProperties = transportProperties;
+        this.nanoClock = nanoClock;
+        this.windows = new GatewayStateMap<>(nanoClock, window -> false);
+    }
+
+    /**
+     * Records how long a round trip took. Calls that timed out are recorded too, at the time they
+     * gave up, so a phone that keeps timing out raises its own percentile until the timeout fits.
+     */
+    public void record(String baseUrl, long latencyNanos) {
+        if (!properties.enabled()) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        windows.computeIfAbsent(GatewayOrigins.of(baseUrl), ignored -> new LatencyWindow(properties.window().toNanos(), now))
+            .record(latencyNanos, now);
+    }
+
+    public Duration connectTimeout(String baseUrl) {
+        Long percentileNanos = percentileNanos(GatewayOrigins.of(baseUrl));
+        return percentileNanos == null
+            ? transportProperties.connectTimeout()
+            : scaled(percentileNanos, properties.minConnectTimeout(), properties.maxConnectTimeout());
+    }
+
+    public Duration readTimeout(String baseUrl) {
+        Long percentileNanos = percentileNanos(GatewayOrigins.of(baseUrl));
+        return percentileNanos == null
+            ? transportProperties.readTimeout()
+            : scaled(percentileNanos, properties.minReadTimeout(), properties.maxReadTimeout());
+    }
+
+    public List<GatewayTimeoutStats> stats() {
+        long now = nanoClock.getAsLong();
+        List<GatewayTimeoutStats> stats = new ArrayList<>();
+        for (Map.Entry<String, LatencyWindow> entry : windows.snapshot().entrySet()) {
+            LatencyWindow window = entry.getValue();
+            long samples = window.samples(now);
+            stats.add(new GatewayTimeoutStats(
+                entry.getKey(),
+                samples,
+                samples >= properties.minSamples(),
+                samples == 0 ? null : window.percentileNanos(0.5, now) / 1_000_000.0,
+                samples == 0 ? null : window.percentileNanos(properties.percentile(), now) / 1_000_000.0,
+                connectTimeout(entry.getKey()).toMillis(),
+                readTimeout(entry.getKey()).toMillis()
+            ));
+        }
+        return stats;
+    }
+
+    private Long percentileNanos(String gateway) {
+        LatencyWindow window = properties.enabled() ? windows.get(gateway) : null;
+        if (window == null) {
+            return null;
+        }
+        long now = nanoClock.getAsLong();
+        if (window.samples(now) < properties.minSamples()) {
+            return null;
+        }
+        return window.percentileNanos(properties.percentile(), now);
+    }
+
+    private Duration scaled(long percentileNanos, Duration min, Duration max) {
+        Duration timeout = Duration.ofNanos((long) (percentileNanos * properties.factor()));
+        if (timeout.compareTo(min) < 0) {
+            return min;
+        }
+        return timeout.compareTo(max) > 0 ? max : timeout;
+    }
+
+    /**
+     * Latency histogram over a sliding window made of {@link #SLICES} rotating slices. Buckets grow
+     * by 25% from 1ms, and percentiles report a bucket's upper bound, so they never understate.
+     */
+    static final class LatencyWindow {
+
+        static final int SLICES = 6;
+        static final long[] BOUNDS = bounds();
+
+        private final long sliceNanos;
+        private final long[][] counts = new long[SLICES][BOUNDS.length + 1];
+        private final long[] totals = new long[SLICES];
+        private int current;
+        private long currentStart;
+
+        LatencyWindow(long windowNanos, long nowNanos) {
+            this.sliceNanos = Math.max(1, windowNanos / SLICES);
+            this.currentStart = nowNanos;
+        }
+
+        synchronized void record(long latencyNanos, long nowNanos) {
+            rotate(nowNanos);
+            int index = Arrays.binarySearch(BOUNDS, latencyNanos);
+            counts[current][index >= 0 ? index : -index - 1]++;
+            totals[current]++;
+        }
+
+        synchronized long samples(long nowNanos) {
+            rotate(nowNanos);
+            return Arrays.stream(totals).sum();
+        }
+
+        synchronized long percentileNanos(double quantile, long nowNanos) {
+            rotate(nowNanos);
+            long total = Arrays.stream(totals).sum();
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int bucket = 0; bucket < BOUNDS.length; bucket++) {
+                for (long[] slice : counts) {
+                    seen += slice[bucket];
+                }
+                if (seen >= rank) {
+                    return BOUNDS[bucket];
+                }
+            }
+            return BOUNDS[BOUNDS.length - 1];
+        }
+
+        private void rotate(long nowNanos) {
+            long elapsedSlices = (nowNanos - currentStart) / sliceNanos;
+            if (elapsedSlices <= 0) {
+                return;
+            }
+            for (long i = 0; i < Math.min(elapsedSlices, SLICES); i++) {
+                current = (current + 1) % SLICES;
+                Arrays.fill(counts[current], 0);
+                totals[current] = 0;
+            }
+            currentStart += elapsedSlices * sliceNanos;
+        }
+
+        private static long[] bounds() {
+            List<Long> bounds = new ArrayList<>();
+            double bound = TimeUnit.MILLISECONDS.toNanos(1);
+            while (bound < TimeUnit.MINUTES.toNanos(2)) {
+                bounds.add((long) bound);
+                bound *= 1.25;
+            }
+            bounds.add(TimeUnit.MINUTES.toNanos(2));
+            return bounds.stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+}
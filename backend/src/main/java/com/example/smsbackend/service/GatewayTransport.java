@@ -0,0 +1,18 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.dto.GatewayPoolStats;
+import java.util.List;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Supplies the HTTP client used to talk to an Android gateway phone.
+ * Implementations may hand out a shared client or one per gateway origin.
+ */
+public interface GatewayTransport {
+
+    RestTemplate restTemplate(String baseUrl);
+
+    String type();
+
+    List<GatewayPoolStats> poolStats();
+}
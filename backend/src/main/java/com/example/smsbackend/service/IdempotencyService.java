@@ -0,0 +1,285 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.IdempotencyProperties;
+import com.example.smsbackend.entity.IdempotencyRecord;
+import com.example.smsbackend.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Makes send endpoints safe to retry. The first request with an {@code Idempotency-Key} runs in
+ * the same transaction that records its response, so the queued SMS and the key commit together;
+ * a repeat within {@code idempotency.ttl} gets the stored response back without queueing
+ * anything. Recent responses are also kept in a bounded in-memory LRU.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    public static final String SCOPE_MESSAGE = "message-send";
+    public static final String SCOPE_CONFIG = "config-send";
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final IdempotencyRecordRepository repository;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactions;
+    private final Clock clock;
+    private final Map<String, Stored> cache;
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+
+    @Autowired
+    public IdempotencyService(
+        IdempotencyRecordRepository repository,
+        IdempotencyProperties properties,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager
+    ) {
+        this(repository, properties, objectMapper, transactionManager, Clock.systemUTC());
+    }
+
+    IdempotencyService(
+        IdempotencyRecordRepository repository,
+        IdempotencyProperties properties,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager,
+        Clock clock
+    ) {
+        this.repository = repository;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+
+        int cacheSize = properties.cacheSize();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Stored> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs {@code action} once per {@code (scope, key)}. {@code fingerprint} identifies the request
+     * so a key reused for a different request is rejected with {@code 422}; a repeat that arrives
+     * while the first is still running gets {@code 409}.
+     */
+    public <T> ResponseEntity<T> execute(
+        String scope,
+        String key,
+        Object fingerprint,
+        Class<T> responseType,
+        Supplier<ResponseEntity<T>> action
+    ) {
+        if (!properties.enabled() || !StringUtils.hasText(key)) {
+            return action.get();
+        }
+        String idempotencyKey = key.trim();
+        if (idempotencyKey.length() > properties.maxKeyLength()) {
+            throw new IllegalArgumentException(HEADER + " must be at most " + properties.maxKeyLength() + " characters.");
+        }
+
+        String requestHash = hash(fingerprint);
+        Stored cached = cached(scope, idempotencyKey);
+        if (cached != null) {
+            return replay(cached, requestHash, responseType);
+        }
+
+        // Repeats reaching this instance wait for the first; other instances meet the unique key.
+        Lock lock = locks[Math.floorMod(cacheKey(scope, idempotencyKey).hashCode(), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            cached = cached(scope, idempotencyKey);
+            if (cached != null) {
+                return replay(cached, requestHash, responseType);
+            }
+            return executeOnce(scope, idempotencyKey, requestHash, responseType, action);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> ResponseEntity<T> executeOnce(
+        String scope,
+        String idempotencyKey,
+        String requestHash,
+        Class<T> responseType,
+        Supplier<ResponseEntity<T>> action
+    ) {
+        Result<T> result;
+        try {
+            result = transactions.execute(status -> run(scope, idempotencyKey, requestHash, responseType, action));
+        } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+            Stored stored = repository.findByScopeAndIdempotencyKey(scope, idempotencyKey)
+                .map(this::remember)
+                .orElseThrow(() -> new ResponseStatusException(
+                    HttpStatus.CONFLICT,
+                    "A request with this " + HEADER + " is still being processed."
+                ));
+            return replay(stored, requestHash, responseType);
+        }
+
+        remember(result.stored);
+        return result.response;
+    }
+
+    @Scheduled(fixedDelayString = "PT10M")
+    public void purgeExpired() {
+        Instant now = clock.instant();
+        Integer removed = transactions.execute(status -> repository.deleteExpired(now));
+        if (removed != null && removed > 0) {
+            log.debug("Purged {} expired idempotency keys", removed);
+        }
+        synchronized (cache) {
+            cache.values().removeIf(stored -> !stored.expiresAt.isAfter(now));
+        }
+    }
+
+    private <T> Result<T> run(
+        String scope,
+        String idempotencyKey,
+        String requestHash,
+        Class<T> responseType,
+        Supplier<ResponseEntity<T>> action
+    ) {
+        Instant now = clock.instant();
+        Optional<IdempotencyRecord> existing = repository.findByScopeAndIdempotencyKey(scope, idempotencyKey);
+        if (existing.isPresent()) {
+            if (existing.get().getExpiresAt().isAfter(now)) {
+                Stored stored = toStored(existing.get());
+                return new Result<>(replay(stored, requestHash, responseType), stored);
+            }
+            repository.delete(existing.get());
+            repository.flush();
+        }
+
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setScope(scope);
+        record.setIdempotencyKey(idempotencyKey);
+        record.setRequestHash(requestHash);
+        record.setCreatedAt(now);
+        record.setExpiresAt(now.plus(properties.ttl()));
+        repository.saveAndFlush(record);
+
+        ResponseEntity<T> response = action.get();
+        record.setResponseStatus(response.getStatusCode().value());
+        record.setResponseBody(toJson(response.getBody()));
+        repository.save(record);
+        return new Result<>(response, toStored(record));
+    }
+
+    private <T> ResponseEntity<T> replay(Stored stored, String requestHash, Class<T> responseType) {
+        if (!stored.requestHash.equals(requestHash)) {
+            throw new ResponseStatusException(
+                HttpStatus.UNPROCESSABLE_ENTITY,
+                HEADER + " was already used for a different request."
+            );
+        }
+        try {
+            T body = stored.body != null ? objectMapper.readValue(stored.body, responseType) : null;
+            return ResponseEntity.status(stored.status).header(REPLAYED_HEADER, "true").body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response could not be read", e);
+        }
+    }
+
+    private Stored cached(String scope, String idempotencyKey) {
+        synchronized (cache) {
+            Stored stored = cache.get(cacheKey(scope, idempotencyKey));
+            if (stored != null && !stored.expiresAt.isAfter(clock.instant())) {
+                cache.remove(cacheKey(scope, idempotencyKey));
+                return null;
+            }
+            return stored;
+        }
+    }
+
+    private Stored remember(IdempotencyRecord record) {
+        return remember(toStored(record));
+    }
+
+    private Stored remember(Stored stored) {
+        synchronized (cache) {
+            cache.put(cacheKey(stored.scope, stored.idempotencyKey), stored);
+        }
+        return stored;
+    }
+
+    private String hash(Object fingerprint) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(fingerprint)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to fingerprint request", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return body != null ? objectMapper.writeValueAsString(body) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotent response", e);
+        }
+    }
+
+    private static Stored toStored(IdempotencyRecord record) {
+        return new Stored(
+            record.getScope(),
+            record.getIdempotencyKey(),
+            record.getRequestHash(),
+            record.getResponseStatus(),
+            record.getResponseBody(),
+            record.getExpiresAt()
+        );
+    }
+
+    private static String cacheKey(String scope, String idempotencyKey) {
+        return scope + "\n" + idempotencyKey;
+    }
+
+    private record Stored(
+        String scope,
+        String idempotencyKey,
+        String requestHash,
+        int status,
+        String body,
+        Instant expiresAt
+    ) {
+    }
+
+    private record Result<T>(ResponseEntity<T> response, Stored stored) {
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.CoalescingProperties;
+import com.example.smsbackend.config.GatewayProperties;
+import com.example.smsbackend.dto.CoalescingStats;
+import com.example.smsbackend.dto.GatewayReplyMessage;
+import com.example.smsbackend.entity.InboundCursor;
+import com.example.smsbackend.entity.InboundMessage;
+import com.example.smsbackend.repository.InboundCursorRepository;
+import com.example.smsbackend.repository.InboundMessageRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+public class InboundMessageService {
+
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final InboundMessageRepository messageRepository;
+    private final InboundCursorRepository cursorRepository;
+    private final GatewayProperties gatewayProperties;
+    private final ObjectMapper objectMapper;
+    private final SingleFlightCache<SearchKey, ReplyPage> readCache;
+
+    public InboundMessageService(
+        InboundMessageRepository messageRepository,
+        InboundCursorRepository cursorRepository,
+        GatewayProperties gatewayProperties,
+        CoalescingProperties coalescingProperties,
+        ObjectMapper objectMapper
+    ) {
+        this.messageRepository = messageRepository;
+        this.cursorRepository = cursorRepository;
+        this.gatewayProperties = gatewayProperties;
+        this.objectMapper = objectMapper;
+        this.readCache = new SingleFlightCache<>("inbound-read", coalescingProperties);
+    }
+
+    /**
+     * Stores replies not seen before for {@code gateway} and, when {@code drained} (every reply
+     * since the cursor is in {@code replies}), moves its cursor to the newest reply date. The
+     * phone's {@code since} is inclusive, so the boundary reply comes back on every poll and is
+     * dropped here by its gateway id. Returns the newly stored replies.
+     */
+    @Transactional
+    public List<InboundMessage> store(String gateway, List<GatewayReplyMessage> replies, boolean drained, Instant now) {
+        InboundCursor cursor = cursor(gateway);
+
+        // The phone lists newest first; store oldest first so row ids (stream event ids) follow time.
+        Map<Long, GatewayReplyMessage> byId = new LinkedHashMap<>();
+        replies.stream()
+            .sorted(Comparator.comparingLong(GatewayReplyMessage::date).thenComparingLong(GatewayReplyMessage::id))
+            .forEach(reply -> byId.putIfAbsent(reply.id(), reply));
+        Set<Long> stored = byId.isEmpty()
+            ? Set.of()
+            : new HashSet<>(messageRepository.findStoredIds(gateway, byId.keySet()));
+
+        List<InboundMessage> fresh = new ArrayList<>();
+        Long since = cursor.getSinceMillis();
+        for (GatewayReplyMessage reply : byId.values()) {
+            since = since == null ? reply.date() : Math.max(since, reply.date());
+            if (stored.contains(reply.id())) {
+                continue;
+            }
+            InboundMessage message = new InboundMessage();
+            message.setGateway(gateway);
+            message.setGatewayMessageId(reply.id());
+            message.setFromNumber(reply.from());
+            message.setFromDigits(PhoneNumbers.normalize(reply.from()));
+            message.setBody(reply.message());
+            message.setReceivedAt(Instant.ofEpochMilli(reply.date()));
+            message.setStoredAt(now);
+            fresh.add(message);
+        }
+        messageRepository.saveAll(fresh);
+        if (!fresh.isEmpty()) {
+            invalidateAfterCommit();
+        }
+
+        if (drained) {
+            cursor.setSinceMillis(since);
+        }
+        cursor.setLastPolledAt(now);
+        cursor.setLastSuccessAt(now);
+        cursor.setLastFetched(replies.size());
+        cursor.setTotalStored(cursor.getTotalStored() + fresh.size());
+        cursor.setLastError(null);
+        cursorRepository.save(cursor);
+        return fresh;
+    }
+
+    @Transactional
+    public void recordFailure(String gateway, String error, Instant now) {
+        InboundCursor cursor = cursor(gateway);
+        cursor.setLastPolledAt(now);
+        cursor.setLastError(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        cursorRepository.save(cursor);
+    }
+
+    @Transactional(readOnly = true)
+    public Long since(String gateway) {
+        return cursorRepository.findById(gateway).map(InboundCursor::getSinceMillis).orElse(null);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean hasSynced(String gateway) {
+        return cursorRepository.findById(gateway).map(cursor -> cursor.getLastSuccessAt() != null).orElse(false);
+    }
+
+    @Transactional(readOnly = true)
+    public List<InboundCursor> cursors() {
+        return cursorRepository.findAll();
+    }
+
+    /**
+     * Newest first, with the same {@code phone}, {@code since} (epoch millis, inclusive) and
+     * {@code limit} semantics as the phone's {@code GET /messages}. Identical concurrent reads share
+     * one query, and repeats within {@code coalescing.ttl} reuse it until new replies are stored.
+     */
+    public List<GatewayReplyMessage> search(Collection<String> gateways, String phone, Long since, Integer limit) {
+        return page(gateways, phone, since, limit).replies();
+    }
+
+    /**
+     * {@link #search} already serialized as a JSON array. The bytes are built once per cached
+     * page, so repeated polls are written out without touching Jackson.
+     */
+    public byte[] searchJson(Collection<String> gateways, String phone, Long since, Integer limit) {
+        return page(gateways, phone, since, limit).json();
+    }
+
+    public CoalescingStats readCoalescingStats() {
+        return readCache.stats();
+    }
+
+    /**
+     * Replies stored after {@code afterId}, oldest first; used to resume an event stream.
+     */
+    @Transactional(readOnly = true)
+    public List<InboundMessage> findAfter(Collection<String> gateways, String phone, long afterId, int limit) {
+        SenderFilter filter = SenderFilter.of(phone);
+        if (gateways.isEmpty() || limit < 1 || filter == null) {
+            return List.of();
+        }
+        return messageRepository.findAfter(gateways, afterId, filter.digits(), filter.text(), PageRequest.of(0, limit));
+    }
+
+    private ReplyPage page(Collection<String> gateways, String phone, Long since, Integer limit) {
+        if (gateways.isEmpty()) {
+            return new ReplyPage(List.of(), objectMapper);
+        }
+        return readCache.get(
+            new SearchKey(List.copyOf(gateways), phone, since, limit),
+            () -> new ReplyPage(query(gateways, phone, since, limit), objectMapper)
+        );
+    }
+
+    private List<GatewayReplyMessage> query(Collection<String> gateways, String phone, Long since, Integer limit) {
+        SenderFilter filter = SenderFilter.of(phone);
+        if (filter == null) {
+            return List.of();
+        }
+
+        int pageSize = Math.max(1, Math.min(limit != null ? limit : gatewayProperties.defaultLimit(), MAX_LIMIT));
+        return messageRepository.search(
+            gateways,
+            since != null ? Instant.ofEpochMilli(since) : Instant.EPOCH,
+            filter.digits(),
+            filter.text(),
+            PageRequest.of(0, pageSize)
+        ).stream().map(InboundMessageService::toReply).toList();
+    }
+
+    /**
+     * Until the commit, a read still sees the old rows; dropping the cache before that would let
+     * it cache them again for {@code coalescing.ttl}.
+     */
+    private void invalidateAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            readCache.invalidateAll();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                readCache.invalidateAll();
+            }
+        });
+    }
+
+    private static GatewayReplyMessage toReply(InboundMessage message) {
+        return new GatewayReplyMessage(
+            message.getGatewayMessageId(),
+            message.getFromNumber(),
+            message.getBody(),
+            message.getReceivedAt().toEpochMilli()
+        );
+    }
+
+    private InboundCursor cursor(String gateway) {
+        return cursorRepository.findById(gateway).orElseGet(() -> {
+            InboundCursor cursor = new InboundCursor();
+            cursor.setGateway(gateway);
+            return cursor;
+        });
+    }
+
+    /**
+     * Splits a {@code phone} query the way {@link PhoneNumbers#matches} does; {@code null} when
+     * the query can match nothing.
+     */
+    private record SenderFilter(String digits, String text) {
+
+        static SenderFilter of(String phone) {
+            String query = phone != null ? phone.trim() : "";
+            if (query.chars().anyMatch(Character::isLetter)) {
+                return new SenderFilter("", query.toLowerCase(Locale.ROOT));
+            }
+            String digits = PhoneNumbers.normalize(query);
+            return !query.isEmpty() && digits.isEmpty() ? null : new SenderFilter(digits, "");
+        }
+    }
+
+    /**
+     * One search result, with its JSON rendered on first use and kept for as long as the page is
+     * cached.
+     */
+    private static final class ReplyPage {
+
+        private final List<GatewayReplyMessage> replies;
+        private final ObjectMapper objectMapper;
+        private volatile byte[] json;
+
+        ReplyPage(List<GatewayReplyMessage> replies, ObjectMapper objectMapper) {
+            this.replies = replies;
+            this.objectMapper = objectMapper;
+        }
+
+        List<GatewayReplyMessage> replies() {
+            return replies;
+        }
+
+        byte[] json() {
+            byte[] rendered = json;
+            if (rendered == null) {
+                try {
+                    rendered = objectMapper.writeValueAsBytes(replies);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("Failed to serialize replies", e);
+                }
+                json = rendered;
+            }
+            return rendered;
+        }
+    }
+
+    private record SearchKey(List<String> gateways, String phone, Long since, Integer limit) {
+    }
+}
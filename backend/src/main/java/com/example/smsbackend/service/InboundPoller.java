@@ -0,0 +1,274 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.InboundProperties;
+import com.example.smsbackend.dto.GatewayReplyMessage;
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import com.example.smsbackend.dto.InboundGatewayStats;
+import com.example.smsbackend.entity.InboundCursor;
+import com.example.smsbackend.entity.InboundMessage;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Polls each gateway's {@code GET /messages} with the stored {@code since} cursor and copies new
+ * replies into {@code inbound_messages}, so portal reads hit the database instead of the phone.
+ * Configured gateways are always polled; a gateway named by a request's {@code X-Gateway-Base-Url}
+ * is polled while it keeps being read, and dropped after {@code inbound.watch-ttl} without reads.
+ */
+@Component
+public class InboundPoller implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(InboundPoller.class);
+
+    private final InboundProperties properties;
+    private final GatewayClientService gatewayClientService;
+    private final InboundMessageService inboundMessageService;
+    private final GatewayCircuitBreaker circuitBreaker;
+    private final InboundStreamService inboundStreamService;
+    private final GatewayRouter router;
+    private final CommandAckService commandAckService;
+    private final Map<String, Watch> watched = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    public InboundPoller(
+        InboundProperties properties,
+        GatewayRouter router,
+        GatewayClientService gatewayClientService,
+        InboundMessageService inboundMessageService,
+        GatewayCircuitBreaker circuitBreaker,
+        InboundStreamService inboundStreamService,
+        CommandAckService commandAckService
+    ) {
+        this.properties = properties;
+        this.gatewayClientService = gatewayClientService;
+        this.inboundMessageService = inboundMessageService;
+        this.circuitBreaker = circuitBreaker;
+        this.inboundStreamService = inboundStreamService;
+        this.router = router;
+        this.commandAckService = commandAckService;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(properties.pollerThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "inbound-poller-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${inbound.poll-interval:PT5S}")
+    public void pollAll() {
+        if (!properties.enabled()) {
+            return;
+        }
+
+        Instant expiry = Instant.now().minus(properties.watchTtl());
+        Set<String> streamed = inboundStreamService.streamedGateways();
+        watched.entrySet().removeIf(entry -> entry.getValue().lastReadAt.isBefore(expiry) && !streamed.contains(entry.getKey()));
+
+        Map<String, GatewayRequestOptions> targets = new LinkedHashMap<>(router.configuredGateways());
+        watched.forEach((gateway, watch) -> targets.putIfAbsent(gateway, watch.options));
+        CompletableFuture.allOf(targets.entrySet().stream()
+            .map(target -> CompletableFuture.runAsync(() -> poll(target.getKey(), target.getValue(), false), executor))
+            .toArray(CompletableFuture[]::new)
+        ).join();
+    }
+
+    /**
+     * Returns the gateways a read with these options should be served from, registering an
+     * explicitly requested gateway for background polling. A gateway that has never been polled
+     * successfully is polled inline first. With a single gateway in scope its errors reach the
+     * caller; with several, they are polled in parallel for up to {@code inbound.sync-timeout} and
+     * one that fails or is too slow is left out of this read, unless all of them fail.
+     */
+    public List<String> sync(GatewayRequestOptions options) {
+        Map<String, GatewayRequestOptions> targets = watch(options);
+        Map<String, GatewayRequestOptions> pending = new LinkedHashMap<>();
+        targets.forEach((gateway, target) -> {
+            if (!properties.enabled() || !inboundMessageService.hasSynced(gateway)) {
+                pending.put(gateway, target);
+            }
+        });
+
+        if (targets.size() == 1) {
+            pending.forEach((gateway, target) -> poll(gateway, target, true));
+        } else if (!pending.isEmpty()) {
+            syncAll(pending, targets.size());
+        }
+        return List.copyOf(targets.keySet());
+    }
+
+    /**
+     * Like {@link #sync} but never calls the gateway; new gateways are picked up by the next poll.
+     */
+    public List<String> gateways(GatewayRequestOptions options) {
+        return List.copyOf(watch(options).keySet());
+    }
+
+    public List<InboundGatewayStats> stats() {
+        Map<String, InboundCursor> cursors = inboundMessageService.cursors().stream()
+            .collect(Collectors.toMap(InboundCursor::getGateway, Function.identity()));
+
+        Map<String, GatewayRequestOptions> configured = router.configuredGateways();
+        Set<String> gateways = new LinkedHashSet<>(configured.keySet());
+        gateways.addAll(watched.keySet());
+
+        List<InboundGatewayStats> stats = new ArrayList<>();
+        for (String gateway : gateways) {
+            InboundCursor cursor = cursors.get(gateway);
+            stats.add(new InboundGatewayStats(
+                gateway,
+                configured.containsKey(gateway),
+                cursor != null ? cursor.getSinceMillis() : null,
+                cursor != null ? cursor.getLastPolledAt() : null,
+                cursor != null ? cursor.getLastSuccessAt() : null,
+                cursor != null ? cursor.getLastFetched() : 0,
+                cursor != null ? cursor.getTotalStored() : 0,
+                cursor != null ? cursor.getLastError() : null
+            ));
+        }
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private void syncAll(Map<String, GatewayRequestOptions> pending, int inScope) {
+        Map<String, CompletableFuture<Void>> polls = new LinkedHashMap<>();
+        pending.forEach((gateway, target) ->
+            polls.put(gateway, CompletableFuture.runAsync(() -> poll(gateway, target, true), executor))
+        );
+
+        long deadline = System.nanoTime() + properties.syncTimeout().toNanos();
+        RuntimeException firstFailure = null;
+        int failures = 0;
+        for (Map.Entry<String, CompletableFuture<Void>> entry : polls.entrySet()) {
+            try {
+                entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // Left running: whatever it stores is served from the next read.
+                failures++;
+                log.warn("Inbound sync of {} exceeded {}; serving the other gateways", entry.getKey(), properties.syncTimeout());
+            } catch (ExecutionException e) {
+                failures++;
+                if (firstFailure == null) {
+                    firstFailure = e.getCause() instanceof RuntimeException runtime
+                        ? runtime
+                        : new IllegalStateException(e.getCause());
+                }
+                log.warn("Inbound sync of {} failed; serving the other gateways: {}", entry.getKey(), e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while syncing inbound messages", e);
+            }
+        }
+
+        if (failures == inScope && firstFailure != null) {
+            throw firstFailure;
+        }
+    }
+
+    private Map<String, GatewayRequestOptions> watch(GatewayRequestOptions options) {
+        Map<String, GatewayRequestOptions> configured = router.configuredGateways();
+        Map<String, GatewayRequestOptions> targets = new LinkedHashMap<>();
+        if (options != null && StringUtils.hasText(options.baseUrl())) {
+            String baseUrl = options.baseUrl().trim();
+            String gateway = GatewayOrigins.of(baseUrl);
+            GatewayRequestOptions requested = new GatewayRequestOptions(baseUrl, options.token());
+            if (!configured.containsKey(gateway)) {
+                watched.put(gateway, new Watch(requested, Instant.now()));
+            }
+            targets.put(gateway, configured.getOrDefault(gateway, requested));
+        } else {
+            targets.putAll(configured);
+        }
+        return targets;
+    }
+
+    private void poll(String gateway, GatewayRequestOptions options, boolean inline) {
+        if (!inline && !circuitBreaker.isCallPermitted(options.baseUrl())) {
+            return;
+        }
+
+        ReentrantLock lock = locks.computeIfAbsent(gateway, ignored -> new ReentrantLock());
+        if (inline) {
+            lock.lock();
+        } else if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            if (inline && properties.enabled() && inboundMessageService.hasSynced(gateway)) {
+                return;
+            }
+
+            Long since = inboundMessageService.since(gateway);
+            int limit = properties.pageSize();
+            List<GatewayReplyMessage> replies = gatewayClientService.fetchMessages(null, since, limit, options);
+            // The phone lists newest first with no offset or upper bound, so the only way to reach
+            // the older replies behind a full page is a larger page. It clamps the limit to
+            // GATEWAY_MAX_LIMIT, so a page of that size is full whatever was asked for.
+            while (replies.size() >= limit && limit < properties.maxPageSize()) {
+                limit = Math.min(limit * 2, properties.maxPageSize());
+                replies = gatewayClientService.fetchMessages(null, since, limit, options);
+            }
+            boolean drained = replies.size() < Math.min(limit, InboundProperties.GATEWAY_MAX_LIMIT);
+
+            List<InboundMessage> stored = inboundMessageService.store(gateway, replies, drained, Instant.now());
+            correlate(gateway, stored);
+            inboundStreamService.publish(stored);
+            if (!drained) {
+                log.warn("Inbound poll of {} still returned a full page of {} replies; keeping its cursor so older replies are not skipped",
+                    gateway, replies.size());
+            } else if (!stored.isEmpty()) {
+                log.debug("Stored {} new inbound replies from {}", stored.size(), gateway);
+            }
+        } catch (RuntimeException e) {
+            inboundMessageService.recordFailure(gateway, e.getMessage(), Instant.now());
+            if (inline) {
+                throw e;
+            }
+            log.warn("Inbound poll of {} failed: {}", gateway, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The replies are already stored and the cursor moved past them, so a failure here must not
+     * fail the poll; the commands they answered will time out instead.
+     */
+    private void correlate(String gateway, List<InboundMessage> stored) {
+        try {
+            commandAckService.correlate(stored);
+        } catch (RuntimeException e) {
+            log.warn("Matching replies from {} to sent commands failed: {}", gateway, e.getMessage());
+        }
+    }
+
+    private record Watch(GatewayRequestOptions options, Instant lastReadAt) {
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.InboundProperties;
+import com.example.smsbackend.dto.InboundMessageResponse;
+import com.example.smsbackend.dto.InboundStreamStats;
+import com.example.smsbackend.entity.InboundMessage;
+import java.io.IOException;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes replies to portal subscribers as the inbound poller stores them. Each subscriber has a
+ * bounded buffer drained by a shared sender pool; a subscriber whose buffer fills up is
+ * disconnected rather than slowing the poller, and resumes from the database with
+ * {@code Last-Event-ID} when its client reconnects.
+ */
+@Service
+public class InboundStreamService implements DisposableBean {
+
+    public static final String EVENT_REPLY = "reply";
+
+    private static final Logger log = LoggerFactory.getLogger(InboundStreamService.class);
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+
+    private final InboundProperties.Stream properties;
+    private final InboundMessageService inboundMessageService;
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+    private final ExecutorService senders;
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public InboundStreamService(InboundProperties properties, InboundMessageService inboundMessageService) {
+        this.properties = properties.stream();
+        this.inboundMessageService = inboundMessageService;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(this.properties.senderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "inbound-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens a stream of replies from {@code gateways} whose sender matches {@code phone}. With a
+     * {@code lastEventId}, replies stored after that event are replayed first.
+     */
+    public SseEmitter subscribe(List<String> gateways, String phone, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(properties.timeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(gateways), phone, properties.bufferSize());
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        if (lastEventId != null && properties.replayLimit() > 0) {
+            subscriber.replay = inboundMessageService.findAfter(gateways, phone, lastEventId, properties.replayLimit());
+            subscriber.replay.forEach(message -> subscriber.replayedIds.add(message.getId()));
+        }
+        subscriber.ready = true;
+        schedule(subscriber);
+        return emitter;
+    }
+
+    public void publish(List<InboundMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            boolean queued = false;
+            for (InboundMessage message : messages) {
+                if (!subscriber.accepts(message)) {
+                    continue;
+                }
+                if (!subscriber.buffer.offer(message)) {
+                    drop(subscriber, "buffer full");
+                    queued = false;
+                    break;
+                }
+                queued = true;
+            }
+            if (queued) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Gateways with at least one open stream, so the poller keeps watching them.
+     */
+    public Set<String> streamedGateways() {
+        return subscribers.stream()
+            .flatMap(subscriber -> subscriber.gateways.stream())
+            .collect(Collectors.toSet());
+    }
+
+    public InboundStreamStats stats() {
+        return new InboundStreamStats(subscribers.size(), delivered.get(), dropped.get(), properties.bufferSize());
+    }
+
+    @Scheduled(fixedDelayString = "${inbound.stream.heartbeat:PT15S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            schedule(subscriber);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        senders.shutdown();
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.ready || !subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.draining.set(false);
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.replay != null) {
+                for (InboundMessage message : subscriber.replay) {
+                    send(subscriber, message);
+                }
+                subscriber.replay = null;
+            }
+
+            InboundMessage message;
+            while ((message = subscriber.buffer.poll()) != null) {
+                if (!subscriber.replayedIds.contains(message.getId())) {
+                    send(subscriber, message);
+                }
+            }
+
+            if (subscriber.heartbeatDue) {
+                subscriber.heartbeatDue = false;
+                subscriber.emitter.send(SseEmitter.event().comment("keepalive"));
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+
+        if (!subscriber.buffer.isEmpty() || subscriber.heartbeatDue) {
+            schedule(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, InboundMessage message) throws IOException {
+        subscriber.emitter.send(SseEmitter.event()
+            .id(String.valueOf(message.getId()))
+            .name(EVENT_REPLY)
+            .data(new InboundMessageResponse(
+                message.getGatewayMessageId(),
+                message.getFromNumber(),
+                message.getBody(),
+                FORMATTER.format(message.getReceivedAt().atOffset(ZoneOffset.UTC))
+            )));
+        delivered.incrementAndGet();
+    }
+
+    private void drop(Subscriber subscriber, String reason) {
+        if (subscribers.remove(subscriber)) {
+            dropped.incrementAndGet();
+            log.warn("Dropping inbound stream subscriber: {}", reason);
+            subscriber.emitter.complete();
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<String> gateways;
+        private final String phone;
+        private final BlockingQueue<InboundMessage> buffer;
+        private final Set<Long> replayedIds = new HashSet<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile List<InboundMessage> replay;
+        private volatile boolean ready;
+        private volatile boolean heartbeatDue;
+
+        private Subscriber(SseEmitter emitter, Set<String> gateways, String phone, int bufferSize) {
+            this.emitter = emitter;
+            this.gateways = gateways;
+            this.phone = phone;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private boolean accepts(InboundMessage message) {
+            return gateways.contains(message.getGateway()) && PhoneNumbers.matches(message.getFromNumber(), phone);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.OutboxProperties;
+import com.example.smsbackend.dto.SendMessageRequest;
+import com.example.smsbackend.entity.OutboundMessage;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drains {@code outbound_messages} in claimed batches. The claim query only returns the oldest
+ * pending row per recipient, so multi-part config SMS still reach a device in order.
+ */
+@Component
+@ConditionalOnProperty(prefix = "outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxDispatcher implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final OutboxService outboxService;
+    private final GatewayClientService gatewayClientService;
+    private final OutboxProperties properties;
+    private final ExecutorService executor;
+
+    public OutboxDispatcher(
+        OutboxService outboxService,
+        GatewayClientService gatewayClientService,
+        OutboxProperties properties
+    ) {
+        this.outboxService = outboxService;
+        this.gatewayClientService = gatewayClientService;
+        this.properties = properties;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(properties.dispatcherThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "outbox-dispatcher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval:PT1S}")
+    public void dispatch() {
+        int released = outboxService.releaseStaleClaims();
+        if (released > 0) {
+            log.warn("Released {} outbound messages with expired claims", released);
+        }
+
+        List<OutboundMessage> batch;
+        do {
+            batch = outboxService.claimBatch(properties.batchSize());
+            CompletableFuture.allOf(batch.stream()
+                .map(message -> CompletableFuture.runAsync(() -> deliver(message), executor))
+                .toArray(CompletableFuture[]::new)
+            ).join();
+        } while (batch.size() == properties.batchSize());
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private void deliver(OutboundMessage message) {
+        if (!outboxService.renewClaim(message)) {
+            log.warn("Outbound message {} waited past outbox.claim-timeout; leaving it to the next claim", message.getId());
+            return;
+        }
+        try {
+            GatewayRoute route = gatewayClientService.sendMessage(
+                new SendMessageRequest(message.getToNumber(), message.getBody(), message.getSlot()),
+                OutboxService.gatewayOptions(message)
+            );
+            outboxService.markSent(message, route);
+        } catch (RuntimeException e) {
+            log.warn("Outbound message {} to {} failed (attempt {}): {}",
+                message.getId(), message.getToNumber(), message.getAttempts() + 1, e.getMessage());
+            outboxService.markFailed(message, e);
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.OutboxProperties;
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import com.example.smsbackend.dto.OutboundMessageResponse;
+import com.example.smsbackend.dto.SendMessageRequest;
+import com.example.smsbackend.entity.OutboundMessage;
+import com.example.smsbackend.entity.OutboundMessageStatus;
+import com.example.smsbackend.repository.CommandAckRepository;
+import com.example.smsbackend.repository.DeviceConfigCommandRepository;
+import com.example.smsbackend.repository.DeviceConfigPendingRepository;
+import com.example.smsbackend.repository.OutboundMessageRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class OutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+    public static final String SOURCE_MESSAGE = "message";
+    public static final String SOURCE_CONFIG = "config";
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboundMessageRepository repository;
+    private final OutboxProperties properties;
+    private final DeviceConfigCommandRepository configCommands;
+    private final DeviceConfigPendingRepository pendingConfig;
+    private final CommandAckRepository commandAcks;
+    private final GatewayRegistry registry;
+
+    public OutboxService(
+        OutboundMessageRepository repository,
+        OutboxProperties properties,
+        DeviceConfigCommandRepository configCommands,
+        DeviceConfigPendingRepository pendingConfig,
+        CommandAckRepository commandAcks,
+        GatewayRegistry registry
+    ) {
+        this.repository = repository;
+        this.properties = properties;
+        this.configCommands = configCommands;
+        this.pendingConfig = pendingConfig;
+        this.commandAcks = commandAcks;
+        this.registry = registry;
+    }
+
+    @Transactional
+    public OutboundMessage enqueue(SendMessageRequest request, GatewayRequestOptions options, String source, Long deviceId) {
+        return enqueueAll(List.of(request), options, source, deviceId).get(0);
+    }
+
+    @Transactional
+    public List<OutboundMessage> enqueueAll(
+        List<SendMessageRequest> requests,
+        GatewayRequestOptions options,
+        String source,
+        Long deviceId
+    ) {
+        Instant now = Instant.now();
+        GatewayRequestOptions stored = registry.forStorage(options);
+        List<OutboundMessage> messages = new ArrayList<>(requests.size());
+        for (SendMessageRequest request : requests) {
+            messages.add(newMessage(request, stored, source, deviceId, now));
+        }
+        return repository.saveAll(messages);
+    }
+
+    /**
+     * Enqueues {@code requests} already claimed under {@code claimToken}, so the caller can deliver
+     * them itself while the dispatcher skips them. A recipient that still has an earlier
+     * pending or in-flight message is left {@code PENDING} for the dispatcher to keep its order.
+     */
+    @Transactional
+    public List<OutboundMessage> enqueueClaimed(
+        List<SendMessageRequest> requests,
+        GatewayRequestOptions options,
+        String source,
+        String claimToken
+    ) {
+        Instant now = Instant.now();
+        GatewayRequestOptions stored = registry.forStorage(options);
+        Set<String> busy = new HashSet<>(repository.findBusyRecipients(
+            requests.stream().map(request -> request.to().trim()).collect(Collectors.toSet())
+        ));
+
+        List<OutboundMessage> messages = new ArrayList<>(requests.size());
+        for (SendMessageRequest request : requests) {
+            OutboundMessage message = newMessage(request, stored, source, null, now);
+            if (!busy.contains(message.getToNumber())) {
+                message.setStatus(OutboundMessageStatus.SENDING);
+                message.setClaimToken(claimToken);
+                message.setClaimedAt(now);
+            }
+            messages.add(message);
+        }
+        return repository.saveAll(messages);
+    }
+
+    @Transactional(readOnly = true)
+    public OutboundMessageResponse getMessage(Long id) {
+        return repository.findById(id)
+            .map(OutboxService::toResponse)
+            .orElseThrow(() -> new IllegalArgumentException("Outbound message not found."));
+    }
+
+    @Transactional
+    public List<OutboundMessage> claimBatch(int batchSize) {
+        Instant now = Instant.now();
+        List<Long> ids = repository.findDispatchableIds(now, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        String claimToken = UUID.randomUUID().toString();
+        if (repository.claim(ids, claimToken, now) == 0) {
+            return List.of();
+        }
+        return repository.findByClaimTokenOrderByIdAsc(claimToken);
+    }
+
+    @Transactional
+    public int releaseStaleClaims() {
+        return repository.releaseStaleClaims(Instant.now().minus(properties.claimTimeout()));
+    }
+
+    /**
+     * Restarts the claim timeout of {@code message} right before it is sent, so a message that
+     * waited in a sender's queue is not released to the dispatcher mid-send. Returns false, with
+     * {@code message} left {@code PENDING}, when the claim already expired: the dispatcher owns the
+     * row now and the caller must not send it.
+     */
+    @Transactional
+    public boolean renewClaim(OutboundMessage message) {
+        if (repository.renewClaim(message.getId(), message.getClaimToken(), Instant.now()) == 0) {
+            message.setStatus(OutboundMessageStatus.PENDING);
+            message.setClaimToken(null);
+            return false;
+        }
+        return true;
+    }
+
+    @Transactional
+    public void markSent(OutboundMessage message, GatewayRoute route) {
+        Instant now = Instant.now();
+        boolean recorded = finish(
+            message,
+            OutboundMessageStatus.SENT,
+            message.getAttempts() + 1,
+            now,
+            message.getNextAttemptAt(),
+            now,
+            route.describe(),
+            null
+        );
+        if (recorded && SOURCE_CONFIG.equals(message.getSource())) {
+            configCommands.applyPending(message.getId(), now);
+            pendingConfig.deleteByMessageId(message.getId());
+            // The reply window opens when the gateway takes the SMS, not when it was queued.
+            commandAcks.markSent(message.getId(), now);
+        }
+    }
+
+    @Transactional
+    public void markFailed(OutboundMessage message, Throwable error) {
+        Instant now = Instant.now();
+        if (error instanceof GatewayCircuitOpenException circuitOpen) {
+            defer(message, now.plus(circuitOpen.getRetryAfter()), error.getMessage());
+            return;
+        }
+        if (error instanceof GatewayBulkheadFullException bulkheadFull) {
+            defer(message, now.plus(bulkheadFull.getRetryAfter()), error.getMessage());
+            return;
+        }
+        if (error instanceof GatewayRateLimitedException rateLimited) {
+            defer(message, now.plus(rateLimited.getRetryAfter()), error.getMessage());
+            return;
+        }
+
+        int attempts = message.getAttempts() + 1;
+        String lastError = truncate(error.getMessage());
+        if (isRetryable(error) && attempts < properties.maxAttempts()) {
+            finish(message, OutboundMessageStatus.PENDING, attempts, now, now.plus(backoff(attempts)), null, message.getSentVia(), lastError);
+            return;
+        }
+
+        boolean recorded = finish(
+            message, OutboundMessageStatus.FAILED, attempts, now, message.getNextAttemptAt(), null, message.getSentVia(), lastError
+        );
+        if (recorded && SOURCE_CONFIG.equals(message.getSource())) {
+            if (error instanceof GatewayNoAnswerException) {
+                // The phone may have sent it: the device's settings are unknown until pushed again,
+                // and a reply may still ack the commands.
+                configCommands.forgetPending(message.getId());
+                commandAcks.markSent(message.getId(), now);
+            } else {
+                commandAcks.markUndelivered(message.getId(), now, lastError);
+            }
+            pendingConfig.deleteByMessageId(message.getId());
+        }
+    }
+
+    /**
+     * Hands a claimed message back to the dispatcher untouched.
+     */
+    @Transactional
+    public void release(OutboundMessage message) {
+        defer(message, Instant.now(), message.getLastError());
+    }
+
+    @Transactional(readOnly = true)
+    public long pendingCount() {
+        return repository.countByStatus(OutboundMessageStatus.PENDING);
+    }
+
+    public static GatewayRequestOptions gatewayOptions(OutboundMessage message) {
+        return new GatewayRequestOptions(message.getGatewayBaseUrl(), null, message.getGatewayId());
+    }
+
+    public static OutboundMessageResponse toResponse(OutboundMessage message) {
+        return new OutboundMessageResponse(
+            message.getId(),
+            message.getToNumber(),
+            message.getStatus().name(),
+            message.getAttempts(),
+            message.getLastError(),
+            message.getSentVia(),
+            message.getCreatedAt(),
+            message.getLastAttemptAt(),
+            message.getSentAt()
+        );
+    }
+
+    private static OutboundMessage newMessage(
+        SendMessageRequest request,
+        GatewayRequestOptions options,
+        String source,
+        Long deviceId,
+        Instant now
+    ) {
+        OutboundMessage message = new OutboundMessage();
+        message.setToNumber(request.to().trim());
+        message.setBody(request.message());
+        message.setSlot(request.slot());
+        // Already stripped by GatewayRegistry#forStorage: a gateway id or an address, never a token.
+        message.setGatewayId(options.gatewayId());
+        message.setGatewayBaseUrl(options.baseUrl());
+        message.setSource(source);
+        message.setDeviceId(deviceId);
+        message.setStatus(OutboundMessageStatus.PENDING);
+        message.setCreatedAt(now);
+        message.setNextAttemptAt(now);
+        return message;
+    }
+
+    private void defer(OutboundMessage message, Instant nextAttemptAt, String reason) {
+        finish(
+            message,
+            OutboundMessageStatus.PENDING,
+            message.getAttempts(),
+            message.getLastAttemptAt(),
+            nextAttemptAt,
+            null,
+            message.getSentVia(),
+            truncate(reason)
+        );
+    }
+
+    /**
+     * Writes a delivery outcome if {@code message} still holds its claim. A dispatcher whose claim
+     * expired while it waited on the phone loses to whoever reclaimed the row; its result is
+     * dropped and {@code message} is left as it was.
+     */
+    private boolean finish(
+        OutboundMessage message,
+        OutboundMessageStatus status,
+        int attempts,
+        Instant lastAttemptAt,
+        Instant nextAttemptAt,
+        Instant sentAt,
+        String sentVia,
+        String lastError
+    ) {
+        int updated = repository.finishClaim(
+            message.getId(),
+            message.getClaimToken(),
+            status,
+            attempts,
+            lastAttemptAt,
+            nextAttemptAt,
+            sentAt,
+            sentVia,
+            lastError
+        );
+        if (updated == 0) {
+            log.warn("Outbound message {} is no longer claimed by this sender; dropping its {} result",
+                message.getId(), status);
+            return false;
+        }
+        message.setStatus(status);
+        message.setAttempts(attempts);
+        message.setLastAttemptAt(lastAttemptAt);
+        message.setNextAttemptAt(nextAttemptAt);
+        message.setSentAt(sentAt);
+        message.setSentVia(sentVia);
+        message.setLastError(lastError);
+        message.setClaimToken(null);
+        return true;
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = properties.retryBackoff().multipliedBy(1L << Math.min(attempts - 1, 16));
+        return delay.compareTo(properties.maxRetryBackoff()) > 0 ? properties.maxRetryBackoff() : delay;
+    }
+
+    /**
+     * Only failures that cannot have put an SMS on the air are retried. A send the phone may have
+     * taken without answering is failed for an operator to check rather than sent twice.
+     */
+    private boolean isRetryable(Throwable error) {
+        if (error instanceof IllegalArgumentException || error instanceof GatewayNoAnswerException) {
+            return false;
+        }
+        if (error instanceof GatewayClientException gatewayError) {
+            int status = gatewayError.getStatusCode();
+            return status >= 500 || status == 408 || status == 429;
+        }
+        return true;
+    }
+
+    private String truncate(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.length() > MAX_ERROR_LENGTH ? value.substring(0, MAX_ERROR_LENGTH) : value;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.smsbackend.service;
+
+import java.util.Locale;
+
+public final class PhoneNumbers {
+
+    /**
+     * Shortest digit suffix accepted as the same number, as in the gateway app's sender filter.
+     */
+    public static final int MIN_SUFFIX_MATCH_LENGTH = 7;
+
+    /**
+     * Trailing digits kept by {@link #key}; enough to tell subscribers apart, few enough that a
+     * national ({@code 0997...}) and an international ({@code +63997...}) form agree.
+     */
+    public static final int KEY_LENGTH = 10;
+
+    private PhoneNumbers() {
+    }
+
+    /**
+     * The last {@link #KEY_LENGTH} digits of {@code phone}, or all of them for a shorter number; an
+     * exact-match key for indexing numbers that {@link #matches} would treat as the same.
+     */
+    public static String key(String phone) {
+        String digits = normalize(phone);
+        return digits.length() > KEY_LENGTH ? digits.substring(digits.length() - KEY_LENGTH) : digits;
+    }
+
+    /**
+     * Digits only, so "+63 997-307-9369" and "639973079369" compare equal.
+     */
+    public static String normalize(String phone) {
+        if (phone == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    /**
+     * Same rule as the phone's {@code GET /messages?phone=} filter: text queries match alphanumeric
+     * senders by substring, numbers match on equal digits or a shared suffix of at least
+     * {@link #MIN_SUFFIX_MATCH_LENGTH} digits.
+     */
+    public static boolean matches(String sender, String query) {
+        if (query == null || query.isBlank()) {
+            return true;
+        }
+        if (sender == null || sender.isBlank()) {
+            return false;
+        }
+
+        String trimmedQuery = query.trim();
+        if (trimmedQuery.chars().anyMatch(Character::isLetter)) {
+            return sender.toLowerCase(Locale.ROOT).contains(trimmedQuery.toLowerCase(Locale.ROOT));
+        }
+
+        String senderDigits = normalize(sender);
+        String queryDigits = normalize(trimmedQuery);
+        if (senderDigits.isEmpty() || queryDigits.isEmpty()) {
+            return false;
+        }
+        if (senderDigits.equals(queryDigits)) {
+            return true;
+        }
+        return Math.min(senderDigits.length(), queryDigits.length()) >= MIN_SUFFIX_MATCH_LENGTH
+            && (senderDigits.endsWith(queryDigits) || queryDigits.endsWith(senderDigits));
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.GatewayTransportProperties;
+import com.example.smsbackend.dto.GatewayPoolStats;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Keeps one bounded keep-alive connection pool per gateway origin, so repeated sends to the same
+ * phone reuse an open TCP connection. Pools for ad-hoc {@code X-Gateway-Base-Url} overrides are
+ * capped by {@code gateway.transport.max-pools}; the least recently used pool is closed first, but
+ * only once it has been handed out to no one for {@code idle-eviction} and holds no connection, so
+ * a caller that has just been given a client cannot find it shut down. Pools of registered
+ * gateways are never closed to make room.
+ * Connect and read timeouts are looked up from {@link GatewayTimeouts} on every connect and request.
+ */
+@Component
+@ConditionalOnProperty(prefix = "gateway.transport", name = "type", havingValue = "pooled", matchIfMissing = true)
+public class PooledGatewayTransport implements GatewayTransport, DisposableBean {
+
+    private final GatewayTransportProperties properties;
+    private final GatewayTimeouts timeouts;
+    private final GatewayRegistry registry;
+    private final Map<String, GatewayPool> pools = new LinkedHashMap<>(16, 0.75f, true);
+    private final ScheduledExecutorService evictor;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public PooledGatewayTransport(
+        GatewayTransportProperties properties,
+        GatewayTimeouts timeouts,
+        GatewayRegistry registry
+    ) {
+        this(properties, timeouts, registry, System::nanoTime);
+    }
+
+    PooledGatewayTransport(
+        GatewayTransportProperties properties,
+        GatewayTimeouts timeouts,
+        GatewayRegistry registry,
+        LongSupplier nanoClock
+    ) {
+        this.properties = properties;
+        this.timeouts = timeouts;
+        this.registry = registry;
+        this.nanoClock = nanoClock;
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gateway-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long sweepMs = Math.max(1000L, properties.idleEviction().toMillis() / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdleConnections, sweepMs, sweepMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public RestTemplate restTemplate(String baseUrl) {
+        String key = GatewayOrigins.of(baseUrl);
+        synchronized (pools) {
+            GatewayPool pool = pools.get(key);
+            if (pool == null) {
+                pool = createPool(key);
+                pools.put(key, pool);
+                evictExcessPools();
+            }
+            pool.lastHandedOutNanos = nanoClock.getAsLong();
+            return pool.restTemplate;
+        }
+    }
+
+    @Override
+    public String type() {
+        return "pooled";
+    }
+
+    @Override
+    public List<GatewayPoolStats> poolStats() {
+        List<GatewayPoolStats> stats = new ArrayList<>();
+        synchronized (pools) {
+            for (Map.Entry<String, GatewayPool> entry : pools.entrySet()) {
+                PoolStats total = entry.getValue().connectionManager.getTotalStats();
+                stats.add(new GatewayPoolStats(
+                    entry.getKey(),
+                    total.getLeased(),
+                    total.getAvailable(),
+                    total.getPending(),
+                    total.getMax()
+                ));
+            }
+        }
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        evictor.shutdownNow();
+        synchronized (pools) {
+            pools.values().forEach(pool -> pool.close(CloseMode.GRACEFUL));
+            pools.clear();
+        }
+    }
+
+    private GatewayPool createPool(String key) {
+        int maxConnections = properties.maxConnectionsPerGateway();
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnections)
+            .build();
+        connectionManager.setConnectionConfigResolver(route -> ConnectionConfig.custom()
+            .setConnectTimeout(Timeout.of(timeouts.connectTimeout(key)))
+            .setSocketTimeout(Timeout.of(timeouts.readTimeout(key)))
+            .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+            .build());
+
+        TimeValue keepAlive = TimeValue.of(properties.keepAlive());
+        CloseableHttpClient httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setKeepAliveStrategy((response, context) -> keepAlive)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(properties.connectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(properties.readTimeout()))
+                .build())
+            .disableAutomaticRetries()
+            .build();
+
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setHttpContextFactory((method, uri) -> {
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(properties.connectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(timeouts.readTimeout(key)))
+                .build());
+            return context;
+        });
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        return new GatewayPool(connectionManager, httpClient, restTemplate, nanoClock.getAsLong());
+    }
+
+    private void evictExcessPools() {
+        long now = nanoClock.getAsLong();
+        long idleNanos = properties.idleEviction().toNanos();
+        Iterator<Map.Entry<String, GatewayPool>> iterator = pools.entrySet().iterator();
+        while (pools.size() > properties.maxPools() && iterator.hasNext()) {
+            Map.Entry<String, GatewayPool> entry = iterator.next();
+            if (registry.isRegistered(entry.getKey())) {
+                continue;
+            }
+            GatewayPool candidate = entry.getValue();
+            if (now - candidate.lastHandedOutNanos < idleNanos) {
+                // Handed out recently; the caller may not have leased its connection yet.
+                continue;
+            }
+            PoolStats total = candidate.connectionManager.getTotalStats();
+            if (total.getLeased() == 0 && total.getPending() == 0) {
+                iterator.remove();
+                candidate.close(CloseMode.GRACEFUL);
+            }
+        }
+    }
+
+    private void evictIdleConnections() {
+        TimeValue idle = TimeValue.of(properties.idleEviction());
+        synchronized (pools) {
+            for (GatewayPool pool : pools.values()) {
+                pool.connectionManager.closeExpired();
+                pool.connectionManager.closeIdle(idle);
+            }
+        }
+    }
+
+    private static final class GatewayPool {
+
+        private final PoolingHttpClientConnectionManager connectionManager;
+        private final CloseableHttpClient httpClient;
+        private final RestTemplate restTemplate;
+        // Guarded by the pools lock.
+        private long lastHandedOutNanos;
+
+        GatewayPool(
+            PoolingHttpClientConnectionManager connectionManager,
+            CloseableHttpClient httpClient,
+            RestTemplate restTemplate,
+            long createdNanos
+        ) {
+            this.connectionManager = connectionManager;
+            this.httpClient = httpClient;
+            this.restTemplate = restTemplate;
+            this.lastHandedOutNanos = createdNanos;
+        }
+
+        void close(CloseMode mode) {
+            httpClient.close(mode);
+            connectionManager.close(mode);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import java.util.List;
+
+public record RegisteredGateway(
+    Long id,
+    String name,
+    String baseUrl,
+    String token,
+    List<Integer> slots,
+    Long locationId,
+    boolean enabled
+) {
+    public GatewayRequestOptions options() {
+        return new GatewayRequestOptions(baseUrl, token, id);
+    }
+}
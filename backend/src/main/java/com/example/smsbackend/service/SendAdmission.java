@@ -0,0 +1,114 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.CoalescingProperties;
+import com.example.smsbackend.config.GatewayRateLimitProperties;
+import com.example.smsbackend.config.OutboxProperties;
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import com.example.smsbackend.repository.OutboundMessageRepository;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Turns sends away with {@code 429} while the outbox is backed up, so clients slow down instead
+ * of finding out through timeouts. Pending messages are counted per target (a registered gateway,
+ * an {@code X-Gateway-Base-Url}, or default routing) from a snapshot taken at most once per
+ * {@code coalescing.ttl}. {@code Retry-After} is how long the target's send rate needs to drain
+ * the excess.
+ */
+@Component
+public class SendAdmission {
+
+    static final String DEFAULT_TARGET = "default routing";
+
+    private final OutboxProperties outboxProperties;
+    private final GatewayRateLimitProperties rateLimitProperties;
+    private final OutboundMessageRepository repository;
+    private final GatewayRouter router;
+    private final SingleFlightCache<String, Map<String, Long>> depths;
+
+    public SendAdmission(
+        OutboxProperties outboxProperties,
+        GatewayRateLimitProperties rateLimitProperties,
+        CoalescingProperties coalescingProperties,
+        OutboundMessageRepository repository,
+        GatewayRouter router
+    ) {
+        this.outboxProperties = outboxProperties;
+        this.rateLimitProperties = rateLimitProperties;
+        this.repository = repository;
+        this.router = router;
+        this.depths = new SingleFlightCache<>("outbox-depth", coalescingProperties);
+    }
+
+    /**
+     * Throws {@link SendQueueFullException} when queueing {@code messages} more for the gateway
+     * these options target would exceed {@code outbox.backpressure.max-queue-per-gateway}, or the
+     * whole outbox would exceed {@code max-queue}.
+     */
+    public void admit(GatewayRequestOptions options, int messages) {
+        OutboxProperties.Backpressure properties = outboxProperties.backpressure();
+        if (!properties.enabled() || messages < 1) {
+            return;
+        }
+
+        Map<String, Long> pending = depths.get("pending", this::loadDepths);
+        String target = target(options);
+        long queued = pending.getOrDefault(target, 0L);
+        long total = pending.values().stream().mapToLong(Long::longValue).sum();
+
+        long gatewayExcess = queued + messages - properties.maxQueuePerGateway();
+        long totalExcess = total + messages - properties.maxQueue();
+        if (gatewayExcess > 0) {
+            throw new SendQueueFullException(target, retryAfter(gatewayExcess, drainRate(target)), queued + 1, queued);
+        }
+        if (totalExcess > 0) {
+            double fleetRate = baseRate() * Math.max(router.configuredGateways().size(), pending.size());
+            throw new SendQueueFullException("all gateways", retryAfter(totalExcess, fleetRate), total + 1, total);
+        }
+    }
+
+    Duration retryAfter(long excess, double messagesPerSecond) {
+        long seconds = (long) Math.ceil(excess / messagesPerSecond);
+        Duration max = outboxProperties.backpressure().maxRetryAfter();
+        return seconds >= max.toSeconds() ? max : Duration.ofSeconds(Math.max(1, seconds));
+    }
+
+    /**
+     * Messages per second one target can send: its rate limit, or the dispatcher's ceiling when
+     * sends are not rate limited. Default routing spreads over every configured gateway.
+     */
+    double drainRate(String target) {
+        return DEFAULT_TARGET.equals(target) ? baseRate() * Math.max(1, router.configuredGateways().size()) : baseRate();
+    }
+
+    private double baseRate() {
+        return rateLimitProperties.enabled()
+            ? rateLimitProperties.permitsPerSecond()
+            : outboxProperties.batchSize() * 1000.0 / outboxProperties.pollInterval().toMillis();
+    }
+
+    static String target(GatewayRequestOptions options) {
+        if (options != null && options.gatewayId() != null) {
+            return target(options.gatewayId(), null);
+        }
+        return target(null, options != null ? options.baseUrl() : null);
+    }
+
+    private static String target(Long gatewayId, String baseUrl) {
+        if (gatewayId != null) {
+            return "gateway " + gatewayId;
+        }
+        return StringUtils.hasText(baseUrl) ? GatewayOrigins.of(baseUrl.trim()) : DEFAULT_TARGET;
+    }
+
+    private Map<String, Long> loadDepths() {
+        Map<String, Long> pending = new HashMap<>();
+        for (Object[] row : repository.countPendingByGateway()) {
+            pending.merge(target((Long) row[0], (String) row[1]), (Long) row[2], Long::sum);
+        }
+        return pending;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.smsbackend.service;
+
+import java.time.Duration;
+
+public class SendQueueFullException extends RuntimeException {
+
+    private final Duration retryAfter;
+    private final long queuePosition;
+    private final long queueDepth;
+
+    public SendQueueFullException(String target, Duration retryAfter, long queuePosition, long queueDepth) {
+        super(
+            "Send queue for " + target + " is full (" + queueDepth + " messages pending); retry in "
+                + Math.max(1, retryAfter.toSeconds()) + "s"
+        );
+        this.retryAfter = retryAfter;
+        this.queuePosition = queuePosition;
+        this.queueDepth = queueDepth;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public long getQueuePosition() {
+        return queuePosition;
+    }
+
+    public long getQueueDepth() {
+        return queueDepth;
+    }
+}
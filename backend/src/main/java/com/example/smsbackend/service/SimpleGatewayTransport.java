@@ -0,0 +1,52 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.GatewayTransportProperties;
+import com.example.smsbackend.dto.GatewayPoolStats;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Opens a fresh {@code HttpURLConnection} per call. Kept for gateways that misbehave with keep-alive.
+ * Timeouts come from {@link GatewayTimeouts} for the connection's gateway.
+ */
+@Component
+@ConditionalOnProperty(prefix = "gateway.transport", name = "type", havingValue = "simple")
+public class SimpleGatewayTransport implements GatewayTransport {
+
+    private final RestTemplate restTemplate;
+
+    public SimpleGatewayTransport(GatewayTransportProperties properties, GatewayTimeouts timeouts) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory() {
+            @Override
+            protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+                super.prepareConnection(connection, httpMethod);
+                String baseUrl = connection.getURL().toString();
+                connection.setConnectTimeout((int) timeouts.connectTimeout(baseUrl).toMillis());
+                connection.setReadTimeout((int) timeouts.readTimeout(baseUrl).toMillis());
+            }
+        };
+        requestFactory.setConnectTimeout(properties.connectTimeout());
+        requestFactory.setReadTimeout(properties.readTimeout());
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    @Override
+    public RestTemplate restTemplate(String baseUrl) {
+        return restTemplate;
+    }
+
+    @Override
+    public String type() {
+        return "simple";
+    }
+
+    @Override
+    public List<GatewayPoolStats> poolStats() {
+        return List.of();
+    }
+}
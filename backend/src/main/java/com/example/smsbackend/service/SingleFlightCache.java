@@ -0,0 +1,137 @@
+package com.example.smsbackend.service;
+
+import com.example.smsbackend.config.CoalescingProperties;
+import com.example.smsbackend.dto.CoalescingStats;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight loader with a short TTL: concurrent calls for the same key wait on one load, and
+ * calls shortly after it completes reuse the result. Failures, errors included, are shared with the
+ * callers already waiting but never cached.
+ */
+public final class SingleFlightCache<K, V> {
+
+    private final String name;
+    private final CoalescingProperties properties;
+    private final LongSupplier nanoClock;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public SingleFlightCache(String name, CoalescingProperties properties) {
+        this(name, properties, System::nanoTime);
+    }
+
+    SingleFlightCache(String name, CoalescingProperties properties, LongSupplier nanoClock) {
+        this.name = name;
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        if (!properties.enabled()) {
+            return loader.get();
+        }
+        requests.incrementAndGet();
+
+        while (true) {
+            Entry<V> existing = entries.get(key);
+            if (existing != null) {
+                if (!existing.future.isDone()) {
+                    coalesced.incrementAndGet();
+                    return await(existing.future);
+                }
+                if (!isExpired(existing)) {
+                    hits.incrementAndGet();
+                    return await(existing.future);
+                }
+                entries.remove(key, existing);
+            }
+
+            Entry<V> entry = new Entry<>();
+            if (entries.putIfAbsent(key, entry) != null) {
+                continue;
+            }
+            return load(key, entry, loader);
+        }
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public CoalescingStats stats() {
+        return new CoalescingStats(
+            name,
+            requests.get(),
+            hits.get(),
+            coalesced.get(),
+            loads.get(),
+            failures.get(),
+            entries.size()
+        );
+    }
+
+    private V load(K key, Entry<V> entry, Supplier<V> loader) {
+        loads.incrementAndGet();
+        V value;
+        try {
+            value = loader.get();
+        } catch (Throwable e) {
+            // Anything short of completing the future would leave the waiters blocked for good.
+            failures.incrementAndGet();
+            entries.remove(key, entry);
+            entry.future.completeExceptionally(e);
+            throw e;
+        }
+
+        entry.loadedAtNanos = nanoClock.getAsLong();
+        entry.future.complete(value);
+        if (properties.ttl().isZero() || entries.size() > properties.maxEntries() && !evictExpired()) {
+            entries.remove(key, entry);
+        }
+        return value;
+    }
+
+    /**
+     * Drops expired entries; returns whether that brought the cache back under its size limit.
+     */
+    private boolean evictExpired() {
+        entries.values().removeIf(entry -> entry.future.isDone() && isExpired(entry));
+        return entries.size() <= properties.maxEntries();
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return nanoClock.getAsLong() - entry.loadedAtNanos >= properties.ttl().toNanos();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry<V> {
+
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private volatile long loadedAtNanos;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.smsbackend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts the SMS segments a message body occupies on the air. Text that fits the GSM 03.38 default
+ * alphabet is sent as 7-bit septets (160 per single SMS, 153 per concatenated part, extension-table
+ * characters costing two); anything else forces UCS-2 (70 per single SMS, 67 per part). Also packs
+ * whole commands into as few SMS as possible with {@link #pack}.
+ */
+public final class SmsSegments {
+
+    public enum Encoding {
+        GSM7,
+        UCS2
+    }
+
+    static final int GSM7_SINGLE = 160;
+    static final int GSM7_MULTIPART = 153;
+    static final int UCS2_SINGLE = 70;
+    static final int UCS2_MULTIPART = 67;
+
+    private static final String GSM7_BASIC =
+        "@£$¥èéùìòÇ\nØø\rÅåΔ_ΦΓΛΩΠΨΣΘΞÆæßÉ !\"#¤%&'()*+,-./0123456789:;<=>?"
+            + "¡ABCDEFGHIJKLMNOPQRSTUVWXYZÄÖÑÜ§¿abcdefghijklmnopqrstuvwxyzäöñüà";
+    private static final String GSM7_EXTENSION = "\f^{}\\[~]|€";
+
+    /** Septets per character below {@code €}, the highest GSM 03.38 code point; 0 means UCS-2 only. */
+    private static final byte[] SEPTET_COST = new byte['€' + 1];
+
+    static {
+        for (int i = 0; i < GSM7_BASIC.length(); i++) {
+            SEPTET_COST[GSM7_BASIC.charAt(i)] = 1;
+        }
+        for (int i = 0; i < GSM7_EXTENSION.length(); i++) {
+            SEPTET_COST[GSM7_EXTENSION.charAt(i)] = 2;
+        }
+    }
+
+    private SmsSegments() {
+    }
+
+    public static Encoding encoding(String text) {
+        return septets(text) >= 0 ? Encoding.GSM7 : Encoding.UCS2;
+    }
+
+    public static int count(String text) {
+        if (text == null || text.isEmpty()) {
+            return 1;
+        }
+        int septets = septets(text);
+        if (septets >= 0) {
+            return septets <= GSM7_SINGLE ? 1 : ceilDiv(septets, GSM7_MULTIPART);
+        }
+        int units = text.length();
+        return units <= UCS2_SINGLE ? 1 : ceilDiv(units, UCS2_MULTIPART);
+    }
+
+    /**
+     * Septets needed to send {@code text} in the GSM 7-bit alphabet, or -1 when it needs UCS-2.
+     */
+    static int septets(String text) {
+        if (text == null) {
+            return 0;
+        }
+        int septets = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int cost = c < SEPTET_COST.length ? SEPTET_COST[c] : 0;
+            if (cost == 0) {
+                return -1;
+            }
+            septets += cost;
+        }
+        return septets;
+    }
+
+    /**
+     * Joins {@code parts} with {@code separator} into bodies of at most {@code maxSegments} SMS
+     * each, never splitting a part. Parts keep their order and each body is filled while the next
+     * part still fits under the body's own encoding. Any run of parts cut from a body that fits
+     * fits as well, so filling greedily gives the fewest bodies.
+     *
+     * @throws IllegalArgumentException if a part does not fit in a body on its own
+     */
+    public static List<String> pack(List<String> parts, String separator, int maxSegments) {
+        int gsmCapacity = maxSegments <= 1 ? GSM7_SINGLE : GSM7_MULTIPART * maxSegments;
+        int ucsCapacity = maxSegments <= 1 ? UCS2_SINGLE : UCS2_MULTIPART * maxSegments;
+        int separatorSeptets = septets(separator);
+        int separatorUnits = separator.length();
+
+        List<String> bodies = new ArrayList<>();
+        StringBuilder body = new StringBuilder();
+        int septets = 0;
+        int units = 0;
+        boolean gsm = true;
+        for (String part : parts) {
+            int partSeptets = septets(part);
+            boolean partGsm = partSeptets >= 0;
+            if (partGsm ? partSeptets > gsmCapacity : part.length() > ucsCapacity) {
+                throw new IllegalArgumentException(
+                    "Command does not fit in " + maxSegments + " SMS: " + part
+                );
+            }
+
+            if (body.length() > 0) {
+                boolean joinedGsm = gsm && partGsm && separatorSeptets >= 0;
+                boolean fits = joinedGsm
+                    ? septets + separatorSeptets + partSeptets <= gsmCapacity
+                    : units + separatorUnits + part.length() <= ucsCapacity;
+                if (fits) {
+                    body.append(separator).append(part);
+                    septets += separatorSeptets + partSeptets;
+                    units += separatorUnits + part.length();
+                    gsm = joinedGsm;
+                    continue;
+                }
+                bodies.add(body.toString());
+                body.setLength(0);
+            }
+            body.append(part);
+            septets = partSeptets;
+            units = part.length();
+            gsm = partGsm;
+        }
+        if (body.length() > 0) {
+            bodies.add(body.toString());
+        }
+        return bodies;
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
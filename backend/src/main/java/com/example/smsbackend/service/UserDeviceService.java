@@ -61,14 +61,14 @@ public class UserDeviceService {
             throw new IllegalArgumentException("User not found.");
         }
         return deviceRepository.findByUserIdOrderByNameAsc(userId).stream()
-            .map(this::toDeviceResponse)
+            .map(UserDeviceService::toDeviceResponse)
             .toList();
     }
 
     @Transactional(readOnly = true)
     public List<DeviceResponse> listDevicesByLocation(Long locationId) {
         return deviceRepository.findByUserLocationId(locationId).stream()
-            .map(this::toDeviceResponse)
+            .map(UserDeviceService::toDeviceResponse)
             .toList();
     }
 
@@ -78,12 +78,13 @@ public class UserDeviceService {
             .orElseThrow(() -> new IllegalArgumentException("Device not found."));
     }
 
-    private DeviceResponse toDeviceResponse(Device device) {
+    static DeviceResponse toDeviceResponse(Device device) {
         return new DeviceResponse(
             device.getId(),
             device.getUser().getId(),
             device.getName(),
-            device.getPhoneNumber()
+            device.getPhoneNumber(),
+            device.getGateway() != null ? device.getGateway().getId() : null
         );
     }
 }
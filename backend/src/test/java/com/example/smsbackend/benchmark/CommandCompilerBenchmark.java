@@ -0,0 +1,208 @@
+package com.example.smsbackend.benchmark;
+
+import com.example.smsbackend.dto.SendConfigRequest;
+import com.example.smsbackend.service.DeviceCommandService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.StringUtils;
+
+/**
+ * Compares the original {@code buildCommands} if-chain, kept here verbatim, with the compiled
+ * command table on a fully filled EV12 form. Run with {@code -prof gc} to see bytes allocated per
+ * call; see API_CALLS.md.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandCompilerBenchmark {
+
+    private final DeviceCommandService service = new DeviceCommandService();
+    private SendConfigRequest request;
+
+    @Setup
+    public void setUp() throws IOException {
+        request = new ObjectMapper().readValue("""
+            {"deviceId": 1, "contactNumber": "+639973079369", "contactSlot": 2, "contactName": "Mama",
+             "smsPassword": "123456", "smsWhitelistEnabled": true, "requestGpsLocation": true, "wifiEnabled": true,
+             "bluetoothEnabled": true, "micVolume": 8, "speakerVolume": 90, "vibrationEnabled": true,
+             "beepEnabled": true, "prefixEnabled": true, "prefixName": "Lola", "sosMode": 1, "sosActionTime": 20,
+             "sosCallRingTime": "20", "sosCallTalkTime": "60", "fallDownEnabled": true, "fallDownSensitivity": 5,
+             "fallDownCall": true, "noMotionEnabled": true, "noMotionTime": "60M", "noMotionCall": true,
+             "motionEnabled": true, "motionStaticTime": "5M", "motionDurationTime": "10S", "motionCall": true,
+             "overSpeedEnabled": true, "overSpeedLimit": "120", "geoFenceEnabled": true, "geoFenceMode": 0,
+             "geoFenceRadius": "200M", "apnEnabled": true, "apn": "internet.globe.com.ph", "serverEnabled": true,
+             "serverHost": "gps.example.com", "serverPort": 5001, "gprsEnabled": true, "workingMode": "mode2",
+             "workingModeInterval": "300S", "workingModeNoMotionInterval": "3600S", "continuousLocateInterval": "10S",
+             "continuousLocateDuration": "600S", "timeZone": "+8", "heartRateEnabled": true, "heartRateInterval": "30M",
+             "stepDetectionEnabled": true, "stepDetectionInterval": "60M", "checkStatus": true}
+            """, SendConfigRequest.class);
+    }
+
+    @Benchmark
+    public List<String> ifChain() {
+        return legacyBuildCommands(request);
+    }
+
+    @Benchmark
+    public List<String> commandTable() {
+        return service.buildCommands(request);
+    }
+
+    private static List<String> legacyBuildCommands(SendConfigRequest request) {
+        List<String> commands = new ArrayList<>();
+
+        if (StringUtils.hasText(request.contactNumber())) {
+            int slot = request.contactSlot() != null ? request.contactSlot() : 1;
+            int sms = request.contactSmsEnabled() == null || request.contactSmsEnabled() ? 1 : 0;
+            int call = request.contactCallEnabled() == null || request.contactCallEnabled() ? 1 : 0;
+            String base = "A" + slot + "," + sms + "," + call + "," + request.contactNumber().trim();
+            if (StringUtils.hasText(request.contactName())) {
+                base += "," + request.contactName().trim();
+            }
+            commands.add(base);
+        }
+        if (StringUtils.hasText(request.smsPassword())) {
+            commands.add("P" + request.smsPassword().trim());
+        }
+        if (request.smsWhitelistEnabled() != null) {
+            commands.add("sms" + (request.smsWhitelistEnabled() ? 1 : 0));
+        }
+        if (Boolean.TRUE.equals(request.requestLocation())) {
+            commands.add("loc");
+        }
+        if (Boolean.TRUE.equals(request.requestGpsLocation())) {
+            commands.add("loc,gps");
+        }
+        if (Boolean.TRUE.equals(request.requestLbsLocation())) {
+            commands.add("LBS1");
+        }
+        if (request.sosMode() != null && request.sosActionTime() != null) {
+            commands.add("SOS" + request.sosMode() + "," + request.sosActionTime());
+        }
+        if (StringUtils.hasText(request.sosCallRingTime()) && StringUtils.hasText(request.sosCallTalkTime())) {
+            commands.add("soscall" + request.sosCallRingTime().trim() + "," + request.sosCallTalkTime().trim());
+        }
+        if (request.wifiEnabled() != null) {
+            commands.add("Wifi" + (request.wifiEnabled() ? 1 : 0));
+        }
+        if (request.bluetoothEnabled() != null) {
+            commands.add("BLE" + (request.bluetoothEnabled() ? 1 : 0));
+        }
+        if (request.micVolume() != null) {
+            commands.add("Micvolume" + request.micVolume());
+        }
+        if (request.speakerVolume() != null) {
+            commands.add("Speakervolume" + request.speakerVolume());
+        }
+        if (request.vibrationEnabled() != null) {
+            commands.add("Vibrate" + (request.vibrationEnabled() ? 1 : 0));
+        }
+        if (request.beepEnabled() != null) {
+            commands.add("Beep" + (request.beepEnabled() ? 1 : 0));
+        }
+        if (request.prefixEnabled() != null && StringUtils.hasText(request.prefixName())) {
+            commands.add("prefix" + (request.prefixEnabled() ? 1 : 0) + "," + request.prefixName().trim());
+        }
+        if (Boolean.TRUE.equals(request.checkBattery())) {
+            commands.add("battery");
+        }
+        if (request.fallDownEnabled() != null && request.fallDownSensitivity() != null && request.fallDownCall() != null) {
+            commands.add("fl" + (request.fallDownEnabled() ? 1 : 0) + "," + request.fallDownSensitivity()
+                + "," + (request.fallDownCall() ? 1 : 0));
+        }
+        if (request.noMotionEnabled() != null && StringUtils.hasText(request.noMotionTime()) && request.noMotionCall() != null) {
+            commands.add("nmo" + (request.noMotionEnabled() ? 1 : 0) + "," + request.noMotionTime().trim()
+                + "," + (request.noMotionCall() ? 1 : 0));
+        }
+        if (request.motionEnabled() != null
+            && StringUtils.hasText(request.motionStaticTime())
+            && StringUtils.hasText(request.motionDurationTime())
+            && request.motionCall() != null) {
+            commands.add("mo" + (request.motionEnabled() ? 1 : 0)
+                + "," + request.motionStaticTime().trim()
+                + "," + request.motionDurationTime().trim()
+                + "," + (request.motionCall() ? 1 : 0));
+        }
+        if (request.overSpeedEnabled() != null && StringUtils.hasText(request.overSpeedLimit())) {
+            commands.add("Speed" + (request.overSpeedEnabled() ? 1 : 0) + "," + request.overSpeedLimit().trim());
+        }
+        if (request.geoFenceEnabled() != null && request.geoFenceMode() != null && StringUtils.hasText(request.geoFenceRadius())) {
+            commands.add("Geo1," + (request.geoFenceEnabled() ? 1 : 0) + "," + request.geoFenceMode() + "," + request.geoFenceRadius().trim());
+        }
+        if (request.apnEnabled() != null && StringUtils.hasText(request.apn())) {
+            commands.add("S" + (request.apnEnabled() ? 1 : 0) + "," + request.apn().trim());
+        }
+        if (request.serverEnabled() != null && StringUtils.hasText(request.serverHost()) && request.serverPort() != null) {
+            commands.add("IP" + (request.serverEnabled() ? 1 : 0) + "," + request.serverHost().trim() + "," + request.serverPort());
+        }
+        if (request.gprsEnabled() != null) {
+            commands.add("S" + (request.gprsEnabled() ? 2 : 0));
+        }
+
+        legacyWorkingMode(request, commands);
+
+        if (StringUtils.hasText(request.continuousLocateInterval()) && StringUtils.hasText(request.continuousLocateDuration())) {
+            commands.add("CL" + request.continuousLocateInterval().trim() + "," + request.continuousLocateDuration().trim());
+        }
+        if (StringUtils.hasText(request.timeZone())) {
+            commands.add("tz" + request.timeZone().trim());
+        }
+        if (Boolean.TRUE.equals(request.turnOffDevice())) {
+            commands.add("off");
+        }
+        if (Boolean.TRUE.equals(request.findMyDevice())) {
+            commands.add("findme");
+        }
+        if (request.heartRateEnabled() != null && StringUtils.hasText(request.heartRateInterval())) {
+            commands.add("hrs" + (request.heartRateEnabled() ? 1 : 0) + "," + request.heartRateInterval().trim());
+        }
+        if (request.stepDetectionEnabled() != null && StringUtils.hasText(request.stepDetectionInterval())) {
+            commands.add("detpedo" + (request.stepDetectionEnabled() ? 1 : 0) + "," + request.stepDetectionInterval().trim());
+        }
+        if (Boolean.TRUE.equals(request.checkStatus())) {
+            commands.add("status");
+        }
+
+        return commands;
+    }
+
+    private static void legacyWorkingMode(SendConfigRequest request, List<String> commands) {
+        if (!StringUtils.hasText(request.workingMode())) {
+            return;
+        }
+
+        String mode = request.workingMode().trim();
+        if ("mode1".equals(mode)) {
+            commands.add("mode1");
+            return;
+        }
+
+        if (("mode2".equals(mode) || "mode6".equals(mode))
+            && StringUtils.hasText(request.workingModeInterval())
+            && StringUtils.hasText(request.workingModeNoMotionInterval())) {
+            commands.add(mode + "," + request.workingModeInterval().trim() + "," + request.workingModeNoMotionInterval().trim());
+            return;
+        }
+
+        if (("mode3".equals(mode) || "mode4".equals(mode) || "mode5".equals(mode))
+            && StringUtils.hasText(request.workingModeInterval())) {
+            commands.add(mode + "," + request.workingModeInterval().trim());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.smsbackend.benchmark;
+
+import com.example.smsbackend.dto.GatewayReplyMessage;
+import com.example.smsbackend.service.GatewayReplyReader;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the old buffer-then-bind parse of {@code GET /messages} with {@link GatewayReplyReader}.
+ * Run with {@code -prof gc} to see bytes allocated per operation; see API_CALLS.md.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayReplyParsingBenchmark {
+
+    private static final TypeReference<List<GatewayReplyMessage>> REPLY_LIST = new TypeReference<>() {
+    };
+
+    @Param({"1000"})
+    private int messages;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<GatewayReplyMessage> replies = new ArrayList<>(messages);
+        for (int i = 0; i < messages; i++) {
+            replies.add(new GatewayReplyMessage(
+                i,
+                "+1555010" + String.format("%04d", i),
+                "Location update: lat=14.5995, lng=120.9842, battery=87%, seq=" + i,
+                1_700_000_000_000L + i * 1000L
+            ));
+        }
+        payload = objectMapper.writeValueAsBytes(replies);
+    }
+
+    @Benchmark
+    public void bufferedStringBind(Blackhole blackhole) throws IOException {
+        String body = new String(payload, StandardCharsets.UTF_8);
+        List<GatewayReplyMessage> replies = objectMapper.readValue(body, REPLY_LIST);
+        replies.forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public int streamingReader(Blackhole blackhole) throws IOException {
+        return GatewayReplyReader.read(new ByteArrayInputStream(payload), objectMapper.getFactory(), blackhole::consume);
+    }
+}
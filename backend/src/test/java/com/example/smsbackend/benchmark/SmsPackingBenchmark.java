@@ -0,0 +1,85 @@
+package com.example.smsbackend.benchmark;
+
+import com.example.smsbackend.service.SmsSegments;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the old fixed 150-character split of an EV12 config with {@link SmsSegments#pack}, and
+ * counts segments for a long body. The old split needs no encoding work but may cut commands;
+ * see API_CALLS.md.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmsPackingBenchmark {
+
+    @Param({"false", "true"})
+    private boolean unicodeContact;
+
+    private List<String> commands;
+    private String preview;
+
+    @Setup
+    public void setUp() {
+        commands = new ArrayList<>(List.of(
+            "A1,1,1,+639973079369," + (unicodeContact ? "Жанна" : "Mama"),
+            "P123456",
+            "sms1",
+            "SOS1,20",
+            "soscall20,60",
+            "Wifi1",
+            "BLE1",
+            "Micvolume8",
+            "Speakervolume90",
+            "fl1,5,1",
+            "nmo1,60M,0",
+            "Speed1,120",
+            "Geo1,1,0,200M",
+            "S1,internet.globe.com.ph",
+            "IP1,gps.example.com,5001",
+            "S2",
+            "mode2,300S,3600S",
+            "CL10S,600S",
+            "tz+8",
+            "hrs1,30M",
+            "detpedo1,60M",
+            "status"
+        ));
+        preview = String.join(",", commands);
+    }
+
+    @Benchmark
+    public List<String> fixedWidthSplit() {
+        List<String> chunks = new ArrayList<>();
+        for (int start = 0; start < preview.length(); start += 150) {
+            chunks.add(preview.substring(start, Math.min(preview.length(), start + 150)));
+        }
+        return chunks;
+    }
+
+    @Benchmark
+    public List<String> commandAwarePack() {
+        return SmsSegments.pack(commands, ",", 1);
+    }
+
+    @Benchmark
+    public int segmentCount() {
+        return SmsSegments.count(preview);
+    }
+}
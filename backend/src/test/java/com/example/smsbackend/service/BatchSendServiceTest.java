@@ -0,0 +1,242 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.smsbackend.config.OutboxProperties;
+import com.example.smsbackend.dto.BatchSendResult;
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import com.example.smsbackend.dto.SendMessageRequest;
+import com.example.smsbackend.entity.OutboundMessage;
+import com.example.smsbackend.repository.CommandAckRepository;
+import com.example.smsbackend.repository.DeviceConfigCommandRepository;
+import com.example.smsbackend.repository.DeviceConfigPendingRepository;
+import com.example.smsbackend.repository.DeviceRepository;
+import com.example.smsbackend.repository.GatewayRepository;
+import com.example.smsbackend.repository.OutboundMessageRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class BatchSendServiceTest {
+
+    @Mock
+    private OutboundMessageRepository repository;
+
+    @Mock
+    private GatewayClientService gatewayClientService;
+
+    private final AtomicLong ids = new AtomicLong();
+    private BatchSendService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(repository.finishClaim(any(), any(), any(), anyInt(), any(), any(), any(), any(), any())).thenReturn(1);
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<OutboundMessage> messages = invocation.getArgument(0);
+            messages.forEach(message -> ReflectionTestUtils.setField(message, "id", ids.incrementAndGet()));
+            return messages;
+        });
+        when(repository.findBusyRecipients(anyCollection())).thenReturn(List.of());
+        when(repository.renewClaim(any(), any(), any())).thenReturn(1);
+        when(gatewayClientService.sendMessage(any(), any()))
+            .thenReturn(new GatewayRoute(null, "http://10.0.0.5:8082", null, null));
+
+        OutboxProperties properties = new OutboxProperties(
+            null, null, null, null, 3, null, null, null, new OutboxProperties.Batch(null, 2, 2, null), null
+        );
+        service = new BatchSendService(
+            new OutboxService(
+                repository,
+                properties,
+                mock(DeviceConfigCommandRepository.class),
+                mock(DeviceConfigPendingRepository.class),
+                mock(CommandAckRepository.class),
+                new GatewayRegistry(mock(GatewayRepository.class), mock(DeviceRepository.class))
+            ),
+            gatewayClientService,
+            new ObjectMapper(),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            properties
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void ndjsonShouldRejectOnlyBadLines() throws Exception {
+        List<BatchSendService.Item> items = service.read(body("""
+            {"to":"+639170000001","message":"one"}
+            {"to":
+
+            {"to":"","message":"three"}
+            """), true);
+
+        assertEquals(3, items.size());
+        assertNull(items.get(0).error());
+        assertTrue(items.get(1).error().startsWith("Malformed JSON"));
+        assertEquals("to: must not be blank", items.get(2).error());
+    }
+
+    @Test
+    void arrayShouldBeReadAndBounded() throws Exception {
+        assertEquals(2, service.read(body("[{\"to\":\"1\",\"message\":\"a\"},{\"to\":\"2\",\"message\":\"b\"}]"), false).size());
+        assertThrows(IllegalArgumentException.class, () -> service.read(body("[{\"to\":\"1\""), false));
+        assertThrows(IllegalArgumentException.class, () -> service.read(body("[]"), false));
+    }
+
+    @Test
+    void failuresShouldNotStopTheBatch() {
+        when(gatewayClientService.sendMessage(any(), any())).thenAnswer(invocation -> {
+            SendMessageRequest request = invocation.getArgument(0);
+            if (request.to().equals("+639170000002")) {
+                throw new GatewayClientException(400, "Gateway send failed: HTTP 400");
+            }
+            return new GatewayRoute(null, "http://10.0.0.5:8082", null, null);
+        });
+
+        List<BatchSendResult> results = sendAll(List.of(
+            item(0, "+639170000001"),
+            new BatchSendService.Item(1, null, "message: must not be blank"),
+            item(2, "+639170000002"),
+            item(3, "+639170000003"),
+            item(4, "+639170000004")
+        ));
+
+        assertEquals(5, results.size());
+        assertEquals("SENT", results.get(0).status());
+        assertEquals(BatchSendService.STATUS_REJECTED, results.get(1).status());
+        assertEquals("FAILED", results.get(2).status());
+        assertFalse(results.get(2).success());
+        assertEquals("SENT", results.get(3).status());
+        assertEquals("SENT", results.get(4).status());
+    }
+
+    @Test
+    void laterMessagesToRecipientShouldWaitWhenEarlierOneIsNotSent() {
+        when(gatewayClientService.sendMessage(any(), any()))
+            .thenThrow(new IllegalStateException("Cannot reach Android gateway"));
+
+        List<BatchSendResult> results = sendAll(List.of(item(0, "+639170000001"), item(1, "+639170000001")));
+
+        assertEquals("PENDING", results.get(0).status());
+        assertEquals("Cannot reach Android gateway", results.get(0).error());
+        assertEquals("PENDING", results.get(1).status());
+        assertTrue(results.get(1).success());
+        verify(gatewayClientService).sendMessage(any(), any());
+    }
+
+    @Test
+    void busyRecipientsShouldBeLeftToTheDispatcher() {
+        when(repository.findBusyRecipients(anyCollection())).thenReturn(List.of("+639170000001"));
+
+        List<BatchSendResult> results = sendAll(List.of(item(0, "+639170000001")));
+
+        assertEquals("PENDING", results.get(0).status());
+        verify(gatewayClientService, never()).sendMessage(any(), any());
+    }
+
+    @Test
+    void messagesQueuedPastTheClaimTimeoutShouldBeLeftToTheDispatcher() {
+        Duration claimTimeout = Duration.ofMillis(100);
+        OutboxProperties properties = new OutboxProperties(
+            null, null, null, null, 3, null, null, claimTimeout, new OutboxProperties.Batch(null, 4, 2, null), null
+        );
+        BatchSendService slow = new BatchSendService(
+            new OutboxService(
+                repository,
+                properties,
+                mock(DeviceConfigCommandRepository.class),
+                mock(DeviceConfigPendingRepository.class),
+                mock(CommandAckRepository.class),
+                new GatewayRegistry(mock(GatewayRepository.class), mock(DeviceRepository.class))
+            ),
+            gatewayClientService,
+            new ObjectMapper(),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            properties
+        );
+        // Acts as the dispatcher's releaseStaleClaims: a claim older than the timeout is gone.
+        Map<Long, Instant> claimedAt = new ConcurrentHashMap<>();
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<OutboundMessage> messages = invocation.getArgument(0);
+            messages.forEach(message -> {
+                ReflectionTestUtils.setField(message, "id", ids.incrementAndGet());
+                claimedAt.put(message.getId(), message.getClaimedAt());
+            });
+            return messages;
+        });
+        when(repository.renewClaim(any(), any(), any())).thenAnswer(invocation -> {
+            Instant now = invocation.getArgument(2);
+            Instant claimed = claimedAt.get(invocation.<Long>getArgument(0));
+            return claimed.plus(claimTimeout).isBefore(now) ? 0 : 1;
+        });
+        when(gatewayClientService.sendMessage(any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(claimTimeout.multipliedBy(3).toMillis());
+            return new GatewayRoute(null, "http://10.0.0.5:8082", null, null);
+        });
+
+        List<BatchSendResult> results = new CopyOnWriteArrayList<>();
+        try {
+            slow.send(List.of(
+                item(0, "+639170000001"),
+                item(1, "+639170000002"),
+                item(2, "+639170000003"),
+                item(3, "+639170000004")
+            ), new GatewayRequestOptions(null, null), results::add).join();
+        } finally {
+            slow.destroy();
+        }
+
+        // Two threads: the first two are sent, the other two outwait their claim and are not.
+        verify(gatewayClientService, times(2)).sendMessage(any(), any());
+        assertEquals(List.of("PENDING", "PENDING", "SENT", "SENT"),
+            results.stream().map(BatchSendResult::status).sorted().toList());
+    }
+
+    private List<BatchSendResult> sendAll(List<BatchSendService.Item> items) {
+        List<BatchSendResult> results = new CopyOnWriteArrayList<>();
+        service.send(items, new GatewayRequestOptions(null, null), results::add).join();
+        return results.stream().sorted(Comparator.comparingInt(BatchSendResult::index)).toList();
+    }
+
+    private static BatchSendService.Item item(int index, String to) {
+        return new BatchSendService.Item(index, new SendMessageRequest(to, "hello " + index, null), null);
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
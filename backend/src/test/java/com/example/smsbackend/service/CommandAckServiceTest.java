@@ -0,0 +1,187 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.smsbackend.config.AckProperties;
+import com.example.smsbackend.entity.CommandAck;
+import com.example.smsbackend.entity.CommandAckStatus;
+import com.example.smsbackend.entity.Device;
+import com.example.smsbackend.entity.InboundMessage;
+import com.example.smsbackend.entity.OutboundMessage;
+import com.example.smsbackend.repository.CommandAckRepository;
+import com.example.smsbackend.repository.DeviceConfigCommandRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class CommandAckServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T08:00:00Z");
+
+    @Mock
+    private CommandAckRepository repository;
+
+    @Mock
+    private DeviceConfigCommandRepository configCommands;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private CommandAckService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new CommandAckService(
+            repository,
+            configCommands,
+            new AckProperties(null, null, null, null),
+            registry,
+            Clock.fixed(NOW, ZoneOffset.UTC)
+        );
+    }
+
+    @Test
+    void trackShouldKeyCommandsByNormalizedPhone() {
+        Device device = new Device();
+        ReflectionTestUtils.setField(device, "id", 7L);
+        device.setPhoneNumber("+63 997-307-9369");
+        OutboundMessage message = new OutboundMessage();
+        ReflectionTestUtils.setField(message, "id", 40L);
+
+        service.track(device, message, List.of(new Ev12Command("wifi", "Wifi1"), new Ev12Command(null, "status")));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<CommandAck>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).saveAll(saved.capture());
+        List<CommandAck> acks = new ArrayList<>(saved.getValue());
+        assertEquals(List.of("Wifi1", "status"), acks.stream().map(CommandAck::getCommand).toList());
+        assertEquals("wifi", acks.get(0).getCommandKey());
+        assertNull(acks.get(1).getCommandKey());
+        for (CommandAck ack : acks) {
+            assertEquals("9973079369", ack.getPhoneKey());
+            assertEquals(40L, ack.getOutboundMessageId());
+            assertEquals(CommandAckStatus.PENDING, ack.getStatus());
+            assertNull(ack.getSentAt());
+        }
+    }
+
+    @Test
+    void replyShouldAckTheOldestWaitingSmsAndRecordLatency() {
+        CommandAck first = ack(1L, 40L, "Wifi1", NOW.minusSeconds(120));
+        CommandAck second = ack(2L, 40L, "status", NOW.minusSeconds(120));
+        CommandAck later = ack(3L, 41L, "Beep1", NOW.minusSeconds(60));
+        when(repository.findAwaitingReply(anyCollection())).thenReturn(List.of(first, second, later));
+
+        service.correlate(List.of(reply(90L, "09973079369", "Wifi:ON, Beep:OFF", NOW.minusSeconds(75))));
+
+        assertEquals(CommandAckStatus.ACKED, first.getStatus());
+        assertEquals(CommandAckStatus.ACKED, second.getStatus());
+        assertEquals(45_000L, first.getAckLatencyMs());
+        assertEquals(90L, second.getReplyMessageId());
+        assertEquals(NOW, first.getResolvedAt());
+        // One reply answers one SMS; the later one keeps waiting.
+        assertEquals(CommandAckStatus.PENDING, later.getStatus());
+
+        Timer latency = registry.get(CommandAckService.LATENCY).tags("outcome", "acked").timer();
+        assertEquals(1, latency.count());
+        assertEquals(45.0, latency.totalTime(TimeUnit.SECONDS));
+        assertEquals(2, registry.get(CommandAckService.OUTCOMES).tags("outcome", "acked").counter().count());
+        verify(configCommands, never()).forgetRejected(any());
+    }
+
+    @Test
+    void failureReplyShouldFailItsCommands() {
+        CommandAck ack = ack(1L, 40L, "pw,123456", NOW.minusSeconds(30));
+        when(repository.findAwaitingReply(anyCollection())).thenReturn(List.of(ack));
+
+        service.correlate(List.of(reply(91L, "+639973079369", "Password ERROR", NOW.minusSeconds(10))));
+
+        assertEquals(CommandAckStatus.FAILED, ack.getStatus());
+        assertEquals("Password ERROR", ack.getDetail());
+        assertEquals(1, registry.get(CommandAckService.OUTCOMES).tags("outcome", "failed").counter().count());
+        // The device kept its old setting, so the next push must send it again.
+        verify(configCommands).forgetRejected(40L);
+    }
+
+    @Test
+    void replyOutsideTheWindowShouldNotMatch() {
+        CommandAck stale = ack(1L, 40L, "Wifi1", NOW.minus(Duration.ofMinutes(30)));
+        CommandAck fresh = ack(2L, 41L, "Beep1", NOW.minusSeconds(20));
+        when(repository.findAwaitingReply(anyCollection())).thenReturn(List.of(stale, fresh));
+
+        // Sent long before the window; the reply answers the fresh SMS and leaves the stale one to expire.
+        service.correlate(List.of(
+            reply(92L, "+639973079369", "ok", NOW.minusSeconds(5)),
+            reply(93L, "+639170000000", "ok", NOW.minusSeconds(5))
+        ));
+        assertEquals(CommandAckStatus.PENDING, stale.getStatus());
+        assertEquals(CommandAckStatus.ACKED, fresh.getStatus());
+
+        // A reply that predates the SMS by more than the clock skew answers nothing.
+        CommandAck next = ack(3L, 42L, "status", NOW);
+        when(repository.findAwaitingReply(anyCollection())).thenReturn(List.of(next));
+        service.correlate(List.of(reply(94L, "+639973079369", "ok", NOW.minusSeconds(60))));
+        assertEquals(CommandAckStatus.PENDING, next.getStatus());
+    }
+
+    @Test
+    void expireShouldTimeOutCommandsPastTheWindow() {
+        when(repository.expire(any(), any())).thenReturn(3);
+
+        service.expire();
+
+        verify(repository).expire(eq(NOW.minus(Duration.ofMinutes(10))), eq(NOW));
+        verify(configCommands).forgetUnanswered(NOW.minus(Duration.ofMinutes(10)));
+        assertEquals(3, registry.get(CommandAckService.OUTCOMES).tags("outcome", "timed_out").counter().count());
+    }
+
+    @Test
+    void unknownStatusFilterShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.search(null, "lost", null));
+        service.search(7L, "timed-out", 10);
+        verify(repository, never()).search(any(), eq(CommandAckStatus.ACKED), any());
+        verify(repository).search(eq(7L), eq(CommandAckStatus.TIMED_OUT), any());
+    }
+
+    private static CommandAck ack(Long id, Long messageId, String command, Instant sentAt) {
+        CommandAck ack = new CommandAck();
+        ReflectionTestUtils.setField(ack, "id", id);
+        ack.setOutboundMessageId(messageId);
+        ack.setDeviceId(7L);
+        ack.setPhoneKey("9973079369");
+        ack.setCommand(command);
+        ack.setStatus(CommandAckStatus.PENDING);
+        ack.setCreatedAt(sentAt);
+        ack.setSentAt(sentAt);
+        return ack;
+    }
+
+    private static InboundMessage reply(Long id, String from, String body, Instant receivedAt) {
+        InboundMessage message = new InboundMessage();
+        ReflectionTestUtils.setField(message, "id", id);
+        message.setFromNumber(from);
+        message.setBody(body);
+        message.setReceivedAt(receivedAt);
+        return message;
+    }
+}
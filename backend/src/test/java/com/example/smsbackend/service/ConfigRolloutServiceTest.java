@@ -0,0 +1,334 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.smsbackend.config.RolloutProperties;
+import com.example.smsbackend.dto.CreateRolloutRequest;
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import com.example.smsbackend.dto.RolloutResponse;
+import com.example.smsbackend.dto.SendConfigRequest;
+import com.example.smsbackend.entity.ConfigRollout;
+import com.example.smsbackend.entity.ConfigRolloutDevice;
+import com.example.smsbackend.entity.ConfigRolloutStatus;
+import com.example.smsbackend.entity.Device;
+import com.example.smsbackend.entity.OutboundMessage;
+import com.example.smsbackend.entity.OutboundMessageStatus;
+import com.example.smsbackend.entity.RolloutDeviceStatus;
+import com.example.smsbackend.repository.ConfigRolloutDeviceRepository;
+import com.example.smsbackend.repository.ConfigRolloutRepository;
+import com.example.smsbackend.repository.DeviceRepository;
+import com.example.smsbackend.repository.GatewayRepository;
+import com.example.smsbackend.repository.OutboundMessageRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+class ConfigRolloutServiceTest {
+
+    private static final long ROLLOUT_ID = 3L;
+    private static final Instant START = Instant.parse("2026-01-05T08:00:00Z");
+
+    @Mock
+    private ConfigRolloutRepository rollouts;
+
+    @Mock
+    private ConfigRolloutDeviceRepository rolloutDevices;
+
+    @Mock
+    private DeviceRepository deviceRepository;
+
+    @Mock
+    private OutboundMessageRepository outboundMessages;
+
+    @Mock
+    private DeviceConfigTracker configTracker;
+
+    @Mock
+    private SendAdmission sendAdmission;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Clock clock = Clock.fixed(START, ZoneOffset.UTC);
+    private ConfigRolloutService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = service();
+        when(configTracker.changed(any(), anyList())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(configTracker.enqueue(any(), anyList(), anyList(), any())).thenAnswer(invocation -> {
+            List<String> bodies = invocation.getArgument(2);
+            List<OutboundMessage> queued = new ArrayList<>();
+            for (String body : bodies) {
+                queued.add(message(100L + queued.size(), OutboundMessageStatus.PENDING, null));
+            }
+            return queued;
+        });
+        when(rollouts.findStatus(ROLLOUT_ID)).thenReturn(Optional.of(ConfigRolloutStatus.RUNNING));
+        when(rolloutDevices.claimPending(any(), any())).thenReturn(1);
+        when(rolloutDevices.settlePending(any(), any(), any(), any())).thenReturn(1);
+    }
+
+    @Test
+    void createShouldRequireExactlyOneTarget() {
+        SendConfigRequest config = config("+08:00");
+
+        assertThrows(IllegalArgumentException.class, () ->
+            service.create(new CreateRolloutRequest(null, 1L, 2L, null, null, config), options()));
+        assertThrows(IllegalArgumentException.class, () ->
+            service.create(new CreateRolloutRequest(null, null, null, List.of(), null, config), options()));
+
+        when(deviceRepository.findByUserLocationId(9L)).thenReturn(List.of());
+        IllegalArgumentException empty = assertThrows(IllegalArgumentException.class, () ->
+            service.create(new CreateRolloutRequest(null, 9L, null, null, null, config), options()));
+        assertEquals("No devices match the rollout target.", empty.getMessage());
+    }
+
+    @Test
+    void createShouldAddEveryDeviceInTheLocationAsPending() {
+        when(deviceRepository.findByUserLocationId(4L)).thenReturn(List.of(device(1L), device(2L), device(3L)));
+        when(rollouts.save(any(ConfigRollout.class))).thenAnswer(invocation -> {
+            ConfigRollout rollout = invocation.getArgument(0);
+            ReflectionTestUtils.setField(rollout, "id", ROLLOUT_ID);
+            return rollout;
+        });
+
+        RolloutResponse response = service.create(
+            new CreateRolloutRequest(null, 4L, null, null, 30, config("+08:00")),
+            new GatewayRequestOptions(null, null, 2L)
+        );
+
+        assertEquals("RUNNING", response.status());
+        assertEquals("location 4", response.target());
+        assertEquals(3, response.devices());
+        assertEquals(3, response.pending());
+        assertEquals(30, response.devicesPerMinute());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<ConfigRolloutDevice>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(rolloutDevices).saveAll(rows.capture());
+        assertEquals(List.of(1L, 2L, 3L), rows.getValue().stream().map(ConfigRolloutDevice::getDeviceId).toList());
+    }
+
+    @Test
+    void stepShouldQueueOnlyTheDevicesDueAtTheRate() {
+        ConfigRollout rollout = rollout(60, START);
+        when(rollouts.findById(ROLLOUT_ID)).thenReturn(Optional.of(rollout));
+        List<ConfigRolloutDevice> pending = List.of(row(1L), row(2L), row(3L));
+        when(rolloutDevices.findByRolloutIdAndStatusOrderByIdAsc(eq(ROLLOUT_ID), eq(RolloutDeviceStatus.PENDING), any()))
+            .thenAnswer(invocation -> pending.stream()
+                .filter(row -> row.getStatus() == RolloutDeviceStatus.PENDING)
+                .limit(((Pageable) invocation.getArgument(2)).getPageSize())
+                .toList());
+        for (long id = 1; id <= 3; id++) {
+            when(deviceRepository.findById(id)).thenReturn(Optional.of(device(id)));
+        }
+
+        service.step(ROLLOUT_ID);
+
+        // One device per second: at the start only the first is due.
+        assertEquals(RolloutDeviceStatus.QUEUED, pending.get(0).getStatus());
+        assertEquals("100", pending.get(0).getMessageIds());
+        assertEquals(RolloutDeviceStatus.PENDING, pending.get(1).getStatus());
+        verify(rollouts).reschedule(ROLLOUT_ID, START.plusSeconds(1));
+
+        rollout.setNextDispatchAt(START.plusSeconds(1));
+        clock = Clock.fixed(START.plusSeconds(3), ZoneOffset.UTC);
+        service = service();
+        service.step(ROLLOUT_ID);
+
+        assertEquals(RolloutDeviceStatus.QUEUED, pending.get(1).getStatus());
+        assertEquals(RolloutDeviceStatus.QUEUED, pending.get(2).getStatus());
+        verify(rollouts).reschedule(ROLLOUT_ID, START.plusSeconds(3));
+    }
+
+    @Test
+    void stepShouldSkipUnchangedDevicesAndWaitOutBackpressure() {
+        when(rollouts.findById(ROLLOUT_ID)).thenReturn(Optional.of(rollout(600, START)));
+        ConfigRolloutDevice unchanged = row(1L);
+        ConfigRolloutDevice blocked = row(2L);
+        when(rolloutDevices.findByRolloutIdAndStatusOrderByIdAsc(eq(ROLLOUT_ID), eq(RolloutDeviceStatus.PENDING), any()))
+            .thenReturn(List.of(unchanged, blocked));
+        when(deviceRepository.findById(1L)).thenReturn(Optional.of(device(1L)));
+        when(deviceRepository.findById(2L)).thenReturn(Optional.of(device(2L)));
+        when(configTracker.changed(eq(1L), anyList())).thenReturn(List.of());
+        doThrow(new SendQueueFullException("default routing", Duration.ofSeconds(40), 1001, 1000))
+            .when(sendAdmission).admit(any(), anyInt());
+
+        service.step(ROLLOUT_ID);
+
+        assertEquals(RolloutDeviceStatus.UNCHANGED, unchanged.getStatus());
+        assertEquals(RolloutDeviceStatus.PENDING, blocked.getStatus());
+        verify(configTracker, never()).enqueue(any(), anyList(), anyList(), any());
+        verify(rollouts).reschedule(ROLLOUT_ID, START.plusSeconds(40));
+    }
+
+    @Test
+    void stepShouldNotQueueDevicesCancelledMidStep() {
+        when(rollouts.findById(ROLLOUT_ID)).thenReturn(Optional.of(rollout(600, START.minusSeconds(1))));
+        ConfigRolloutDevice first = row(1L);
+        ConfigRolloutDevice second = row(2L);
+        ConfigRolloutDevice third = row(3L);
+        when(rolloutDevices.findByRolloutIdAndStatusOrderByIdAsc(eq(ROLLOUT_ID), eq(RolloutDeviceStatus.PENDING), any()))
+            .thenReturn(List.of(first, second, third));
+        for (long id = 1; id <= 3; id++) {
+            when(deviceRepository.findById(id)).thenReturn(Optional.of(device(id)));
+        }
+        // The cancel commits while the runner is building the second device's commands.
+        when(rolloutDevices.claimPending(eq(12L), any())).thenReturn(0);
+        when(rollouts.findStatus(ROLLOUT_ID)).thenReturn(
+            Optional.of(ConfigRolloutStatus.RUNNING),
+            Optional.of(ConfigRolloutStatus.RUNNING),
+            Optional.of(ConfigRolloutStatus.CANCELLED)
+        );
+
+        service.step(ROLLOUT_ID);
+
+        assertEquals(RolloutDeviceStatus.QUEUED, first.getStatus());
+        assertEquals(RolloutDeviceStatus.PENDING, second.getStatus());
+        assertEquals(RolloutDeviceStatus.PENDING, third.getStatus());
+        verify(configTracker).enqueue(any(), anyList(), anyList(), any());
+        verify(rolloutDevices, never()).save(second);
+        verify(rolloutDevices, never()).claimPending(eq(13L), any());
+    }
+
+    @Test
+    void stepShouldSettleQueuedDevicesFromTheirMessages() {
+        when(rollouts.findById(ROLLOUT_ID)).thenReturn(Optional.of(rollout(60, START.plusSeconds(30))));
+        ConfigRolloutDevice delivered = queuedRow(1L, "5,6");
+        ConfigRolloutDevice failed = queuedRow(2L, "7");
+        ConfigRolloutDevice waiting = queuedRow(3L, "8");
+        when(rolloutDevices.findByRolloutIdAndStatusOrderByIdAsc(eq(ROLLOUT_ID), eq(RolloutDeviceStatus.QUEUED), any()))
+            .thenReturn(List.of(delivered, failed, waiting));
+        when(outboundMessages.findAllById(any())).thenReturn(List.of(
+            message(5L, OutboundMessageStatus.SENT, null),
+            message(6L, OutboundMessageStatus.SENT, null),
+            message(7L, OutboundMessageStatus.FAILED, "Gateway send failed: HTTP 401"),
+            message(8L, OutboundMessageStatus.SENDING, null)
+        ));
+
+        service.step(ROLLOUT_ID);
+
+        assertEquals(RolloutDeviceStatus.SENT, delivered.getStatus());
+        assertEquals(RolloutDeviceStatus.FAILED, failed.getStatus());
+        assertEquals("Gateway send failed: HTTP 401", failed.getLastError());
+        assertEquals(RolloutDeviceStatus.QUEUED, waiting.getStatus());
+    }
+
+    @Test
+    void pauseAndResumeShouldOnlyApplyFromTheMatchingState() {
+        when(rollouts.findById(ROLLOUT_ID)).thenReturn(Optional.of(rollout(60, START)));
+        when(rollouts.transition(ROLLOUT_ID, ConfigRolloutStatus.RUNNING, ConfigRolloutStatus.PAUSED, null)).thenReturn(0);
+
+        ResponseStatusException conflict = assertThrows(ResponseStatusException.class, () -> service.pause(ROLLOUT_ID));
+        assertEquals(HttpStatus.CONFLICT, conflict.getStatusCode());
+
+        when(rollouts.transition(ROLLOUT_ID, ConfigRolloutStatus.PAUSED, ConfigRolloutStatus.RUNNING, null)).thenReturn(1);
+        service.resume(ROLLOUT_ID);
+        verify(rollouts).reschedule(ROLLOUT_ID, START);
+    }
+
+    private ConfigRolloutService service() {
+        return new ConfigRolloutService(
+            rollouts,
+            rolloutDevices,
+            deviceRepository,
+            outboundMessages,
+            new DeviceCommandService(),
+            configTracker,
+            sendAdmission,
+            new GatewayRegistry(mock(GatewayRepository.class), mock(DeviceRepository.class)),
+            new RolloutProperties(true, Duration.ofSeconds(5), null, null, null),
+            objectMapper,
+            mock(PlatformTransactionManager.class),
+            clock
+        );
+    }
+
+    private ConfigRollout rollout(int devicesPerMinute, Instant nextDispatchAt) {
+        ConfigRollout rollout = new ConfigRollout();
+        ReflectionTestUtils.setField(rollout, "id", ROLLOUT_ID);
+        rollout.setName("tz");
+        rollout.setStatus(ConfigRolloutStatus.RUNNING);
+        rollout.setTarget("location 4");
+        rollout.setDevicesPerMinute(devicesPerMinute);
+        rollout.setCreatedAt(START);
+        rollout.setNextDispatchAt(nextDispatchAt);
+        try {
+            rollout.setTemplate(objectMapper.writeValueAsString(config("+08:00")));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return rollout;
+    }
+
+    private static SendConfigRequest config(String timeZone) {
+        return new ObjectMapper().convertValue(
+            Map.of("deviceId", 0, "timeZone", timeZone, "checkStatus", true),
+            SendConfigRequest.class
+        );
+    }
+
+    private static GatewayRequestOptions options() {
+        return new GatewayRequestOptions(null, null, null);
+    }
+
+    private static Device device(Long id) {
+        Device device = new Device();
+        ReflectionTestUtils.setField(device, "id", id);
+        device.setPhoneNumber("+6399730793" + (60 + id));
+        return device;
+    }
+
+    private static ConfigRolloutDevice row(Long deviceId) {
+        ConfigRolloutDevice row = new ConfigRolloutDevice();
+        ReflectionTestUtils.setField(row, "id", 10 + deviceId);
+        row.setRolloutId(ROLLOUT_ID);
+        row.setDeviceId(deviceId);
+        row.setPhoneNumber(device(deviceId).getPhoneNumber());
+        row.setStatus(RolloutDeviceStatus.PENDING);
+        row.setUpdatedAt(START);
+        return row;
+    }
+
+    private static ConfigRolloutDevice queuedRow(Long deviceId, String messageIds) {
+        ConfigRolloutDevice row = row(deviceId);
+        row.setStatus(RolloutDeviceStatus.QUEUED);
+        row.setMessageIds(messageIds);
+        return row;
+    }
+
+    private static OutboundMessage message(Long id, OutboundMessageStatus status, String lastError) {
+        OutboundMessage message = new OutboundMessage();
+        ReflectionTestUtils.setField(message, "id", id);
+        message.setStatus(status);
+        message.setLastError(lastError);
+        return message;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.example.smsbackend.dto.SendConfigRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class DeviceCommandServiceTest {
+
+    /**
+     * Requests and the commands the original if-chain built for them, recorded before it was
+     * replaced. The compiled command table must keep producing exactly these strings.
+     */
+    private static final String[] FIXTURES = {
+        """
+        {"deviceId": 1}
+        """,
+        """
+        {"deviceId": 1, "imei": "8612", "contactNumber": " +639973079369 ", "contactSlot": 2, "contactName": " Mama ",
+         "smsPassword": " 123456 ", "smsWhitelistEnabled": true, "requestLocation": true, "requestGpsLocation": true,
+         "requestLbsLocation": true, "wifiEnabled": true, "bluetoothEnabled": true, "micVolume": 8, "speakerVolume": 90,
+         "vibrationEnabled": true, "beepEnabled": true, "prefixEnabled": true, "prefixName": " Lola ", "checkBattery": true,
+         "sosMode": 1, "sosActionTime": 20, "sosCallRingTime": " 20 ", "sosCallTalkTime": "60", "fallDownEnabled": true,
+         "fallDownSensitivity": 5, "fallDownCall": true, "noMotionEnabled": true, "noMotionTime": " 60M ", "noMotionCall": true,
+         "motionEnabled": true, "motionStaticTime": "5M", "motionDurationTime": " 10S", "motionCall": true,
+         "overSpeedEnabled": true, "overSpeedLimit": "120 ", "geoFenceEnabled": true, "geoFenceMode": 0, "geoFenceRadius": " 200M ",
+         "apnEnabled": true, "apn": " internet.globe.com.ph ", "serverEnabled": true, "serverHost": " gps.example.com ",
+         "serverPort": 5001, "gprsEnabled": true, "workingMode": " mode2 ", "workingModeInterval": " 300S ",
+         "workingModeNoMotionInterval": "3600S", "continuousLocateInterval": " 10S", "continuousLocateDuration": "600S ",
+         "timeZone": " +8 ", "turnOffDevice": true, "findMyDevice": true, "heartRateEnabled": true, "heartRateInterval": " 30M ",
+         "stepDetectionEnabled": true, "stepDetectionInterval": "60M", "checkStatus": true}
+        """,
+        """
+        {"deviceId": 1, "contactNumber": "09973079369", "contactSmsEnabled": false, "contactCallEnabled": false,
+         "contactName": "  ", "smsPassword": "", "smsWhitelistEnabled": false, "requestLocation": false,
+         "requestGpsLocation": false, "requestLbsLocation": false, "wifiEnabled": false, "bluetoothEnabled": false,
+         "micVolume": 0, "speakerVolume": 0, "vibrationEnabled": false, "beepEnabled": false, "prefixEnabled": false,
+         "prefixName": "x", "checkBattery": false, "fallDownEnabled": false, "fallDownSensitivity": 1, "fallDownCall": false,
+         "noMotionEnabled": false, "noMotionTime": "30M", "noMotionCall": false, "motionEnabled": false,
+         "motionStaticTime": "1M", "motionDurationTime": "2S", "motionCall": false, "overSpeedEnabled": false,
+         "overSpeedLimit": "80", "geoFenceEnabled": false, "geoFenceMode": 1, "geoFenceRadius": "100M", "apnEnabled": false,
+         "apn": "apn", "serverEnabled": false, "serverHost": "h", "serverPort": 1, "gprsEnabled": false,
+         "workingMode": "mode1", "workingModeInterval": "60S", "turnOffDevice": false, "findMyDevice": false,
+         "heartRateEnabled": false, "heartRateInterval": "1M", "stepDetectionEnabled": false, "stepDetectionInterval": "1M",
+         "checkStatus": false}
+        """,
+        """
+        {"deviceId": 1, "sosMode": 1, "sosCallRingTime": "20", "prefixEnabled": true, "prefixName": " ",
+         "fallDownEnabled": true, "fallDownSensitivity": 3, "noMotionEnabled": true, "noMotionCall": true,
+         "motionEnabled": true, "motionStaticTime": "5M", "motionDurationTime": "", "motionCall": true,
+         "overSpeedEnabled": true, "geoFenceEnabled": true, "geoFenceRadius": "100M", "apn": "internet",
+         "serverEnabled": true, "serverHost": "h", "workingMode": "mode2", "workingModeInterval": "60S",
+         "continuousLocateInterval": "10S", "timeZone": " ", "heartRateInterval": "1M", "stepDetectionEnabled": true}
+        """,
+        """
+        {"deviceId": 1, "contactNumber": "+1555", "contactSlot": 3, "contactSmsEnabled": true, "workingMode": "mode4",
+         "workingModeInterval": " 120S "}
+        """,
+        """
+        {"deviceId": 1, "workingMode": "  mode6", "workingModeInterval": "1M", "workingModeNoMotionInterval": " 2M "}
+        """,
+        """
+        {"deviceId": 1, "workingMode": "mode3"}
+        """,
+        """
+        {"deviceId": 1, "workingMode": "mode7", "workingModeInterval": "1M", "workingModeNoMotionInterval": "2M"}
+        """,
+        """
+        {"deviceId": 1, "contactNumber": "+639973079369", "contactName": "Жанна", "requestGpsLocation": true,
+         "workingMode": "Mode1"}
+        """
+    };
+
+    private static final List<List<String>> GOLDEN = List.of(
+        List.of(),
+        List.of(
+            "A2,1,1,+639973079369,Mama", "P123456", "sms1", "loc", "loc,gps", "LBS1", "SOS1,20", "soscall20,60",
+            "Wifi1", "BLE1", "Micvolume8", "Speakervolume90", "Vibrate1", "Beep1", "prefix1,Lola", "battery",
+            "fl1,5,1", "nmo1,60M,1", "mo1,5M,10S,1", "Speed1,120", "Geo1,1,0,200M", "S1,internet.globe.com.ph",
+            "IP1,gps.example.com,5001", "S2", "mode2,300S,3600S", "CL10S,600S", "tz+8", "off", "findme", "hrs1,30M",
+            "detpedo1,60M", "status"
+        ),
+        List.of(
+            "A1,0,0,09973079369", "sms0", "Wifi0", "BLE0", "Micvolume0", "Speakervolume0", "Vibrate0", "Beep0",
+            "prefix0,x", "fl0,1,0", "nmo0,30M,0", "mo0,1M,2S,0", "Speed0,80", "Geo1,0,1,100M", "S0,apn", "IP0,h,1",
+            "S0", "mode1", "hrs0,1M", "detpedo0,1M"
+        ),
+        List.of(),
+        List.of("A3,1,1,+1555", "mode4,120S"),
+        List.of("mode6,1M,2M"),
+        List.of(),
+        List.of(),
+        List.of("A1,1,1,+639973079369,Жанна", "loc,gps")
+    );
+
+    private final DeviceCommandService service = new DeviceCommandService();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void buildCommandsShouldMatchGoldenOutput() throws Exception {
+        for (int i = 0; i < FIXTURES.length; i++) {
+            SendConfigRequest request = objectMapper.readValue(FIXTURES[i], SendConfigRequest.class);
+            assertEquals(GOLDEN.get(i), service.buildCommands(request), "fixture " + i);
+        }
+    }
+
+    @Test
+    void repeatedCallsShouldNotShareState() throws Exception {
+        SendConfigRequest full = objectMapper.readValue(FIXTURES[1], SendConfigRequest.class);
+        SendConfigRequest partial = objectMapper.readValue(FIXTURES[4], SendConfigRequest.class);
+
+        service.buildCommands(full);
+        assertEquals(GOLDEN.get(4), service.buildCommands(partial));
+        assertEquals(GOLDEN.get(1), service.buildCommands(full));
+    }
+
+    @Test
+    void keyedCommandsShouldTagSettingsButNotActions() throws Exception {
+        for (int i = 0; i < FIXTURES.length; i++) {
+            SendConfigRequest request = objectMapper.readValue(FIXTURES[i], SendConfigRequest.class);
+            assertEquals(GOLDEN.get(i), service.buildKeyedCommands(request).stream().map(Ev12Command::text).toList());
+        }
+
+        SendConfigRequest full = objectMapper.readValue(FIXTURES[1], SendConfigRequest.class);
+        List<Ev12Command> commands = service.buildKeyedCommands(full);
+        assertEquals("contact:2", commands.get(0).key());
+        assertEquals("password", commands.get(1).key());
+        assertNull(commands.stream().filter(command -> command.text().equals("loc,gps")).findFirst().orElseThrow().key());
+        assertEquals(
+            commands.stream().filter(Ev12Command::isSetting).count(),
+            commands.stream().filter(Ev12Command::isSetting).map(Ev12Command::key).distinct().count()
+        );
+    }
+}
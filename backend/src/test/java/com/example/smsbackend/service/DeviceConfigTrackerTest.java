@@ -0,0 +1,153 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import com.example.smsbackend.dto.SendMessageRequest;
+import com.example.smsbackend.entity.Device;
+import com.example.smsbackend.entity.DeviceConfigCommand;
+import com.example.smsbackend.entity.DeviceConfigPending;
+import com.example.smsbackend.entity.OutboundMessage;
+import com.example.smsbackend.repository.DeviceConfigCommandRepository;
+import com.example.smsbackend.repository.DeviceConfigPendingRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class DeviceConfigTrackerTest {
+
+    private static final long DEVICE_ID = 7L;
+
+    @Mock
+    private DeviceConfigCommandRepository repository;
+
+    @Mock
+    private DeviceConfigPendingRepository pendingRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private CommandAckService commandAcks;
+
+    private DeviceConfigTracker tracker;
+    private final DeviceCommandService commandService = new DeviceCommandService();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tracker = new DeviceConfigTracker(repository, pendingRepository, outboxService, commandAcks);
+    }
+
+    @Test
+    void changedShouldDropSettingsAlreadyApplied() {
+        when(repository.findByDeviceId(DEVICE_ID)).thenReturn(List.of(
+            row("timeZone", "tz+08:00"),
+            row("wifi", "Wifi0"),
+            row("beep", null)
+        ));
+        List<Ev12Command> commands = List.of(
+            new Ev12Command("timeZone", "tz+08:00"),
+            new Ev12Command("wifi", "Wifi1"),
+            new Ev12Command("beep", "Beep1"),
+            new Ev12Command(null, "status")
+        );
+
+        // Wifi changed, Beep was never applied, and status is a query that always goes out.
+        assertEquals(
+            List.of("Wifi1", "Beep1", "status"),
+            tracker.changed(DEVICE_ID, commands).stream().map(Ev12Command::text).toList()
+        );
+    }
+
+    @Test
+    void enqueueShouldMarkEachSettingPendingOnTheSmsCarryingIt() {
+        List<Ev12Command> commands = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            commands.add(new Ev12Command("setting" + i, "Speakervolume" + (10 + i)));
+        }
+        commands.add(new Ev12Command(null, "status"));
+        List<String> bodies = commandService.splitForSms(commands.stream().map(Ev12Command::text).toList());
+        assertEquals(2, bodies.size());
+
+        DeviceConfigCommand existing = row("setting0", "Speakervolume99");
+        when(repository.findByDeviceId(DEVICE_ID)).thenReturn(List.of(existing));
+        when(outboxService.enqueueAll(anyList(), any(), eq(OutboxService.SOURCE_CONFIG), eq(DEVICE_ID)))
+            .thenAnswer(invocation -> {
+                List<SendMessageRequest> requests = invocation.getArgument(0);
+                List<OutboundMessage> queued = new ArrayList<>();
+                for (SendMessageRequest request : requests) {
+                    OutboundMessage message = new OutboundMessage();
+                    ReflectionTestUtils.setField(message, "id", 100L + queued.size());
+                    message.setBody(request.message());
+                    queued.add(message);
+                }
+                return queued;
+            });
+
+        List<OutboundMessage> queued = tracker.enqueue(device(), commands, bodies, new GatewayRequestOptions(null, null, null));
+
+        // Only settings the device has no row for yet get one.
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<DeviceConfigCommand>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).saveAll(saved.capture());
+        assertEquals(11, saved.getValue().size());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<DeviceConfigPending>> pending = ArgumentCaptor.forClass(Collection.class);
+        verify(pendingRepository).saveAll(pending.capture());
+        Map<String, DeviceConfigPending> rows = pending.getValue().stream()
+            .collect(Collectors.toMap(DeviceConfigPending::getCommandKey, Function.identity()));
+
+        assertEquals(12, rows.size());
+        int inFirst = bodies.get(0).split(",").length;
+        for (int i = 0; i < 12; i++) {
+            DeviceConfigPending row = rows.get("setting" + i);
+            assertEquals("Speakervolume" + (10 + i), row.getCommand());
+            assertEquals(queued.get(i < inFirst ? 0 : 1).getId(), row.getMessageId(), "setting" + i);
+            assertEquals(DEVICE_ID, row.getDeviceId());
+        }
+        // The applied command stays until the gateway accepts the new one.
+        assertEquals("Speakervolume99", existing.getCommand());
+
+        // Every command, the trailing status query included, awaits a reply to its own SMS.
+        verify(commandAcks).track(any(Device.class), eq(queued.get(0)), eq(commands.subList(0, inFirst)));
+        verify(commandAcks).track(any(Device.class), eq(queued.get(1)), eq(commands.subList(inFirst, commands.size())));
+    }
+
+    @Test
+    void enqueueShouldQueueNothingWhenNothingChanged() {
+        assertEquals(List.of(), tracker.enqueue(device(), List.of(), List.of(), new GatewayRequestOptions(null, null, null)));
+        verifyNoInteractions(outboxService, repository, pendingRepository, commandAcks);
+    }
+
+    private static Device device() {
+        Device device = new Device();
+        ReflectionTestUtils.setField(device, "id", DEVICE_ID);
+        device.setPhoneNumber("+639973079369");
+        return device;
+    }
+
+    private static DeviceConfigCommand row(String key, String command) {
+        DeviceConfigCommand row = new DeviceConfigCommand();
+        row.setDeviceId(DEVICE_ID);
+        row.setCommandKey(key);
+        row.setCommand(command);
+        return row;
+    }
+}
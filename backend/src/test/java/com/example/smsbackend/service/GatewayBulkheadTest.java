@@ -0,0 +1,113 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.smsbackend.config.GatewayBulkheadProperties;
+import com.example.smsbackend.dto.GatewayBulkheadStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class GatewayBulkheadTest {
+
+    private static final String SLOW = "http://10.0.0.5:8082";
+    private static final String FAST = "http://10.0.0.6:8082";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void fullGatewayShouldRejectWithoutAffectingOthers() throws Exception {
+        GatewayBulkhead bulkhead = bulkhead(new GatewayBulkheadProperties(true, 2, 0, Duration.ofSeconds(5), Duration.ofSeconds(7)));
+        CountDownLatch started = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            executor.submit(() -> bulkhead.execute(SLOW, "send", () -> hang(started)));
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        long begin = System.nanoTime();
+        GatewayBulkheadFullException rejected = assertThrows(
+            GatewayBulkheadFullException.class,
+            () -> bulkhead.execute(SLOW, "send", () -> "unreachable")
+        );
+        assertTrue(System.nanoTime() - begin < TimeUnit.SECONDS.toNanos(1), "queue-less bulkhead should reject at once");
+        assertEquals(Duration.ofSeconds(7), rejected.getRetryAfter());
+        assertEquals("ok", bulkhead.execute(FAST, "send", () -> "ok"));
+
+        GatewayBulkheadStats slow = stats(bulkhead, SLOW);
+        assertEquals(2, slow.active());
+        assertEquals(2, slow.accepted());
+        assertEquals(1, slow.rejected());
+        assertEquals(1, registry.get(GatewayMetrics.BULKHEAD_REJECTIONS).tags("gateway", SLOW).counter().count());
+    }
+
+    @Test
+    void queuedCallShouldRunOnceASlotFrees() throws Exception {
+        GatewayBulkhead bulkhead = bulkhead(new GatewayBulkheadProperties(true, 1, 1, Duration.ofSeconds(5), null));
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> bulkhead.execute(SLOW, "fetch", () -> hang(started)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Future<String> queued = executor.submit(() -> bulkhead.execute(SLOW, "fetch", () -> "queued"));
+        waitFor(() -> stats(bulkhead, SLOW).queued() == 1);
+
+        assertThrows(GatewayBulkheadFullException.class, () -> bulkhead.execute(SLOW, "fetch", () -> "over"));
+
+        release.countDown();
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+        waitFor(() -> stats(bulkhead, SLOW).active() == 0);
+    }
+
+    @Test
+    void waitLimitShouldBoundQueueTime() throws Exception {
+        GatewayBulkhead bulkhead = bulkhead(new GatewayBulkheadProperties(true, 1, 4, Duration.ofMillis(50), null));
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> bulkhead.execute(SLOW, "fetch", () -> hang(started)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(GatewayBulkheadFullException.class, () -> bulkhead.execute(SLOW, "fetch", () -> "late"));
+        assertEquals(0, stats(bulkhead, SLOW).queued());
+    }
+
+    private GatewayBulkhead bulkhead(GatewayBulkheadProperties properties) {
+        return new GatewayBulkhead(properties, new GatewayMetrics(registry, gateway -> true));
+    }
+
+    private String hang(CountDownLatch started) {
+        started.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+
+    private static GatewayBulkheadStats stats(GatewayBulkhead bulkhead, String gateway) {
+        return bulkhead.stats().stream().filter(stats -> stats.gateway().equals(gateway)).findFirst().orElseThrow();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.smsbackend.config.GatewayCircuitBreakerProperties;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+class GatewayCircuitBreakerTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+    private static final long FAST = Duration.ofMillis(50).toNanos();
+
+    private final GatewayCircuitBreakerProperties properties = new GatewayCircuitBreakerProperties(
+        true, 4, 4, 50.0, Duration.ofSeconds(2), 100.0, Duration.ofSeconds(30), 1
+    );
+
+    @Test
+    void circuitShouldOpenWhenFailureRateReachesThreshold() {
+        GatewayCircuitBreaker.Circuit circuit = new GatewayCircuitBreaker.Circuit(properties, NOW);
+
+        circuit.onResult(false, FAST, NOW, null);
+        circuit.onResult(true, FAST, NOW, "down");
+        circuit.onResult(false, FAST, NOW, null);
+        assertEquals(GatewayCircuitBreaker.State.CLOSED, circuit.state());
+
+        circuit.onResult(true, FAST, NOW, "down");
+        assertEquals(GatewayCircuitBreaker.State.OPEN, circuit.state());
+        assertNotNull(circuit.tryAcquire(NOW.plusSeconds(10)));
+    }
+
+    @Test
+    void circuitShouldCloseAfterSuccessfulHalfOpenTrial() {
+        GatewayCircuitBreaker.Circuit circuit = openCircuit();
+
+        Instant later = NOW.plusSeconds(31);
+        assertNull(circuit.tryAcquire(later));
+        assertEquals(GatewayCircuitBreaker.State.HALF_OPEN, circuit.state());
+        assertNotNull(circuit.tryAcquire(later));
+
+        circuit.onResult(false, FAST, later, null);
+        assertEquals(GatewayCircuitBreaker.State.CLOSED, circuit.state());
+    }
+
+    @Test
+    void circuitShouldReopenWhenHalfOpenTrialIsSlow() {
+        GatewayCircuitBreaker.Circuit circuit = openCircuit();
+
+        Instant later = NOW.plusSeconds(31);
+        assertNull(circuit.tryAcquire(later));
+        circuit.onResult(false, Duration.ofSeconds(3).toNanos(), later, null);
+
+        assertEquals(GatewayCircuitBreaker.State.OPEN, circuit.state());
+    }
+
+    @Test
+    void executeShouldFailFastWhileOpen() {
+        GatewayCircuitBreaker breaker = new GatewayCircuitBreaker(properties);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(ResourceAccessException.class, () -> breaker.execute("http://10.0.0.5:8082", () -> {
+                throw new ResourceAccessException("connect timed out");
+            }));
+        }
+
+        GatewayCircuitOpenException error = assertThrows(
+            GatewayCircuitOpenException.class,
+            () -> breaker.execute("http://10.0.0.5:8082", () -> "unreachable")
+        );
+        assertEquals(503, error.getStatusCode());
+        assertEquals("OPEN", breaker.stats("http://10.0.0.5:8082").state());
+    }
+
+    private GatewayCircuitBreaker.Circuit openCircuit() {
+        GatewayCircuitBreaker.Circuit circuit = new GatewayCircuitBreaker.Circuit(properties, NOW);
+        for (int i = 0; i < 4; i++) {
+            circuit.onResult(true, FAST, NOW, "down");
+        }
+        assertEquals(GatewayCircuitBreaker.State.OPEN, circuit.state());
+        return circuit;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.smsbackend.config.GatewayCircuitBreakerProperties;
+import com.example.smsbackend.config.GatewayHealthProperties;
+import com.example.smsbackend.config.GatewayProperties;
+import com.example.smsbackend.config.GatewayRoutingProperties;
+import com.example.smsbackend.dto.GatewayHealthStats;
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class GatewayHealthProberTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+    private static final String GATEWAY = "http://192.168.1.20:8082";
+
+    @Test
+    void probeShouldTrackFailuresAndKeepLastSuccess() {
+        GatewayHealthProber.Probe probe = new GatewayHealthProber.Probe(Duration.ofSeconds(30));
+
+        probe.onSuccess(Duration.ofMillis(40).toNanos(), NOW);
+        probe.onFailure(Duration.ofSeconds(5).toNanos(), NOW.plusSeconds(10), "Cannot reach Android gateway");
+        probe.onFailure(Duration.ofSeconds(5).toNanos(), NOW.plusSeconds(20), "Cannot reach Android gateway");
+        GatewayHealthStats stats = probe.snapshot(GATEWAY, NOW.plusSeconds(25));
+
+        assertEquals("DOWN", stats.status());
+        assertEquals(2, stats.consecutiveFailures());
+        assertEquals(NOW, stats.lastSuccessAt());
+        assertEquals(5_000L, stats.ageMs());
+        assertFalse(stats.stale());
+    }
+
+    @Test
+    void probeShouldReportStaleResult() {
+        GatewayHealthProber.Probe probe = new GatewayHealthProber.Probe(Duration.ofSeconds(30));
+        probe.onSuccess(Duration.ofMillis(40).toNanos(), NOW);
+
+        GatewayHealthStats stats = probe.snapshot(GATEWAY, NOW.plusSeconds(31));
+
+        assertEquals("UP", stats.status());
+        assertEquals(40.0, stats.latencyMs());
+        assertTrue(stats.stale());
+    }
+
+    @Test
+    void healthShouldAnswerFromCacheWithoutCallingGateway() {
+        GatewayClientService client = mock(GatewayClientService.class);
+        doThrow(new IllegalStateException("Cannot reach Android gateway")).when(client).probe(any());
+        GatewayHealthProber prober = new GatewayHealthProber(
+            new GatewayHealthProperties(false, null, null, null, null, null),
+            client,
+            new GatewayRouter(
+                new GatewayProperties(GATEWAY, null, null),
+                new GatewayRoutingProperties(null, null, null, List.of()),
+                new GatewayCircuitBreaker(new GatewayCircuitBreakerProperties(null, null, null, null, null, null, null, null)),
+                mock(GatewayRegistry.class)
+            ),
+            Clock.fixed(NOW, ZoneOffset.UTC)
+        );
+
+        assertEquals("UNKNOWN", prober.health(null).get(0).status());
+
+        prober.probe(GATEWAY, new GatewayRequestOptions(GATEWAY, null));
+        GatewayHealthStats stats = prober.health(null).get(0);
+
+        assertEquals(GATEWAY, stats.gateway());
+        assertEquals("DOWN", stats.status());
+        assertEquals("Cannot reach Android gateway", stats.lastError());
+    }
+
+    @Test
+    void watchedGatewaysShouldBeCapped() {
+        Clock clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(NOW, NOW.plusSeconds(1), NOW.plusSeconds(2), NOW.plusSeconds(3), NOW.plusSeconds(4));
+        GatewayHealthProber prober = new GatewayHealthProber(
+            new GatewayHealthProperties(false, null, null, null, null, 2),
+            mock(GatewayClientService.class),
+            new GatewayRouter(
+                new GatewayProperties(GATEWAY, null, null),
+                new GatewayRoutingProperties(null, null, null, List.of()),
+                new GatewayCircuitBreaker(new GatewayCircuitBreakerProperties(null, null, null, null, null, null, null, null)),
+                mock(GatewayRegistry.class)
+            ),
+            clock
+        );
+
+        prober.health(new GatewayRequestOptions("http://10.0.0.1:8082", null));
+        prober.health(new GatewayRequestOptions("http://10.0.0.2:8082", null));
+        prober.health(new GatewayRequestOptions("http://10.0.0.1:8082", null));
+        prober.health(new GatewayRequestOptions("http://10.0.0.3:8082", null));
+
+        assertEquals(
+            List.of("http://10.0.0.1:8082", "http://10.0.0.3:8082", GATEWAY),
+            prober.stats().stream().map(GatewayHealthStats::gateway).sorted().toList()
+        );
+    }
+}
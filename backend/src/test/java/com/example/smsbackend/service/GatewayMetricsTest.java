@@ -0,0 +1,76 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+class GatewayMetricsTest {
+
+    private static final String GATEWAY = "http://10.0.0.5:8082";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GatewayMetrics metrics = new GatewayMetrics(registry, GATEWAY::equals);
+
+    @Test
+    void requestsShouldBeTaggedByOutcomeAndStatus() {
+        metrics.recordRequest(GATEWAY, "send", 200, TimeUnit.MILLISECONDS.toNanos(40));
+        metrics.recordRequest(GATEWAY, "send", 200, TimeUnit.MILLISECONDS.toNanos(60));
+        metrics.recordRequest(GATEWAY, "send", new HttpServerErrorException(HttpStatus.BAD_GATEWAY), 1_000);
+        metrics.recordRequest(GATEWAY, "send", new GatewayClientException(401, "unauthorized"), 1_000);
+
+        var success = registry.get(GatewayMetrics.REQUESTS)
+            .tags("gateway", GATEWAY, "operation", "send", "outcome", "success", "status", "200")
+            .timer();
+        assertEquals(2, success.count());
+        assertEquals(100, success.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, registry.get(GatewayMetrics.REQUESTS).tags("outcome", "server_error", "status", "502").timer().count());
+        assertEquals(1, registry.get(GatewayMetrics.REQUESTS).tags("outcome", "client_error", "status", "401").timer().count());
+    }
+
+    @Test
+    void unconfiguredGatewaysShouldShareOneTag() {
+        metrics.recordRequest("http://203.0.113.7:8082", "send", 200, 1_000);
+        metrics.recordRequest("http://203.0.113.8:8082", "send", 200, 1_000);
+
+        assertEquals(2, registry.get(GatewayMetrics.REQUESTS).tags("gateway", GatewayMetrics.ADHOC_GATEWAY).timer().count());
+        assertEquals(1, registry.get(GatewayMetrics.REQUESTS).timers().size());
+    }
+
+    @Test
+    void failuresWithoutResponseShouldHaveNoStatus() {
+        metrics.recordRequest(GATEWAY, "fetch", new ResourceAccessException("t", new SocketTimeoutException()), 1);
+        metrics.recordRequest(GATEWAY, "fetch", new ResourceAccessException("c", new ConnectException()), 1);
+        metrics.recordRequest(GATEWAY, "fetch", new GatewayCircuitOpenException(GATEWAY, Duration.ofSeconds(5)), 1);
+        metrics.recordRequest(GATEWAY, "fetch", new IllegalStateException(new IOException("bad json")), 1);
+
+        for (String outcome : new String[] {"timeout", "unreachable", "circuit_open", "error"}) {
+            assertEquals(1, registry.get(GatewayMetrics.REQUESTS)
+                .tags("operation", "fetch", "outcome", outcome, "status", GatewayMetrics.NO_STATUS)
+                .timer()
+                .count());
+        }
+    }
+
+    @Test
+    void countersShouldAccumulatePerGateway() {
+        metrics.recordMessages(GATEWAY, "fetch", GatewayMetrics.OUTCOME_SUCCESS, 12);
+        metrics.recordMessages(GATEWAY, "fetch", GatewayMetrics.OUTCOME_SUCCESS, 0);
+        metrics.recordBytes(GATEWAY, GatewayMetrics.DIRECTION_RECEIVED, 2048);
+        metrics.recordSegments(GATEWAY, "a".repeat(200));
+        metrics.recordSegments(GATEWAY, "✓");
+
+        assertEquals(12, registry.get(GatewayMetrics.MESSAGES).tags("operation", "fetch").counter().count());
+        assertEquals(2048, registry.get(GatewayMetrics.BYTES).tags("direction", "received").counter().count());
+        assertEquals(2, registry.get(GatewayMetrics.SEGMENTS).tags("encoding", "gsm7").counter().count());
+        assertEquals(1, registry.get(GatewayMetrics.SEGMENTS).tags("encoding", "ucs2").counter().count());
+    }
+}
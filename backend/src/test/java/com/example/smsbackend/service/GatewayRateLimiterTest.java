@@ -0,0 +1,78 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.smsbackend.config.GatewayRateLimitProperties;
+import com.example.smsbackend.dto.GatewayRateLimitStats;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class GatewayRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void bucketShouldAllowBurstThenReportWaitWithoutTakingPermit() {
+        GatewayRateLimiter.TokenBucket bucket = new GatewayRateLimiter.TokenBucket(2.0, 3, 0);
+
+        assertEquals(0, bucket.tryTake(0));
+        assertEquals(0, bucket.tryTake(0));
+        assertEquals(0, bucket.tryTake(0));
+        assertEquals(SECOND / 2, bucket.tryTake(0));
+        assertEquals(0, bucket.tryTake(SECOND / 2));
+    }
+
+    @Test
+    void bucketShouldSpreadRefusedCallersOverSuccessiveSlots() {
+        GatewayRateLimiter.TokenBucket bucket = new GatewayRateLimiter.TokenBucket(2.0, 1, 0);
+
+        assertEquals(0, bucket.tryTake(0));
+        assertEquals(SECOND / 2, bucket.tryTake(0));
+        assertEquals(SECOND, bucket.tryTake(0));
+        assertEquals(3 * SECOND / 2, bucket.tryTake(0));
+
+        // Each caller coming back at its slot finds the permit it was promised.
+        assertEquals(0, bucket.tryTake(SECOND / 2));
+        assertEquals(0, bucket.tryTake(SECOND));
+        assertEquals(0, bucket.tryTake(3 * SECOND / 2));
+    }
+
+    @Test
+    void bucketShouldRefillOverTime() {
+        GatewayRateLimiter.TokenBucket bucket = new GatewayRateLimiter.TokenBucket(1.0, 1, 0);
+
+        assertEquals(0, bucket.tryTake(0));
+        assertEquals(0, bucket.tryTake(SECOND));
+    }
+
+    @Test
+    void bucketShouldCountDeferrals() {
+        GatewayRateLimiter.TokenBucket bucket = new GatewayRateLimiter.TokenBucket(1.0, 1, 0);
+
+        assertEquals(0, bucket.tryTake(0));
+        assertEquals(SECOND, bucket.tryTake(0));
+
+        GatewayRateLimitStats stats = bucket.snapshot("gw", 0);
+        assertEquals(1, stats.granted());
+        assertEquals(1, stats.deferred());
+        assertEquals(1000.0, stats.maxDeferMs());
+    }
+
+    @Test
+    void acquireShouldRefuseWithoutWaiting() {
+        GatewayRateLimiter limiter = new GatewayRateLimiter(
+            new GatewayRateLimitProperties(true, 0.5, 1, true),
+            () -> 0L
+        );
+
+        limiter.acquire("http://10.0.0.5:8082", 1);
+        limiter.acquire("http://10.0.0.5:8082", 2);
+        GatewayRateLimitedException error = assertThrows(
+            GatewayRateLimitedException.class,
+            () -> limiter.acquire("http://10.0.0.5:8082/", 1)
+        );
+        assertEquals(Duration.ofSeconds(2), error.getRetryAfter());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import com.example.smsbackend.entity.Gateway;
+import com.example.smsbackend.repository.DeviceRepository;
+import com.example.smsbackend.repository.GatewayRepository;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class GatewayRegistryTest {
+
+    private final GatewayRepository gatewayRepository = mock(GatewayRepository.class);
+    private final DeviceRepository deviceRepository = mock(DeviceRepository.class);
+    private final GatewayRegistry registry = new GatewayRegistry(gatewayRepository, deviceRepository);
+
+    @Test
+    void recipientShouldResolveToItsDevicesGateway() {
+        when(gatewayRepository.findAllWithLocation()).thenReturn(List.of(gateway(1L, "shop", "http://10.0.0.7:8082", "1,2", true)));
+        when(deviceRepository.findGatewayAssignments()).thenReturn(List.<Object[]>of(new Object[] {"+63 997 307 9369", 1L}));
+
+        RegisteredGateway gateway = registry.forRecipient("639973079369").orElseThrow();
+
+        assertEquals("shop", gateway.name());
+        assertEquals(List.of(1, 2), gateway.slots());
+        assertTrue(registry.forRecipient("+639001").isEmpty());
+        assertTrue(registry.isRegistered("http://10.0.0.7:8082"));
+        verify(gatewayRepository, times(1)).findAllWithLocation();
+    }
+
+    @Test
+    void disabledGatewayShouldNotBeUsed() {
+        when(gatewayRepository.findAllWithLocation()).thenReturn(List.of(gateway(2L, "spare", "http://10.0.0.8:8082", null, false)));
+        when(deviceRepository.findGatewayAssignments()).thenReturn(List.<Object[]>of(new Object[] {"+639001", 2L}));
+
+        assertTrue(registry.forRecipient("+639001").isEmpty());
+        assertTrue(registry.enabledGateways().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> registry.require(2L));
+        assertThrows(IllegalArgumentException.class, () -> registry.require(99L));
+    }
+
+    @Test
+    void invalidateShouldReload() {
+        when(gatewayRepository.findAllWithLocation())
+            .thenReturn(List.of())
+            .thenReturn(List.of(gateway(3L, "new", "http://10.0.0.9:8082", null, true)));
+
+        assertFalse(registry.find(3L).isPresent());
+        registry.invalidate();
+
+        assertEquals("new", registry.require(3L).name());
+        verify(gatewayRepository, times(2)).findAllWithLocation();
+    }
+
+    @Test
+    void storedOptionsShouldNeverCarryAToken() {
+        when(gatewayRepository.findAllWithLocation()).thenReturn(List.of(gateway(1L, "shop", "http://10.0.0.7:8082", null, true)));
+
+        assertEquals(new GatewayRequestOptions(null, null, 1L), registry.forStorage(new GatewayRequestOptions(null, null, 1L)));
+        // A registered phone addressed by URL is stored by id; its token comes from the registry.
+        assertEquals(
+            new GatewayRequestOptions(null, null, 1L),
+            registry.forStorage(new GatewayRequestOptions("http://10.0.0.7:8082/", "Bearer secret"))
+        );
+        assertEquals(
+            new GatewayRequestOptions("http://10.0.0.9:8082", null, null),
+            registry.forStorage(new GatewayRequestOptions(" http://10.0.0.9:8082 ", null))
+        );
+        assertThrows(IllegalArgumentException.class,
+            () -> registry.forStorage(new GatewayRequestOptions("http://10.0.0.9:8082", "Bearer secret")));
+    }
+
+    private static Gateway gateway(Long id, String name, String baseUrl, String slots, boolean enabled) {
+        Gateway gateway = new Gateway();
+        ReflectionTestUtils.setField(gateway, "id", id);
+        gateway.setName(name);
+        gateway.setBaseUrl(baseUrl);
+        gateway.setSlots(slots);
+        gateway.setEnabled(enabled);
+        return gateway;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.smsbackend.dto.GatewayReplyMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class GatewayReplyReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void readsMessagesAndSkipsUnknownFields() throws IOException {
+        List<GatewayReplyMessage> replies = read("""
+            [
+              {"id": 7, "from": "+15550100", "message": "OK", "date": 1700000000000, "extra": {"sim": [1, 2]}},
+              {"id": 8, "from": null, "message": "Battery 80%", "date": 1700000001000}
+            ]
+            """);
+
+        assertEquals(List.of(
+            new GatewayReplyMessage(7, "+15550100", "OK", 1_700_000_000_000L),
+            new GatewayReplyMessage(8, null, "Battery 80%", 1_700_000_001_000L)
+        ), replies);
+    }
+
+    @Test
+    void emptyBodyYieldsNoMessages() throws IOException {
+        assertEquals(List.of(), read(""));
+        assertEquals(List.of(), read("[]"));
+    }
+
+    @Test
+    void rejectsNonArrayResponse() {
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> read("{\"error\": \"nope\"}"));
+        assertEquals("Failed to parse gateway response: expected a JSON array", error.getMessage());
+    }
+
+    @Test
+    void rejectsTruncatedResponse() {
+        assertThrows(IllegalStateException.class, () -> read("[{\"id\": 1, \"from\": \"+1555"));
+    }
+
+    private List<GatewayReplyMessage> read(String json) throws IOException {
+        List<GatewayReplyMessage> replies = new ArrayList<>();
+        int count = GatewayReplyReader.read(
+            new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+            objectMapper.getFactory(),
+            replies::add
+        );
+        assertEquals(replies.size(), count);
+        return replies;
+    }
+}
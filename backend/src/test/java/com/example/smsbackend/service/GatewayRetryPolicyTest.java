@@ -0,0 +1,140 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.smsbackend.config.GatewayRetryProperties;
+import com.example.smsbackend.dto.GatewayRetryStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+class GatewayRetryPolicyTest {
+
+    private static final String GATEWAY = "http://10.0.0.5:8082";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Long> sleeps = new ArrayList<>();
+
+    @Test
+    void idempotentCallShouldRetryServerErrorsWithGrowingBackoff() {
+        GatewayRetryPolicy policy = policy(new GatewayRetryProperties(true, 3, Duration.ofMillis(100), Duration.ofSeconds(1), 0.2, 10));
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = policy.execute(GATEWAY, "fetch", () -> true, () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+        assertEquals(List.of(50L, 100L), sleeps);
+        assertEquals(2, registry.get(GatewayMetrics.RETRIES).tags("outcome", "retried").counter().count());
+        assertEquals(3, registry.get(GatewayMetrics.ATTEMPTS).summary().totalAmount());
+    }
+
+    @Test
+    void shouldGiveUpAfterMaxAttempts() {
+        GatewayRetryPolicy policy = policy(defaults());
+        AtomicInteger calls = new AtomicInteger();
+        HttpServerErrorException error = new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> policy.execute(GATEWAY, "fetch", () -> true, () -> {
+            calls.incrementAndGet();
+            throw error;
+        }));
+
+        assertSame(error, thrown);
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void sendShouldOnlyRetryWhenNothingWasWritten() {
+        GatewayRetryPolicy policy = policy(defaults());
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(ResourceAccessException.class, () -> policy.execute(GATEWAY, "send", () -> false, () -> {
+            calls.incrementAndGet();
+            throw new ResourceAccessException("read", new SocketTimeoutException("Read timed out"));
+        }));
+        assertEquals(1, calls.get());
+
+        calls.set(0);
+        String result = policy.execute(GATEWAY, "send", () -> false, () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new ResourceAccessException("connect", new ConnectException("Connection refused"));
+            }
+            return "sent";
+        });
+        assertEquals("sent", result);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void classificationShouldSkipClientErrorsAndOpenCircuits() {
+        assertTrue(GatewayRetryPolicy.isRetryable(new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS), true));
+        assertTrue(GatewayRetryPolicy.isRetryable(new ResourceAccessException("t", new SocketTimeoutException()), true));
+        assertFalse(GatewayRetryPolicy.isRetryable(new HttpClientErrorException(HttpStatus.UNAUTHORIZED), true));
+        assertFalse(GatewayRetryPolicy.isRetryable(new HttpServerErrorException(HttpStatus.BAD_GATEWAY), false));
+        assertFalse(GatewayRetryPolicy.isRetryable(new GatewayCircuitOpenException(GATEWAY, Duration.ofSeconds(5)), true));
+        assertTrue(GatewayRetryPolicy.neverSent(
+            new ResourceAccessException("t", new SocketTimeoutException("Connect timed out"))
+        ));
+    }
+
+    @Test
+    void exhaustedBudgetShouldStopRetries() {
+        GatewayRetryPolicy policy = policy(new GatewayRetryProperties(true, 3, Duration.ofMillis(10), Duration.ofMillis(10), 0.0, 2));
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(HttpServerErrorException.class, () -> policy.execute(GATEWAY, "fetch", () -> true, () -> {
+                calls.incrementAndGet();
+                throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            }));
+        }
+
+        // Two banked retries: the first call uses both, the second gets none.
+        assertEquals(4, calls.get());
+        GatewayRetryStats stats = policy.stats().get(0);
+        assertEquals(2, stats.calls());
+        assertEquals(2, stats.retries());
+        assertEquals(1, stats.budgetExhausted());
+        assertEquals(1, registry.get(GatewayMetrics.RETRIES).tags("outcome", "budget_exhausted").counter().count());
+    }
+
+    @Test
+    void disabledPolicyShouldCallOnce() {
+        GatewayRetryPolicy policy = policy(new GatewayRetryProperties(false, 5, null, null, null, null));
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(HttpServerErrorException.class, () -> policy.execute(GATEWAY, "fetch", () -> true, () -> {
+            calls.incrementAndGet();
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        }));
+        assertEquals(1, calls.get());
+        assertTrue(policy.stats().isEmpty());
+    }
+
+    private GatewayRetryPolicy policy(GatewayRetryProperties properties) {
+        return new GatewayRetryPolicy(properties, new GatewayMetrics(registry, gateway -> true), sleeps::add, () -> 0.5);
+    }
+
+    private static GatewayRetryProperties defaults() {
+        return new GatewayRetryProperties(null, null, null, null, null, null);
+    }
+}
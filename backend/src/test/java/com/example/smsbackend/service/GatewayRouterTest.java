@@ -0,0 +1,125 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.smsbackend.config.GatewayCircuitBreakerProperties;
+import com.example.smsbackend.config.GatewayProperties;
+import com.example.smsbackend.config.GatewayRoutingProperties;
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class GatewayRouterTest {
+
+    private static final GatewayRoutingProperties.Phone PHONE_A =
+        new GatewayRoutingProperties.Phone("a", "http://10.0.0.1:8082", "token-a", List.of(1, 2), 3);
+    private static final GatewayRoutingProperties.Phone PHONE_B =
+        new GatewayRoutingProperties.Phone("b", "http://10.0.0.2:8082", null, List.of(), 1);
+    private static final RegisteredGateway SHOP =
+        new RegisteredGateway(7L, "shop", "http://10.0.0.7:8082", "token-7", List.of(2), null, true);
+
+    private final GatewayRegistry registry = mock(GatewayRegistry.class);
+
+    @Test
+    void weightedRoundRobinShouldFollowWeights() {
+        GatewayRouter router = router(GatewayRoutingProperties.WEIGHTED_ROUND_ROBIN, false);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 70; i++) {
+            GatewayRoute route = router.route("+63900" + i, null, null);
+            counts.merge(route.describe(), 1, Integer::sum);
+            router.release(route);
+        }
+
+        assertEquals(30, counts.get("a#slot1"));
+        assertEquals(30, counts.get("a#slot2"));
+        assertEquals(10, counts.get("b"));
+    }
+
+    @Test
+    void leastOutstandingShouldAvoidBusyLanes() {
+        GatewayRouter router = router(GatewayRoutingProperties.LEAST_OUTSTANDING, false);
+
+        GatewayRoute first = router.route("+639001", 1, null);
+        GatewayRoute second = router.route("+639002", 1, null);
+
+        assertEquals("a#slot1", first.describe());
+        assertEquals("b#slot1", second.describe());
+        assertEquals("token-a", first.token());
+        assertNull(second.token());
+    }
+
+    @Test
+    void stickyRecipientShouldKeepItsLane() {
+        GatewayRouter router = router(GatewayRoutingProperties.WEIGHTED_ROUND_ROBIN, true);
+
+        String lane = router.route("+63 997 307 9369", null, null).describe();
+        for (int i = 0; i < 5; i++) {
+            router.route("+63900" + i, null, null);
+            assertEquals(lane, router.route("639973079369", null, null).describe());
+        }
+    }
+
+    @Test
+    void explicitBaseUrlShouldBypassThePool() {
+        GatewayRouter router = router(GatewayRoutingProperties.LEAST_OUTSTANDING, true);
+
+        GatewayRoute route = router.route("+639001", 2, new GatewayRequestOptions(" http://10.9.9.9:8082 ", "t"));
+
+        assertNull(route.phoneId());
+        assertEquals("http://10.9.9.9:8082", route.baseUrl());
+        assertEquals(2, route.slot());
+    }
+
+    @Test
+    void registeredGatewayShouldWinOverLanes() {
+        GatewayRouter router = router(GatewayRoutingProperties.LEAST_OUTSTANDING, true);
+        when(registry.require(7L)).thenReturn(SHOP);
+        when(registry.forRecipient("+639005")).thenReturn(Optional.of(SHOP));
+
+        GatewayRoute named = router.route("+639001", null, new GatewayRequestOptions(null, null, 7L));
+        GatewayRoute assigned = router.route("+639005", null, null);
+
+        assertEquals("http://10.0.0.7:8082", named.baseUrl());
+        assertEquals("token-7", named.token());
+        assertEquals(2, named.slot());
+        assertEquals("http://10.0.0.7:8082", assigned.baseUrl());
+        assertEquals("a#slot1", router.route("+639001", 1, null).describe());
+        assertThrows(IllegalArgumentException.class,
+            () -> router.route("+639001", 1, new GatewayRequestOptions(null, null, 7L)));
+    }
+
+    @Test
+    void unknownSlotShouldBeRejected() {
+        GatewayRouter router = router(GatewayRoutingProperties.LEAST_OUTSTANDING, true);
+        GatewayRouter slotOnly = new GatewayRouter(
+            new GatewayProperties(null, null, null),
+            new GatewayRoutingProperties(null, null, null, List.of(PHONE_A)),
+            new GatewayCircuitBreaker(breakerProperties()),
+            registry
+        );
+
+        assertEquals("a#slot2", router.route("+639001", 2, null).describe());
+        assertThrows(IllegalArgumentException.class, () -> slotOnly.route("+639001", 3, null));
+    }
+
+    private GatewayRouter router(String strategy, boolean sticky) {
+        return new GatewayRouter(
+            new GatewayProperties(null, null, null),
+            new GatewayRoutingProperties(strategy, sticky, null, List.of(PHONE_A, PHONE_B)),
+            new GatewayCircuitBreaker(breakerProperties()),
+            registry
+        );
+    }
+
+    private GatewayCircuitBreakerProperties breakerProperties() {
+        return new GatewayCircuitBreakerProperties(null, null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class GatewayStateMapTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void idleOriginsShouldBeDroppedPastTheCap() {
+        GatewayStateMap<String> map = new GatewayStateMap<>(2, Duration.ofMinutes(1), now::get, value -> false);
+        map.computeIfAbsent("http://10.0.0.1:8082", origin -> "a");
+        map.computeIfAbsent("http://10.0.0.2:8082", origin -> "b");
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        map.get("http://10.0.0.2:8082");
+        map.computeIfAbsent("http://10.0.0.3:8082", origin -> "c");
+
+        assertEquals(2, map.size());
+        assertNull(map.get("http://10.0.0.1:8082"));
+        assertNotNull(map.get("http://10.0.0.2:8082"));
+    }
+
+    @Test
+    void recentlyUsedOrPinnedOriginsShouldBeKept() {
+        GatewayStateMap<String> map = new GatewayStateMap<>(1, Duration.ofMinutes(1), now::get, "open"::equals);
+        map.computeIfAbsent("http://10.0.0.1:8082", origin -> "open");
+        map.computeIfAbsent("http://10.0.0.2:8082", origin -> "closed");
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        map.computeIfAbsent("http://10.0.0.3:8082", origin -> "closed");
+
+        assertEquals(2, map.size());
+        assertNotNull(map.get("http://10.0.0.1:8082"));
+        assertNotNull(map.get("http://10.0.0.3:8082"));
+    }
+}
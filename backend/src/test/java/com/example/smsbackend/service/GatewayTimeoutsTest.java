@@ -0,0 +1,101 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.smsbackend.config.GatewayTimeoutProperties;
+import com.example.smsbackend.config.GatewayTransportProperties;
+import com.example.smsbackend.dto.GatewayTimeoutStats;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class GatewayTimeoutsTest {
+
+    private static final String LAN = "http://192.168.1.37:8082";
+    private static final String HOTSPOT = "http://172.20.10.2:8082";
+
+    private final AtomicLong now = new AtomicLong();
+    private final GatewayTransportProperties transport =
+        new GatewayTransportProperties(null, null, null, null, null, Duration.ofSeconds(5), Duration.ofSeconds(10), null);
+
+    @Test
+    void staticTimeoutsShouldApplyUntilEnoughSamples() {
+        GatewayTimeouts timeouts = timeouts(properties(true));
+        record(timeouts, LAN, 50, 19);
+
+        assertEquals(Duration.ofSeconds(5), timeouts.connectTimeout(LAN));
+        assertEquals(Duration.ofSeconds(10), timeouts.readTimeout(LAN));
+        assertFalse(timeouts.stats().get(0).adaptive());
+    }
+
+    @Test
+    void timeoutsShouldFollowEachGatewaysLatency() {
+        GatewayTimeouts timeouts = timeouts(properties(true));
+        record(timeouts, LAN, 50, 100);
+        record(timeouts, HOTSPOT, 2_500, 99);
+        record(timeouts, HOTSPOT, 6_000, 1);
+
+        // LAN: p99 is about 50ms, times 3 is below both floors.
+        assertEquals(Duration.ofMillis(250), timeouts.connectTimeout(LAN));
+        assertEquals(Duration.ofSeconds(1), timeouts.readTimeout(LAN));
+
+        // Hotspot: p99 lands in the bucket holding 2.5s, so roughly 7.5-9.5s after the factor.
+        Duration read = timeouts.readTimeout(HOTSPOT);
+        assertTrue(read.compareTo(Duration.ofMillis(7_500)) >= 0 && read.compareTo(Duration.ofMillis(9_500)) <= 0, read::toString);
+        assertEquals(Duration.ofSeconds(8), timeouts.connectTimeout(HOTSPOT));
+    }
+
+    @Test
+    void timeoutsShouldBeClampedToMaximum() {
+        GatewayTimeouts timeouts = timeouts(properties(true));
+        record(timeouts, HOTSPOT, 20_000, 50);
+
+        assertEquals(Duration.ofSeconds(8), timeouts.connectTimeout(HOTSPOT));
+        assertEquals(Duration.ofSeconds(30), timeouts.readTimeout(HOTSPOT));
+    }
+
+    @Test
+    void oldSamplesShouldAgeOut() {
+        GatewayTimeouts timeouts = timeouts(properties(true));
+        record(timeouts, HOTSPOT, 5_000, 50);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        record(timeouts, HOTSPOT, 100, 50);
+
+        GatewayTimeoutStats stats = timeouts.stats().get(0);
+        assertEquals(100, stats.samples());
+        assertTrue(stats.percentileMs() > 4_000);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(45));
+        stats = timeouts.stats().get(0);
+        assertEquals(50, stats.samples());
+        assertTrue(stats.percentileMs() < 200, () -> "p99 was " + timeouts.stats().get(0).percentileMs());
+    }
+
+    @Test
+    void disabledShouldKeepStaticTimeouts() {
+        GatewayTimeouts timeouts = timeouts(properties(false));
+        record(timeouts, LAN, 50, 100);
+
+        assertEquals(Duration.ofSeconds(10), timeouts.readTimeout(LAN));
+        assertTrue(timeouts.stats().isEmpty());
+    }
+
+    private GatewayTimeouts timeouts(GatewayTimeoutProperties properties) {
+        return new GatewayTimeouts(properties, transport, now::get);
+    }
+
+    private static GatewayTimeoutProperties properties(boolean enabled) {
+        return new GatewayTimeoutProperties(
+            enabled, 0.99, 3.0, Duration.ofMinutes(1), 20, null, Duration.ofSeconds(8), null, Duration.ofSeconds(30)
+        );
+    }
+
+    private static void record(GatewayTimeouts timeouts, String gateway, long millis, int times) {
+        for (int i = 0; i < times; i++) {
+            timeouts.record(gateway, TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.smsbackend.config.IdempotencyProperties;
+import com.example.smsbackend.dto.SendMessageResponse;
+import com.example.smsbackend.entity.IdempotencyRecord;
+import com.example.smsbackend.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+class IdempotencyServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+    private final AtomicInteger executions = new AtomicInteger();
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findByScopeAndIdempotencyKey(anyString(), anyString())).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        service = newService();
+    }
+
+    @Test
+    void requestsWithoutKeyShouldAlwaysRun() {
+        send(null, "hello");
+        send(" ", "hello");
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void repeatedKeyShouldReplayOriginalResponse() {
+        ResponseEntity<SendMessageResponse> first = send("key-1", "hello");
+        ResponseEntity<SendMessageResponse> second = send("key-1", "hello");
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.ACCEPTED, second.getStatusCode());
+        assertEquals(first.getBody(), second.getBody());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void keyReusedForDifferentRequestShouldBeRejected() {
+        send("key-1", "hello");
+
+        ResponseStatusException error = assertThrows(ResponseStatusException.class, () -> send("key-1", "other"));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, error.getStatusCode());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void storedRecordShouldSurviveRestart() {
+        send("key-1", "hello");
+        IdempotencyRecord stored = lastSaved();
+        when(repository.findByScopeAndIdempotencyKey(IdempotencyService.SCOPE_MESSAGE, "key-1"))
+            .thenReturn(Optional.of(stored));
+
+        ResponseEntity<SendMessageResponse> replayed = newService().execute(
+            IdempotencyService.SCOPE_MESSAGE, "key-1", List.of("hello"), SendMessageResponse.class, action()
+        );
+
+        assertEquals(1, executions.get());
+        assertEquals(1L, replayed.getBody().messageId());
+    }
+
+    @Test
+    void expiredRecordShouldRunAgain() {
+        IdempotencyRecord expired = new IdempotencyRecord();
+        expired.setScope(IdempotencyService.SCOPE_MESSAGE);
+        expired.setIdempotencyKey("key-1");
+        expired.setRequestHash("stale");
+        expired.setExpiresAt(NOW.minus(Duration.ofMinutes(1)));
+        when(repository.findByScopeAndIdempotencyKey(IdempotencyService.SCOPE_MESSAGE, "key-1"))
+            .thenReturn(Optional.of(expired));
+
+        send("key-1", "hello");
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void failedRequestShouldNotBeRemembered() {
+        assertThrows(IllegalArgumentException.class, () -> service.execute(
+            IdempotencyService.SCOPE_MESSAGE, "key-1", List.of("hello"), SendMessageResponse.class,
+            () -> {
+                throw new IllegalArgumentException("Device not found.");
+            }
+        ));
+
+        send("key-1", "hello");
+
+        assertEquals(1, executions.get());
+    }
+
+    private ResponseEntity<SendMessageResponse> send(String key, String message) {
+        return service.execute(IdempotencyService.SCOPE_MESSAGE, key, List.of(message), SendMessageResponse.class, action());
+    }
+
+    private Supplier<ResponseEntity<SendMessageResponse>> action() {
+        return () -> ResponseEntity.accepted()
+            .body(new SendMessageResponse(true, "Message queued", (long) executions.incrementAndGet()));
+    }
+
+    private IdempotencyRecord lastSaved() {
+        ArgumentCaptor<IdempotencyRecord> captor = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(repository, atLeastOnce()).save(captor.capture());
+        return captor.getValue();
+    }
+
+    private IdempotencyService newService() {
+        return new IdempotencyService(
+            repository,
+            new IdempotencyProperties(null, null, null, null),
+            new ObjectMapper(),
+            mock(PlatformTransactionManager.class),
+            Clock.fixed(NOW, ZoneOffset.UTC)
+        );
+    }
+}
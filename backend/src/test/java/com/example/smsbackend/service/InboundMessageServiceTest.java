@@ -0,0 +1,180 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.smsbackend.config.CoalescingProperties;
+import com.example.smsbackend.config.GatewayProperties;
+import com.example.smsbackend.dto.GatewayReplyMessage;
+import com.example.smsbackend.entity.InboundCursor;
+import com.example.smsbackend.entity.InboundMessage;
+import com.example.smsbackend.repository.InboundCursorRepository;
+import com.example.smsbackend.repository.InboundMessageRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class InboundMessageServiceTest {
+
+    private static final String GATEWAY = "http://192.168.1.20:8082";
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    private InboundMessageRepository messageRepository;
+
+    @Mock
+    private InboundCursorRepository cursorRepository;
+
+    private InboundMessageService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(cursorRepository.save(any(InboundCursor.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(cursorRepository.findById(GATEWAY)).thenReturn(Optional.empty());
+        service = new InboundMessageService(
+            messageRepository,
+            cursorRepository,
+            new GatewayProperties("http://localhost", null, null),
+            new CoalescingProperties(false, null, null),
+            new ObjectMapper()
+        );
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void storeShouldSkipKnownIdsAndAdvanceCursor() {
+        when(messageRepository.findStoredIds(eq(GATEWAY), anyCollection())).thenReturn(List.of(10L));
+
+        List<InboundMessage> stored = service.store(GATEWAY, List.of(
+            new GatewayReplyMessage(12, "+63 997 307 9369", "OK", 3_000),
+            new GatewayReplyMessage(11, "09973079369", "Battery 80%", 2_000),
+            new GatewayReplyMessage(10, "+639973079369", "boundary", 1_000)
+        ), true, NOW);
+
+        assertEquals(2, stored.size());
+        ArgumentCaptor<List<InboundMessage>> saved = ArgumentCaptor.forClass(List.class);
+        verify(messageRepository).saveAll(saved.capture());
+        assertEquals(List.of(11L, 12L), saved.getValue().stream().map(InboundMessage::getGatewayMessageId).toList());
+        assertEquals("639973079369", saved.getValue().get(1).getFromDigits());
+
+        InboundCursor cursor = savedCursor();
+        assertEquals(3_000L, cursor.getSinceMillis());
+        assertEquals(2, cursor.getTotalStored());
+        assertEquals(NOW, cursor.getLastSuccessAt());
+    }
+
+    @Test
+    void emptyPollShouldKeepCursor() {
+        InboundCursor existing = new InboundCursor();
+        existing.setGateway(GATEWAY);
+        existing.setSinceMillis(5_000L);
+        existing.setLastError("Cannot reach Android gateway");
+        when(cursorRepository.findById(GATEWAY)).thenReturn(Optional.of(existing));
+
+        assertEquals(List.of(), service.store(GATEWAY, List.of(), true, NOW));
+
+        InboundCursor cursor = savedCursor();
+        assertEquals(5_000L, cursor.getSinceMillis());
+        assertNull(cursor.getLastError());
+    }
+
+    @Test
+    void searchShouldSplitDigitAndTextSenderFilters() {
+        service.search(List.of(GATEWAY), "+63 997-307-9369", 1_000L, 5000);
+        verify(messageRepository).search(
+            eq(List.of(GATEWAY)),
+            eq(Instant.ofEpochMilli(1_000)),
+            eq("639973079369"),
+            eq(""),
+            eq(Pageable.ofSize(1000))
+        );
+
+        service.search(List.of(GATEWAY), "GLOBE", null, null);
+        verify(messageRepository).search(
+            eq(List.of(GATEWAY)),
+            eq(Instant.EPOCH),
+            eq(""),
+            eq("globe"),
+            eq(Pageable.ofSize(100))
+        );
+    }
+
+    @Test
+    void searchJsonShouldRenderEachCachedPageOnce() throws Exception {
+        InboundMessageService cached = new InboundMessageService(
+            messageRepository,
+            cursorRepository,
+            new GatewayProperties("http://localhost", null, null),
+            new CoalescingProperties(true, Duration.ofMinutes(1), null),
+            new ObjectMapper()
+        );
+        InboundMessage stored = new InboundMessage();
+        stored.setGatewayMessageId(7L);
+        stored.setFromNumber("+639973079369");
+        stored.setBody("OK");
+        stored.setReceivedAt(Instant.ofEpochMilli(1_000));
+        when(messageRepository.search(anyCollection(), any(), any(), any(), any())).thenReturn(List.of(stored));
+
+        byte[] first = cached.searchJson(List.of(GATEWAY), null, null, null);
+        byte[] second = cached.searchJson(List.of(GATEWAY), null, null, null);
+
+        assertSame(first, second);
+        assertEquals(
+            new ObjectMapper().writeValueAsString(cached.search(List.of(GATEWAY), null, null, null)),
+            new String(first, StandardCharsets.UTF_8)
+        );
+        assertEquals("[]", new String(cached.searchJson(List.of(), null, null, null), StandardCharsets.UTF_8));
+        verify(messageRepository, times(1)).search(anyCollection(), any(), any(), any(), any());
+    }
+
+    @Test
+    void storedRepliesShouldInvalidateCachedReadsOnlyAfterCommit() {
+        InboundMessageService cached = new InboundMessageService(
+            messageRepository,
+            cursorRepository,
+            new GatewayProperties("http://localhost", null, null),
+            new CoalescingProperties(true, Duration.ofMinutes(1), null),
+            new ObjectMapper()
+        );
+        cached.search(List.of(GATEWAY), null, null, null);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cached.store(GATEWAY, List.of(new GatewayReplyMessage(1, "+639973079369", "OK", 1_000)), true, NOW);
+            cached.search(List.of(GATEWAY), null, null, null);
+            verify(messageRepository, times(1)).search(anyCollection(), any(), any(), any(), any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        cached.search(List.of(GATEWAY), null, null, null);
+        verify(messageRepository, times(2)).search(anyCollection(), any(), any(), any(), any());
+    }
+
+    private InboundCursor savedCursor() {
+        ArgumentCaptor<InboundCursor> captor = ArgumentCaptor.forClass(InboundCursor.class);
+        verify(cursorRepository).save(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.intThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.smsbackend.config.InboundProperties;
+import com.example.smsbackend.dto.GatewayReplyMessage;
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InboundPollerTest {
+
+    private static final String LIVE = "http://10.0.0.1:8082";
+    private static final String DEAD = "http://10.0.0.2:8082";
+    private static final String SLOW = "http://10.0.0.3:8082";
+
+    private final GatewayRouter router = mock(GatewayRouter.class);
+    private final GatewayClientService client = mock(GatewayClientService.class);
+    private final InboundMessageService messages = mock(InboundMessageService.class);
+    private InboundPoller poller;
+
+    @BeforeEach
+    void setUp() {
+        poller = new InboundPoller(
+            new InboundProperties(true, null, 2, 4, 4, null, Duration.ofMillis(300), null),
+            router,
+            client,
+            messages,
+            mock(GatewayCircuitBreaker.class),
+            mock(InboundStreamService.class),
+            mock(CommandAckService.class)
+        );
+        when(client.fetchMessages(any(), any(), anyInt(), argThat(options -> options != null && LIVE.equals(options.baseUrl()))))
+            .thenReturn(List.of());
+        when(client.fetchMessages(any(), any(), anyInt(), argThat(options -> options != null && DEAD.equals(options.baseUrl()))))
+            .thenThrow(new IllegalStateException("Cannot reach Android gateway"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        poller.destroy();
+    }
+
+    @Test
+    void deadGatewayShouldNotFailAMultiGatewayRead() {
+        configure(LIVE, DEAD);
+
+        assertEquals(List.of(LIVE, DEAD), poller.sync(null));
+        verify(messages).store(eq(LIVE), eq(List.of()), eq(true), any());
+        verify(messages).recordFailure(eq(DEAD), anyString(), any());
+    }
+
+    @Test
+    void slowGatewayShouldBeBoundedBySyncTimeout() {
+        configure(LIVE, SLOW);
+        when(client.fetchMessages(any(), any(), anyInt(), argThat(options -> options != null && SLOW.equals(options.baseUrl()))))
+            .thenAnswer(invocation -> {
+                Thread.sleep(2_000);
+                return List.of();
+            });
+
+        long started = System.nanoTime();
+        assertEquals(List.of(LIVE, SLOW), poller.sync(null));
+        assertTrue(System.nanoTime() - started < Duration.ofSeconds(1).toNanos());
+    }
+
+    @Test
+    void failureShouldReachCallerWhenNoGatewayAnswers() {
+        configure(DEAD);
+        assertThrows(IllegalStateException.class, () -> poller.sync(null));
+
+        configure(DEAD, "http://10.0.0.4:8082");
+        when(client.fetchMessages(any(), any(), anyInt(), argThat(options -> options != null && options.baseUrl().endsWith(".4:8082"))))
+            .thenThrow(new IllegalStateException("Cannot reach Android gateway"));
+        assertThrows(IllegalStateException.class, () -> poller.sync(null));
+    }
+
+    @Test
+    void fullPageShouldBeFetchedAgainWithALargerLimit() {
+        configure(LIVE);
+        when(messages.since(LIVE)).thenReturn(1_000L);
+        List<GatewayReplyMessage> newest = replies(5, 4);
+        List<GatewayReplyMessage> all = replies(5, 4, 3);
+        when(client.fetchMessages(any(), eq(1_000L), eq(2), any())).thenReturn(newest);
+        when(client.fetchMessages(any(), eq(1_000L), eq(4), any())).thenReturn(all);
+
+        poller.sync(null);
+
+        verify(messages).store(eq(LIVE), eq(all), eq(true), any());
+    }
+
+    @Test
+    void cursorShouldStayWhileFullPagesKeepComing() {
+        configure(LIVE);
+        when(messages.since(LIVE)).thenReturn(1_000L);
+        when(client.fetchMessages(any(), eq(1_000L), eq(2), any())).thenReturn(replies(9, 8));
+        when(client.fetchMessages(any(), eq(1_000L), eq(4), any())).thenReturn(replies(9, 8, 7, 6));
+
+        poller.sync(null);
+
+        verify(messages).store(eq(LIVE), eq(replies(9, 8, 7, 6)), eq(false), any());
+    }
+
+    @Test
+    void pageClampedByThePhoneShouldNotMoveTheCursor() {
+        InboundPoller clamped = new InboundPoller(
+            new InboundProperties(true, null, 500, 8000, 1, null, null, null),
+            router,
+            client,
+            messages,
+            mock(GatewayCircuitBreaker.class),
+            mock(InboundStreamService.class),
+            mock(CommandAckService.class)
+        );
+        configure(LIVE);
+        when(messages.since(LIVE)).thenReturn(1_000L);
+        // 1500 replies since the cursor; like the phone, never more than 1000 per page.
+        List<GatewayReplyMessage> inbox = replies(LongStream.rangeClosed(1, 1500).map(id -> 1501 - id).toArray());
+        when(client.fetchMessages(any(), eq(1_000L), anyInt(), any()))
+            .thenAnswer(invocation -> inbox.subList(0, Math.min(invocation.<Integer>getArgument(2), 1000)));
+
+        try {
+            clamped.sync(null);
+        } finally {
+            clamped.destroy();
+        }
+
+        verify(client, never()).fetchMessages(any(), any(), intThat(limit -> limit > 1000), any());
+        verify(messages).store(eq(LIVE), eq(inbox.subList(0, 1000)), eq(false), any());
+    }
+
+    private void configure(String... gateways) {
+        Map<String, GatewayRequestOptions> configured = new LinkedHashMap<>();
+        for (String gateway : gateways) {
+            configured.put(gateway, new GatewayRequestOptions(gateway, null));
+        }
+        when(router.configuredGateways()).thenReturn(configured);
+    }
+
+    private static List<GatewayReplyMessage> replies(long... ids) {
+        return Arrays.stream(ids)
+            .mapToObj(id -> new GatewayReplyMessage(id, "+639973079369", "reply " + id, 1_000 + id))
+            .toList();
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.smsbackend.config.OutboxProperties;
+import com.example.smsbackend.entity.OutboundMessage;
+import com.example.smsbackend.entity.OutboundMessageStatus;
+import com.example.smsbackend.repository.CommandAckRepository;
+import com.example.smsbackend.repository.DeviceConfigCommandRepository;
+import com.example.smsbackend.repository.DeviceConfigPendingRepository;
+import com.example.smsbackend.repository.DeviceRepository;
+import com.example.smsbackend.repository.GatewayRepository;
+import com.example.smsbackend.repository.OutboundMessageRepository;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+class OutboxServiceTest {
+
+    @Mock
+    private OutboundMessageRepository repository;
+
+    @Mock
+    private DeviceConfigCommandRepository configCommands;
+
+    @Mock
+    private DeviceConfigPendingRepository pendingConfig;
+
+    @Mock
+    private CommandAckRepository commandAcks;
+
+    private OutboxService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(repository.finishClaim(any(), any(), any(), anyInt(), any(), any(), any(), any(), any())).thenReturn(1);
+        service = new OutboxService(
+            repository,
+            new OutboxProperties(null, null, null, null, 3, null, null, null, null, null),
+            configCommands,
+            pendingConfig,
+            commandAcks,
+            new GatewayRegistry(mock(GatewayRepository.class), mock(DeviceRepository.class))
+        );
+    }
+
+    @Test
+    void transientFailureShouldBeRescheduled() {
+        OutboundMessage message = claimedMessage();
+
+        service.markFailed(message, new IllegalStateException("Cannot reach Android gateway"));
+
+        assertEquals(OutboundMessageStatus.PENDING, message.getStatus());
+        assertEquals(1, message.getAttempts());
+        assertNull(message.getClaimToken());
+        assertTrue(message.getNextAttemptAt().isAfter(message.getLastAttemptAt()));
+    }
+
+    @Test
+    void clientErrorShouldFailImmediately() {
+        OutboundMessage message = claimedMessage();
+
+        service.markFailed(message, new GatewayClientException(401, "Gateway send failed: HTTP 401"));
+
+        assertEquals(OutboundMessageStatus.FAILED, message.getStatus());
+    }
+
+    @Test
+    void exhaustedAttemptsShouldFail() {
+        OutboundMessage message = claimedMessage();
+        message.setAttempts(2);
+
+        service.markFailed(message, new GatewayClientException(500, "Gateway send failed: HTTP 500"));
+
+        assertEquals(OutboundMessageStatus.FAILED, message.getStatus());
+        assertEquals(3, message.getAttempts());
+    }
+
+    @Test
+    void openCircuitShouldDeferWithoutSpendingAnAttempt() {
+        OutboundMessage message = claimedMessage();
+
+        service.markFailed(message, new GatewayCircuitOpenException("http://10.0.0.5:8082", Duration.ofSeconds(20)));
+
+        assertEquals(OutboundMessageStatus.PENDING, message.getStatus());
+        assertEquals(0, message.getAttempts());
+        assertTrue(message.getNextAttemptAt().isAfter(Instant.now().plusSeconds(15)));
+    }
+
+    @Test
+    void fullBulkheadShouldDeferWithoutSpendingAnAttempt() {
+        OutboundMessage message = claimedMessage();
+
+        service.markFailed(message, new GatewayBulkheadFullException("http://10.0.0.5:8082", Duration.ofSeconds(5)));
+
+        assertEquals(OutboundMessageStatus.PENDING, message.getStatus());
+        assertEquals(0, message.getAttempts());
+        assertTrue(message.getNextAttemptAt().isAfter(Instant.now().plusSeconds(3)));
+    }
+
+    @Test
+    void rateLimitedSendShouldDeferUntilNextPermit() {
+        OutboundMessage message = claimedMessage();
+
+        service.markFailed(message, new GatewayRateLimitedException("http://10.0.0.5:8082", Duration.ofSeconds(20)));
+
+        assertEquals(OutboundMessageStatus.PENDING, message.getStatus());
+        assertEquals(0, message.getAttempts());
+        assertTrue(message.getNextAttemptAt().isAfter(Instant.now().plusSeconds(15)));
+    }
+
+    @Test
+    void sendWithoutAnswerShouldFailInsteadOfResending() {
+        OutboundMessage message = claimedMessage();
+        message.setSource(OutboxService.SOURCE_CONFIG);
+        ReflectionTestUtils.setField(message, "id", 42L);
+        ResourceAccessException timeout = new ResourceAccessException("I/O error", new SocketTimeoutException("Read timed out"));
+
+        service.markFailed(message, new GatewayNoAnswerException("http://10.0.0.5:8082", "send", timeout));
+
+        assertEquals(OutboundMessageStatus.FAILED, message.getStatus());
+        assertTrue(message.getLastError().contains("may already have been sent"), message.getLastError());
+        // Its commands still wait for a reply, since the device may have received them.
+        verify(commandAcks).markSent(eq(42L), eq(message.getLastAttemptAt()));
+        verify(commandAcks, never()).markUndelivered(anyLong(), any(), any());
+        // Nor is it known which settings the device now has.
+        verify(configCommands).forgetPending(42L);
+        verify(pendingConfig).deleteByMessageId(42L);
+    }
+
+    @Test
+    void resultOfALostClaimShouldBeDropped() {
+        OutboundMessage config = claimedMessage();
+        config.setSource(OutboxService.SOURCE_CONFIG);
+        ReflectionTestUtils.setField(config, "id", 42L);
+        // The claim went stale while the phone was slow, and another dispatcher took the row.
+        when(repository.finishClaim(eq(42L), eq("claim"), any(), anyInt(), any(), any(), any(), any(), any())).thenReturn(0);
+
+        service.markSent(config, new GatewayRoute(null, "http://10.0.0.5:8082", null, null));
+
+        assertEquals(OutboundMessageStatus.SENDING, config.getStatus());
+        assertEquals("claim", config.getClaimToken());
+        verify(configCommands, never()).applyPending(anyLong(), any());
+        verify(commandAcks, never()).markSent(anyLong(), any());
+    }
+
+    @Test
+    void sentConfigMessageShouldApplyItsPendingCommands() {
+        OutboundMessage config = claimedMessage();
+        config.setSource(OutboxService.SOURCE_CONFIG);
+        ReflectionTestUtils.setField(config, "id", 42L);
+        OutboundMessage plain = claimedMessage();
+        GatewayRoute route = new GatewayRoute(null, "http://10.0.0.5:8082", null, null);
+
+        service.markSent(plain, route);
+        verify(configCommands, never()).applyPending(anyLong(), any());
+
+        service.markSent(config, route);
+        assertEquals(OutboundMessageStatus.SENT, config.getStatus());
+        verify(configCommands).applyPending(eq(42L), eq(config.getSentAt()));
+        verify(pendingConfig).deleteByMessageId(42L);
+        verify(commandAcks).markSent(eq(42L), eq(config.getSentAt()));
+    }
+
+    @Test
+    void undeliverableConfigMessageShouldFailItsCommands() {
+        OutboundMessage config = claimedMessage();
+        config.setSource(OutboxService.SOURCE_CONFIG);
+        ReflectionTestUtils.setField(config, "id", 42L);
+
+        service.markFailed(config, new IllegalStateException("Cannot reach Android gateway"));
+        verify(commandAcks, never()).markUndelivered(anyLong(), any(), any());
+
+        config.setAttempts(2);
+        service.markFailed(config, new IllegalStateException("Cannot reach Android gateway"));
+        assertEquals(OutboundMessageStatus.FAILED, config.getStatus());
+        verify(commandAcks).markUndelivered(eq(42L), eq(config.getLastAttemptAt()), eq("Cannot reach Android gateway"));
+        verify(pendingConfig).deleteByMessageId(42L);
+        verify(configCommands, never()).applyPending(anyLong(), any());
+    }
+
+    private OutboundMessage claimedMessage() {
+        OutboundMessage message = new OutboundMessage();
+        message.setToNumber("+639973079369");
+        message.setBody("status");
+        message.setSource(OutboxService.SOURCE_MESSAGE);
+        message.setStatus(OutboundMessageStatus.SENDING);
+        message.setClaimToken("claim");
+        message.setCreatedAt(Instant.now());
+        message.setNextAttemptAt(Instant.now());
+        return message;
+    }
+}
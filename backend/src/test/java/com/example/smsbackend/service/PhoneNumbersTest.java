@@ -0,0 +1,36 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PhoneNumbersTest {
+
+    @Test
+    void normalizeShouldKeepDigitsOnly() {
+        assertEquals("639973079369", PhoneNumbers.normalize("+63 997-307-9369"));
+        assertEquals("", PhoneNumbers.normalize(null));
+    }
+
+    @Test
+    void matchesShouldFollowGatewaySenderFilter() {
+        assertTrue(PhoneNumbers.matches("+639973079369", null));
+        assertTrue(PhoneNumbers.matches("+639973079369", "63 997 307 9369"));
+        assertTrue(PhoneNumbers.matches("+639973079369", "9973079369"));
+        assertTrue(PhoneNumbers.matches("9973079369", "+639973079369"));
+        assertFalse(PhoneNumbers.matches("+639973079369", "079369"));
+        assertFalse(PhoneNumbers.matches("+639973079369", "+639973079368"));
+        assertTrue(PhoneNumbers.matches("GLOBE", "glo"));
+        assertFalse(PhoneNumbers.matches(null, "9973079369"));
+    }
+
+    @Test
+    void keyShouldAgreeAcrossNationalAndInternationalForms() {
+        assertEquals("9973079369", PhoneNumbers.key("+63 997-307-9369"));
+        assertEquals("9973079369", PhoneNumbers.key("09973079369"));
+        assertEquals("12345", PhoneNumbers.key("12345"));
+        assertEquals("", PhoneNumbers.key(null));
+    }
+}
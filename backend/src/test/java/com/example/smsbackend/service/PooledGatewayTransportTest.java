@@ -0,0 +1,97 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.smsbackend.config.GatewayTimeoutProperties;
+import com.example.smsbackend.config.GatewayTransportProperties;
+import com.example.smsbackend.dto.GatewayPoolStats;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+class PooledGatewayTransportTest {
+
+    private static final String SHOP = "http://10.0.0.7:8082";
+    private static final String ADHOC_A = "http://10.0.0.8:8082";
+    private static final String ADHOC_B = "http://10.0.0.9:8082";
+
+    private final AtomicLong now = new AtomicLong();
+    private final GatewayRegistry registry = mock(GatewayRegistry.class);
+    private final GatewayTransportProperties properties =
+        new GatewayTransportProperties(null, 2, 1, null, Duration.ofSeconds(30), null, null, null);
+    private final PooledGatewayTransport transport = new PooledGatewayTransport(
+        properties,
+        new GatewayTimeouts(new GatewayTimeoutProperties(false, null, null, null, null, null, null, null, null), properties),
+        registry,
+        now::get
+    );
+
+    @AfterEach
+    void tearDown() {
+        transport.destroy();
+    }
+
+    @Test
+    void sameOriginShouldReuseOnePool() {
+        RestTemplate first = transport.restTemplate(ADHOC_A + "/");
+        RestTemplate second = transport.restTemplate(ADHOC_A + "/messages?limit=5");
+
+        assertSame(first, second);
+        assertEquals(List.of(ADHOC_A), gateways());
+    }
+
+    @Test
+    void idleAdhocPoolShouldBeEvictedToMakeRoom() {
+        RestTemplate first = transport.restTemplate(ADHOC_A);
+        advance(31);
+
+        transport.restTemplate(ADHOC_B);
+
+        assertEquals(List.of(ADHOC_B), gateways());
+        // Coming back builds a fresh pool rather than reusing the closed one.
+        advance(31);
+        assertNotSame(first, transport.restTemplate(ADHOC_A));
+    }
+
+    @Test
+    void recentlyHandedOutPoolShouldNotBeEvicted() {
+        transport.restTemplate(ADHOC_A);
+        advance(10);
+
+        // The first caller may still be about to lease a connection, so the cap is exceeded instead.
+        transport.restTemplate(ADHOC_B);
+
+        assertEquals(List.of(ADHOC_A, ADHOC_B), gateways());
+    }
+
+    @Test
+    void registeredPoolShouldNeverBeEvicted() {
+        when(registry.isRegistered(SHOP)).thenReturn(true);
+        transport.restTemplate(SHOP);
+        advance(31);
+
+        transport.restTemplate(ADHOC_A);
+        assertEquals(List.of(SHOP, ADHOC_A), gateways());
+
+        // The idle ad-hoc pool goes first once it is over the cap.
+        advance(31);
+        transport.restTemplate(ADHOC_B);
+        assertEquals(List.of(SHOP, ADHOC_B), gateways());
+    }
+
+    private void advance(long seconds) {
+        now.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    private List<String> gateways() {
+        return transport.poolStats().stream().map(GatewayPoolStats::gateway).toList();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.smsbackend.config.CoalescingProperties;
+import com.example.smsbackend.config.GatewayRateLimitProperties;
+import com.example.smsbackend.config.OutboxProperties;
+import com.example.smsbackend.dto.GatewayRequestOptions;
+import com.example.smsbackend.repository.OutboundMessageRepository;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SendAdmissionTest {
+
+    private static final String HOTSPOT = "http://172.20.10.2:8082";
+
+    private final OutboundMessageRepository repository = mock(OutboundMessageRepository.class);
+    private final GatewayRouter router = mock(GatewayRouter.class);
+    private SendAdmission admission;
+
+    @BeforeEach
+    void setUp() {
+        OutboxProperties outbox = new OutboxProperties(
+            null, null, null, null, null, null, null, null, null,
+            new OutboxProperties.Backpressure(true, 100, 10, Duration.ofMinutes(1))
+        );
+        admission = new SendAdmission(
+            outbox,
+            new GatewayRateLimitProperties(true, 2.0, null, null),
+            new CoalescingProperties(false, null, null),
+            repository,
+            router
+        );
+        when(router.configuredGateways()).thenReturn(Map.of(
+            "http://10.0.0.1:8082", new GatewayRequestOptions("http://10.0.0.1:8082", null),
+            "http://10.0.0.2:8082", new GatewayRequestOptions("http://10.0.0.2:8082", null)
+        ));
+    }
+
+    @Test
+    void fullGatewayQueueShouldRejectWithDrainTime() {
+        when(repository.countPendingByGateway()).thenReturn(List.<Object[]>of(
+            new Object[] {null, HOTSPOT + "/", 9L},
+            new Object[] {7L, null, 10L}
+        ));
+
+        assertDoesNotThrow(() -> admission.admit(new GatewayRequestOptions(HOTSPOT, null), 1));
+
+        SendQueueFullException full = assertThrows(
+            SendQueueFullException.class,
+            () -> admission.admit(new GatewayRequestOptions(HOTSPOT, null), 4)
+        );
+        // 9 + 4 - 10 = 3 over, drained at 2/s.
+        assertEquals(Duration.ofSeconds(2), full.getRetryAfter());
+        assertEquals(10, full.getQueuePosition());
+
+        assertThrows(SendQueueFullException.class, () -> admission.admit(new GatewayRequestOptions(null, null, 7L), 1));
+    }
+
+    @Test
+    void defaultRoutingShouldDrainAcrossConfiguredGateways() {
+        when(repository.countPendingByGateway()).thenReturn(List.<Object[]>of(new Object[] {null, null, 10L}));
+
+        SendQueueFullException full = assertThrows(SendQueueFullException.class, () -> admission.admit(null, 9));
+
+        assertEquals(Duration.ofSeconds(3), full.getRetryAfter());
+        assertEquals(4.0, admission.drainRate(SendAdmission.DEFAULT_TARGET));
+    }
+
+    @Test
+    void fullOutboxShouldRejectEveryTargetAndCapRetryAfter() {
+        when(repository.countPendingByGateway()).thenReturn(List.<Object[]>of(new Object[] {null, "http://10.0.0.9:8082", 1000L}));
+
+        SendQueueFullException full = assertThrows(
+            SendQueueFullException.class,
+            () -> admission.admit(new GatewayRequestOptions(HOTSPOT, null), 1)
+        );
+        assertEquals(Duration.ofMinutes(1), full.getRetryAfter());
+        assertEquals(1000, full.getQueueDepth());
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.smsbackend.config.CoalescingProperties;
+import com.example.smsbackend.dto.CoalescingStats;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void concurrentCallersShouldShareOneLoad() throws Exception {
+        SingleFlightCache<String, String> cache = cache(Duration.ofSeconds(1));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get("replies", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "loaded";
+                })));
+            }
+            while (cache.stats().requests() < 8) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("loaded", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        CoalescingStats stats = cache.stats();
+        assertEquals(1, stats.loads());
+        assertEquals(7, stats.coalesced() + stats.hits());
+    }
+
+    @Test
+    void resultShouldBeReusedUntilTtlExpires() {
+        SingleFlightCache<String, String> cache = cache(Duration.ofSeconds(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("replies", () -> "v" + loads.incrementAndGet());
+        now.addAndGet(Duration.ofMillis(500).toNanos());
+        assertEquals("v1", cache.get("replies", () -> "v" + loads.incrementAndGet()));
+
+        now.addAndGet(Duration.ofMillis(500).toNanos());
+        assertEquals("v2", cache.get("replies", () -> "v" + loads.incrementAndGet()));
+        assertEquals(1, cache.stats().hits());
+    }
+
+    @Test
+    void failuresShouldNotBeCached() {
+        SingleFlightCache<String, String> cache = cache(Duration.ofSeconds(1));
+        IllegalStateException failure = new IllegalStateException("Cannot reach Android gateway");
+
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> cache.get("replies", () -> {
+            throw failure;
+        })));
+        assertEquals("ok", cache.get("replies", () -> "ok"));
+        assertEquals(1, cache.stats().failures());
+        assertEquals(2, cache.stats().loads());
+    }
+
+    @Test
+    void errorShouldReleaseCoalescedCallers() throws Exception {
+        SingleFlightCache<String, String> cache = cache(Duration.ofSeconds(1));
+        CountDownLatch release = new CountDownLatch(1);
+        StackOverflowError error = new StackOverflowError();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> loader = executor.submit(() -> cache.get("replies", () -> {
+                await(release);
+                throw error;
+            }));
+            while (cache.stats().loads() < 1) {
+                Thread.onSpinWait();
+            }
+            Future<String> waiter = executor.submit(() -> cache.get("replies", () -> "unused"));
+            while (cache.stats().coalesced() < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertSame(error, assertThrows(ExecutionException.class, () -> loader.get(5, TimeUnit.SECONDS)).getCause());
+            assertSame(error, assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS)).getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals("ok", cache.get("replies", () -> "ok"));
+        assertEquals(1, cache.stats().failures());
+    }
+
+    @Test
+    void invalidateAllShouldForceReload() {
+        SingleFlightCache<String, String> cache = cache(Duration.ofMinutes(1));
+        cache.get("replies", () -> "old");
+
+        cache.invalidateAll();
+
+        assertEquals("new", cache.get("replies", () -> "new"));
+    }
+
+    private SingleFlightCache<String, String> cache(Duration ttl) {
+        return new SingleFlightCache<>("test", new CoalescingProperties(true, ttl, 16), now::get);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.smsbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class SmsSegmentsTest {
+
+    private static final String GSM = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789,.+-: ";
+    private static final String EXTENSION = "{}[]€^|~";
+    private static final String UCS2 = "✓ЖМ名李ğ";
+
+    @Test
+    void gsm7TextShouldUseSeptetLimits() {
+        assertEquals(SmsSegments.Encoding.GSM7, SmsSegments.encoding("pw,123456,apn,internet"));
+        assertEquals(1, SmsSegments.count("a".repeat(160)));
+        assertEquals(2, SmsSegments.count("a".repeat(161)));
+        assertEquals(2, SmsSegments.count("a".repeat(306)));
+        assertEquals(3, SmsSegments.count("a".repeat(307)));
+        assertEquals(1, SmsSegments.count(""));
+    }
+
+    @Test
+    void extensionCharactersShouldCostTwoSeptets() {
+        assertEquals(7, SmsSegments.septets("a{€}"));
+        assertEquals(1, SmsSegments.count("a".repeat(158) + "{"));
+        assertEquals(2, SmsSegments.count("a".repeat(159) + "{"));
+    }
+
+    @Test
+    void nonGsmTextShouldFallBackToUcs2() {
+        assertEquals(SmsSegments.Encoding.UCS2, SmsSegments.encoding("ok ✓"));
+        assertEquals(1, SmsSegments.count("✓".repeat(70)));
+        assertEquals(2, SmsSegments.count("✓".repeat(71)));
+        assertEquals(3, SmsSegments.count("✓".repeat(135)));
+    }
+
+    @Test
+    void packShouldKeepCommandsWholeAndInOrder() {
+        List<String> commands = List.of("A1,1,1,+639973079369,Mama", "P123456", "sms1", "loc", "a".repeat(140), "status");
+
+        List<String> bodies = SmsSegments.pack(commands, ",", 1);
+
+        assertEquals(List.of("A1,1,1,+639973079369,Mama,P123456,sms1,loc", "a".repeat(140) + ",status"), bodies);
+    }
+
+    @Test
+    void ucs2CommandShouldOnlyShrinkItsOwnSms() {
+        List<String> commands = List.of("A1,1,1,+639973079369,Жанна", "x".repeat(60), "y".repeat(90));
+
+        List<String> bodies = SmsSegments.pack(commands, ",", 1);
+
+        assertEquals(List.of(commands.get(0), commands.get(1) + "," + commands.get(2)), bodies);
+        assertEquals(SmsSegments.Encoding.UCS2, SmsSegments.encoding(bodies.get(0)));
+    }
+
+    @Test
+    void oversizedCommandShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SmsSegments.pack(List.of("loc", "a".repeat(161)), ",", 1));
+        assertThrows(IllegalArgumentException.class, () -> SmsSegments.pack(List.of("Ж".repeat(71)), ",", 1));
+        assertEquals(List.of("a".repeat(306)), SmsSegments.pack(List.of("a".repeat(306)), ",", 2));
+    }
+
+    @Test
+    void packShouldHoldForRandomCommandLists() {
+        Random random = new Random(20260101L);
+        for (int run = 0; run < 2_000; run++) {
+            int maxSegments = random.nextInt(4) == 0 ? 2 : 1;
+            List<String> commands = randomCommands(random, maxSegments);
+
+            List<String> bodies = SmsSegments.pack(commands, ",", maxSegments);
+
+            // Every body is a run of whole commands, and the runs cover the list in order.
+            int next = 0;
+            for (String body : bodies) {
+                int end = next;
+                StringBuilder joined = new StringBuilder(commands.get(end++));
+                while (joined.length() < body.length() && end < commands.size()) {
+                    joined.append(',').append(commands.get(end++));
+                }
+                assertEquals(body, joined.toString(), () -> "run " + commands);
+                assertTrue(SmsSegments.count(body) <= maxSegments, body);
+                next = end;
+            }
+            assertEquals(commands.size(), next);
+            assertEquals(fewestBodies(commands, maxSegments), bodies.size(), () -> "not minimal for " + commands);
+        }
+    }
+
+    private static List<String> randomCommands(Random random, int maxSegments) {
+        int count = 1 + random.nextInt(30);
+        List<String> commands = new ArrayList<>(count);
+        while (commands.size() < count) {
+            StringBuilder command = new StringBuilder();
+            int length = 1 + random.nextInt(random.nextInt(5) == 0 ? 120 : 25);
+            for (int i = 0; i < length; i++) {
+                int pick = random.nextInt(100);
+                String pool = pick < 3 ? UCS2 : pick < 8 ? EXTENSION : GSM;
+                command.append(pool.charAt(random.nextInt(pool.length())));
+            }
+            String text = command.toString();
+            if (SmsSegments.count(text) <= maxSegments) {
+                commands.add(text);
+            }
+        }
+        return commands;
+    }
+
+    /**
+     * Reference answer: the fewest contiguous runs whose joined text fits, by dynamic programming.
+     */
+    private static int fewestBodies(List<String> commands, int maxSegments) {
+        int[] best = new int[commands.size() + 1];
+        Arrays.fill(best, Integer.MAX_VALUE);
+        best[0] = 0;
+        for (int end = 1; end <= commands.size(); end++) {
+            for (int start = end - 1; start >= 0; start--) {
+                String run = String.join(",", commands.subList(start, end));
+                if (SmsSegments.count(run) > maxSegments) {
+                    break;
+                }
+                if (best[start] != Integer.MAX_VALUE) {
+                    best[end] = Math.min(best[end], best[start] + 1);
+                }
+            }
+        }
+        return best[commands.size()];
+    }
+}